@@ -0,0 +1,218 @@
+package edu.ncsu.csc.iTrust2.benchmarks;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.ncsu.csc.iTrust2.models.AppointmentRequest;
+import edu.ncsu.csc.iTrust2.models.User;
+import edu.ncsu.csc.iTrust2.models.enums.AppointmentType;
+import edu.ncsu.csc.iTrust2.models.enums.Status;
+import edu.ncsu.csc.iTrust2.services.AppointmentRequestService;
+import edu.ncsu.csc.iTrust2.services.UserService;
+
+/**
+ * Measures approving 10,000 pending appointment requests at once from a pool
+ * of threads, as HCPs approving their queues would. The requests are spread
+ * over the fixture HCPs at quarter-hour steps, so many of them overlap and must
+ * be rejected. The number approved and rejected are reported alongside the
+ * timings as the `approved` and `rejected` counters. When each iteration ends,
+ * the approved appointments in the database are checked for overlapping pairs,
+ * and the run fails if there are any.
+ *
+ * @author Kai Presler-Marshall
+ *
+ */
+@State ( Scope.Benchmark )
+@BenchmarkMode ( Mode.SingleShotTime )
+@OutputTimeUnit ( TimeUnit.MILLISECONDS )
+@Warmup ( iterations = 1 )
+@Measurement ( iterations = 5 )
+@Fork ( 1 )
+public class AppointmentApprovalBenchmark {
+
+    /** Number of requests approved in each iteration */
+    private static final int          REQUESTS = 10000;
+
+    /** Number of quarter-hour steps the requests are spread over */
+    private static final int          STEPS    = 24 * 4 * 14;
+
+    /** Number of threads approving requests at once */
+    @Param ( { "8", "32" } )
+    private int                       threads;
+
+    /** Saves and approves the requests */
+    private AppointmentRequestService service;
+
+    /** The fixture HCPs */
+    private List<User>                hcps;
+
+    /** The fixture patients */
+    private List<User>                patients;
+
+    /** Pending requests to approve in the next iteration */
+    private List<AppointmentRequest>  pending;
+
+    /** Requests approved in the last iteration */
+    private final AtomicInteger       approved = new AtomicInteger();
+
+    /** Requests rejected as double-bookings in the last iteration */
+    private final AtomicInteger       rejected = new AtomicInteger();
+
+    /**
+     * How the requests approved in an iteration turned out, reported by JMH
+     * with the timings
+     */
+    @State ( Scope.Thread )
+    @AuxCounters ( AuxCounters.Type.EVENTS )
+    public static class Outcomes {
+
+        /** Requests approved */
+        public long approved;
+
+        /** Requests rejected as double-bookings */
+        public long rejected;
+
+        /**
+         * Clears the counts before each iteration
+         */
+        @Setup ( Level.Iteration )
+        public void clear () {
+            approved = 0;
+            rejected = 0;
+        }
+
+    }
+
+    /**
+     * Looks up the fixture users
+     *
+     * @param context
+     *            Running application
+     */
+    @Setup ( Level.Trial )
+    @SuppressWarnings ( "unchecked" )
+    public void setup ( final BenchmarkContext context ) {
+        service = context.getBean( AppointmentRequestService.class );
+        final UserService<User> userService = context.getBean( UserService.class );
+        hcps = new ArrayList<User>();
+        context.getFixtures().getHcps().forEach( name -> hcps.add( userService.findByName( name ) ) );
+        patients = new ArrayList<User>();
+        context.getFixtures().getPatients().forEach( name -> patients.add( userService.findByName( name ) ) );
+    }
+
+    /**
+     * Replaces the requests left by the last iteration with a fresh set of
+     * pending ones
+     */
+    @Setup ( Level.Iteration )
+    public void prepare () {
+        service.deleteAll();
+        final Random random = new Random( 2021 );
+        final ZonedDateTime start = ZonedDateTime.now().plusYears( 1 ).withNano( 0 ).withSecond( 0 ).withMinute( 0 );
+        final AppointmentType[] types = { AppointmentType.GENERAL_CHECKUP, AppointmentType.GENERAL_OPHTHALMOLOGY,
+                AppointmentType.OPHTHALMOLOGY_SURGERY };
+        pending = new ArrayList<AppointmentRequest>();
+        for ( int i = 0; i < REQUESTS; i++ ) {
+            final AppointmentRequest request = new AppointmentRequest();
+            request.setHcp( hcps.get( random.nextInt( hcps.size() ) ) );
+            request.setPatient( patients.get( random.nextInt( patients.size() ) ) );
+            request.setDate( start.plusMinutes( 15L * random.nextInt( STEPS ) ) );
+            request.setType( types[random.nextInt( types.length )] );
+            request.setStatus( Status.PENDING );
+            request.setComments( "Benchmark appointment " + i );
+            request.setPatientAdvocatesInvited( new ArrayList<User>() );
+            pending.add( request );
+        }
+        service.saveAll( pending );
+        approved.set( 0 );
+        rejected.set( 0 );
+    }
+
+    /**
+     * Checks that no HCP was double-booked
+     *
+     * @throws IllegalStateException
+     *             If any two approved appointments for an HCP overlap
+     */
+    @TearDown ( Level.Iteration )
+    public void report () {
+        long overlaps = 0;
+        for ( final User hcp : hcps ) {
+            final List<AppointmentRequest> booked = new ArrayList<AppointmentRequest>(
+                    service.findByHcpAndStatus( hcp, Status.APPROVED ) );
+            booked.sort( Comparator.comparing( AppointmentRequest::getDate ) );
+            for ( int i = 0; i < booked.size(); i++ ) {
+                final ZonedDateTime end = booked.get( i ).getDate().plus( booked.get( i ).getType().getDuration() );
+                for ( int j = i + 1; j < booked.size() && booked.get( j ).getDate().isBefore( end ); j++ ) {
+                    overlaps++;
+                }
+            }
+        }
+        if ( overlaps > 0 ) {
+            throw new IllegalStateException( threads + " threads approved " + overlaps
+                    + " overlapping pairs of appointments" );
+        }
+    }
+
+    /**
+     * Approves every pending request, from `threads` threads at once
+     *
+     * @param outcomes
+     *            Counts of the requests approved and rejected
+     * @return Number of requests approved
+     * @throws Exception
+     *             If an approval fails other than as a double-booking
+     */
+    @Benchmark
+    public int approveAll ( final Outcomes outcomes ) throws Exception {
+        final ExecutorService pool = Executors.newFixedThreadPool( threads );
+        try {
+            final List<Future< ? >> approvals = new ArrayList<Future< ? >>();
+            for ( final AppointmentRequest request : pending ) {
+                approvals.add( pool.submit( () -> {
+                    request.setStatus( Status.APPROVED );
+                    try {
+                        service.save( request );
+                        approved.incrementAndGet();
+                    }
+                    catch ( final IllegalArgumentException e ) {
+                        rejected.incrementAndGet();
+                    }
+                } ) );
+            }
+            for ( final Future< ? > approval : approvals ) {
+                approval.get();
+            }
+        }
+        finally {
+            pool.shutdown();
+        }
+        outcomes.approved += approved.get();
+        outcomes.rejected += rejected.get();
+        return approved.get();
+    }
+
+}
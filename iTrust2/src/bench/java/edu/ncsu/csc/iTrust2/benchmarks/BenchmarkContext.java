@@ -0,0 +1,198 @@
+package edu.ncsu.csc.iTrust2.benchmarks;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import edu.ncsu.csc.iTrust2.ITrust2Application;
+import edu.ncsu.csc.iTrust2.forms.OfficeVisitForm;
+import edu.ncsu.csc.iTrust2.forms.VaccineVisitForm;
+import edu.ncsu.csc.iTrust2.models.enums.AppointmentType;
+import edu.ncsu.csc.iTrust2.models.enums.HouseholdSmokingStatus;
+import edu.ncsu.csc.iTrust2.models.enums.PatientSmokingStatus;
+
+/**
+ * Shared state for the benchmarks: starts the application, on a random port,
+ * against an in-memory H2 database, loads BenchmarkFixtures into it, and
+ * prepares a set of forms that refer to the fixture data. Benchmarks cycle
+ * through the forms with `next()` so that they do not repeatedly hit the same
+ * rows.
+ *
+ * @author Kai Presler-Marshall
+ *
+ */
+@State ( Scope.Benchmark )
+public class BenchmarkContext {
+
+    /** Number of prepared forms of each type; must be a power of two */
+    private static final int               FORMS           = 64;
+
+    /** Number of HCPs in the data set */
+    private static final int               HCPS            = 50;
+
+    /** Number of patients in the data set */
+    private static final int               PATIENTS        = 2000;
+
+    /** Number of satisfaction surveys for each HCP */
+    private static final int               SURVEYS_PER_HCP = 40;
+
+    /** Number of CPT codes billed on each visit */
+    private static final int               CODES_PER_VISIT = 3;
+
+    /** Running application */
+    private ConfigurableApplicationContext context;
+
+    /** Data set the forms refer to */
+    private BenchmarkFixtures              fixtures;
+
+    /** Prepared office visit forms */
+    private final List<OfficeVisitForm>    officeVisits    = new ArrayList<OfficeVisitForm>();
+
+    /** Prepared vaccine visit forms */
+    private final List<VaccineVisitForm>   vaccineVisits   = new ArrayList<VaccineVisitForm>();
+
+    /** Position in the prepared forms */
+    private int                            index;
+
+    /**
+     * Starts the application and loads the data set
+     */
+    @Setup ( Level.Trial )
+    public void setup () {
+        context = new SpringApplicationBuilder( ITrust2Application.class ).run( "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:itrust2;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver", "--spring.datasource.username=sa",
+                "--spring.datasource.password=", "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.show-sql=false", "--logging.level.root=WARN" );
+        fixtures = new BenchmarkFixtures( context, HCPS, PATIENTS, SURVEYS_PER_HCP );
+
+        final Random random = new Random( 2021 );
+        final String date = ZonedDateTime.now().plusYears( 1 ).withNano( 0 ).toString();
+        for ( int i = 0; i < FORMS; i++ ) {
+            final String hcp = pick( fixtures.getHcps(), random );
+            final String patient = pick( fixtures.getPatients(), random );
+            final List<Long> codes = new ArrayList<Long>();
+            for ( int j = 0; j < CODES_PER_VISIT; j++ ) {
+                codes.add( pick( fixtures.getCptCodes(), random ) );
+            }
+
+            final OfficeVisitForm ov = new OfficeVisitForm();
+            ov.setDate( date );
+            ov.setHcp( hcp );
+            ov.setPatient( patient );
+            ov.setNotes( "Benchmark visit " + i );
+            ov.setType( AppointmentType.GENERAL_CHECKUP.toString() );
+            ov.setHospital( pick( fixtures.getHospitals(), random ) );
+            ov.setCptCodes( codes );
+            ov.setHeight( 69.1f );
+            ov.setWeight( 175.2f );
+            ov.setSystolic( 102 );
+            ov.setDiastolic( 83 );
+            ov.setHdl( 70 );
+            ov.setLdl( 30 );
+            ov.setTri( 150 );
+            ov.setHouseSmokingStatus( HouseholdSmokingStatus.INDOOR );
+            ov.setPatientSmokingStatus( PatientSmokingStatus.FORMER );
+            officeVisits.add( ov );
+
+            final VaccineVisitForm vv = new VaccineVisitForm();
+            vv.setRequestId( "" );
+            vv.setDateTime( date );
+            vv.setVaccinator( hcp );
+            vv.setPatient( patient );
+            vv.setVaccine( BenchmarkFixtures.VACCINE );
+            vv.setDose( "1" );
+            vv.setCptCodes( codes );
+            vaccineVisits.add( vv );
+        }
+    }
+
+    /**
+     * Shuts the application down
+     */
+    @TearDown ( Level.Trial )
+    public void tearDown () {
+        context.close();
+    }
+
+    /**
+     * Moves on to the next set of prepared forms
+     *
+     * @return Index of the forms to use
+     */
+    public int next () {
+        index = ( index + 1 ) & ( FORMS - 1 );
+        return index;
+    }
+
+    /**
+     * Returns a bean from the running application
+     *
+     * @param <T>
+     *            Type of the bean
+     * @param type
+     *            Type of the bean
+     * @return The bean
+     */
+    public <T> T getBean ( final Class<T> type ) {
+        return context.getBean( type );
+    }
+
+    /**
+     * Returns the data set loaded
+     *
+     * @return The fixtures
+     */
+    public BenchmarkFixtures getFixtures () {
+        return fixtures;
+    }
+
+    /**
+     * Returns a prepared office visit form
+     *
+     * @param i
+     *            Index, from `next()`
+     * @return The form
+     */
+    public OfficeVisitForm getOfficeVisit ( final int i ) {
+        return officeVisits.get( i );
+    }
+
+    /**
+     * Returns a prepared vaccine visit form
+     *
+     * @param i
+     *            Index, from `next()`
+     * @return The form
+     */
+    public VaccineVisitForm getVaccineVisit ( final int i ) {
+        return vaccineVisits.get( i );
+    }
+
+    /**
+     * Picks an element of a list at random
+     *
+     * @param <T>
+     *            Element type
+     * @param list
+     *            List to pick from
+     * @param random
+     *            Source of randomness
+     * @return The element
+     */
+    private static <T> T pick ( final List<T> list, final Random random ) {
+        return list.get( random.nextInt( list.size() ) );
+    }
+
+}
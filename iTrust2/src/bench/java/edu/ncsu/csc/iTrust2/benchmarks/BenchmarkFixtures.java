@@ -0,0 +1,181 @@
+package edu.ncsu.csc.iTrust2.benchmarks;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.springframework.context.ApplicationContext;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import edu.ncsu.csc.iTrust2.models.CPTCode;
+import edu.ncsu.csc.iTrust2.models.Hospital;
+import edu.ncsu.csc.iTrust2.models.Patient;
+import edu.ncsu.csc.iTrust2.models.Personnel;
+import edu.ncsu.csc.iTrust2.models.SatisfactionSurvey;
+import edu.ncsu.csc.iTrust2.models.User;
+import edu.ncsu.csc.iTrust2.models.VaccineType;
+import edu.ncsu.csc.iTrust2.models.enums.Role;
+import edu.ncsu.csc.iTrust2.models.enums.WaitTime;
+import edu.ncsu.csc.iTrust2.services.CPTCodeService;
+import edu.ncsu.csc.iTrust2.services.HospitalService;
+import edu.ncsu.csc.iTrust2.services.SatisfactionSurveyService;
+import edu.ncsu.csc.iTrust2.services.UserService;
+import edu.ncsu.csc.iTrust2.services.VaccineTypeService;
+
+/**
+ * Loads a fixed, realistically-sized data set into the benchmark database:
+ * HCPs, patients, hospitals, CPT codes, a vaccine, and a history of
+ * satisfaction surveys for every HCP. Everything is generated from a fixed
+ * seed so that runs are comparable with each other.
+ *
+ * @author Kai Presler-Marshall
+ *
+ */
+public class BenchmarkFixtures {
+
+    /** Name of the vaccine the vaccine visit benchmarks use */
+    public static final String VACCINE   = "BenchVax";
+
+    /** Usernames of the HCPs created */
+    private final List<String> hcps      = new ArrayList<String>();
+
+    /** Usernames of the patients created */
+    private final List<String> patients  = new ArrayList<String>();
+
+    /** Names of the hospitals created */
+    private final List<String> hospitals = new ArrayList<String>();
+
+    /** IDs of the CPT codes created */
+    private final List<Long>   cptCodes  = new ArrayList<Long>();
+
+    /**
+     * Creates the data set and saves it through the application's services
+     *
+     * @param context
+     *            Running application context
+     * @param hcpCount
+     *            Number of HCPs to create
+     * @param patientCount
+     *            Number of patients to create
+     * @param surveysPerHcp
+     *            Number of satisfaction surveys to create for each HCP
+     */
+    @SuppressWarnings ( "unchecked" )
+    public BenchmarkFixtures ( final ApplicationContext context, final int hcpCount, final int patientCount,
+            final int surveysPerHcp ) {
+        final UserService<User> userService = context.getBean( UserService.class );
+        final Random random = new Random( 2021 );
+        /* Hashing is deliberately slow, so only do it once */
+        final String password = new BCryptPasswordEncoder().encode( "123456" );
+
+        final List<User> users = new ArrayList<User>();
+        for ( int i = 0; i < hcpCount; i++ ) {
+            final Personnel hcp = new Personnel();
+            hcp.setUsername( "benchhcp" + i );
+            hcp.setPassword( password );
+            hcp.setEnabled( 1 );
+            hcp.addRole( Role.ROLE_HCP );
+            users.add( hcp );
+            hcps.add( hcp.getUsername() );
+        }
+        for ( int i = 0; i < patientCount; i++ ) {
+            final Patient patient = new Patient();
+            patient.setUsername( "benchpatient" + i );
+            patient.setPassword( password );
+            patient.setEnabled( 1 );
+            patient.addRole( Role.ROLE_PATIENT );
+            patient.setFirstName( "Patient" );
+            patient.setLastName( "Number" + i );
+            patient.setDateOfBirth( LocalDate.of( 1940 + random.nextInt( 70 ), 1 + random.nextInt( 12 ),
+                    1 + random.nextInt( 28 ) ) );
+            users.add( patient );
+            patients.add( patient.getUsername() );
+        }
+        userService.saveAll( users );
+
+        final HospitalService hospitalService = context.getBean( HospitalService.class );
+        for ( int i = 0; i < 10; i++ ) {
+            final Hospital hospital = new Hospital( "Bench Hospital " + i, i + " Benchmark Road", "27607", "NC" );
+            hospitalService.save( hospital );
+            hospitals.add( hospital.getName() );
+        }
+
+        final CPTCodeService cptService = context.getBean( CPTCodeService.class );
+        for ( int i = 0; i < 200; i++ ) {
+            final CPTCode code = new CPTCode();
+            code.setCode( 90000 + i );
+            code.setDescription( "Benchmark procedure " + i );
+            code.setCost( 10 + random.nextInt( 490 ) );
+            code.setVersion( 1 );
+            code.setisActive( true );
+            cptService.save( code );
+        }
+        cptService.findAll().forEach( c -> cptCodes.add( c.getId() ) );
+
+        final VaccineType vaccine = new VaccineType();
+        vaccine.setName( VACCINE );
+        vaccine.setNumDoses( 1 );
+        vaccine.setMinAge( 0 );
+        vaccine.setMaxAge( 150 );
+        vaccine.setIsAvailable( true );
+        vaccine.setInventoryAmount( 1000000 );
+        context.getBean( VaccineTypeService.class ).save( vaccine );
+
+        final SatisfactionSurveyService surveyService = context.getBean( SatisfactionSurveyService.class );
+        final WaitTime[] waits = WaitTime.values();
+        final List<SatisfactionSurvey> surveys = new ArrayList<SatisfactionSurvey>();
+        for ( final String hcp : hcps ) {
+            final User hcpUser = userService.findByName( hcp );
+            for ( int i = 0; i < surveysPerHcp; i++ ) {
+                final SatisfactionSurvey survey = new SatisfactionSurvey();
+                survey.setHcp( hcpUser );
+                survey.setPatient( userService.findByName( patients.get( random.nextInt( patients.size() ) ) ) );
+                survey.setVisitSatisfaction( 1 + random.nextInt( 5 ) );
+                survey.setTreatmentSatisfaction( 1 + random.nextInt( 5 ) );
+                survey.setWaitingRoomTime( waits[random.nextInt( waits.length )] );
+                survey.setExaminationResponseTime( waits[random.nextInt( waits.length )] );
+                survey.setComments( "Benchmark survey " + i );
+                surveys.add( survey );
+            }
+        }
+        surveyService.saveAll( surveys );
+    }
+
+    /**
+     * Returns the usernames of the HCPs created
+     *
+     * @return HCP usernames
+     */
+    public List<String> getHcps () {
+        return hcps;
+    }
+
+    /**
+     * Returns the usernames of the patients created
+     *
+     * @return Patient usernames
+     */
+    public List<String> getPatients () {
+        return patients;
+    }
+
+    /**
+     * Returns the names of the hospitals created
+     *
+     * @return Hospital names
+     */
+    public List<String> getHospitals () {
+        return hospitals;
+    }
+
+    /**
+     * Returns the IDs of the CPT codes created
+     *
+     * @return CPT code IDs
+     */
+    public List<Long> getCptCodes () {
+        return cptCodes;
+    }
+
+}
@@ -0,0 +1,100 @@
+package edu.ncsu.csc.iTrust2.benchmarks;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.ncsu.csc.iTrust2.utils.SlidingWindowCounter;
+
+/**
+ * Simulated credential-stuffing attack: 16 threads failing logins spread over
+ * a thousand IP addresses, counted by the SlidingWindowCounter that the
+ * LoginFailureTracker keeps per IP. Measures the sustained rate of failed
+ * logins, to compare against the old one-INSERT-per-failure approach. No
+ * application is started, as the counter does not touch the database.
+ *
+ * @author Kai Presler-Marshall
+ *
+ */
+@State ( Scope.Benchmark )
+@BenchmarkMode ( Mode.Throughput )
+@OutputTimeUnit ( TimeUnit.SECONDS )
+@Warmup ( iterations = 3, time = 2 )
+@Measurement ( iterations = 5, time = 2 )
+@Fork ( 1 )
+@Threads ( 16 )
+public class LoginFailureCounterBenchmark {
+
+    /** Number of IP addresses the attack comes from */
+    private static final int     ADDRESSES = 1000;
+
+    /** Width of a counter bucket, as in the LoginFailureTracker */
+    private static final long    MINUTE    = 60 * 1000L;
+
+    /** Failures allowed from one address, as in the LoginFailureTracker */
+    private static final long    THRESHOLD = 5;
+
+    /** The counter under attack */
+    private SlidingWindowCounter counter;
+
+    /** The attacking addresses */
+    private String[]             addresses;
+
+    /**
+     * One attacking thread, working through the addresses from a random
+     * starting point
+     */
+    @State ( Scope.Thread )
+    public static class Attacker {
+
+        /** Index of the address the next failure comes from */
+        private int next;
+
+        /**
+         * Picks the starting address
+         */
+        @Setup ( Level.Trial )
+        public void setup () {
+            next = ThreadLocalRandom.current().nextInt( ADDRESSES );
+        }
+
+    }
+
+    /**
+     * Creates the counter and the addresses
+     */
+    @Setup ( Level.Trial )
+    public void setup () {
+        counter = new SlidingWindowCounter( 60, MINUTE );
+        addresses = new String[ADDRESSES];
+        for ( int i = 0; i < ADDRESSES; i++ ) {
+            addresses[i] = "10.0." + i / 256 + "." + i % 256;
+        }
+    }
+
+    /**
+     * Records one failed login
+     *
+     * @param attacker
+     *            The thread's position in the addresses
+     * @return Whether the failure tripped a lockout
+     */
+    @Benchmark
+    public boolean failedLogin ( final Attacker attacker ) {
+        attacker.next = ( attacker.next + 1 ) % ADDRESSES;
+        return counter.incrementAndTrip( addresses[attacker.next], THRESHOLD, System.currentTimeMillis() );
+    }
+
+}
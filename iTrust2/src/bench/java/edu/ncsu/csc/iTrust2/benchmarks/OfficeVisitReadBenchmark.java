@@ -0,0 +1,151 @@
+package edu.ncsu.csc.iTrust2.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.ncsu.csc.iTrust2.forms.OfficeVisitForm;
+import edu.ncsu.csc.iTrust2.models.OfficeVisit;
+import edu.ncsu.csc.iTrust2.models.User;
+import edu.ncsu.csc.iTrust2.services.OfficeVisitService;
+import edu.ncsu.csc.iTrust2.services.UserService;
+import edu.ncsu.csc.iTrust2.utils.RequestSqlStats;
+
+/**
+ * Measures reading a patient's office visits and serialising them as the
+ * controllers do, for patients with more and more visits. Reading them should
+ * take the same number of SQL statements whatever the number of visits, so the
+ * statements each read takes are compared with those for a patient with a
+ * single visit, and the trial fails if any read took more.
+ *
+ * @author Kai Presler-Marshall
+ *
+ */
+@State ( Scope.Benchmark )
+@BenchmarkMode ( Mode.AverageTime )
+@OutputTimeUnit ( TimeUnit.MICROSECONDS )
+@Warmup ( iterations = 3, time = 2 )
+@Measurement ( iterations = 5, time = 2 )
+@Fork ( 1 )
+public class OfficeVisitReadBenchmark {
+
+    /** Number of visits the patient has */
+    @Param ( { "1", "10", "50" } )
+    private int                visits;
+
+    /** Reads the visits */
+    private OfficeVisitService officeVisitService;
+
+    /** Serialises the visits, as for a response */
+    private ObjectMapper       objectMapper;
+
+    /** Patient whose visits are read */
+    private User               patient;
+
+    /** Statements run to read the visits of a patient with just one */
+    private int                baseline;
+
+    /** Most statements run by any read */
+    private int                statements;
+
+    /**
+     * Saves the patient's visits
+     *
+     * @param context
+     *            Running application
+     */
+    @Setup ( Level.Trial )
+    @SuppressWarnings ( "unchecked" )
+    public void setup ( final BenchmarkContext context ) {
+        officeVisitService = context.getBean( OfficeVisitService.class );
+        objectMapper = context.getBean( ObjectMapper.class );
+
+        final UserService<User> userService = context.getBean( UserService.class );
+        final String reference = context.getFixtures().getPatients().get( 1 );
+        final OfficeVisitForm single = context.getOfficeVisit( 0 );
+        single.setPatient( reference );
+        officeVisitService.save( officeVisitService.build( single ) );
+
+        final String username = context.getFixtures().getPatients().get( 0 );
+        patient = userService.findByName( username );
+        for ( int i = 0; i < visits; i++ ) {
+            final OfficeVisitForm form = context.getOfficeVisit( i );
+            form.setPatient( username );
+            officeVisitService.save( officeVisitService.build( form ) );
+        }
+
+        /* Once to warm the caches, and once to count */
+        final User referencePatient = userService.findByName( reference );
+        countStatements( referencePatient );
+        baseline = countStatements( referencePatient );
+        statements = 0;
+    }
+
+    /**
+     * Fails the trial if reading the visits took more statements than reading
+     * a single one
+     */
+    @TearDown ( Level.Trial )
+    public void check () {
+        if ( statements > baseline ) {
+            throw new IllegalStateException( "Reading " + visits + " visits took " + statements
+                    + " statements, but reading 1 took " + baseline );
+        }
+    }
+
+    /**
+     * OfficeVisitService.findByPatient, serialised to JSON
+     *
+     * @return The JSON
+     * @throws JsonProcessingException
+     *             If the visits can't be serialised
+     */
+    @Benchmark
+    public String readVisitsForPatient () throws JsonProcessingException {
+        final List<OfficeVisit> found;
+        RequestSqlStats.begin();
+        try {
+            found = officeVisitService.findByPatient( patient );
+        }
+        finally {
+            RequestSqlStats.end();
+        }
+        statements = Math.max( statements, RequestSqlStats.current().getStatements() );
+        return objectMapper.writeValueAsString( found );
+    }
+
+    /**
+     * Reads a patient's visits and counts the statements it took
+     *
+     * @param target
+     *            The patient
+     * @return Number of statements run
+     */
+    private int countStatements ( final User target ) {
+        RequestSqlStats.begin();
+        try {
+            officeVisitService.findByPatient( target );
+        }
+        finally {
+            RequestSqlStats.end();
+        }
+        return RequestSqlStats.current().getStatements();
+    }
+
+}
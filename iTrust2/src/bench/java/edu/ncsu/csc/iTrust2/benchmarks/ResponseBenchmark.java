@@ -0,0 +1,153 @@
+package edu.ncsu.csc.iTrust2.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.ncsu.csc.iTrust2.controllers.api.APIController;
+import edu.ncsu.csc.iTrust2.models.Bill;
+import edu.ncsu.csc.iTrust2.models.OfficeVisit;
+import edu.ncsu.csc.iTrust2.models.SatisfactionSurvey;
+import edu.ncsu.csc.iTrust2.services.BillService;
+import edu.ncsu.csc.iTrust2.services.OfficeVisitService;
+import edu.ncsu.csc.iTrust2.services.SatisfactionSurveyService;
+import edu.ncsu.csc.iTrust2.utils.ValidationUtil;
+
+/**
+ * Measures the work done on every request after the entities are built:
+ * ValidationUtil.validate, and serialising responses with
+ * APIController.toJson.
+ *
+ * @author Kai Presler-Marshall
+ *
+ */
+@State ( Scope.Benchmark )
+@BenchmarkMode ( Mode.AverageTime )
+@OutputTimeUnit ( TimeUnit.MICROSECONDS )
+@Warmup ( iterations = 3, time = 2 )
+@Measurement ( iterations = 5, time = 2 )
+@Fork ( 1 )
+public class ResponseBenchmark {
+
+    /** Number of entities in each list response */
+    private static final int         LIST_SIZE = 50;
+
+    /** Built office visits */
+    private final List<OfficeVisit>  visits    = new ArrayList<OfficeVisit>();
+
+    /** Built bills */
+    private final List<Bill>         bills     = new ArrayList<Bill>();
+
+    /** Saved satisfaction surveys */
+    private List<SatisfactionSurvey> surveys;
+
+    /**
+     * Builds the entities to validate and serialise
+     *
+     * @param context
+     *            Running application
+     */
+    @Setup ( Level.Trial )
+    public void setup ( final BenchmarkContext context ) {
+        final OfficeVisitService officeVisitService = context.getBean( OfficeVisitService.class );
+        final BillService billService = context.getBean( BillService.class );
+        for ( int i = 0; i < LIST_SIZE; i++ ) {
+            final int next = context.next();
+            visits.add( officeVisitService.build( context.getOfficeVisit( next ) ) );
+            bills.add( billService.build( context.getOfficeVisit( next ) ) );
+        }
+        surveys = context.getBean( SatisfactionSurveyService.class )
+                .findByHcp( context.getFixtures().getHcps().get( 0 ) );
+    }
+
+    /**
+     * ValidationUtil.validate on an office visit
+     *
+     * @param context
+     *            Running application
+     * @return The visit validated
+     */
+    @Benchmark
+    public OfficeVisit validateOfficeVisit ( final BenchmarkContext context ) {
+        final OfficeVisit visit = visits.get( context.next() % visits.size() );
+        ValidationUtil.validate( visit );
+        return visit;
+    }
+
+    /**
+     * ValidationUtil.validate on a satisfaction survey
+     *
+     * @param context
+     *            Running application
+     * @return The survey validated
+     */
+    @Benchmark
+    public SatisfactionSurvey validateSurvey ( final BenchmarkContext context ) {
+        final SatisfactionSurvey survey = surveys.get( context.next() % surveys.size() );
+        ValidationUtil.validate( survey );
+        return survey;
+    }
+
+    /**
+     * APIController.toJson on a single office visit
+     *
+     * @param context
+     *            Running application
+     * @return The JSON
+     */
+    @Benchmark
+    public String toJsonOfficeVisit ( final BenchmarkContext context ) {
+        return Json.of( visits.get( context.next() % visits.size() ) );
+    }
+
+    /**
+     * APIController.toJson on a list of bills
+     *
+     * @return The JSON
+     */
+    @Benchmark
+    public String toJsonBills () {
+        return Json.of( bills );
+    }
+
+    /**
+     * APIController.toJson on a list of satisfaction surveys
+     *
+     * @return The JSON
+     */
+    @Benchmark
+    public String toJsonSurveys () {
+        return Json.of( surveys );
+    }
+
+    /**
+     * Gives the benchmarks access to APIController's serialiser
+     */
+    private static abstract class Json extends APIController {
+
+        /**
+         * Serialises an object exactly as the controllers do
+         *
+         * @param obj
+         *            Object to serialise
+         * @return The JSON
+         */
+        static String of ( final Object obj ) {
+            return toJson( obj );
+        }
+
+    }
+
+}
@@ -0,0 +1,137 @@
+package edu.ncsu.csc.iTrust2.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.ncsu.csc.iTrust2.forms.display.SatisfactionSurveyStatistics;
+import edu.ncsu.csc.iTrust2.models.Bill;
+import edu.ncsu.csc.iTrust2.models.OfficeVisit;
+import edu.ncsu.csc.iTrust2.models.User;
+import edu.ncsu.csc.iTrust2.models.VaccineVisit;
+import edu.ncsu.csc.iTrust2.services.BillService;
+import edu.ncsu.csc.iTrust2.services.OfficeVisitService;
+import edu.ncsu.csc.iTrust2.services.SatisfactionSurveyStatisticsService;
+import edu.ncsu.csc.iTrust2.services.UserService;
+import edu.ncsu.csc.iTrust2.services.VaccineVisitService;
+
+/**
+ * Measures the service methods that turn a submitted form into an entity
+ * (each of which looks up the users, hospital, vaccine and CPT codes it
+ * refers to) and the per-HCP satisfaction survey statistics.
+ *
+ * @author Kai Presler-Marshall
+ *
+ */
+@State ( Scope.Benchmark )
+@BenchmarkMode ( Mode.AverageTime )
+@OutputTimeUnit ( TimeUnit.MICROSECONDS )
+@Warmup ( iterations = 3, time = 2 )
+@Measurement ( iterations = 5, time = 2 )
+@Fork ( 1 )
+public class ServiceBuildBenchmark {
+
+    /** Builds office visits */
+    private OfficeVisitService                  officeVisitService;
+
+    /** Builds bills */
+    private BillService                         billService;
+
+    /** Builds vaccine visits */
+    private VaccineVisitService                 vaccineVisitService;
+
+    /** Computes survey statistics */
+    private SatisfactionSurveyStatisticsService statisticsService;
+
+    /** HCPs to compute statistics for */
+    private User[]                              hcps;
+
+    /**
+     * Looks up the services being measured
+     *
+     * @param context
+     *            Running application
+     */
+    @Setup ( Level.Trial )
+    @SuppressWarnings ( "unchecked" )
+    public void setup ( final BenchmarkContext context ) {
+        officeVisitService = context.getBean( OfficeVisitService.class );
+        billService = context.getBean( BillService.class );
+        vaccineVisitService = context.getBean( VaccineVisitService.class );
+        statisticsService = context.getBean( SatisfactionSurveyStatisticsService.class );
+
+        final UserService<User> userService = context.getBean( UserService.class );
+        hcps = context.getFixtures().getHcps().stream().map( userService::findByName ).toArray( User[]::new );
+    }
+
+    /**
+     * OfficeVisitService.build
+     *
+     * @param context
+     *            Running application
+     * @return The visit built
+     */
+    @Benchmark
+    public OfficeVisit officeVisitBuild ( final BenchmarkContext context ) {
+        return officeVisitService.build( context.getOfficeVisit( context.next() ) );
+    }
+
+    /**
+     * BillService.build, for an office visit
+     *
+     * @param context
+     *            Running application
+     * @return The bill built
+     */
+    @Benchmark
+    public Bill billBuildOfficeVisit ( final BenchmarkContext context ) {
+        return billService.build( context.getOfficeVisit( context.next() ) );
+    }
+
+    /**
+     * BillService.build, for a vaccine visit
+     *
+     * @param context
+     *            Running application
+     * @return The bill built
+     */
+    @Benchmark
+    public Bill billBuildVaccineVisit ( final BenchmarkContext context ) {
+        return billService.build( context.getVaccineVisit( context.next() ) );
+    }
+
+    /**
+     * VaccineVisitService.build
+     *
+     * @param context
+     *            Running application
+     * @return The visit built
+     */
+    @Benchmark
+    public VaccineVisit vaccineVisitBuild ( final BenchmarkContext context ) {
+        return vaccineVisitService.build( context.getVaccineVisit( context.next() ) );
+    }
+
+    /**
+     * SatisfactionSurveyStatisticsService.findForHcp
+     *
+     * @param context
+     *            Running application
+     * @return The statistics
+     */
+    @Benchmark
+    public SatisfactionSurveyStatistics surveyStatisticsForHcp ( final BenchmarkContext context ) {
+        return statisticsService.findForHcp( hcps[context.next() % hcps.length] );
+    }
+
+}
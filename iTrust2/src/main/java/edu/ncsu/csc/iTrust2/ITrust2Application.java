@@ -4,8 +4,11 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import edu.ncsu.csc.iTrust2.config.SchemaValidateIntegrator;
+import edu.ncsu.csc.iTrust2.config.SqlStatementInspector;
+import edu.ncsu.csc.iTrust2.config.SqlTimingListener;
 
 /**
  * Main entrypoint to the iTrust2 application
@@ -14,6 +17,7 @@ import edu.ncsu.csc.iTrust2.config.SchemaValidateIntegrator;
  *
  */
 @SpringBootApplication ( scanBasePackages = { "edu.ncsu.csc.iTrust2" } )
+@EnableScheduling
 public class ITrust2Application {
 
     /**
@@ -28,7 +32,8 @@ public class ITrust2Application {
 
     /**
      * Used to register a Schema Validator to make sure the database is
-     * up-to-date
+     * up-to-date, and the listener and inspector that time and count the SQL
+     * run for each request
      *
      * @param schemaValidateIntegrator
      *            Schema Validator to register
@@ -39,6 +44,8 @@ public class ITrust2Application {
             final SchemaValidateIntegrator schemaValidateIntegrator ) {
         return ( prop -> {
             prop.put( "hibernate.integrator_provider", schemaValidateIntegrator );
+            prop.put( "hibernate.session.events.auto", SqlTimingListener.class.getName() );
+            prop.put( "hibernate.session_factory.statement_inspector", new SqlStatementInspector() );
         } );
     }
 }
@@ -7,9 +7,13 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 
 /**
- * Configure permissions for Actuator endpoints, so it doesn't require
- * authentication on those endpoints.
- * 
+ * Configure permissions for Actuator endpoints. Health and info don't require
+ * authentication; everything else (metrics, apimetrics, usercache) exposes
+ * per-endpoint timings, audit failures and cache statistics, so it requires
+ * an admin who has logged in through the usual login page. There is no
+ * separate login for these endpoints, so they can't be used to get around the
+ * failed login lockouts.
+ *
  * @author bvolpat
  */
 @Configuration
@@ -18,6 +22,8 @@ import org.springframework.security.config.annotation.web.configuration.WebSecur
 public class ActuatorWebSecurityConfigurationAdapter extends WebSecurityConfigurerAdapter {
     @Override
     protected void configure ( final HttpSecurity http ) throws Exception {
-        http.antMatcher( "/actuator/**" ).anonymous().and().csrf().disable();
+        http.antMatcher( "/actuator/**" ).authorizeRequests()
+                .antMatchers( "/actuator/health", "/actuator/health/**", "/actuator/info" ).permitAll().anyRequest()
+                .hasRole( "ADMIN" ).and().anonymous().and().csrf().disable();
     }
 }
@@ -0,0 +1,95 @@
+package edu.ncsu.csc.iTrust2.config;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import edu.ncsu.csc.iTrust2.utils.ApiMetrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+
+/**
+ * Actuator endpoint (`/actuator/apimetrics`) summarising ApiMetrics: for each
+ * controller method and role, the request count, latency percentiles, how
+ * much of the average request was spent in SQL versus in the application, how
+ * many statements each request runs, and errors by status. The underlying
+ * meters are also available individually through `/actuator/metrics`.
+ *
+ * @author Kai Presler-Marshall
+ *
+ */
+@Component
+@Endpoint ( id = "apimetrics" )
+public class ApiMetricsEndpoint {
+
+    /** Per-handler request metrics */
+    @Autowired
+    private ApiMetrics apiMetrics;
+
+    /**
+     * Summarises the metrics for every handler that has been called
+     *
+     * @return Summary, by handler name
+     */
+    @ReadOperation
+    public Map<String, Object> summary () {
+        final Map<String, Object> handlers = new TreeMap<String, Object>();
+        for ( final ApiMetrics.Handler handler : apiMetrics.getHandlers() ) {
+            final Map<String, Object> roles = new TreeMap<String, Object>();
+            handler.getRoles().forEach( ( role, metrics ) -> {
+                final Map<String, Object> summary = new TreeMap<String, Object>();
+                final HistogramSnapshot latency = metrics.getLatency().takeSnapshot();
+                final double meanMs = latency.mean( TimeUnit.MILLISECONDS );
+                final double dbMeanMs = metrics.getDb().mean( TimeUnit.MILLISECONDS );
+                summary.put( "count", latency.count() );
+                summary.put( "meanMs", meanMs );
+                summary.put( "maxMs", latency.max( TimeUnit.MILLISECONDS ) );
+                for ( final ValueAtPercentile p : latency.percentileValues() ) {
+                    summary.put( "p" + Math.round( p.percentile() * 100 ) + "Ms", p.value( TimeUnit.MILLISECONDS ) );
+                }
+                summary.put( "dbMeanMs", dbMeanMs );
+                summary.put( "appMeanMs", Math.max( 0, meanMs - dbMeanMs ) );
+                summary.put( "dbP95Ms", percentile( metrics.getDb(), 0.95 ) );
+                summary.put( "queriesMean", metrics.getQueries().mean() );
+                summary.put( "queriesMax", metrics.getQueries().max() );
+                summary.put( "repeatedQueries", metrics.getRepeatedQueries().count() );
+
+                final Map<String, Object> errors = new TreeMap<String, Object>();
+                metrics.getErrors().forEach( ( status, counter ) -> errors.put( status.toString(), counter.count() ) );
+                summary.put( "errors", errors );
+                roles.put( role, summary );
+            } );
+
+            final Map<String, Object> entry = new TreeMap<String, Object>();
+            entry.put( "inFlight", handler.getInFlight() );
+            entry.put( "roles", roles );
+            handlers.put( handler.getName(), entry );
+        }
+        return handlers;
+    }
+
+    /**
+     * Reads a single percentile from a timer
+     *
+     * @param timer
+     *            Timer to read
+     * @param percentile
+     *            Percentile to find, as a fraction
+     * @return Value in milliseconds, or 0 if the timer does not publish it
+     */
+    private static double percentile ( final Timer timer, final double percentile ) {
+        for ( final ValueAtPercentile p : timer.takeSnapshot().percentileValues() ) {
+            if ( p.percentile() == percentile ) {
+                return p.value( TimeUnit.MILLISECONDS );
+            }
+        }
+        return 0;
+    }
+
+}
@@ -3,16 +3,30 @@ package edu.ncsu.csc.iTrust2.config;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.servlet.ModelAndView;
 import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
 
 import edu.ncsu.csc.iTrust2.models.enums.TransactionType;
+import edu.ncsu.csc.iTrust2.utils.ApiMetrics;
 import edu.ncsu.csc.iTrust2.utils.LoggerUtil;
+import edu.ncsu.csc.iTrust2.utils.RequestSqlStats;
 
 /**
- * Interceptor to log HTTP requests to the API endpoint
+ * Interceptor to log HTTP requests to the API endpoint, and to record latency,
+ * SQL time, query count, and error metrics for each controller method (see
+ * ApiMetrics).
+ *
+ * A request that runs the same SQL statement at least
+ * `itrust2.sql.repeat-threshold` times is logged as a likely N+1. The number of
+ * statements a request ran, and the most times it ran any one statement, are
+ * left on the request as the `QUERY_COUNT_ATTRIBUTE` and
+ * `MAX_REPEATS_ATTRIBUTE` attributes so that tests can put a ceiling on them.
  *
  * @author Kai Presler-Marshall
  *
@@ -20,19 +34,70 @@ import edu.ncsu.csc.iTrust2.utils.LoggerUtil;
 @Component
 public class AuditLogInterceptor extends HandlerInterceptorAdapter {
 
+    /** Request attribute holding the number of SQL statements run */
+    public static final String  QUERY_COUNT_ATTRIBUTE = AuditLogInterceptor.class.getName() + ".queries";
+
+    /** Request attribute holding the most times any one statement was run */
+    public static final String  MAX_REPEATS_ATTRIBUTE = AuditLogInterceptor.class.getName() + ".maxRepeats";
+
+    /** Logger, to report likely N+1 queries */
+    private static final Logger LOG                   = LoggerFactory.getLogger( AuditLogInterceptor.class );
+
+    /** Request attribute holding the metrics for the request's handler */
+    private static final String HANDLER_ATTRIBUTE     = AuditLogInterceptor.class.getName() + ".handler";
+
+    /** Request attribute holding the time the request reached the handler */
+    private static final String START_ATTRIBUTE       = AuditLogInterceptor.class.getName() + ".start";
+
     /** LoggerUtil instance for logging events to the database */
     @Autowired
-    private LoggerUtil loggerUtil;
+    private LoggerUtil          loggerUtil;
+
+    /** Per-handler request metrics */
+    @Autowired
+    private ApiMetrics          apiMetrics;
+
+    /** Times a statement may repeat in one request before it is reported */
+    @Value ( "${itrust2.sql.repeat-threshold:10}" )
+    private int                 repeatThreshold;
 
     @Override
     public boolean preHandle ( final HttpServletRequest request, final HttpServletResponse response,
             final Object handler ) throws Exception {
+        if ( handler instanceof HandlerMethod ) {
+            final ApiMetrics.Handler metrics = apiMetrics.forHandler( (HandlerMethod) handler );
+            metrics.started();
+            request.setAttribute( HANDLER_ATTRIBUTE, metrics );
+            request.setAttribute( START_ATTRIBUTE, System.nanoTime() );
+            RequestSqlStats.begin();
+        }
         return true;
     }
 
     @Override
     public void afterCompletion ( final HttpServletRequest request, final HttpServletResponse response,
             final Object handler, final Exception exception ) throws Exception {
+        final ApiMetrics.Handler metrics = (ApiMetrics.Handler) request.getAttribute( HANDLER_ATTRIBUTE );
+        if ( null == metrics ) {
+            return;
+        }
+        final long elapsed = System.nanoTime() - (Long) request.getAttribute( START_ATTRIBUTE );
+        /* An exception that escaped the controller becomes a 500 */
+        final int status = null != exception && response.getStatus() < 400 ? 500 : response.getStatus();
+        final RequestSqlStats sql = RequestSqlStats.current();
+        final boolean repeated = sql.getMaxRepeats() >= repeatThreshold;
+        if ( repeated ) {
+            LOG.warn( "Likely N+1 in {}: {} statements, one of them run {} times: {}", metrics.getName(),
+                    sql.getStatements(), sql.getMaxRepeats(), sql.getMostRepeated() );
+        }
+        else if ( LOG.isDebugEnabled() ) {
+            LOG.debug( "{} ran {} statements", metrics.getName(), sql.getStatements() );
+        }
+        request.setAttribute( QUERY_COUNT_ATTRIBUTE, sql.getStatements() );
+        request.setAttribute( MAX_REPEATS_ATTRIBUTE, sql.getMaxRepeats() );
+        metrics.finished( LoggerUtil.currentRole(), status, elapsed, sql.getDbNanos(), sql.getStatements(),
+                repeated );
+        RequestSqlStats.end();
     }
 
     @Override
@@ -16,19 +16,20 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 
 import edu.ncsu.csc.iTrust2.models.User;
 import edu.ncsu.csc.iTrust2.models.enums.TransactionType;
-import edu.ncsu.csc.iTrust2.models.security.LoginAttempt;
 import edu.ncsu.csc.iTrust2.models.security.LoginBan;
 import edu.ncsu.csc.iTrust2.models.security.LoginLockout;
 import edu.ncsu.csc.iTrust2.services.UserService;
-import edu.ncsu.csc.iTrust2.services.security.LoginAttemptService;
+import edu.ncsu.csc.iTrust2.services.security.IPDecisionCache;
 import edu.ncsu.csc.iTrust2.services.security.LoginBanService;
+import edu.ncsu.csc.iTrust2.services.security.LoginFailureTracker;
 import edu.ncsu.csc.iTrust2.services.security.LoginLockoutService;
 import edu.ncsu.csc.iTrust2.utils.EmailUtil;
 import edu.ncsu.csc.iTrust2.utils.LoggerUtil;
 
 /**
  * Custom AuthenticationFailureHandler to record Failed attempts, and lockout or
- * ban a user or IP if necessary.
+ * ban a user or IP if necessary. Failed attempts are counted in memory by the
+ * LoginFailureTracker; only lockouts and bans are saved.
  *
  * @author Thomas
  * @author Kai Presler-Marshall
@@ -56,14 +57,18 @@ public class FailureHandler extends SimpleUrlAuthenticationFailureHandler {
     @Autowired
     private LoginLockoutService loginLockoutService;
 
-    /** LoginAttempt service */
+    /** Counts failed logins per IP and per user */
     @Autowired
-    private LoginAttemptService loginAttemptService;
+    private LoginFailureTracker loginFailureTracker;
 
     /** UserService */
     @Autowired
     private UserService<User>   userService;
 
+    /** Cache of ban/lockout decisions read by the IPFilter */
+    @Autowired
+    private IPDecisionCache     ipDecisionCache;
+
     @Override
     public void onAuthenticationFailure ( final HttpServletRequest request, final HttpServletResponse response,
             final AuthenticationException ae ) throws IOException, ServletException {
@@ -82,9 +87,9 @@ public class FailureHandler extends SimpleUrlAuthenticationFailureHandler {
         }
 
         if ( ae instanceof BadCredentialsException ) {
-            // need to lockout IP
-            if ( loginAttemptService.countByIP( addr ) >= 5 ) {
-                loginAttemptService.clearIP( addr );
+            // need to lockout IP (the tracker clears the IP's count when it
+            // tells us so)
+            if ( loginFailureTracker.recordIPFailure( addr ) ) {
                 // Check if need to ban IP
                 if ( loginLockoutService.getRecentIPLockouts( addr ) >= 2 ) {
                     // BAN
@@ -92,6 +97,7 @@ public class FailureHandler extends SimpleUrlAuthenticationFailureHandler {
                     ban.setIp( addr );
                     ban.setTime( ZonedDateTime.now() );
                     loginBanService.save( ban );
+                    ipDecisionCache.recordBan( addr );
 
                     loginLockoutService.clearIP( addr );
                     loggerUtil.log( TransactionType.IP_BANNED, addr, null, addr + " has been banned." );
@@ -103,6 +109,7 @@ public class FailureHandler extends SimpleUrlAuthenticationFailureHandler {
                     lockout.setIp( addr );
                     lockout.setTime( ZonedDateTime.now() );
                     loginLockoutService.save( lockout );
+                    ipDecisionCache.recordLockout( addr, lockout.getTime() );
                     loggerUtil.log( TransactionType.IP_LOCKOUT, addr, null, addr + " has been locked out for 1 hour." );
                     this.getRedirectStrategy().sendRedirect( request, response, "/login?iplocked" );
 
@@ -110,23 +117,10 @@ public class FailureHandler extends SimpleUrlAuthenticationFailureHandler {
                 }
                 return;
             }
-            else {
-                // fail for IP
-                final LoginAttempt attempt = new LoginAttempt();
-                attempt.setTime( ZonedDateTime.now() );
-                attempt.setIp( addr );
-                loginAttemptService.save( attempt );
-            }
-
-            // check username
-            if ( username != null ) {
-                user = userService.findByName( username );
-            }
 
             if ( user != null ) {
                 // check if need to lockout username
-                if ( loginAttemptService.countByUser( user ) >= 2 ) {
-                    loginAttemptService.clearUser( user );
+                if ( loginFailureTracker.recordUserFailure( user.getUsername() ) ) {
                     // check if need to ban user
                     if ( loginLockoutService.getRecentUserLockouts( user ) >= 2 ) {
                         loginLockoutService.clearUser( user );
@@ -154,13 +148,6 @@ public class FailureHandler extends SimpleUrlAuthenticationFailureHandler {
                     }
                     return;
                 }
-                else {
-                    // fail for username
-                    final LoginAttempt attempt = new LoginAttempt();
-                    attempt.setTime( ZonedDateTime.now() );
-                    attempt.setUser( user );
-                    loginAttemptService.save( attempt );
-                }
             }
 
         }
@@ -11,12 +11,9 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetails;
 import org.springframework.stereotype.Component;
 
-import edu.ncsu.csc.iTrust2.models.User;
 import edu.ncsu.csc.iTrust2.models.enums.TransactionType;
-import edu.ncsu.csc.iTrust2.services.UserService;
-import edu.ncsu.csc.iTrust2.services.security.LoginAttemptService;
-import edu.ncsu.csc.iTrust2.services.security.LoginBanService;
-import edu.ncsu.csc.iTrust2.services.security.LoginLockoutService;
+import edu.ncsu.csc.iTrust2.services.security.IPDecisionCache;
+import edu.ncsu.csc.iTrust2.services.security.LoginFailureTracker;
 import edu.ncsu.csc.iTrust2.utils.LoggerUtil;
 
 /**
@@ -33,21 +30,13 @@ public class LoginAuditingListener implements ApplicationListener<ApplicationEve
     @Autowired
     private LoggerUtil          util;
 
-    /** LoginAttempt service */
+    /** Counts failed logins per IP and per user */
     @Autowired
-    private LoginAttemptService loginAttemptService;
+    private LoginFailureTracker loginFailureTracker;
 
-    /** LoginBan service */
+    /** Cache of ban/lockout decisions for each IP */
     @Autowired
-    private LoginBanService     loginBanService;
-
-    /** User service */
-    @Autowired
-    private UserService<User>   userService;
-
-    /** LoginLockout service */
-    @Autowired
-    private LoginLockoutService loginLockoutService;
+    private IPDecisionCache     ipDecisionCache;
 
     @Override
     public void onApplicationEvent ( final ApplicationEvent event ) {
@@ -64,9 +53,9 @@ public class LoginAuditingListener implements ApplicationListener<ApplicationEve
             // invalidates the credentials if they happen to be correct (and
             // bypassed the lockout page via a direct API call).
             final String addr = det.getRemoteAddress();
-            if ( !loginLockoutService.isIPLocked( addr ) && !loginBanService.isIPBanned( addr ) ) {
-                loginAttemptService.clearIP( addr );
-                loginAttemptService.clearUser( userService.findByName( details.getUsername() ) );
+            if ( !ipDecisionCache.isLocked( addr ) && !ipDecisionCache.isBanned( addr ) ) {
+                loginFailureTracker.clearIP( addr );
+                loginFailureTracker.clearUser( details.getUsername() );
                 util.log( TransactionType.LOGIN_SUCCESS, details.getUsername() );
             }
 
@@ -0,0 +1,27 @@
+package edu.ncsu.csc.iTrust2.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import edu.ncsu.csc.iTrust2.utils.RequestSqlStats;
+
+/**
+ * Hibernate StatementInspector that counts every statement Hibernate prepares
+ * against the current request's RequestSqlStats, so that the number of
+ * queries each endpoint runs (and any statement it runs over and over) can be
+ * reported. The SQL itself is passed through unchanged. Registered through
+ * `hibernate.session_factory.statement_inspector` (see ITrust2Application).
+ *
+ * @author Kai Presler-Marshall
+ *
+ */
+public class SqlStatementInspector implements StatementInspector {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public String inspect ( final String sql ) {
+        RequestSqlStats.addStatement( sql );
+        return sql;
+    }
+
+}
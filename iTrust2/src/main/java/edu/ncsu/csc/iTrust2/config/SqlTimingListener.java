@@ -0,0 +1,45 @@
+package edu.ncsu.csc.iTrust2.config;
+
+import org.hibernate.BaseSessionEventListener;
+
+import edu.ncsu.csc.iTrust2.utils.RequestSqlStats;
+
+/**
+ * Hibernate session listener that times each JDBC statement and batch and adds
+ * the time to the current request's RequestSqlStats. Registered for every
+ * session through `hibernate.session.events.auto` (see ITrust2Application).
+ *
+ * Hibernate creates one listener per Session, and a Session is only used by
+ * one thread at a time, so the start time can be kept in a plain field.
+ *
+ * @author Kai Presler-Marshall
+ *
+ */
+public class SqlTimingListener extends BaseSessionEventListener {
+
+    private static final long serialVersionUID = 1L;
+
+    /** When the statement or batch currently running started */
+    private long              started;
+
+    @Override
+    public void jdbcExecuteStatementStart () {
+        started = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd () {
+        RequestSqlStats.addDbTime( System.nanoTime() - started );
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart () {
+        started = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd () {
+        RequestSqlStats.addDbTime( System.nanoTime() - started );
+    }
+
+}
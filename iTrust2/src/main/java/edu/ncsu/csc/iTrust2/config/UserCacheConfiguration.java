@@ -0,0 +1,100 @@
+package edu.ncsu.csc.iTrust2.config;
+
+import java.net.URI;
+import java.time.Duration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+import org.ehcache.config.CacheConfiguration;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Turns on Hibernate's second-level cache for Users (and so Patients and
+ * Personnel, which share its table), along with each user's roles. Nearly
+ * every request looks up the current user by username, and builders look up
+ * several more; with the cache, these are served from memory instead of a
+ * query for the user and another for their roles.
+ *
+ * The cache is in-process Ehcache, reached through Hibernate's JCache region
+ * factory. Hibernate keeps it up to date when users are saved or deleted
+ * through it, and the user controllers also evict users explicitly (see
+ * `UserService.evict()`). Entries expire after `itrust2.usercache.ttl-seconds`,
+ * which bounds how long an edit made on another application node can go
+ * unseen.
+ *
+ * @author Kai Presler-Marshall
+ *
+ */
+@Configuration
+public class UserCacheConfiguration {
+
+    /**
+     * Name of the cache manager. Every application context in the JVM shares
+     * it, so that (eg, in the tests) an edit made through one context is not
+     * hidden from another by a stale entry.
+     */
+    private static final URI   CACHE_MANAGER = URI.create( "urn:itrust2:hibernate" );
+
+    /** Cache region for users */
+    public static final String USER_REGION   = "user";
+
+    /** Cache region for users' roles */
+    public static final String ROLES_REGION  = "user.roles";
+
+    /** Most users (and, separately, role sets) kept in the cache */
+    @Value ( "${itrust2.usercache.max-entries:10000}" )
+    private long               maxEntries;
+
+    /** How long a cached user is trusted, in seconds */
+    @Value ( "${itrust2.usercache.ttl-seconds:600}" )
+    private long               ttlSeconds;
+
+    /** Whether Hibernate keeps the hit/miss counts shown at /actuator/usercache */
+    @Value ( "${itrust2.usercache.statistics:true}" )
+    private boolean            statistics;
+
+    /**
+     * Creates (or finds) the cache manager holding the user cache regions
+     *
+     * @return The cache manager
+     */
+    @Bean
+    public CacheManager userCacheManager () {
+        final CacheConfiguration<Object, Object> region = CacheConfigurationBuilder
+                .newCacheConfigurationBuilder( Object.class, Object.class, ResourcePoolsBuilder.heap( maxEntries ) )
+                .withExpiry( ExpiryPolicyBuilder.timeToLiveExpiration( Duration.ofSeconds( ttlSeconds ) ) ).build();
+        final EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching
+                .getCachingProvider( EhcacheCachingProvider.class.getName() );
+        return provider.getCacheManager( CACHE_MANAGER, ConfigurationBuilder.newConfigurationBuilder()
+                .withCache( USER_REGION, region ).withCache( ROLES_REGION, region ).build() );
+    }
+
+    /**
+     * Points Hibernate's second-level cache at the user cache regions
+     *
+     * @param userCacheManager
+     *            Cache manager holding the regions
+     * @return Updated Hibernate properties
+     */
+    @Bean
+    public HibernatePropertiesCustomizer registerUserCache ( final CacheManager userCacheManager ) {
+        return ( prop -> {
+            prop.put( "hibernate.cache.use_second_level_cache", true );
+            prop.put( "hibernate.cache.region.factory_class", "jcache" );
+            prop.put( "hibernate.javax.cache.cache_manager", userCacheManager );
+            /* Every region is created above; a missing one means a mapping names the wrong region */
+            prop.put( "hibernate.javax.cache.missing_cache_strategy", "fail" );
+            prop.put( "hibernate.generate_statistics", statistics );
+        } );
+    }
+
+}
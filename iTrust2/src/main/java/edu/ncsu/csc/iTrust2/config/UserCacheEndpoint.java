@@ -0,0 +1,61 @@
+package edu.ncsu.csc.iTrust2.config;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint (`/actuator/usercache`) summarising the second-level cache
+ * of users and their roles (see UserCacheConfiguration): for each region, how
+ * many lookups were hits and misses, how many entries were put, and how many
+ * are held now. Counts are only kept while `itrust2.usercache.statistics` is
+ * on. Spring Boot also publishes them individually through
+ * `/actuator/metrics` as `hibernate.second.level.cache.requests` and
+ * `hibernate.second.level.cache.puts`.
+ *
+ * @author Kai Presler-Marshall
+ *
+ */
+@Component
+@Endpoint ( id = "usercache" )
+public class UserCacheEndpoint {
+
+    /** For reading Hibernate's statistics */
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Summarises the cache statistics for each user cache region
+     *
+     * @return Summary, by region
+     */
+    @ReadOperation
+    public Map<String, Object> summary () {
+        final Statistics statistics = entityManagerFactory.unwrap( SessionFactory.class ).getStatistics();
+        final Map<String, Object> summary = new TreeMap<String, Object>();
+        summary.put( "statisticsEnabled", statistics.isStatisticsEnabled() );
+        for ( final String name : new String[] { UserCacheConfiguration.USER_REGION,
+                UserCacheConfiguration.ROLES_REGION } ) {
+            final CacheRegionStatistics region = statistics.getDomainDataRegionStatistics( name );
+            final Map<String, Object> counts = new TreeMap<String, Object>();
+            final long lookups = region.getHitCount() + region.getMissCount();
+            counts.put( "hits", region.getHitCount() );
+            counts.put( "misses", region.getMissCount() );
+            counts.put( "hitRatio", 0 == lookups ? 0 : (double) region.getHitCount() / lookups );
+            counts.put( "puts", region.getPutCount() );
+            counts.put( "entries", region.getElementCountInMemory() );
+            summary.put( name, counts );
+        }
+        return summary;
+    }
+
+}
@@ -1,6 +1,6 @@
 package edu.ncsu.csc.iTrust2.controllers.api;
 
-import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -14,17 +14,16 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import edu.ncsu.csc.iTrust2.forms.AppointmentRequestForm;
 import edu.ncsu.csc.iTrust2.models.AppointmentRequest;
-import edu.ncsu.csc.iTrust2.models.PatientAdvocateAssignment;
 import edu.ncsu.csc.iTrust2.models.User;
 import edu.ncsu.csc.iTrust2.models.enums.Role;
 import edu.ncsu.csc.iTrust2.models.enums.Status;
 import edu.ncsu.csc.iTrust2.models.enums.TransactionType;
 import edu.ncsu.csc.iTrust2.services.AppointmentRequestService;
-import edu.ncsu.csc.iTrust2.services.PatientAdvocateAssignmentService;
 import edu.ncsu.csc.iTrust2.services.UserService;
 import edu.ncsu.csc.iTrust2.utils.LoggerUtil;
 
@@ -44,32 +43,38 @@ public class APIAppointmentRequestController extends APIController {
      * AppointmentRequest service
      */
     @Autowired
-    private AppointmentRequestService        service;
+    private AppointmentRequestService service;
 
     /** LoggerUtil */
     @Autowired
-    private LoggerUtil                       loggerUtil;
+    private LoggerUtil                loggerUtil;
 
     /** User service */
     @Autowired
-    private UserService<User>                userService;
-
-    /** PatientAdvocateAssignment service */
-    @Autowired
-    private PatientAdvocateAssignmentService assignmentService;
+    private UserService<User>         userService;
 
     /**
-     * Retrieves a list of all AppointmentRequests in the database
+     * Retrieves a page of the AppointmentRequests in the database
      *
+     * @param page
+     *            Number of the page to return, counting from 0; see
+     *            `APIController.listPage()`
+     * @param size
+     *            Most requests to return
+     * @param cursor
+     *            ID of the last request on the previous page
      * @return list of appointment requests
      */
     @GetMapping ( BASE_PATH + "/appointmentrequests" )
     @PreAuthorize ( "hasAnyRole('ROLE_HCP')" )
-    public List<AppointmentRequest> getAppointmentRequests () {
-        final List<AppointmentRequest> requests = service.findAll();
+    public ResponseEntity<List<AppointmentRequest>> getAppointmentRequests (
+            @RequestParam ( value = "page", required = false ) final Integer page,
+            @RequestParam ( value = "size", required = false ) final Integer size,
+            @RequestParam ( value = "cursor", required = false ) final Long cursor ) {
+        final ResponseEntity<List<AppointmentRequest>> requests = listPage( service, page, size, cursor );
 
-        requests.stream().map( AppointmentRequest::getPatient ).distinct().forEach( e -> loggerUtil
-                .log( TransactionType.APPOINTMENT_REQUEST_VIEWED, LoggerUtil.currentUser(), e.getUsername() ) );
+        loggerUtil.logAll( TransactionType.APPOINTMENT_REQUEST_VIEWED, LoggerUtil.currentUser(),
+                requests.getBody().stream().map( e -> e.getPatient().getUsername() ).collect( Collectors.toList() ) );
 
         return requests;
     }
@@ -84,8 +89,7 @@ public class APIAppointmentRequestController extends APIController {
     @PreAuthorize ( "hasAnyRole('ROLE_PATIENT')" )
     public List<AppointmentRequest> getAppointmentRequestsForPatient () {
         final User patient = userService.findByName( LoggerUtil.currentUser() );
-        return service.findByPatient( patient ).stream().filter( e -> e.getStatus().equals( Status.PENDING ) )
-                .collect( Collectors.toList() );
+        return service.findByPatientAndStatus( patient, Status.PENDING );
     }
 
     /**
@@ -98,8 +102,7 @@ public class APIAppointmentRequestController extends APIController {
     @PreAuthorize ( "hasAnyRole('ROLE_PATIENT')" )
     public List<AppointmentRequest> getApprovedAppointmentRequestsForPatient () {
         final User patient = userService.findByName( LoggerUtil.currentUser() );
-        return service.findByPatient( patient ).stream().filter( e -> e.getStatus().equals( Status.APPROVED ) )
-                .collect( Collectors.toList() );
+        return service.findByPatientAndStatus( patient, Status.APPROVED );
     }
 
     /**
@@ -113,80 +116,54 @@ public class APIAppointmentRequestController extends APIController {
 
         final User hcp = userService.findByName( LoggerUtil.currentUser() );
 
-        return service.findByHcp( hcp ).stream().filter( e -> e.getStatus().equals( Status.PENDING ) )
-                .collect( Collectors.toList() );
+        return service.findByHcpAndStatus( hcp, Status.PENDING );
 
     }
 
     /**
-     * Retrieves appointment requests with PENDING status attributed to the
-     * logged in advocate
+     * Retrieves a page of the appointment requests with PENDING status that
+     * the logged in advocate has been invited to, for patients they are
+     * assigned to
+     * (all of them if no page or size is given; see
+     * `APIController.pagedList()`)
      *
+     * @param page
+     *            Number of the page to return, counting from 0
+     * @param size
+     *            Most requests to return
      * @return list of appointment requests for the logged in advocate
      */
     @GetMapping ( BASE_PATH + "/appointmentrequestForAdvocate" )
     @PreAuthorize ( "hasAnyRole('ROLE_ADVOCATE')" )
-    public List<AppointmentRequest> getAppointmentRequestsForAdvocate () {
+    public ResponseEntity<List<AppointmentRequest>> getAppointmentRequestsForAdvocate (
+            @RequestParam ( value = "page", required = false ) final Integer page,
+            @RequestParam ( value = "size", required = false ) final Integer size ) {
         final User advocate = userService.findByName( LoggerUtil.currentUser() );
-        final List<PatientAdvocateAssignment> assignments = assignmentService
-                .getAssignmentsByPatientAdvocate( advocate );
-
-        // Get all of the patients associated with the advocate
-        final List<User> patients = new ArrayList<User>();
-
-        for ( final PatientAdvocateAssignment a : assignments ) {
-            patients.add( a.getPatient() );
-        }
-
-        // Get all of the appointment requests for every single patient assigned
-        final List<AppointmentRequest> requests = new ArrayList<AppointmentRequest>();
-        for ( final User patient : patients ) {
-            final List<AppointmentRequest> temp = service.findByPatient( patient );
-
-            for ( final AppointmentRequest ar : temp ) {
-                if ( ar.getPatientAdvocatesInvited().contains( advocate ) && ar.getStatus().equals( Status.PENDING ) ) {
-                    requests.add( ar );
-                }
-            }
-        }
-
-        return requests;
+        return pagedList( page, size,
+                request -> service.findForAdvocate( advocate, EnumSet.of( Status.PENDING ), request ) );
     }
 
     /**
-     * Retrieves appointment requests with APPROVED status attributed to the
-     * logged in advocate
+     * Retrieves a page of the appointment requests with APPROVED status that
+     * the logged in advocate has been invited to, for patients they are
+     * assigned to
+     * (all of them if no page or size is given; see
+     * `APIController.pagedList()`)
      *
+     * @param page
+     *            Number of the page to return, counting from 0
+     * @param size
+     *            Most requests to return
      * @return list of appointment requests for the logged in advocate
      */
     @GetMapping ( BASE_PATH + "/appointmentrequestForAdvocate/approved" )
     @PreAuthorize ( "hasAnyRole('ROLE_ADVOCATE')" )
-    public List<AppointmentRequest> getApprovedAppointmentRequestsForAdvocate () {
+    public ResponseEntity<List<AppointmentRequest>> getApprovedAppointmentRequestsForAdvocate (
+            @RequestParam ( value = "page", required = false ) final Integer page,
+            @RequestParam ( value = "size", required = false ) final Integer size ) {
         final User advocate = userService.findByName( LoggerUtil.currentUser() );
-        final List<PatientAdvocateAssignment> assignments = assignmentService
-                .getAssignmentsByPatientAdvocate( advocate );
-
-        // Get all of the patients associated with the advocate
-        final List<User> patients = new ArrayList<User>();
-
-        for ( final PatientAdvocateAssignment a : assignments ) {
-            patients.add( a.getPatient() );
-        }
-
-        // Get all of the appointment requests for every single patient assigned
-        final List<AppointmentRequest> requests = new ArrayList<AppointmentRequest>();
-        for ( final User patient : patients ) {
-            final List<AppointmentRequest> temp = service.findByPatient( patient );
-
-            for ( final AppointmentRequest ar : temp ) {
-                if ( ar.getPatientAdvocatesInvited().contains( advocate )
-                        && ar.getStatus().equals( Status.APPROVED ) ) {
-                    requests.add( ar );
-                }
-            }
-        }
-
-        return requests;
+        return pagedList( page, size,
+                request -> service.findForAdvocate( advocate, EnumSet.of( Status.APPROVED ), request ) );
     }
 
     /**
@@ -297,7 +274,9 @@ public class APIAppointmentRequestController extends APIController {
      *            The updated AppointmentRequestForm to parse, validate, and
      *            save
      * @return The AppointmentRequest that is created from the Form that is
-     *         provided
+     *         provided, or HttpStatus.BAD_REQUEST if it is approved and
+     *         overlaps another appointment the HCP has (see
+     *         AppointmentSchedule)
      */
     @PutMapping ( BASE_PATH + "/appointmentrequests/{id}" )
     @PreAuthorize ( "hasAnyRole('ROLE_HCP', 'ROLE_PATIENT')" )
@@ -356,11 +335,10 @@ public class APIAppointmentRequestController extends APIController {
     public List<AppointmentRequest> upcomingAppointments () {
         final User hcp = userService.findByName( LoggerUtil.currentUser() );
 
-        final List<AppointmentRequest> appointment = service.findByHcp( hcp ).stream()
-                .filter( e -> e.getStatus().equals( Status.APPROVED ) ).collect( Collectors.toList() );
+        final List<AppointmentRequest> appointment = service.findByHcpAndStatus( hcp, Status.APPROVED );
         /* Log the event */
-        appointment.stream().map( AppointmentRequest::getPatient ).distinct().forEach( e -> loggerUtil
-                .log( TransactionType.APPOINTMENT_REQUEST_VIEWED, LoggerUtil.currentUser(), e.getUsername() ) );
+        loggerUtil.logAll( TransactionType.APPOINTMENT_REQUEST_VIEWED, LoggerUtil.currentUser(),
+                appointment.stream().map( e -> e.getPatient().getUsername() ).collect( Collectors.toList() ) );
         return appointment;
     }
 
@@ -3,6 +3,7 @@ package edu.ncsu.csc.iTrust2.controllers.api;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -12,12 +13,15 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
 
 import edu.ncsu.csc.iTrust2.forms.CPTCodeForm;
 import edu.ncsu.csc.iTrust2.models.CPTCode;
 import edu.ncsu.csc.iTrust2.models.enums.TransactionType;
 import edu.ncsu.csc.iTrust2.services.CPTCodeService;
+import edu.ncsu.csc.iTrust2.services.CatalogVersions;
+import edu.ncsu.csc.iTrust2.services.CatalogVersions.Catalog;
 import edu.ncsu.csc.iTrust2.utils.LoggerUtil;
 
 /**
@@ -34,22 +38,32 @@ public class APICPTCodeController extends APIController {
      * LoggerUtil
      */
     @Autowired
-    private LoggerUtil     loggerUtil;
+    private LoggerUtil      loggerUtil;
     /**
      * Service for CPT Code
      */
     @Autowired
-    private CPTCodeService service;
+    private CPTCodeService  service;
+    /**
+     * Versions of the reference data, for ETags
+     */
+    @Autowired
+    private CatalogVersions versions;
 
     /**
-     * Returns a list of all CPTCodes
+     * Returns a list of all CPTCodes, or 304 if the client's copy is current
      *
+     * @param ifNoneMatch
+     *            ETag of the client's copy, if it has one
      * @return A list of all CPTCodes
      */
     @GetMapping ( BASE_PATH + "/cptcodes" )
-    public List<CPTCode> getCPTCodes () {
-        loggerUtil.log( TransactionType.CPTCODE_VIEW, LoggerUtil.currentUser() );
-        return service.findAll();
+    public ResponseEntity<List<CPTCode>> getCPTCodes (
+            @RequestHeader ( value = HttpHeaders.IF_NONE_MATCH, required = false ) final String ifNoneMatch ) {
+        return conditional( ifNoneMatch, versions.etag( Catalog.CPT_CODES, null ), () -> {
+            loggerUtil.log( TransactionType.CPTCODE_VIEW, LoggerUtil.currentUser() );
+            return service.findAll();
+        } );
     }
 
     /**
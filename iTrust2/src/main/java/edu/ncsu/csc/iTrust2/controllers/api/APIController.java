@@ -1,7 +1,24 @@
 package edu.ncsu.csc.iTrust2.controllers.api;
 
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
 import com.google.gson.Gson;
 
+import edu.ncsu.csc.iTrust2.models.DomainObject;
+import edu.ncsu.csc.iTrust2.services.Service;
+
 /**
  * Base class for all of the API controllers for manipulating DomainObjects. Add
  * in any fields or functionality that ought to be shared throughout.
@@ -23,18 +40,47 @@ import com.google.gson.Gson;
  * allows proper validation of input and gets it into datastructures that use
  * proper, strong typing so that it is abundantly clear what is what.
  *
+ * Every list endpoint that can be paged follows the same rule: a request that
+ * names no page (no `page`, `size` or `cursor`) gets the whole list, with no
+ * paging headers, and any of them gets a page of at most
+ * `itrust2.paging.max-size` records. The pages in the UI ask for whole lists,
+ * so this is deliberate; see `listPage()` and `pagedList()`.
+ *
  * @author Kai Presler-Marshall
  *
  */
 public abstract class APIController {
     /** Base path of API */
-    static final protected String BASE_PATH = "/api/v1/";
+    static final protected String     BASE_PATH   = "/api/v1/";
 
     /**
      * Used to serialize data and messages to JSON for transmitting through the
      * REST API
      */
-    static final private Gson     GSON      = new Gson();
+    static final private Gson         GSON        = new Gson();
+
+    /**
+     * Lets clients keep reference data, but makes them check it is current
+     * (with `If-None-Match`) each time they use it. Private, since some of it
+     * depends on who is asking.
+     */
+    static final private CacheControl REVALIDATE  = CacheControl.noCache().cachePrivate();
+
+    /** Header giving the number of records in all pages of a list */
+    static final protected String     TOTAL_COUNT = "X-Total-Count";
+
+    /** Header giving the cursor to send for the next page of a list */
+    static final protected String     NEXT_CURSOR = "X-Next-Cursor";
+
+    /** A "page" holding the whole of a list, for requests that name no page */
+    static final private PageRequest  WHOLE_LIST  = PageRequest.of( 0, Integer.MAX_VALUE );
+
+    /**
+     * Most records a list endpoint returns in one page; also the page size
+     * used when the client asks for a page but not its size
+     */
+    @Value ( "${itrust2.paging.max-size:500}" )
+    private int                       maxPageSize;
 
     /**
      * Turns the provided object into JSON
@@ -99,6 +145,194 @@ public abstract class APIController {
         return responseMessage( "success", message );
     }
 
+    /**
+     * Answers a GET that clients may make conditional on their copy being out
+     * of date. If the client's `If-None-Match` names the current ETag, it is
+     * told its copy is current (304) and the body is never built; otherwise
+     * the body is built and sent along with the ETag.
+     *
+     * @param <T>
+     *            Type of the body
+     * @param ifNoneMatch
+     *            The request's `If-None-Match` header, if any
+     * @param etag
+     *            Strong ETag of the current body, quoted
+     * @param body
+     *            Builds the body
+     * @return The response
+     */
+    static final protected <T> ResponseEntity<T> conditional ( final String ifNoneMatch, final String etag,
+            final Supplier<T> body ) {
+        if ( matches( ifNoneMatch, etag ) ) {
+            return ResponseEntity.status( HttpStatus.NOT_MODIFIED ).eTag( etag ).cacheControl( REVALIDATE ).build();
+        }
+        return ResponseEntity.ok().eTag( etag ).cacheControl( REVALIDATE ).body( body.get() );
+    }
+
+    /**
+     * Checks whether an `If-None-Match` header names an ETag. As the header
+     * is only used on GETs, tags are compared weakly.
+     *
+     * @param ifNoneMatch
+     *            The header, if any: `*` or a list of quoted tags
+     * @param etag
+     *            The ETag, quoted
+     * @return Whether the header names the tag
+     */
+    static final private boolean matches ( final String ifNoneMatch, final String etag ) {
+        if ( null == ifNoneMatch ) {
+            return false;
+        }
+        for ( final String tag : ifNoneMatch.split( "," ) ) {
+            final String trimmed = tag.trim();
+            final String strong = trimmed.startsWith( "W/" ) ? trimmed.substring( 2 ) : trimmed;
+            if ( "*".equals( strong ) || etag.equals( strong ) ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Answers a request for one page of everything a Service serves. A
+     * request with none of `page`, `size` and `cursor` gets every record, with
+     * no paging headers, as every paged list does (see the class comment).
+     * Otherwise, the client picks the page in one of two ways:
+     *
+     * - `cursor` (or just `size`, for the first page): the records after the
+     * one with that ID; see `Service.findAfter()`. If the page is full, the
+     * cursor for the next is sent back in `X-Next-Cursor`.
+     *
+     * - `page`: the page with that (zero-based) number; see
+     * `Service.findPage()`. The total number of records is sent back in
+     * `X-Total-Count`.
+     *
+     * Either way, the page holds at most `size` records, and never more than
+     * `itrust2.paging.max-size`. If there may be another page, its URL is sent
+     * in a `Link` header with `rel="next"`. The body is the list of records,
+     * as it was before lists were paged.
+     *
+     * @param <T>
+     *            Type of the records
+     * @param <K>
+     *            Type of their ID
+     * @param service
+     *            Service for the records
+     * @param page
+     *            The requested page number, if any
+     * @param size
+     *            The requested page size, if any
+     * @param cursor
+     *            ID of the last record on the previous page, if any
+     * @return The response
+     */
+    protected <T extends DomainObject, K> ResponseEntity<List<T>> listPage ( final Service<T, K> service,
+            final Integer page, final Integer size, final K cursor ) {
+        if ( wholeList( page, size ) && null == cursor ) {
+            return ResponseEntity.ok( service.findAll() );
+        }
+        final int limit = pageSize( size );
+        if ( null != page && null == cursor ) {
+            return pageResponse( service.findPage( pageRequest( page, size ) ) );
+        }
+        final List<T> records = service.findAfter( cursor, limit );
+        final HttpHeaders headers = new HttpHeaders();
+        if ( records.size() == limit ) {
+            final Object last = records.get( limit - 1 ).getId();
+            headers.set( NEXT_CURSOR, last.toString() );
+            final ServletUriComponentsBuilder next = ServletUriComponentsBuilder.fromCurrentRequest();
+            next.replaceQueryParam( "page" ).replaceQueryParam( "cursor", last ).replaceQueryParam( "size", limit );
+            headers.add( HttpHeaders.LINK, "<" + next.toUriString() + ">; rel=\"next\"" );
+        }
+        return ResponseEntity.ok().headers( headers ).body( records );
+    }
+
+    /**
+     * Answers a request for a list that can be read a page at a time, by the
+     * same rule as `listPage()`: a request with neither `page` nor `size`
+     * gets the whole list, with no paging headers, and any other gets one
+     * page of it, as described in `pageResponse()`.
+     *
+     * @param <T>
+     *            Type of the records
+     * @param page
+     *            The requested page number, if any
+     * @param size
+     *            The requested page size, if any
+     * @param find
+     *            Reads a page of the list
+     * @return The response
+     */
+    protected <T> ResponseEntity<List<T>> pagedList ( final Integer page, final Integer size,
+            final Function<Pageable, Page<T>> find ) {
+        if ( wholeList( page, size ) ) {
+            return ResponseEntity.ok( find.apply( WHOLE_LIST ).getContent() );
+        }
+        return pageResponse( find.apply( pageRequest( page, size ) ) );
+    }
+
+    /**
+     * Checks whether a request named no page, and so gets the whole list
+     *
+     * @param page
+     *            The requested page number, if any
+     * @param size
+     *            The requested page size, if any
+     * @return True if neither was given
+     */
+    static final protected boolean wholeList ( final Integer page, final Integer size ) {
+        return null == page && null == size;
+    }
+
+    /**
+     * Works out the page a client asked for, with its size capped at
+     * `itrust2.paging.max-size`
+     *
+     * @param page
+     *            The requested page number, if any; the first page if not
+     * @param size
+     *            The requested page size, if any; the largest if not
+     * @return The page to read
+     */
+    protected PageRequest pageRequest ( final Integer page, final Integer size ) {
+        return PageRequest.of( null == page ? 0 : Math.max( 0, page ), pageSize( size ) );
+    }
+
+    /**
+     * Works out how many records a client may have at once
+     *
+     * @param size
+     *            The requested page size, if any
+     * @return The page size to use: as requested, but at least one and at
+     *         most `itrust2.paging.max-size`
+     */
+    private int pageSize ( final Integer size ) {
+        return null == size ? maxPageSize : Math.max( 1, Math.min( size, maxPageSize ) );
+    }
+
+    /**
+     * Answers a request for one numbered page of a list. The body is the
+     * records on the page; the total number of records is sent in
+     * `X-Total-Count`, and the URL of the next page (if there is one) in a
+     * `Link` header with `rel="next"`.
+     *
+     * @param <T>
+     *            Type of the records
+     * @param page
+     *            The page
+     * @return The response
+     */
+    static final protected <T> ResponseEntity<List<T>> pageResponse ( final Page<T> page ) {
+        final HttpHeaders headers = new HttpHeaders();
+        headers.set( TOTAL_COUNT, Long.toString( page.getTotalElements() ) );
+        if ( page.hasNext() ) {
+            final ServletUriComponentsBuilder next = ServletUriComponentsBuilder.fromCurrentRequest();
+            next.replaceQueryParam( "page", page.getNumber() + 1 ).replaceQueryParam( "size", page.getSize() );
+            headers.add( HttpHeaders.LINK, "<" + next.toUriString() + ">; rel=\"next\"" );
+        }
+        return ResponseEntity.ok().headers( headers ).body( page.getContent() );
+    }
+
     /**
      * Small class used for creating simple success/error messages to return via
      * the REST API. Contains a status of the action and an message.
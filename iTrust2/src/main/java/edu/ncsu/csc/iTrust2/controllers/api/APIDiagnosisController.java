@@ -1,13 +1,16 @@
 package edu.ncsu.csc.iTrust2.controllers.api;
 
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import edu.ncsu.csc.iTrust2.forms.DiagnosisListForm;
@@ -91,21 +94,38 @@ public class APIDiagnosisController extends APIController {
     }
 
     /**
-     * Returns a list of diagnoses for the logged in patient
+     * Returns a page of the diagnoses for the logged in patient, in order of
+     * when they were made, or all of them if no page or size is given. See
+     * `APIController.pagedList()` for the headers describing the page.
      *
+     * @param page
+     *            Number of the page to return, counting from 0
+     * @param size
+     *            Most diagnoses to return
+     * @param order
+     *            `asc` (the default) for oldest first, or `desc` for newest
+     *            first
      * @return List of Diagnoses for the patient
      */
     @GetMapping ( BASE_PATH + "/diagnoses" )
-    public List<DiagnosisListForm> getDiagnosis () {
+    public ResponseEntity<List<DiagnosisListForm>> getDiagnosis (
+            @RequestParam ( value = "page", required = false ) final Integer page,
+            @RequestParam ( value = "size", required = false ) final Integer size,
+            @RequestParam ( value = "order", defaultValue = "asc" ) final String order ) {
         final User self = userService.findByName( LoggerUtil.currentUser() );
         if ( self == null ) {
             return null;
         }
+        final Optional<Sort.Direction> direction = Sort.Direction.fromOptionalString( order );
+        if ( !direction.isPresent() ) {
+            return new ResponseEntity( errorResponse( "Invalid order " + order ), HttpStatus.BAD_REQUEST );
+        }
         loggerUtil.log( TransactionType.DIAGNOSIS_PATIENT_VIEW_ALL, self.getUsername(),
                 self.getUsername() + " viewed their diagnoses" );
 
-        return diagnosisService.findByPatient( self ).stream().map( DiagnosisListForm::new )
-                .collect( Collectors.toList() );
+        final Sort sort = DiagnosisService.byVisitDate( direction.get() );
+        return pagedList( page, size, request -> diagnosisService.findHistory( self,
+                PageRequest.of( request.getPageNumber(), request.getPageSize(), sort ) ) );
     }
 
 }
@@ -3,6 +3,7 @@ package edu.ncsu.csc.iTrust2.controllers.api;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -12,11 +13,15 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import edu.ncsu.csc.iTrust2.forms.DrugForm;
 import edu.ncsu.csc.iTrust2.models.Drug;
 import edu.ncsu.csc.iTrust2.models.enums.TransactionType;
+import edu.ncsu.csc.iTrust2.services.CatalogVersions;
+import edu.ncsu.csc.iTrust2.services.CatalogVersions.Catalog;
 import edu.ncsu.csc.iTrust2.services.DrugService;
 import edu.ncsu.csc.iTrust2.utils.LoggerUtil;
 
@@ -31,13 +36,20 @@ import edu.ncsu.csc.iTrust2.utils.LoggerUtil;
 @RestController
 public class APIDrugController extends APIController {
 
+    /** Most drugs returned on a single page of search results */
+    private static final int MAX_SEARCH_RESULTS = 100;
+
     /** Drug service */
     @Autowired
-    private DrugService service;
+    private DrugService      service;
 
     /** LoggerUtil */
     @Autowired
-    private LoggerUtil  loggerUtil;
+    private LoggerUtil       loggerUtil;
+
+    /** Versions of the reference data, for ETags */
+    @Autowired
+    private CatalogVersions  versions;
 
     /**
      * Adds a new drug to the system. Requires admin permissions. Returns an
@@ -146,14 +158,40 @@ public class APIDrugController extends APIController {
     }
 
     /**
-     * Gets a list of all the drugs in the system.
+     * Gets a list of all the drugs in the system, or 304 if the client's copy
+     * is current.
      *
+     * @param ifNoneMatch
+     *            ETag of the client's copy, if it has one
      * @return a list of drugs
      */
     @GetMapping ( BASE_PATH + "/drugs" )
-    public List<Drug> getDrugs () {
-        loggerUtil.log( TransactionType.DRUG_VIEW, LoggerUtil.currentUser(), "Fetched list of drugs" );
-        return service.findAll();
+    public ResponseEntity<List<Drug>> getDrugs (
+            @RequestHeader ( value = HttpHeaders.IF_NONE_MATCH, required = false ) final String ifNoneMatch ) {
+        return conditional( ifNoneMatch, versions.etag( Catalog.DRUGS, null ), () -> {
+            loggerUtil.log( TransactionType.DRUG_VIEW, LoggerUtil.currentUser(), "Fetched list of drugs" );
+            return service.findAll();
+        } );
+    }
+
+    /**
+     * Searches the formulary by NDC, name and description, one page at a
+     * time, so that prescribing pages don't have to download every drug
+     *
+     * @param query
+     *            What to search for, eg `0378-6208` or `ibuprofen`
+     * @param page
+     *            Page of results to return, from 0
+     * @param limit
+     *            Most drugs on a page; at most 100
+     * @return The best matching drugs
+     */
+    @GetMapping ( BASE_PATH + "/drugs/search" )
+    public List<Drug> searchDrugs ( @RequestParam ( value = "q", defaultValue = "" ) final String query,
+            @RequestParam ( value = "page", defaultValue = "0" ) final int page,
+            @RequestParam ( value = "limit", defaultValue = "20" ) final int limit ) {
+        loggerUtil.log( TransactionType.DRUG_VIEW, LoggerUtil.currentUser(), "Searched drugs for " + query );
+        return service.search( query, Math.max( 0, page ), Math.max( 1, Math.min( limit, MAX_SEARCH_RESULTS ) ) );
     }
 
 }
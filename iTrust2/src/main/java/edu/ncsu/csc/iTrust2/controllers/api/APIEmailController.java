@@ -3,7 +3,9 @@ package edu.ncsu.csc.iTrust2.controllers.api;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import edu.ncsu.csc.iTrust2.models.Email;
@@ -27,11 +29,23 @@ public class APIEmailController extends APIController {
      * a MASSIVE security vulnerability to not only make everything available,
      * but without authentication. Don't do this!
      *
+     * A page at a time, at least.
+     *
+     * @param page
+     *            Number of the page to return, counting from 0; see
+     *            `APIController.listPage()`
+     * @param size
+     *            Most emails to return
+     * @param cursor
+     *            ID of the last email on the previous page
      * @return Emails
      */
     @GetMapping ( BASE_PATH + "emails" )
-    public List<Email> getEmails () {
-        return service.findAll();
+    public ResponseEntity<List<Email>> getEmails (
+            @RequestParam ( value = "page", required = false ) final Integer page,
+            @RequestParam ( value = "size", required = false ) final Integer size,
+            @RequestParam ( value = "cursor", required = false ) final Long cursor ) {
+        return listPage( service, page, size, cursor );
     }
 
 }
@@ -2,14 +2,25 @@ package edu.ncsu.csc.iTrust2.controllers.api;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+import javax.annotation.PostConstruct;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import edu.ncsu.csc.iTrust2.models.User;
 import edu.ncsu.csc.iTrust2.models.enums.AppointmentType;
 import edu.ncsu.csc.iTrust2.models.enums.BloodType;
@@ -26,7 +37,10 @@ import edu.ncsu.csc.iTrust2.utils.LoggerUtil;
 
 /**
  * This class provides GET endpoints for all of the Enums, so that they can be
- * used for creating proper DomainObjects
+ * used for creating proper DomainObjects. As the enums never change while the
+ * application runs, each response is serialized once at startup and served as
+ * is, tagged with a hash of its contents so that clients can revalidate their
+ * copies with `If-None-Match`.
  *
  * @author Kai Presler-Marshall, Lauren Murillo
  */
@@ -35,67 +49,169 @@ public class APIEnumController extends APIController {
 
     /** User service */
     @Autowired
-    private UserService<User> userService;
+    private UserService<User>                      userService;
+
+    /** Serializes responses the same way as every other endpoint */
+    @Autowired
+    private ObjectMapper                           objectMapper;
+
+    /** Vaccination statuses */
+    private Serialized                             vaccinationStatuses;
+
+    /** Blood types */
+    private Serialized                             bloodTypes;
+
+    /** Ethnicities */
+    private Serialized                             ethnicities;
+
+    /** Genders */
+    private Serialized                             genders;
+
+    /** States */
+    private Serialized                             states;
+
+    /** Each list of appointment types some user may be offered */
+    private Map<List<AppointmentType>, Serialized> appointmentTypes;
+
+    /** Appointment statuses */
+    private Serialized                             appointmentStatuses;
+
+    /** Household smoking statuses */
+    private Serialized                             houseSmokingStatuses;
+
+    /** Patient smoking statuses */
+    private Serialized                             patientSmokingStatuses;
+
+    /**
+     * Serializes every response
+     *
+     * @throws JsonProcessingException
+     *             If one can't be serialized
+     */
+    @PostConstruct
+    public void serialize () throws JsonProcessingException {
+        vaccinationStatuses = serialize( Arrays.asList( VaccinationStatus.values() ) );
+        bloodTypes = serialize(
+                Arrays.asList( BloodType.values() ).stream().map( bt -> bt.getInfo() ).collect( Collectors.toList() ) );
+        ethnicities = serialize( Arrays.asList( Ethnicity.values() ).stream().map( eth -> eth.getInfo() )
+                .collect( Collectors.toList() ) );
+        genders = serialize(
+                Arrays.asList( Gender.values() ).stream().map( gen -> gen.getInfo() ).collect( Collectors.toList() ) );
+        states = serialize(
+                Arrays.asList( State.values() ).stream().map( st -> st.getInfo() ).collect( Collectors.toList() ) );
+        appointmentTypes = new HashMap<List<AppointmentType>, Serialized>();
+        for ( final Collection<Role> roles : List.of( List.of( Role.ROLE_OD ), List.of( Role.ROLE_OPH ),
+                List.of( Role.ROLE_HCP ), List.<Role> of() ) ) {
+            final List<AppointmentType> types = appointmentTypesFor( roles );
+            appointmentTypes.put( types, serialize( types ) );
+        }
+        appointmentStatuses = serialize( Arrays.asList( Status.values() ) );
+        houseSmokingStatuses = serialize(
+                Arrays.asList( HouseholdSmokingStatus.values() ).subList( 1, HouseholdSmokingStatus.values().length ) );
+        patientSmokingStatuses = serialize(
+                Arrays.asList( PatientSmokingStatus.values() ).subList( 1, PatientSmokingStatus.values().length ) );
+    }
+
+    /**
+     * Serializes one response
+     *
+     * @param response
+     *            The response
+     * @return The response, serialized
+     * @throws JsonProcessingException
+     *             If it can't be serialized
+     */
+    private Serialized serialize ( final Object response ) throws JsonProcessingException {
+        return new Serialized( objectMapper.writeValueAsBytes( response ) );
+    }
 
     /**
      * Gets vaccination statuses
      *
+     * @param ifNoneMatch
+     *            ETag of the client's copy, if it has one
      * @return vaccination statuses
      */
-    @GetMapping ( BASE_PATH + "/vaccinationstatus" )
-    public List<VaccinationStatus> getVaccinationStatuses () {
-        return Arrays.asList( VaccinationStatus.values() );
+    @GetMapping ( value = BASE_PATH + "/vaccinationstatus", produces = MediaType.APPLICATION_JSON_VALUE )
+    public ResponseEntity<byte[]> getVaccinationStatuses (
+            @RequestHeader ( value = HttpHeaders.IF_NONE_MATCH, required = false ) final String ifNoneMatch ) {
+        return vaccinationStatuses.send( ifNoneMatch );
     }
 
     /**
      * Get the blood types
      *
+     * @param ifNoneMatch
+     *            ETag of the client's copy, if it has one
      * @return blood types
      */
-    @GetMapping ( BASE_PATH + "/bloodtype" )
-    public List<Map<String, Object>> getBloodTypes () {
-        return Arrays.asList( BloodType.values() ).stream().map( bt -> bt.getInfo() ).collect( Collectors.toList() );
+    @GetMapping ( value = BASE_PATH + "/bloodtype", produces = MediaType.APPLICATION_JSON_VALUE )
+    public ResponseEntity<byte[]> getBloodTypes (
+            @RequestHeader ( value = HttpHeaders.IF_NONE_MATCH, required = false ) final String ifNoneMatch ) {
+        return bloodTypes.send( ifNoneMatch );
     }
 
     /**
      * Get ethnicity
      *
+     * @param ifNoneMatch
+     *            ETag of the client's copy, if it has one
      * @return ethnicity
      */
-    @GetMapping ( BASE_PATH + "/ethnicity" )
-    public List<Map<String, Object>> getEthnicity () {
-        return Arrays.asList( Ethnicity.values() ).stream().map( eth -> eth.getInfo() ).collect( Collectors.toList() );
+    @GetMapping ( value = BASE_PATH + "/ethnicity", produces = MediaType.APPLICATION_JSON_VALUE )
+    public ResponseEntity<byte[]> getEthnicity (
+            @RequestHeader ( value = HttpHeaders.IF_NONE_MATCH, required = false ) final String ifNoneMatch ) {
+        return ethnicities.send( ifNoneMatch );
     }
 
     /**
      * Get genders
      *
+     * @param ifNoneMatch
+     *            ETag of the client's copy, if it has one
      * @return genders
      */
-    @GetMapping ( BASE_PATH + "/gender" )
-    public List<Map<String, Object>> getGenders () {
-        return Arrays.asList( Gender.values() ).stream().map( gen -> gen.getInfo() ).collect( Collectors.toList() );
+    @GetMapping ( value = BASE_PATH + "/gender", produces = MediaType.APPLICATION_JSON_VALUE )
+    public ResponseEntity<byte[]> getGenders (
+            @RequestHeader ( value = HttpHeaders.IF_NONE_MATCH, required = false ) final String ifNoneMatch ) {
+        return genders.send( ifNoneMatch );
     }
 
     /**
      * Get states
      *
+     * @param ifNoneMatch
+     *            ETag of the client's copy, if it has one
      * @return states
      */
-    @GetMapping ( BASE_PATH + "/state" )
-    public List<Map<String, Object>> getStates () {
-        return Arrays.asList( State.values() ).stream().map( st -> st.getInfo() ).collect( Collectors.toList() );
+    @GetMapping ( value = BASE_PATH + "/state", produces = MediaType.APPLICATION_JSON_VALUE )
+    public ResponseEntity<byte[]> getStates (
+            @RequestHeader ( value = HttpHeaders.IF_NONE_MATCH, required = false ) final String ifNoneMatch ) {
+        return states.send( ifNoneMatch );
     }
 
     /**
-     * Gets appointment types
+     * Gets the appointment types the current user may request
      *
+     * @param ifNoneMatch
+     *            ETag of the client's copy, if it has one
      * @return appointment types
      */
-    @GetMapping ( BASE_PATH + "/appointmenttype" )
-    public List<AppointmentType> getAppointmentTypes () {
+    @GetMapping ( value = BASE_PATH + "/appointmenttype", produces = MediaType.APPLICATION_JSON_VALUE )
+    public ResponseEntity<byte[]> getAppointmentTypes (
+            @RequestHeader ( value = HttpHeaders.IF_NONE_MATCH, required = false ) final String ifNoneMatch ) {
         final User user = userService.findByName( LoggerUtil.currentUser() );
-        final Collection<Role> role = user.getRoles();
+        return appointmentTypes.get( appointmentTypesFor( user.getRoles() ) ).send( ifNoneMatch );
+    }
+
+    /**
+     * Works out which appointment types a user may request
+     *
+     * @param role
+     *            The user's roles
+     * @return appointment types
+     */
+    private static List<AppointmentType> appointmentTypesFor ( final Collection<Role> role ) {
         if ( role.contains( Role.ROLE_OD ) ) {
             return List.of( AppointmentType.GENERAL_CHECKUP, AppointmentType.GENERAL_OPHTHALMOLOGY );
         }
@@ -115,35 +231,77 @@ public class APIEnumController extends APIController {
     /**
      * Gets appointment statuses
      *
+     * @param ifNoneMatch
+     *            ETag of the client's copy, if it has one
      * @return appointment statuses
      */
-    @GetMapping ( BASE_PATH + "/appointmentstatus" )
-    public List<Status> getAppointmentStatuses () {
-        return Arrays.asList( Status.values() );
+    @GetMapping ( value = BASE_PATH + "/appointmentstatus", produces = MediaType.APPLICATION_JSON_VALUE )
+    public ResponseEntity<byte[]> getAppointmentStatuses (
+            @RequestHeader ( value = HttpHeaders.IF_NONE_MATCH, required = false ) final String ifNoneMatch ) {
+        return appointmentStatuses.send( ifNoneMatch );
     }
 
     /**
      * Get house smoking statuses
      *
+     * @param ifNoneMatch
+     *            ETag of the client's copy, if it has one
      * @return house smoking statuses
      */
-    @GetMapping ( BASE_PATH + "/housesmoking" )
-    public List<HouseholdSmokingStatus> getHouseSmokingStatuses () {
-        final List<HouseholdSmokingStatus> ret = Arrays.asList( HouseholdSmokingStatus.values() ).subList( 1,
-                HouseholdSmokingStatus.values().length );
-        return ret;
+    @GetMapping ( value = BASE_PATH + "/housesmoking", produces = MediaType.APPLICATION_JSON_VALUE )
+    public ResponseEntity<byte[]> getHouseSmokingStatuses (
+            @RequestHeader ( value = HttpHeaders.IF_NONE_MATCH, required = false ) final String ifNoneMatch ) {
+        return houseSmokingStatuses.send( ifNoneMatch );
     }
 
     /**
      * Get patient smoking statuses
      *
+     * @param ifNoneMatch
+     *            ETag of the client's copy, if it has one
      * @return patient smoking statuses
      */
-    @GetMapping ( BASE_PATH + "/patientsmoking" )
-    public List<PatientSmokingStatus> getPatientSmokingStatuses () {
-        final List<PatientSmokingStatus> ret = Arrays.asList( PatientSmokingStatus.values() ).subList( 1,
-                PatientSmokingStatus.values().length );
-        return ret;
+    @GetMapping ( value = BASE_PATH + "/patientsmoking", produces = MediaType.APPLICATION_JSON_VALUE )
+    public ResponseEntity<byte[]> getPatientSmokingStatuses (
+            @RequestHeader ( value = HttpHeaders.IF_NONE_MATCH, required = false ) final String ifNoneMatch ) {
+        return patientSmokingStatuses.send( ifNoneMatch );
+    }
+
+    /**
+     * A response serialized ahead of time, along with its ETag
+     *
+     * @author Kai Presler-Marshall
+     *
+     */
+    private static final class Serialized {
+
+        /** The response, as JSON */
+        private final byte[] json;
+
+        /** Strong ETag: a hash of the JSON */
+        private final String etag;
+
+        /**
+         * Creates a Serialized response
+         *
+         * @param json
+         *            The response, as JSON
+         */
+        Serialized ( final byte[] json ) {
+            this.json = json;
+            this.etag = "\"" + DigestUtils.md5DigestAsHex( json ) + "\"";
+        }
+
+        /**
+         * Sends the response, or 304 if the client's copy is current
+         *
+         * @param ifNoneMatch
+         *            ETag of the client's copy, if it has one
+         * @return The response
+         */
+        ResponseEntity<byte[]> send ( final String ifNoneMatch ) {
+            return conditional( ifNoneMatch, etag, () -> json );
+        }
     }
 
 }
@@ -3,6 +3,7 @@ package edu.ncsu.csc.iTrust2.controllers.api;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -12,11 +13,14 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
 
 import edu.ncsu.csc.iTrust2.forms.HospitalForm;
 import edu.ncsu.csc.iTrust2.models.Hospital;
 import edu.ncsu.csc.iTrust2.models.enums.TransactionType;
+import edu.ncsu.csc.iTrust2.services.CatalogVersions;
+import edu.ncsu.csc.iTrust2.services.CatalogVersions.Catalog;
 import edu.ncsu.csc.iTrust2.services.HospitalService;
 import edu.ncsu.csc.iTrust2.utils.LoggerUtil;
 
@@ -40,15 +44,23 @@ public class APIHospitalController extends APIController {
     @Autowired
     private HospitalService hospitalService;
 
+    /** Versions of the reference data, for ETags */
+    @Autowired
+    private CatalogVersions versions;
+
     /**
-     * Retrieves a list of all Hospitals in the database
+     * Retrieves a list of all Hospitals in the database, or 304 if the
+     * client's copy is current
      *
+     * @param ifNoneMatch
+     *            ETag of the client's copy, if it has one
      * @return list of hospitals
      */
     @GetMapping ( BASE_PATH + "/hospitals" )
     @PreAuthorize ( "isAuthenticated()" )
-    public List<Hospital> getHospitals () {
-        return hospitalService.findAll();
+    public ResponseEntity<List<Hospital>> getHospitals (
+            @RequestHeader ( value = HttpHeaders.IF_NONE_MATCH, required = false ) final String ifNoneMatch ) {
+        return conditional( ifNoneMatch, versions.etag( Catalog.HOSPITALS, null ), hospitalService::findAll );
     }
 
     /**
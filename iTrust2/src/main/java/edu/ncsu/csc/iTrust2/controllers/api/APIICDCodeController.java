@@ -3,6 +3,7 @@ package edu.ncsu.csc.iTrust2.controllers.api;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -12,11 +13,15 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import edu.ncsu.csc.iTrust2.forms.ICDCodeForm;
 import edu.ncsu.csc.iTrust2.models.ICDCode;
 import edu.ncsu.csc.iTrust2.models.enums.TransactionType;
+import edu.ncsu.csc.iTrust2.services.CatalogVersions;
+import edu.ncsu.csc.iTrust2.services.CatalogVersions.Catalog;
 import edu.ncsu.csc.iTrust2.services.ICDCodeService;
 import edu.ncsu.csc.iTrust2.utils.LoggerUtil;
 
@@ -33,23 +38,55 @@ import edu.ncsu.csc.iTrust2.utils.LoggerUtil;
 @SuppressWarnings ( { "unchecked", "rawtypes" } )
 public class APIICDCodeController extends APIController {
 
+    /** Most codes returned by a single search */
+    private static final int MAX_SEARCH_RESULTS = 100;
+
     /** LoggerUtil */
     @Autowired
-    private LoggerUtil     loggerUtil;
+    private LoggerUtil       loggerUtil;
 
     /** ICDCode service */
     @Autowired
-    private ICDCodeService service;
+    private ICDCodeService   service;
+
+    /** Versions of the reference data, for ETags */
+    @Autowired
+    private CatalogVersions  versions;
 
     /**
-     * Returns a list of Codes in the system
+     * Returns a list of the Codes in the system the current user may see, or
+     * 304 if the client's copy is current
      *
+     * @param ifNoneMatch
+     *            ETag of the client's copy, if it has one
      * @return All the codes in the system
      */
     @GetMapping ( BASE_PATH + "/icdcodes" )
-    public List<ICDCode> getCodes () {
-        loggerUtil.log( TransactionType.ICD_VIEW_ALL, LoggerUtil.currentUser(), "Fetched icd codes" );
-        return service.findAll();
+    public ResponseEntity<List<ICDCode>> getCodes (
+            @RequestHeader ( value = HttpHeaders.IF_NONE_MATCH, required = false ) final String ifNoneMatch ) {
+        /* Users see different codes, so the tag names which ones */
+        final String etag = versions.etag( Catalog.ICD_CODES, service.currentVisibility() );
+        return conditional( ifNoneMatch, etag, () -> {
+            loggerUtil.log( TransactionType.ICD_VIEW_ALL, LoggerUtil.currentUser(), "Fetched icd codes" );
+            return service.findAll();
+        } );
+    }
+
+    /**
+     * Searches the codes the current user may see, by code and by the words
+     * in their descriptions, so that pages don't have to download every code
+     *
+     * @param query
+     *            What to search for, eg `J45` or `asthma`
+     * @param limit
+     *            Most codes to return; at most 100
+     * @return The best matching codes
+     */
+    @GetMapping ( BASE_PATH + "/icdcodes/search" )
+    public List<ICDCode> searchCodes ( @RequestParam ( value = "q", defaultValue = "" ) final String query,
+            @RequestParam ( value = "limit", defaultValue = "20" ) final int limit ) {
+        loggerUtil.log( TransactionType.ICD_VIEW_ALL, LoggerUtil.currentUser(), "Searched icd codes for " + query );
+        return service.search( query, Math.max( 1, Math.min( limit, MAX_SEARCH_RESULTS ) ) );
     }
 
     /**
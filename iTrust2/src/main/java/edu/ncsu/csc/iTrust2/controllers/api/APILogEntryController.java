@@ -1,12 +1,12 @@
 package edu.ncsu.csc.iTrust2.controllers.api;
 
 import java.text.ParseException;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -55,7 +55,10 @@ public class APILogEntryController extends APIController {
 
     /**
      * Handles GET requests for the current user's log entries when searching by
-     * date and using a page system.
+     * date and using a page system. Filtering, ordering (newest first) and
+     * paging all happen in the database. If the request carries the time and
+     * ID of the last row on the previous page, the next page is found after
+     * that row instead of by page number.
      *
      * @param body
      *            the request body of the GET request
@@ -63,9 +66,14 @@ public class APILogEntryController extends APIController {
      */
     @PostMapping ( BASE_PATH + "/logentries/range" )
     public ResponseEntity getEntryByDateRange ( @RequestBody final LogEntryRequestBody body ) {
+        if ( body.getPageLength() < 1 ) {
+            return new ResponseEntity( errorResponse( "Page length must be at least 1" ), HttpStatus.BAD_REQUEST );
+        }
+
         // If no dates are specified, get all entries, otherwise use the date
         // range
-        List<LogEntry> entries = null;
+        ZonedDateTime start = Instant.EPOCH.atZone( ZoneId.systemDefault() );
+        ZonedDateTime end = ZonedDateTime.now().plusDays( 1 );
         try {
             if ( body.getStartDate().equals( "" ) || body.getEndDate().equals( "" ) ) {
                 throw new ParseException( "Date", 1 );
@@ -73,7 +81,6 @@ public class APILogEntryController extends APIController {
 
             // Parse in start/end dates as ZonedDateTimes
             // from ISO date/time or ISO date strings
-            ZonedDateTime start;
             try {
                 start = ZonedDateTime.parse( body.getStartDate() );
             }
@@ -81,7 +88,6 @@ public class APILogEntryController extends APIController {
                 start = LocalDate.parse( body.getStartDate() ).atStartOfDay( ZoneId.systemDefault() );
             }
 
-            ZonedDateTime end;
             try {
                 end = ZonedDateTime.parse( body.getEndDate() ).plusDays( 1 );
             }
@@ -92,48 +98,32 @@ public class APILogEntryController extends APIController {
             if ( start.isAfter( end ) ) {
                 return new ResponseEntity( errorResponse( "Start Date is after End Date" ), HttpStatus.NOT_ACCEPTABLE );
             }
-            entries = leservice.findByDateRange( LoggerUtil.currentUser(), start, end );
         }
         catch ( final ParseException ex ) {
-            entries = leservice.findAllForUser( LoggerUtil.currentUser() );
-        }
-
-        // If the entries array is null give an error response
-        if ( entries == null ) {
-            return new ResponseEntity( errorResponse( "Error retrieving Log Entries" ),
-                    HttpStatus.INTERNAL_SERVER_ERROR );
+            // No range given; keep the defaults, which cover every entry
         }
 
-        // Use only log entries that are viewable by the user
-        List<LogEntry> visible;
-        final User user = userService.findByName( LoggerUtil.currentUser() );
-        if ( user == null || user.getRoles() == null || user.getRoles().contains( Role.ROLE_PATIENT ) ) {
-            visible = new ArrayList<LogEntry>();
-
-            for ( int i = 0; i < entries.size(); i++ ) {
-                final LogEntry le = entries.get( i );
-                if ( le.getLogCode().isPatientViewable() ) {
-                    visible.add( entries.get( i ) );
-                }
+        ZonedDateTime cursorTime = null;
+        if ( null != body.getCursorTime() && !body.getCursorTime().isEmpty() ) {
+            try {
+                cursorTime = ZonedDateTime.parse( body.getCursorTime() );
+            }
+            catch ( final DateTimeParseException ex ) {
+                return new ResponseEntity( errorResponse( "Invalid cursor " + body.getCursorTime() ),
+                        HttpStatus.BAD_REQUEST );
             }
-        }
-        else {
-            visible = entries;
         }
 
-        final int numPages = 1 + visible.size() / body.getPageLength();
+        // Patients may only see log entries that are viewable by them
+        final User user = userService.findByName( LoggerUtil.currentUser() );
+        final boolean isPatient = user == null || user.getRoles() == null
+                || user.getRoles().contains( Role.ROLE_PATIENT );
 
-        Collections.reverse( visible );
+        final long total = leservice.countForUser( LoggerUtil.currentUser(), start, end, isPatient );
+        final int numPages = (int) ( 1 + total / body.getPageLength() );
 
-        // Find only the entries that should show up on the page given the page
-        // and page length
-        final List<LogEntry> page = new ArrayList<LogEntry>();
-        for ( int i = 0; i < body.getPageLength(); i++ ) {
-            final int idx = ( body.getPage() - 1 ) * body.getPageLength() + i;
-            if ( idx >= 0 && visible.size() > idx ) {
-                page.add( visible.get( idx ) );
-            }
-        }
+        final List<LogEntry> page = leservice.findPageForUser( LoggerUtil.currentUser(), start, end, isPatient,
+                body.getPage(), body.getPageLength(), cursorTime, body.getCursorId() );
 
         // Turn these log entries into proper table rows for the application to
         // display
@@ -150,8 +140,9 @@ public class APILogEntryController extends APIController {
             row.setDateTime( le.getTime().toOffsetDateTime().toString() );
             row.setTransactionType( le.getLogCode().getDescription() );
             row.setNumPages( numPages );
+            row.setId( le.getId() );
 
-            if ( user == null || user.getRoles() == null || user.getRoles().contains( Role.ROLE_PATIENT ) ) {
+            if ( isPatient ) {
                 row.setPatient( true );
 
                 if ( le.getPrimaryUser().equals( LoggerUtil.currentUser() ) ) {
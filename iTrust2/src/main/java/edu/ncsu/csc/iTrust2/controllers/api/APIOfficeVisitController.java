@@ -11,6 +11,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import edu.ncsu.csc.iTrust2.forms.OfficeVisitForm;
@@ -46,15 +47,25 @@ public class APIOfficeVisitController extends APIController {
     private LoggerUtil         loggerUtil;
 
     /**
-     * Retrieves a list of all OfficeVisits in the database
+     * Retrieves a page of the OfficeVisits in the database
      *
+     * @param page
+     *            Number of the page to return, counting from 0; see
+     *            `APIController.listPage()`
+     * @param size
+     *            Most visits to return
+     * @param cursor
+     *            ID of the last visit on the previous page
      * @return list of office visits
      */
     @GetMapping ( BASE_PATH + "/officevisits" )
     @PreAuthorize ( "hasAnyRole('ROLE_HCP')" )
-    public List<OfficeVisit> getOfficeVisits () {
+    public ResponseEntity<List<OfficeVisit>> getOfficeVisits (
+            @RequestParam ( value = "page", required = false ) final Integer page,
+            @RequestParam ( value = "size", required = false ) final Integer size,
+            @RequestParam ( value = "cursor", required = false ) final Long cursor ) {
         loggerUtil.log( TransactionType.VIEW_ALL_OFFICE_VISITS, LoggerUtil.currentUser() );
-        return officeVisitService.findAll();
+        return listPage( officeVisitService, page, size, cursor );
     }
 
     /**
@@ -13,6 +13,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import edu.ncsu.csc.iTrust2.models.Patient;
@@ -59,16 +60,25 @@ public class APIPatientAdvocateAssignmentController extends APIController {
     private PatientAdvocateAssignmentService assignmentService;
 
     /**
-     * GET operation for getting a list of all of the assignments in the
-     * database
+     * GET operation for getting a page of the assignments in the database
      *
-     * @return List<> a list of all the assignments
+     * @param page
+     *            Number of the page to return, counting from 0; see
+     *            `APIController.listPage()`
+     * @param size
+     *            Most assignments to return
+     * @param cursor
+     *            ID of the last assignment on the previous page
+     * @return List<> a list of the assignments
      */
 
     @GetMapping ( BASE_PATH + "/assignments" )
-    public List<PatientAdvocateAssignment> getAssignments () {
+    public ResponseEntity<List<PatientAdvocateAssignment>> getAssignments (
+            @RequestParam ( value = "page", required = false ) final Integer page,
+            @RequestParam ( value = "size", required = false ) final Integer size,
+            @RequestParam ( value = "cursor", required = false ) final Long cursor ) {
         loggerUtil.log( TransactionType.PATIENT_ADVOCATE_ASSIGNMENTS_VIEWED, LoggerUtil.currentUser() );
-        return assignmentService.findAll();
+        return listPage( assignmentService, page, size, cursor );
     }
 
     /**
@@ -13,6 +13,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import edu.ncsu.csc.iTrust2.forms.PatientForm;
@@ -62,14 +63,24 @@ public class APIPatientController extends APIController {
     private LoggerUtil         loggerUtil;
 
     /**
-     * Retrieves and returns a list of all Patients stored in the system
+     * Retrieves and returns a page of the Patients stored in the system
      *
+     * @param page
+     *            Number of the page to return, counting from 0; see
+     *            `APIController.listPage()`
+     * @param size
+     *            Most patients to return
+     * @param cursor
+     *            Username of the last patient on the previous page
      * @return list of patients
      */
+    @SuppressWarnings ( "unchecked" )
     @GetMapping ( BASE_PATH + "/patients" )
-    public List<Patient> getPatients () {
-        final List<Patient> patients = patientService.findAll();
-        return patients;
+    public ResponseEntity<List<Patient>> getPatients (
+            @RequestParam ( value = "page", required = false ) final Integer page,
+            @RequestParam ( value = "size", required = false ) final Integer size,
+            @RequestParam ( value = "cursor", required = false ) final String cursor ) {
+        return listPage( patientService, page, size, cursor );
     }
 
     /**
@@ -162,6 +173,7 @@ public class APIPatientController extends APIController {
                 return new ResponseEntity( errorResponse( "No Patient found for id " + id ), HttpStatus.NOT_FOUND );
             }
             patientService.save( patient );
+            patientService.evict( id );
 
             // Log based on whether user or hcp edited demographics
             if ( userEdit ) {
@@ -247,6 +259,7 @@ public class APIPatientController extends APIController {
                 return new ResponseEntity( errorResponse( "No Patient found for id " + id ), HttpStatus.NOT_FOUND );
             }
             patientService.save( patient );
+            patientService.evict( id );
 
             loggerUtil.log( TransactionType.EDIT_DEMOGRAPHICS, LoggerUtil.currentUser(), patient.getUsername(),
                     "HCP edited vaccination demographics for patient with username " + patient.getUsername() );
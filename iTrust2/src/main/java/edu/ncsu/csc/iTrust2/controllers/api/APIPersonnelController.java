@@ -1,9 +1,11 @@
 package edu.ncsu.csc.iTrust2.controllers.api;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -11,11 +13,13 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import edu.ncsu.csc.iTrust2.forms.AdvocateForm;
 import edu.ncsu.csc.iTrust2.forms.PersonnelForm;
 import edu.ncsu.csc.iTrust2.forms.display.ProviderWithStatistics;
+import edu.ncsu.csc.iTrust2.forms.display.SatisfactionSurveyStatistics;
 import edu.ncsu.csc.iTrust2.models.Personnel;
 import edu.ncsu.csc.iTrust2.models.enums.Role;
 import edu.ncsu.csc.iTrust2.models.enums.TransactionType;
@@ -48,14 +52,24 @@ public class APIPersonnelController extends APIController {
     private SatisfactionSurveyStatisticsService satisfactionSurveyStatisticsService;
 
     /**
-     * Retrieves and returns a list of all Personnel stored in the system
+     * Retrieves and returns a page of the Personnel stored in the system
      *
+     * @param page
+     *            Number of the page to return, counting from 0; see
+     *            `APIController.listPage()`
+     * @param size
+     *            Most personnel to return
+     * @param cursor
+     *            Username of the last personnel on the previous page
      * @return list of personnel
      */
     @GetMapping ( BASE_PATH + "/personnel" )
     @PreAuthorize ( "hasAnyRole('ROLE_HCP', 'ROLE_ADMIN')" )
-    public List<Personnel> getPersonnel () {
-        return service.findAll();
+    public ResponseEntity<List<Personnel>> getPersonnel (
+            @RequestParam ( value = "page", required = false ) final Integer page,
+            @RequestParam ( value = "size", required = false ) final Integer size,
+            @RequestParam ( value = "cursor", required = false ) final String cursor ) {
+        return listPage( service, page, size, cursor );
     }
 
     /**
@@ -133,6 +147,7 @@ public class APIPersonnelController extends APIController {
         }
         try {
             service.save( fromDb );
+            service.evict( id );
             loggerUtil.log( TransactionType.EDIT_DEMOGRAPHICS, LoggerUtil.currentUser() );
             return new ResponseEntity( fromDb, HttpStatus.OK );
         }
@@ -178,6 +193,7 @@ public class APIPersonnelController extends APIController {
 
         try {
             service.save( fromDb );
+            service.evict( id );
             loggerUtil.log( TransactionType.EDIT_DEMOGRAPHICS, LoggerUtil.currentUser() );
             return new ResponseEntity( fromDb, HttpStatus.OK );
         }
@@ -189,22 +205,29 @@ public class APIPersonnelController extends APIController {
 
     /**
      * Returns only personnel of a specific role, based on what the user wants.
+     * Without a page or size every match is returned, from the
+     * PersonnelDirectory; with either, one page of them is read from the
+     * database (see `APIController.pageResponse()`).
      *
      * @param role
      *            the role to filter out personnel by
+     * @param page
+     *            Number of the page to return, counting from 0
+     * @param size
+     *            Most personnel to return
      * @return response and list of personnel matching query
      */
     @GetMapping ( BASE_PATH + "/personnel/getbyroles/{role}" )
     @PreAuthorize ( "hasAnyRole('ROLE_HCP', 'ROLE_ADMIN', 'ROLE_PATIENT', 'ROLE_VACCINATOR', 'ROLE_BSM', 'ROLE_ADVOCATE')" )
-    public ResponseEntity getPersonnelByRole ( @PathVariable ( "role" ) final String role ) {
-        final List<Personnel> allPersonnel = service.findAll();
-
+    public ResponseEntity getPersonnelByRole ( @PathVariable ( "role" ) final String role,
+            @RequestParam ( value = "page", required = false ) final Integer page,
+            @RequestParam ( value = "size", required = false ) final Integer size ) {
         try {
             final Role desired = Role.valueOf( role );
-
-            allPersonnel.removeIf( e -> !e.getRoles().contains( desired ) );
-
-            return new ResponseEntity( allPersonnel, HttpStatus.OK );
+            if ( wholeList( page, size ) ) {
+                return new ResponseEntity( service.findByRole( desired ), HttpStatus.OK );
+            }
+            return pageResponse( service.findByRole( desired, pageRequest( page, size ) ) );
         }
         catch ( final IllegalArgumentException iae ) {
             return new ResponseEntity( errorResponse( "Invalid role" ), HttpStatus.BAD_REQUEST );
@@ -214,25 +237,41 @@ public class APIPersonnelController extends APIController {
 
     /**
      * Returns only personnel of a specific role, based on what the user wants.
-     * Also returns statistics for the personnel.
+     * Also returns statistics for the personnel. Paged as for
+     * `getPersonnelByRole()`.
      *
      * @param role
      *            the role to filter out personnel by
+     * @param page
+     *            Number of the page to return, counting from 0
+     * @param size
+     *            Most personnel to return
      * @return response and list of personnel with statistics matching query
      */
     @GetMapping ( BASE_PATH + "/personnel/getbyroles/{role}/statistics" )
     @PreAuthorize ( "hasAnyRole('ROLE_HCP', 'ROLE_ADMIN', 'ROLE_PATIENT', 'ROLE_VACCINATOR', 'ROLE_BSM', 'ROLE_ADVOCATE')" )
-    public ResponseEntity getPersonnelByRoleWithStatistics ( @PathVariable ( "role" ) final String role ) {
-        final List<Personnel> allPersonnel = service.findAll();
-
+    public ResponseEntity getPersonnelByRoleWithStatistics ( @PathVariable ( "role" ) final String role,
+            @RequestParam ( value = "page", required = false ) final Integer page,
+            @RequestParam ( value = "size", required = false ) final Integer size ) {
         try {
-            final List<ProviderWithStatistics> enriched = allPersonnel.stream()
-                    .filter( e -> e.getRoles().contains( Role.valueOf( role ) ) )
-                    .map( personnel -> new ProviderWithStatistics( personnel,
-                            satisfactionSurveyStatisticsService.findForHcp( personnel ) ) )
-                    .collect( Collectors.toList() );
+            final Role desired = Role.valueOf( role );
+            final Page<Personnel> found = wholeList( page, size )
+                    ? new PageImpl<Personnel>( service.findByRole( desired ) )
+                    : service.findByRole( desired, pageRequest( page, size ) );
+
+            final List<Personnel> personnel = found.getContent();
+            final List<SatisfactionSurveyStatistics> statistics = satisfactionSurveyStatisticsService
+                    .findForHcps( personnel );
+            final List<ProviderWithStatistics> enriched = new ArrayList<ProviderWithStatistics>();
+            for ( int i = 0; i < personnel.size(); i++ ) {
+                enriched.add( new ProviderWithStatistics( personnel.get( i ), statistics.get( i ) ) );
+            }
 
-            return new ResponseEntity( enriched, HttpStatus.OK );
+            if ( wholeList( page, size ) ) {
+                return new ResponseEntity( enriched, HttpStatus.OK );
+            }
+            return pageResponse( new PageImpl<ProviderWithStatistics>( enriched, found.getPageable(),
+                    found.getTotalElements() ) );
         }
         catch ( final IllegalArgumentException iae ) {
             return new ResponseEntity( errorResponse( "Invalid role" ), HttpStatus.BAD_REQUEST );
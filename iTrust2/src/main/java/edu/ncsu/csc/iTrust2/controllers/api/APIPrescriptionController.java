@@ -12,6 +12,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import edu.ncsu.csc.iTrust2.forms.PrescriptionForm;
@@ -130,26 +131,37 @@ public class APIPrescriptionController extends APIController {
     }
 
     /**
-     * Returns a collection of all the prescriptions in the system.
+     * Returns a collection of the prescriptions in the system. HCPs get a page
+     * of all of them; anyone else gets all of their own.
      *
-     * @return all saved prescriptions
+     * @param page
+     *            Number of the page to return, counting from 0; see
+     *            `APIController.listPage()`
+     * @param size
+     *            Most prescriptions to return
+     * @param cursor
+     *            ID of the last prescription on the previous page
+     * @return saved prescriptions
      */
     @PreAuthorize ( "hasAnyRole('ROLE_HCP', 'ROLE_VIROLOGIST', 'ROLE_PATIENT')" )
     @GetMapping ( BASE_PATH + "/prescriptions" )
-    public List<Prescription> getPrescriptions () {
+    public ResponseEntity<List<Prescription>> getPrescriptions (
+            @RequestParam ( value = "page", required = false ) final Integer page,
+            @RequestParam ( value = "size", required = false ) final Integer size,
+            @RequestParam ( value = "cursor", required = false ) final Long cursor ) {
         final User self = userService.findByName( LoggerUtil.currentUser() );
         if ( self.isDoctor() ) {
             // Return all prescriptions in system
             loggerUtil.log( TransactionType.PRESCRIPTION_VIEW, LoggerUtil.currentUser(),
                     "HCP viewed a list of all prescriptions" );
-            return prescriptionService.findAll();
+            return listPage( prescriptionService, page, size, cursor );
         }
         else {
             // Issue #106
             // Return only prescriptions assigned to the patient
             loggerUtil.log( TransactionType.PATIENT_PRESCRIPTION_VIEW, LoggerUtil.currentUser(),
                     "Patient viewed a list of their prescriptions" );
-            return prescriptionService.findByPatient( self );
+            return ResponseEntity.ok( prescriptionService.findByPatient( self ) );
         }
     }
 
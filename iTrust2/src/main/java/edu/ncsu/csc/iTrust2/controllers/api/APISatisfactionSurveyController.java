@@ -10,15 +10,15 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import edu.ncsu.csc.iTrust2.forms.SatisfactionSurveyForm;
+import edu.ncsu.csc.iTrust2.forms.display.SatisfactionSurveyNote;
 import edu.ncsu.csc.iTrust2.forms.display.SatisfactionSurveyStatistics;
-import edu.ncsu.csc.iTrust2.models.OfficeVisit;
 import edu.ncsu.csc.iTrust2.models.SatisfactionSurvey;
 import edu.ncsu.csc.iTrust2.models.User;
 import edu.ncsu.csc.iTrust2.models.enums.TransactionType;
-import edu.ncsu.csc.iTrust2.services.OfficeVisitService;
 import edu.ncsu.csc.iTrust2.services.SatisfactionSurveyService;
 import edu.ncsu.csc.iTrust2.services.SatisfactionSurveyStatisticsService;
 import edu.ncsu.csc.iTrust2.services.UserService;
@@ -37,10 +37,6 @@ public class APISatisfactionSurveyController extends APIController {
     @Autowired
     private SatisfactionSurveyService           satisfactionSurveyService;
 
-    /** OfficeVisit service */
-    @Autowired
-    private OfficeVisitService                  officeVisitService;
-
     /** SatisfactionSurveyStats service */
     @Autowired
     private SatisfactionSurveyStatisticsService satisfactionSurveyStatisticsService;
@@ -54,14 +50,24 @@ public class APISatisfactionSurveyController extends APIController {
     private LoggerUtil                          loggerUtil;
 
     /**
-     * Retrieves a list of all the satisfaction surveys
+     * Retrieves a page of the satisfaction surveys
      *
-     * @return a list of all the satisfaction surveys
+     * @param page
+     *            Number of the page to return, counting from 0; see
+     *            `APIController.listPage()`
+     * @param size
+     *            Most surveys to return
+     * @param cursor
+     *            ID of the last survey on the previous page
+     * @return a list of the satisfaction surveys
      */
     @GetMapping ( BASE_PATH + "/surveys/" )
     @PreAuthorize ( "hasRole('ROLE_ADMIN')" )
-    public List<SatisfactionSurvey> getSatisfactionSurveys () {
-        return satisfactionSurveyService.findAll();
+    public ResponseEntity<List<SatisfactionSurvey>> getSatisfactionSurveys (
+            @RequestParam ( value = "page", required = false ) final Integer page,
+            @RequestParam ( value = "size", required = false ) final Integer size,
+            @RequestParam ( value = "cursor", required = false ) final Long cursor ) {
+        return listPage( satisfactionSurveyService, page, size, cursor );
     }
 
     /**
@@ -77,6 +83,28 @@ public class APISatisfactionSurveyController extends APIController {
         return satisfactionSurveyService.findByHcp( hcp );
     }
 
+    /**
+     * Retrieves a page of the notes left on the satisfaction surveys for a
+     * specific HCP, or all of them if no page or size is given (see
+     * `APIController.pagedList()`)
+     *
+     * @param hcp
+     *            the hcp whose notes are to be returned
+     * @param page
+     *            Number of the page to return, counting from 0
+     * @param size
+     *            Most notes to return
+     * @return a page of the notes
+     */
+    @GetMapping ( BASE_PATH + "/surveys/notes/{hcp}" )
+    @PreAuthorize ( "hasRole('ROLE_ADMIN')" )
+    public ResponseEntity<List<SatisfactionSurveyNote>> getSatisfactionSurveyNotes (
+            @PathVariable ( "hcp" ) final String hcp,
+            @RequestParam ( value = "page", required = false ) final Integer page,
+            @RequestParam ( value = "size", required = false ) final Integer size ) {
+        return pagedList( page, size, request -> satisfactionSurveyService.findNotes( hcp, request ) );
+    }
+
     /**
      * Creates and saves a new Satisfaction Survey from the RequestBody
      * provided.
@@ -97,11 +125,7 @@ public class APISatisfactionSurveyController extends APIController {
                         errorResponse( "Satisfaction Survey with the id " + survey.getId() + " already exists" ),
                         HttpStatus.CONFLICT );
             }
-            satisfactionSurveyService.save( survey );
-
-            final OfficeVisit officeVisit = officeVisitService.findById( surveyForm.getOfficeVisitId() );
-            officeVisit.setSatisfactionSurvey( survey );
-            officeVisitService.save( officeVisit );
+            satisfactionSurveyService.submit( survey, surveyForm.getOfficeVisitId() );
 
             loggerUtil.log( TransactionType.PATIENT_COMPLETED_SATISFACION_SURVEY, LoggerUtil.currentUser(),
                     survey.getHcp().getUsername() );
@@ -150,4 +174,19 @@ public class APISatisfactionSurveyController extends APIController {
         return new ResponseEntity( statistics, HttpStatus.OK );
     }
 
+    /**
+     * Works out every HCP's survey statistics again from the surveys
+     * themselves, for surveys that were saved or deleted without them being
+     * updated
+     *
+     * @return the number of surveys counted
+     */
+    @PostMapping ( BASE_PATH + "/surveys/statistics/rebuild" )
+    @PreAuthorize ( "hasRole('ROLE_ADMIN')" )
+    public ResponseEntity rebuildSatisfactionSurveyStatistics () {
+        final long surveys = satisfactionSurveyStatisticsService.rebuild();
+        loggerUtil.log( TransactionType.ADMIN_VIEW_STATS, LoggerUtil.currentUser(), "Rebuilt provider statistics" );
+        return new ResponseEntity( surveys, HttpStatus.OK );
+    }
+
 }
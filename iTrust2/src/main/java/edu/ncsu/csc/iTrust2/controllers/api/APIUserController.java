@@ -17,6 +17,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import edu.ncsu.csc.iTrust2.forms.UserForm;
@@ -97,16 +98,27 @@ public class APIUserController extends APIController {
     private PatientAdvocateAssignmentService assignmentService;
 
     /**
-     * Retrieves and returns a list of all Users in the system, regardless of
+     * Retrieves and returns a list of the Users in the system, regardless of
      * their classification (including all Patients, all Personnel, and all
-     * users who do not have a further status specified)
+     * users who do not have a further status specified), a page at a time
      *
+     * @param page
+     *            Number of the page to return, counting from 0; see
+     *            `APIController.listPage()`
+     * @param size
+     *            Most users to return
+     * @param cursor
+     *            Username of the last user on the previous page
      * @return list of users
      */
+    @SuppressWarnings ( "unchecked" )
     @GetMapping ( BASE_PATH + "/users" )
-    public List<User> getUsers () {
+    public ResponseEntity<List<User>> getUsers (
+            @RequestParam ( value = "page", required = false ) final Integer page,
+            @RequestParam ( value = "size", required = false ) final Integer size,
+            @RequestParam ( value = "cursor", required = false ) final String cursor ) {
         loggerUtil.log( TransactionType.VIEW_USERS, LoggerUtil.currentUser() );
-        return userService.findAll();
+        return listPage( userService, page, size, cursor );
     }
 
     /**
@@ -209,6 +221,7 @@ public class APIUserController extends APIController {
             }
 
             userService.save( user ); /* Will overwrite existing user */
+            userService.evict( id );
             loggerUtil.log( TransactionType.UPDATE_USER, LoggerUtil.currentUser() );
             return new ResponseEntity( user, HttpStatus.OK );
         }
@@ -267,6 +280,7 @@ public class APIUserController extends APIController {
             }
 
             userService.delete( user );
+            userService.evict( id );
             loggerUtil.log( TransactionType.DELETE_USER, LoggerUtil.currentUser() );
             return new ResponseEntity( id, HttpStatus.OK );
         }
@@ -1,8 +1,10 @@
 package edu.ncsu.csc.iTrust2.controllers.api;
 
+import java.time.Duration;
 import java.time.ZonedDateTime;
-import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,16 +17,15 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import edu.ncsu.csc.iTrust2.forms.VaccineAppointmentRequestForm;
-import edu.ncsu.csc.iTrust2.models.PatientAdvocateAssignment;
 import edu.ncsu.csc.iTrust2.models.User;
 import edu.ncsu.csc.iTrust2.models.VaccineAppointmentRequest;
 import edu.ncsu.csc.iTrust2.models.enums.Role;
 import edu.ncsu.csc.iTrust2.models.enums.Status;
 import edu.ncsu.csc.iTrust2.models.enums.TransactionType;
-import edu.ncsu.csc.iTrust2.services.PatientAdvocateAssignmentService;
 import edu.ncsu.csc.iTrust2.services.UserService;
 import edu.ncsu.csc.iTrust2.services.VaccineAppointmentRequestService;
 import edu.ncsu.csc.iTrust2.utils.LoggerUtil;
@@ -40,6 +41,9 @@ import edu.ncsu.csc.iTrust2.utils.LoggerUtil;
 @SuppressWarnings ( { "unchecked", "rawtypes" } )
 public class APIVaccineAppointmentRequestController extends APIController {
 
+    /** How near now a vaccine appointment must be to be up for a visit */
+    private static final Duration            VISIT_WINDOW = Duration.ofHours( 3 );
+
     /**
      * AppointmentRequest service
      */
@@ -54,10 +58,6 @@ public class APIVaccineAppointmentRequestController extends APIController {
     @Autowired
     private UserService<User>                userService;
 
-    /** PatientAdvocateAssignment service */
-    @Autowired
-    private PatientAdvocateAssignmentService assignmentService;
-
     /**
      * Parses a VARF and create a VaccineAppointmentRequest.
      *
@@ -99,44 +99,31 @@ public class APIVaccineAppointmentRequestController extends APIController {
         final User patient = userService.findByName( LoggerUtil.currentUser() );
         loggerUtil.log( TransactionType.APPOINTMENT_REQUEST_VIEWED, LoggerUtil.currentUser(),
                 LoggerUtil.currentUser() );
-        return service.findByPatient( patient ).stream().filter( e -> e.getStatus().equals( Status.APPROVED ) )
-                .collect( Collectors.toList() );
+        return service.findByPatientAndStatus( patient, Status.APPROVED );
     }
 
     /**
-     * Retrieves vaccine appointment requests attributed to the logged in
-     * advocate
+     * Retrieves a page of the vaccine appointment requests that the logged in
+     * advocate has been invited to, for patients they are assigned to (all of
+     * them if no page or size is given; see `APIController.pagedList()`)
      *
+     * @param page
+     *            Number of the page to return, counting from 0
+     * @param size
+     *            Most requests to return
+     * @param status
+     *            Status of the requests to return; all of them if not given
      * @return list of vaccine appointment requests for the logged in advocate
      */
     @GetMapping ( BASE_PATH + "/vaccineappointmentrequestForAdvocate" )
     @PreAuthorize ( "hasAnyRole('ROLE_ADVOCATE')" )
-    public List<VaccineAppointmentRequest> getVaccineAppointmentRequestsForAdvocate () {
+    public ResponseEntity<List<VaccineAppointmentRequest>> getVaccineAppointmentRequestsForAdvocate (
+            @RequestParam ( value = "page", required = false ) final Integer page,
+            @RequestParam ( value = "size", required = false ) final Integer size,
+            @RequestParam ( value = "status", required = false ) final Status status ) {
         final User advocate = userService.findByName( LoggerUtil.currentUser() );
-        final List<PatientAdvocateAssignment> assignments = assignmentService
-                .getAssignmentsByPatientAdvocate( advocate );
-
-        // Get all of the patients associated with the advocate
-        final List<User> patients = new ArrayList<User>();
-
-        for ( final PatientAdvocateAssignment a : assignments ) {
-            patients.add( a.getPatient() );
-        }
-
-        // Get all of the vaccine appointment requests for every single patient
-        // assigned
-        final List<VaccineAppointmentRequest> requests = new ArrayList<VaccineAppointmentRequest>();
-        for ( final User patient : patients ) {
-            final List<VaccineAppointmentRequest> temp = service.findByPatient( patient );
-
-            for ( final VaccineAppointmentRequest var : temp ) {
-                if ( var.getPatientAdvocatesInvited().contains( advocate ) ) {
-                    requests.add( var );
-                }
-            }
-        }
-
-        return requests;
+        final Set<Status> statuses = null == status ? EnumSet.allOf( Status.class ) : EnumSet.of( status );
+        return pagedList( page, size, request -> service.findForAdvocate( advocate, statuses, request ) );
     }
 
     /**
@@ -173,17 +160,27 @@ public class APIVaccineAppointmentRequestController extends APIController {
     }
 
     /**
-     * View all vaccine appointment requests.
+     * View a page of the vaccine appointment requests.
      *
+     * @param page
+     *            Number of the page to return, counting from 0; see
+     *            `APIController.listPage()`
+     * @param size
+     *            Most requests to return
+     * @param cursor
+     *            ID of the last request on the previous page
      * @return list of vaccine appointment requests
      */
     @GetMapping ( BASE_PATH + "/vaccineappointments" )
     @PreAuthorize ( "hasAnyRole('ROLE_HCP', 'ROLE_VACCINATOR', 'ROLE_ADVOCATE')" )
-    public List<VaccineAppointmentRequest> viewAllAppointmentRequests () {
-        final List<VaccineAppointmentRequest> requests = service.findAll();
+    public ResponseEntity<List<VaccineAppointmentRequest>> viewAllAppointmentRequests (
+            @RequestParam ( value = "page", required = false ) final Integer page,
+            @RequestParam ( value = "size", required = false ) final Integer size,
+            @RequestParam ( value = "cursor", required = false ) final Long cursor ) {
+        final ResponseEntity<List<VaccineAppointmentRequest>> requests = listPage( service, page, size, cursor );
 
-        requests.stream().map( VaccineAppointmentRequest::getPatient ).distinct().forEach( e -> loggerUtil
-                .log( TransactionType.APPOINTMENT_REQUEST_VIEWED, LoggerUtil.currentUser(), e.getUsername() ) );
+        loggerUtil.logAll( TransactionType.APPOINTMENT_REQUEST_VIEWED, LoggerUtil.currentUser(),
+                requests.getBody().stream().map( e -> e.getPatient().getUsername() ).collect( Collectors.toList() ) );
         return requests;
     }
 
@@ -223,20 +220,8 @@ public class APIVaccineAppointmentRequestController extends APIController {
     @GetMapping ( BASE_PATH + "vaccineappointments/forvisit/{id}" )
     @PreAuthorize ( "hasAnyRole('ROLE_HCP', 'ROLE_VACCINATOR')" )
     public List<VaccineAppointmentRequest> getVaccineAppointmentVisitFilter ( @PathVariable ( "id" ) final String id ) {
-        final List<VaccineAppointmentRequest> returnList = new ArrayList<VaccineAppointmentRequest>();
         final User patient = userService.findById( id );
-        final List<VaccineAppointmentRequest> requests = service.findByPatient( patient );
-        for ( int i = 0; i < requests.size(); i++ ) {
-            final ZonedDateTime currentTime = ZonedDateTime.now();
-            final ZonedDateTime lowerBound = currentTime.minusHours( 3 );
-            final ZonedDateTime upperBound = currentTime.plusHours( 3 );
-            final ZonedDateTime requestTime = requests.get( i ).getDate();
-            if ( requestTime.isAfter( lowerBound ) && requestTime.isBefore( upperBound ) ) {
-                returnList.add( requests.get( i ) );
-            }
-
-        }
-        return returnList;
+        return service.findByPatientAround( patient, ZonedDateTime.now(), VISIT_WINDOW );
     }
 
     /**
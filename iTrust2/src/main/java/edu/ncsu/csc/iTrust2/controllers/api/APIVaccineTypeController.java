@@ -3,6 +3,7 @@ package edu.ncsu.csc.iTrust2.controllers.api;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -12,11 +13,14 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
 
 import edu.ncsu.csc.iTrust2.forms.VaccineTypeForm;
 import edu.ncsu.csc.iTrust2.models.VaccineType;
 import edu.ncsu.csc.iTrust2.models.enums.TransactionType;
+import edu.ncsu.csc.iTrust2.services.CatalogVersions;
+import edu.ncsu.csc.iTrust2.services.CatalogVersions.Catalog;
 import edu.ncsu.csc.iTrust2.services.VaccineTypeService;
 import edu.ncsu.csc.iTrust2.utils.LoggerUtil;
 
@@ -37,6 +41,10 @@ public class APIVaccineTypeController extends APIController {
     @Autowired
     private LoggerUtil         loggerUtil;
 
+    /** Versions of the reference data, for ETags */
+    @Autowired
+    private CatalogVersions    versions;
+
     /**
      * Adds a new vaccine to the system. Requires admin permissions. Returns an
      * error message if something goes wrong.
@@ -145,14 +153,21 @@ public class APIVaccineTypeController extends APIController {
     }
 
     /**
-     * Returns a collection of all the vaccines in the system.
+     * Returns a collection of all the vaccines in the system, or 304 if the
+     * client's copy is current.
      *
+     * @param ifNoneMatch
+     *            ETag of the client's copy, if it has one
      * @return a list of all vaccines in the system.
      */
     @GetMapping ( BASE_PATH + "/vaccines" )
-    public List<VaccineType> getVaccines () {
-        loggerUtil.log( TransactionType.VACCINETYPE_VIEW, LoggerUtil.currentUser(), "Viewed a list of all vaccines" );
-        return service.findAll();
+    public ResponseEntity<List<VaccineType>> getVaccines (
+            @RequestHeader ( value = HttpHeaders.IF_NONE_MATCH, required = false ) final String ifNoneMatch ) {
+        return conditional( ifNoneMatch, versions.etag( Catalog.VACCINES, null ), () -> {
+            loggerUtil.log( TransactionType.VACCINETYPE_VIEW, LoggerUtil.currentUser(),
+                    "Viewed a list of all vaccines" );
+            return service.findAll();
+        } );
     }
 
     /**
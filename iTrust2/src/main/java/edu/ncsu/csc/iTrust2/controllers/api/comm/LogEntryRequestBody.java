@@ -20,6 +20,16 @@ public class LogEntryRequestBody {
     /** Number of items per page */
     public int    pageLength;
 
+    /**
+     * Date and time of the last entry on the previous page (optional). When
+     * set along with `cursorId`, the page is found after this entry rather
+     * than by page number.
+     */
+    public String cursorTime;
+
+    /** ID of the last entry on the previous page (optional) */
+    public Long   cursorId;
+
     /**
      * Empty Constructor required for spring to use this as a RequestBody
      */
@@ -103,4 +113,42 @@ public class LogEntryRequestBody {
         this.pageLength = pageLength;
     }
 
+    /**
+     * Gets the date and time of the last entry on the previous page.
+     *
+     * @return cursor date and time, or null
+     */
+    public String getCursorTime () {
+        return cursorTime;
+    }
+
+    /**
+     * Sets the date and time of the last entry on the previous page.
+     *
+     * @param cursorTime
+     *            cursor date and time
+     */
+    public void setCursorTime ( final String cursorTime ) {
+        this.cursorTime = cursorTime;
+    }
+
+    /**
+     * Gets the ID of the last entry on the previous page.
+     *
+     * @return cursor ID, or null
+     */
+    public Long getCursorId () {
+        return cursorId;
+    }
+
+    /**
+     * Sets the ID of the last entry on the previous page.
+     *
+     * @param cursorId
+     *            cursor ID
+     */
+    public void setCursorId ( final Long cursorId ) {
+        this.cursorId = cursorId;
+    }
+
 }
@@ -22,6 +22,8 @@ public class LogEntryTableRow {
     private boolean isPatient = false;
     /** total number of pages in the table */
     private int     numPages  = 1;
+    /** ID of the log entry, used as a paging cursor */
+    private Long    id;
 
     /**
      * Empty constructor so that Spring is able to use this class for
@@ -165,4 +167,23 @@ public class LogEntryTableRow {
         this.transactionType = transactionType;
     }
 
+    /**
+     * Returns the ID of the log entry in this row
+     *
+     * @return ID of the entry
+     */
+    public Long getId () {
+        return id;
+    }
+
+    /**
+     * Sets the ID of the log entry in this row
+     *
+     * @param id
+     *            ID of the entry
+     */
+    public void setId ( final Long id ) {
+        this.id = id;
+    }
+
 }
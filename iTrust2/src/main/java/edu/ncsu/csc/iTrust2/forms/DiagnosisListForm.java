@@ -5,6 +5,7 @@ import java.time.ZonedDateTime;
 
 import edu.ncsu.csc.iTrust2.models.Diagnosis;
 import edu.ncsu.csc.iTrust2.models.ICDCode;
+import edu.ncsu.csc.iTrust2.models.Personnel;
 import edu.ncsu.csc.iTrust2.models.User;
 
 /**
@@ -48,6 +49,42 @@ public class DiagnosisListForm implements Serializable {
         this.code = diag.getCode();
     }
 
+    /**
+     * Constructor, for building the form straight from the columns a query
+     * reads (see `DiagnosisRepository.findHistory()`). The HCP is only known
+     * by their username, so that is all of them that is filled in.
+     *
+     * @param id
+     *            ID of the diagnosis
+     * @param visitDate
+     *            Time of the visit it was made in
+     * @param hcp
+     *            Username of the HCP who made it
+     * @param note
+     *            Note for the diagnosis
+     * @param codeId
+     *            ID of the associated code
+     * @param code
+     *            The associated code itself
+     * @param description
+     *            Description of the associated code
+     * @param isOphthalmology
+     *            Whether the associated code is an ophthalmology code
+     */
+    public DiagnosisListForm ( final Long id, final ZonedDateTime visitDate, final String hcp, final String note,
+            final Long codeId, final String code, final String description, final Boolean isOphthalmology ) {
+        this.id = id;
+        this.visitDate = visitDate;
+        this.hcp = new Personnel();
+        this.hcp.setUsername( hcp );
+        this.note = note;
+        this.code = new ICDCode();
+        this.code.setId( codeId );
+        this.code.setCode( code );
+        this.code.setDescription( description );
+        this.code.setIsOphthalmology( isOphthalmology );
+    }
+
     /**
      * Time of the Diagnosis/visit
      *
@@ -3,6 +3,8 @@ package edu.ncsu.csc.iTrust2.forms.display;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 
+import edu.ncsu.csc.iTrust2.models.SatisfactionSurvey;
+
 /**
  * Shows information that an Admin can view about a Satisfaction, with average
  * satisfaction scores and any notes
@@ -24,6 +26,23 @@ public class SatisfactionSurveyNote {
      */
     private String  comments;
 
+    /**
+     * Empty constructor, for deserialisation
+     */
+    public SatisfactionSurveyNote () {
+    }
+
+    /**
+     * Creates the note for a satisfaction survey
+     *
+     * @param survey
+     *            The survey
+     */
+    public SatisfactionSurveyNote ( final SatisfactionSurvey survey ) {
+        setComments( survey.getComments() );
+        setAverageSatisfaction( ( survey.getVisitSatisfaction() + survey.getTreatmentSatisfaction() ) / 2 );
+    }
+
     /**
      * Set the average satisfaction
      *
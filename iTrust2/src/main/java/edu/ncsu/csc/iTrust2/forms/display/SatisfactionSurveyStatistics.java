@@ -1,7 +1,5 @@
 package edu.ncsu.csc.iTrust2.forms.display;
 
-import java.util.List;
-
 import javax.annotation.Nonnull;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
@@ -14,7 +12,8 @@ import edu.ncsu.csc.iTrust2.models.enums.WaitTime;
 
 /**
  * Provides overall statisfaction statistics for a HCP, with averages for
- * different metrics and comments
+ * different metrics. The comments left on the surveys are listed separately,
+ * as SatisfactionSurveyNotes.
  *
  * @author Kai Presler-Marshall
  *
@@ -24,21 +23,21 @@ public class SatisfactionSurveyStatistics {
     /**
      * The HCP for this statistics
      */
-    private User                         hcp;
+    private User     hcp;
 
     /**
      * The wait time in the waiting room
      */
     @NotNull
     @Enumerated ( EnumType.STRING )
-    private WaitTime                     averageWaitingRoomTime;
+    private WaitTime averageWaitingRoomTime;
 
     /**
      * The wait time in the examination room
      */
     @NotNull
     @Enumerated ( EnumType.STRING )
-    private WaitTime                     averageExaminationResponseTime;
+    private WaitTime averageExaminationResponseTime;
 
     /**
      * The overall satisfaction of the patient
@@ -46,7 +45,7 @@ public class SatisfactionSurveyStatistics {
     @Min ( 0 )
     @Max ( 5 )
     @Nonnull
-    private Integer                      averageVisitSatisfaction;
+    private Integer  averageVisitSatisfaction;
 
     /**
      * The satisfaction of the patient with the treatment they received.
@@ -54,17 +53,12 @@ public class SatisfactionSurveyStatistics {
     @Min ( 0 )
     @Max ( 5 )
     @Nonnull
-    private Integer                      averageTreatmentSatisfaction;
+    private Integer  averageTreatmentSatisfaction;
 
     /**
      * The number of surveys used to calculate this statistics
      */
-    private Integer                      numberOfSurveys;
-
-    /**
-     * The Comments of this Satisfaction Survey
-     */
-    private List<SatisfactionSurveyNote> notes;
+    private Integer  numberOfSurveys;
 
     /**
      * empty constructor for Hibernate
@@ -131,16 +125,6 @@ public class SatisfactionSurveyStatistics {
         this.averageTreatmentSatisfaction = averageTreatmentSatisfaction;
     }
 
-    /**
-     * sets the notes to the new value
-     *
-     * @param notes
-     *            the updated value
-     */
-    public void setNotes ( final List<SatisfactionSurveyNote> notes ) {
-        this.notes = notes;
-    }
-
     /**
      * returns the averageWaitingRoomTime
      *
@@ -196,13 +180,4 @@ public class SatisfactionSurveyStatistics {
         this.numberOfSurveys = numberOfSurveys;
     }
 
-    /**
-     * returns the notes
-     *
-     * @return the notes
-     */
-    public List<SatisfactionSurveyNote> getNotes () {
-        return notes;
-    }
-
 }
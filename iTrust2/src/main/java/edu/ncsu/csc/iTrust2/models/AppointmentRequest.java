@@ -6,32 +6,49 @@ import java.util.List;
 import javax.persistence.Basic;
 import javax.persistence.Convert;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToMany;
 import javax.persistence.ManyToOne;
+import javax.persistence.Table;
 import javax.validation.constraints.NotNull;
 
+import org.hibernate.annotations.BatchSize;
+
 import com.google.gson.annotations.JsonAdapter;
 
 import edu.ncsu.csc.iTrust2.adapters.ZonedDateTimeAdapter;
 import edu.ncsu.csc.iTrust2.adapters.ZonedDateTimeAttributeConverter;
 import edu.ncsu.csc.iTrust2.models.enums.AppointmentType;
 import edu.ncsu.csc.iTrust2.models.enums.Status;
+import edu.ncsu.csc.iTrust2.services.AppointmentSchedule;
 
 /**
  * Backing object for the Appointment Request system. This is the object that is
  * actually stored in the database and reflects the persistent information we
  * have on the appointment request.
  *
+ * The composite indexes on (user, status, date) back the queries listing a
+ * patient's or HCP's requests with a given status, in order of their date, so
+ * that they read only the requests listed rather than the user's whole
+ * history. VaccineAppointmentRequests share the table, and so the indexes.
+ *
+ * Approved requests are also kept in the AppointmentSchedule, which is updated
+ * by an entity listener whenever one is saved or deleted.
+ *
  * @author Kai Presler-Marshall
  */
 
 @Entity
+@EntityListeners ( AppointmentSchedule.ChangeListener.class )
+@Table ( indexes = { @Index ( name = "idx_appointmentrequest_patient_status", columnList = "patient_id, status, date" ),
+        @Index ( name = "idx_appointmentrequest_hcp_status", columnList = "hcp_id, status, date" ) } )
 public class AppointmentRequest extends DomainObject {
 
     /**
@@ -49,8 +66,10 @@ public class AppointmentRequest extends DomainObject {
 
     /**
      * The patient advocates invited to see an appointment request, if any.
+     * Loaded for up to 50 of the requests in the session at once.
      */
     @ManyToMany
+    @BatchSize ( size = 50 )
     private List<User> patientAdvocatesInvited;
 
     /**
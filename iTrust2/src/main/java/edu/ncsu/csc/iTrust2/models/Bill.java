@@ -89,9 +89,11 @@ public class Bill extends DomainObject {
     private List<Payment> paymentList;
 
     /**
-     * The CPT codes associated with this visit
+     * The CPT codes associated with this visit. These are shared reference
+     * data from the CPTCodeCatalog, saved and deleted only through the
+     * CPTCodeService, so nothing is cascaded to them.
      */
-    @ManyToMany ( cascade = CascadeType.ALL )
+    @ManyToMany
     @JsonManagedReference
     private List<CPTCode> cptCodes;
 
@@ -3,10 +3,14 @@ package edu.ncsu.csc.iTrust2.models;
 import java.util.Objects;
 
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 
+import edu.ncsu.csc.iTrust2.services.CatalogVersions;
+import edu.ncsu.csc.iTrust2.services.CPTCodeCatalog;
+
 /**
  * Class for CPT codes. These codes themselves are stored as an int, along with
  * a description, an ID, a cost, a status and a version.
@@ -15,6 +19,7 @@ import javax.persistence.Id;
  *
  */
 @Entity
+@EntityListeners ( { CPTCodeCatalog.ChangeListener.class, CatalogVersions.ChangeListener.class } )
 public class CPTCode extends DomainObject {
 
     /**
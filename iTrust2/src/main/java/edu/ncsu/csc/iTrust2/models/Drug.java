@@ -1,6 +1,7 @@
 package edu.ncsu.csc.iTrust2.models;
 
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
@@ -11,6 +12,8 @@ import javax.validation.constraints.Pattern;
 import org.hibernate.validator.constraints.Length;
 
 import edu.ncsu.csc.iTrust2.forms.DrugForm;
+import edu.ncsu.csc.iTrust2.services.CatalogVersions;
+import edu.ncsu.csc.iTrust2.services.DrugIndex;
 
 /**
  * Represents a drug in the NDC format.
@@ -19,6 +22,7 @@ import edu.ncsu.csc.iTrust2.forms.DrugForm;
  * @author Kai Presler-Marshall
  */
 @Entity
+@EntityListeners ( { DrugIndex.ChangeListener.class, CatalogVersions.ChangeListener.class } )
 public class Drug extends DomainObject {
 
     /** For Hibernate/Thymeleaf _must_ be an empty constructor */
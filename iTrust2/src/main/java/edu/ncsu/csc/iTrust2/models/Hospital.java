@@ -3,6 +3,7 @@ package edu.ncsu.csc.iTrust2.models;
 import java.io.Serializable;
 
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
 import javax.persistence.Id;
@@ -12,6 +13,7 @@ import org.hibernate.validator.constraints.Length;
 
 import edu.ncsu.csc.iTrust2.forms.HospitalForm;
 import edu.ncsu.csc.iTrust2.models.enums.State;
+import edu.ncsu.csc.iTrust2.services.CatalogVersions;
 
 /**
  * Class representing a Hospital object, as stored in the DB
@@ -19,8 +21,8 @@ import edu.ncsu.csc.iTrust2.models.enums.State;
  * @author Kai Presler-Marshall
  *
  */
-
 @Entity
+@EntityListeners ( CatalogVersions.ChangeListener.class )
 public class Hospital extends DomainObject implements Serializable {
     /**
      * Used for serializing the object.
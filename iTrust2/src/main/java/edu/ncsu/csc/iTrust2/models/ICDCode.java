@@ -3,11 +3,14 @@ package edu.ncsu.csc.iTrust2.models;
 import java.util.Objects;
 
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 
 import edu.ncsu.csc.iTrust2.forms.ICDCodeForm;
+import edu.ncsu.csc.iTrust2.services.CatalogVersions;
+import edu.ncsu.csc.iTrust2.services.ICDCodeIndex;
 
 /**
  * Class for Diagnosis codes. These codes themselves are stored as a String,
@@ -18,6 +21,7 @@ import edu.ncsu.csc.iTrust2.forms.ICDCodeForm;
  *
  */
 @Entity
+@EntityListeners ( { ICDCodeIndex.ChangeListener.class, CatalogVersions.ChangeListener.class } )
 public class ICDCode extends DomainObject {
 
     /**
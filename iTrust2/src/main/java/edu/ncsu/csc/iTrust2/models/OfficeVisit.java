@@ -15,6 +15,8 @@ import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToMany;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
 import javax.persistence.OneToMany;
 import javax.persistence.OneToOne;
 import javax.validation.constraints.NotNull;
@@ -30,12 +32,30 @@ import edu.ncsu.csc.iTrust2.utils.ValidationUtil;
 /**
  * This is the validated database-persisted office visit representation
  *
+ * Lists of visits are read with the SUMMARY entity graph, which joins
+ * everything a visit refers to on its own into the query for the visits.
+ * Its collections can't be joined in as well (Hibernate won't fetch several
+ * lists in one query), so OfficeVisitService loads each of them for the whole
+ * list with one more query, by the IDs of the visits read. Reading a list of
+ * visits, or a page of them, then takes the same number of queries, however
+ * long it is.
+ *
  * @author Kai Presler-Marshall
  *
  */
 @Entity
+@NamedEntityGraph ( name = OfficeVisit.SUMMARY, attributeNodes = { @NamedAttributeNode ( "patient" ),
+        @NamedAttributeNode ( "hcp" ), @NamedAttributeNode ( "hospital" ), @NamedAttributeNode ( "appointment" ),
+        @NamedAttributeNode ( "basicHealthMetrics" ), @NamedAttributeNode ( "ophthalmologyMetrics" ),
+        @NamedAttributeNode ( "satisfactionSurvey" ) } )
 public class OfficeVisit extends DomainObject {
 
+    /**
+     * Entity graph for reading a visit along with everything it refers to
+     * except its collections
+     */
+    public static final String   SUMMARY = "OfficeVisit.summary";
+
     /**
      * The patient of this office visit
      */
@@ -134,9 +154,11 @@ public class OfficeVisit extends DomainObject {
     private OphthalmologyMetrics ophthalmologyMetrics;
 
     /**
-     * The CPT codes associated with this visit
+     * The CPT codes associated with this visit. These are shared reference
+     * data from the CPTCodeCatalog, saved and deleted only through the
+     * CPTCodeService, so nothing is cascaded to them.
      */
-    @ManyToMany ( cascade = CascadeType.ALL )
+    @ManyToMany
     private List<CPTCode>        cptCodes;
 
     /**
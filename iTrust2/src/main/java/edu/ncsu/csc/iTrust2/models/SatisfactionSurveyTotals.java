@@ -0,0 +1,171 @@
+package edu.ncsu.csc.iTrust2.models;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+/**
+ * Running totals of the satisfaction surveys left for one HCP: how many there
+ * are, and the sums of their satisfaction scores and wait time codes. The
+ * averages shown in the survey statistics are worked out from these, so they
+ * cost one row per HCP to read however many surveys have been filled in.
+ *
+ * The totals are updated along with each survey saved or deleted through the
+ * SatisfactionSurveyService (see `SatisfactionSurveyStatisticsService.record()`),
+ * and can be rebuilt from the surveys themselves with
+ * `SatisfactionSurveyStatisticsService.rebuild()`.
+ *
+ * @author Kai Presler-Marshall
+ *
+ */
+@Entity
+public class SatisfactionSurveyTotals extends DomainObject {
+
+    /** Username of the HCP the surveys were left for */
+    @Id
+    @Column ( length = 100 )
+    private String hcp;
+
+    /** Number of surveys */
+    private long   surveys;
+
+    /** Sum of the visit satisfaction scores */
+    private long   visitSatisfaction;
+
+    /** Sum of the treatment satisfaction scores */
+    private long   treatmentSatisfaction;
+
+    /** Sum of the codes of the waiting room times */
+    private long   waitingRoomTime;
+
+    /** Sum of the codes of the examination response times */
+    private long   examinationResponseTime;
+
+    /**
+     * Creates empty SatisfactionSurveyTotals. Used by Hibernate.
+     */
+    public SatisfactionSurveyTotals () {
+    }
+
+    /**
+     * Creates the totals for an HCP with no surveys yet
+     *
+     * @param hcp
+     *            Username of the HCP
+     */
+    public SatisfactionSurveyTotals ( final String hcp ) {
+        this.hcp = hcp;
+    }
+
+    /**
+     * Adds a survey to the totals
+     *
+     * @param survey
+     *            The survey
+     */
+    public void add ( final SatisfactionSurvey survey ) {
+        adjust( survey, 1 );
+    }
+
+    /**
+     * Takes a survey out of the totals
+     *
+     * @param survey
+     *            The survey, which must have been added before
+     */
+    public void remove ( final SatisfactionSurvey survey ) {
+        adjust( survey, -1 );
+    }
+
+    /**
+     * Adds a survey to (or takes it out of) each total
+     *
+     * @param survey
+     *            The survey
+     * @param sign
+     *            1 to add it, -1 to take it out
+     */
+    private void adjust ( final SatisfactionSurvey survey, final int sign ) {
+        surveys += sign;
+        visitSatisfaction += sign * survey.getVisitSatisfaction();
+        treatmentSatisfaction += sign * survey.getTreatmentSatisfaction();
+        waitingRoomTime += sign * survey.getWaitingRoomTime().getCode();
+        examinationResponseTime += sign * survey.getExaminationResponseTime().getCode();
+    }
+
+    /**
+     * Works out the average of one of the totals, rounded down
+     *
+     * @param sum
+     *            The total
+     * @return The average, or 0 if there are no surveys
+     */
+    public int average ( final long sum ) {
+        return 0 == surveys ? 0 : (int) ( sum / surveys );
+    }
+
+    /**
+     * Returns the username of the HCP, for Hibernate
+     *
+     * @return the username
+     */
+    @Override
+    public String getId () {
+        return hcp;
+    }
+
+    /**
+     * Returns the username of the HCP the surveys were left for
+     *
+     * @return the username
+     */
+    public String getHcp () {
+        return hcp;
+    }
+
+    /**
+     * Returns the number of surveys
+     *
+     * @return the number of surveys
+     */
+    public long getSurveys () {
+        return surveys;
+    }
+
+    /**
+     * Returns the sum of the visit satisfaction scores
+     *
+     * @return the sum
+     */
+    public long getVisitSatisfaction () {
+        return visitSatisfaction;
+    }
+
+    /**
+     * Returns the sum of the treatment satisfaction scores
+     *
+     * @return the sum
+     */
+    public long getTreatmentSatisfaction () {
+        return treatmentSatisfaction;
+    }
+
+    /**
+     * Returns the sum of the codes of the waiting room times
+     *
+     * @return the sum
+     */
+    public long getWaitingRoomTime () {
+        return waitingRoomTime;
+    }
+
+    /**
+     * Returns the sum of the codes of the examination response times
+     *
+     * @return the sum
+     */
+    public long getExaminationResponseTime () {
+        return examinationResponseTime;
+    }
+
+}
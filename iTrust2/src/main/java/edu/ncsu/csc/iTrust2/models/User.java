@@ -6,23 +6,32 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import javax.persistence.Cacheable;
+import javax.persistence.CollectionTable;
 import javax.persistence.ElementCollection;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
 import javax.persistence.FetchType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.JoinColumn;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.validator.constraints.Length;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
+import edu.ncsu.csc.iTrust2.config.UserCacheConfiguration;
 import edu.ncsu.csc.iTrust2.forms.UserForm;
 import edu.ncsu.csc.iTrust2.models.enums.Role;
+import edu.ncsu.csc.iTrust2.services.PersonnelDirectory;
 
 /**
  * Basic class for a User in the system. This User class is a shared type that
@@ -35,11 +44,21 @@ import edu.ncsu.csc.iTrust2.models.enums.Role;
  * Note use of JsonIgnoreProperties to make sure that even the (hashed) password
  * isn't sent over the API when the Java objects are serialised to JSON.
  *
+ * Users, along with their roles, are kept in Hibernate's second-level cache;
+ * see UserCacheConfiguration.
+ *
+ * Roles are kept in the user_roles table, which is indexed by role so that
+ * personnel can be listed by role (see PersonnelRepository) without reading
+ * every user's roles. Changes to personnel invalidate the PersonnelDirectory.
+ *
  * @author Kai Presler-Marshall
  *
  */
 @Entity
+@Cacheable
+@Cache ( usage = CacheConcurrencyStrategy.READ_WRITE, region = UserCacheConfiguration.USER_REGION )
 @JsonIgnoreProperties ( value = { "password" } )
+@EntityListeners ( PersonnelDirectory.ChangeListener.class )
 public class User extends DomainObject {
 
     /** For Hibernate */
@@ -106,7 +125,10 @@ public class User extends DomainObject {
      * The role of the user
      */
     @ElementCollection ( targetClass = Role.class, fetch = FetchType.EAGER )
+    @CollectionTable ( name = "user_roles", joinColumns = @JoinColumn ( name = "user_username" ),
+            indexes = @Index ( name = "idx_user_roles_role", columnList = "roles, user_username" ) )
     @Enumerated ( EnumType.STRING )
+    @Cache ( usage = CacheConcurrencyStrategy.READ_WRITE, region = UserCacheConfiguration.ROLES_REGION )
     private Set<Role> roles;
 
     /**
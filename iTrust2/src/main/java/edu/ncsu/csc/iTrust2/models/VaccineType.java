@@ -1,6 +1,7 @@
 package edu.ncsu.csc.iTrust2.models;
 
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
@@ -10,6 +11,7 @@ import org.hibernate.validator.constraints.Length;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import edu.ncsu.csc.iTrust2.forms.VaccineTypeForm;
+import edu.ncsu.csc.iTrust2.services.CatalogVersions;
 
 /**
  * This class creates the vaccine type object
@@ -19,6 +21,7 @@ import edu.ncsu.csc.iTrust2.forms.VaccineTypeForm;
  *
  */
 @Entity
+@EntityListeners ( CatalogVersions.ChangeListener.class )
 public class VaccineType extends DomainObject {
     /**
      * Empty constructor for hiberate
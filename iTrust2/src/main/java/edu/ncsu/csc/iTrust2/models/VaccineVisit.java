@@ -5,7 +5,6 @@ import java.time.ZonedDateTime;
 import java.util.List;
 
 import javax.persistence.Basic;
-import javax.persistence.CascadeType;
 import javax.persistence.Convert;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
@@ -90,9 +89,11 @@ public class VaccineVisit extends DomainObject {
     private ZonedDateTime             followUpDate;
 
     /**
-     * The CPT codes associated with this visit
+     * The CPT codes associated with this visit. These are shared reference
+     * data from the CPTCodeCatalog, saved and deleted only through the
+     * CPTCodeService, so nothing is cascaded to them.
      */
-    @ManyToMany ( cascade = CascadeType.ALL )
+    @ManyToMany
     private List<CPTCode>             cptCodes;
 
     /**
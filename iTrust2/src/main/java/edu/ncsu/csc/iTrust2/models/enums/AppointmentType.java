@@ -1,7 +1,11 @@
 package edu.ncsu.csc.iTrust2.models.enums;
 
+import java.time.Duration;
+
 /**
  * Enum of all of the types of appointments that are recognized by the system.
+ * Each type has the length of time an HCP's schedule is booked for by an
+ * appointment of that type (see AppointmentSchedule).
  *
  * @author Kai Presler-Marshall
  * @author Lauren Murillo
@@ -12,36 +16,44 @@ public enum AppointmentType {
     /**
      * General Checkup
      */
-    GENERAL_CHECKUP ( 1 ),
+    GENERAL_CHECKUP ( 1, 30 ),
 
     /**
      * General Ophthalmology Appointment
      */
-    GENERAL_OPHTHALMOLOGY ( 2 ),
+    GENERAL_OPHTHALMOLOGY ( 2, 60 ),
 
     /**
      * Ophthalmology Surgery
      */
-    OPHTHALMOLOGY_SURGERY ( 3 ),
+    OPHTHALMOLOGY_SURGERY ( 3, 120 ),
 
     /**
      * Vaccine Appointment
      */
-    VACCINATION ( 4 );
+    VACCINATION ( 4, 15 );
 
     /**
      * Numerical code of the AppointmentType
      */
-    private int code;
+    private int      code;
+
+    /**
+     * How long an appointment of this type lasts
+     */
+    private Duration duration;
 
     /**
      * Creates the AppointmentType from its code.
      *
      * @param code
      *            Code of the AppointmentType
+     * @param minutes
+     *            How long an appointment of this type lasts, in minutes
      */
-    private AppointmentType ( final int code ) {
+    private AppointmentType ( final int code, final int minutes ) {
         this.code = code;
+        this.duration = Duration.ofMinutes( minutes );
     }
 
     /**
@@ -52,4 +64,13 @@ public enum AppointmentType {
     public int getCode () {
         return code;
     }
+
+    /**
+     * Gets how long an appointment of this type lasts
+     *
+     * @return Duration of the appointment
+     */
+    public Duration getDuration () {
+        return duration;
+    }
 }
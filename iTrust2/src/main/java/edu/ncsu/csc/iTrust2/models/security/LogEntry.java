@@ -8,6 +8,8 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
 import javax.validation.constraints.NotNull;
 
 import com.google.gson.annotations.JsonAdapter;
@@ -23,10 +25,16 @@ import edu.ncsu.csc.iTrust2.models.enums.TransactionType;
  * happened), a username, and a time when the event occurred. Has support for an
  * optional secondary user and message for further elaboration
  *
+ * The composite indexes on (user, time, id) back the per-user, newest-first
+ * keyset queries in LogEntryRepository; one is needed for each of the primary
+ * and secondary user so the database can merge them for `primary OR secondary`.
+ *
  * @author Kai Presler-Marshall
  *
  */
 @Entity
+@Table ( indexes = { @Index ( name = "idx_logentry_primary_time", columnList = "primary_user, time, id" ),
+        @Index ( name = "idx_logentry_secondary_time", columnList = "secondary_user, time, id" ) } )
 public class LogEntry extends DomainObject {
 
     /**
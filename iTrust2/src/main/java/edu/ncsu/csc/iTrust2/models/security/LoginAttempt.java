@@ -8,8 +8,10 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.Table;
 
 import com.google.gson.annotations.JsonAdapter;
 
@@ -23,16 +25,23 @@ import edu.ncsu.csc.iTrust2.models.User;
  * for a User, but not both. This way, IP lockouts and User lockouts are
  * independent, and clearing one will not affect the other. Once the number of
  * Attempts for a user or IP reaches a threshold, all Attempts are removed and a
- * LoginLockout is created. Attempts do not expire, but are cleared on
- * successful authentication. If an attempt is for a known username, two objects
- * are created, one for the IP and one for the user. If the username is unknown,
- * then only one is created for the IP.
+ * LoginLockout is created. Attempts are cleared on successful authentication,
+ * and purged by the LoginRecordPurger once they are older than the failed login
+ * window. If an attempt is for a known username, two objects are created, one
+ * for the IP and one for the user. If the username is unknown, then only one is
+ * created for the IP.
+ *
+ * The indexes on (ip, time) and (user, time) keep lookups by IP or user cheap,
+ * and the one on time backs the purge.
  *
  * @author Thomas
  * @author Kai Presler-Marshall
  *
  */
 @Entity
+@Table ( indexes = { @Index ( name = "idx_loginattempt_ip_time", columnList = "ip, time" ),
+        @Index ( name = "idx_loginattempt_user_time", columnList = "user_id, time" ),
+        @Index ( name = "idx_loginattempt_time", columnList = "time" ) } )
 public class LoginAttempt extends DomainObject {
 
     /** ID of the LoginAttempt */
@@ -0,0 +1,172 @@
+package edu.ncsu.csc.iTrust2.models.security;
+
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.validation.constraints.NotNull;
+
+import edu.ncsu.csc.iTrust2.models.DomainObject;
+
+/**
+ * Snapshot of one bucket of the in-memory failed login counters kept by the
+ * LoginFailureTracker. Failed logins themselves are never written to the
+ * database; instead the counters are periodically saved as a set of these rows
+ * so that a restart does not give an attacker a fresh set of attempts.
+ *
+ * Each application node keeps its own counters, so each row records the node
+ * that saved it. A node only ever replaces or restores its own rows, though
+ * any node may delete rows that have left the window.
+ *
+ * @author Kai Presler-Marshall
+ *
+ */
+@Entity
+@Table ( indexes = { @Index ( name = "idx_loginfailurecount_node", columnList = "node" ),
+        @Index ( name = "idx_loginfailurecount_bucket", columnList = "bucket" ) } )
+public class LoginFailureCount extends DomainObject {
+
+    /** ID of the snapshot row */
+    @Id
+    @GeneratedValue ( strategy = GenerationType.AUTO )
+    private Long   id;
+
+    /** Node whose counters the bucket is from */
+    @NotNull
+    private String node;
+
+    /** Which counter the bucket belongs to (eg, `ip:127.0.0.1`) */
+    @NotNull
+    private String counterKey;
+
+    /** Which slice of time the bucket counts */
+    private long   bucket;
+
+    /** Number of failures in the bucket */
+    private long   failures;
+
+    /**
+     * Creates an empty LoginFailureCount. Used by Hibernate.
+     */
+    public LoginFailureCount () {
+    }
+
+    /**
+     * Creates a LoginFailureCount for a single bucket
+     *
+     * @param node
+     *            Node whose counters the bucket is from
+     * @param counterKey
+     *            Which counter the bucket belongs to
+     * @param bucket
+     *            Which slice of time the bucket counts
+     * @param failures
+     *            Number of failures in the bucket
+     */
+    public LoginFailureCount ( final String node, final String counterKey, final long bucket,
+            final long failures ) {
+        this.node = node;
+        this.counterKey = counterKey;
+        this.bucket = bucket;
+        this.failures = failures;
+    }
+
+    /**
+     * Returns the ID of the row for Hibernate
+     *
+     * @return the id
+     */
+    @Override
+    public Long getId () {
+        return id;
+    }
+
+    /**
+     * Sets the ID of the row for Hibernate
+     *
+     * @param id
+     *            the id to set
+     */
+    public void setId ( final Long id ) {
+        this.id = id;
+    }
+
+    /**
+     * Returns the node whose counters the bucket is from
+     *
+     * @return the node
+     */
+    public String getNode () {
+        return node;
+    }
+
+    /**
+     * Sets the node whose counters the bucket is from
+     *
+     * @param node
+     *            the node to set
+     */
+    public void setNode ( final String node ) {
+        this.node = node;
+    }
+
+    /**
+     * Returns which counter the bucket belongs to
+     *
+     * @return the counter key
+     */
+    public String getCounterKey () {
+        return counterKey;
+    }
+
+    /**
+     * Sets which counter the bucket belongs to
+     *
+     * @param counterKey
+     *            the counter key to set
+     */
+    public void setCounterKey ( final String counterKey ) {
+        this.counterKey = counterKey;
+    }
+
+    /**
+     * Returns which slice of time the bucket counts
+     *
+     * @return the bucket
+     */
+    public long getBucket () {
+        return bucket;
+    }
+
+    /**
+     * Sets which slice of time the bucket counts
+     *
+     * @param bucket
+     *            the bucket to set
+     */
+    public void setBucket ( final long bucket ) {
+        this.bucket = bucket;
+    }
+
+    /**
+     * Returns the number of failures in the bucket
+     *
+     * @return the failures
+     */
+    public long getFailures () {
+        return failures;
+    }
+
+    /**
+     * Sets the number of failures in the bucket
+     *
+     * @param failures
+     *            the failures to set
+     */
+    public void setFailures ( final long failures ) {
+        this.failures = failures;
+    }
+
+}
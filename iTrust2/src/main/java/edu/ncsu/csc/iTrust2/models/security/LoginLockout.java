@@ -8,8 +8,10 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.Table;
 
 import com.google.gson.annotations.JsonAdapter;
 
@@ -24,11 +26,18 @@ import edu.ncsu.csc.iTrust2.models.User;
  * result in a LoginBan. Upon the elevation to a LoginBan, all associated
  * LoginLockout objects are deleted.
  *
+ * The indexes on (ip, time) and (user, time) back the lockout checks in
+ * LoginLockoutService, which only look at recent lockouts, and the one on time
+ * backs the LoginRecordPurger.
+ *
  * @author Thomas
  * @author Kai Presler-Marshall
  *
  */
 @Entity
+@Table ( indexes = { @Index ( name = "idx_loginlockout_ip_time", columnList = "ip, time" ),
+        @Index ( name = "idx_loginlockout_user_time", columnList = "user_id, time" ),
+        @Index ( name = "idx_loginlockout_time", columnList = "time" ) } )
 public class LoginLockout extends DomainObject {
 
     /** ID of the LoginLockout */
@@ -1,11 +1,18 @@
 package edu.ncsu.csc.iTrust2.repositories;
 
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import edu.ncsu.csc.iTrust2.models.AppointmentRequest;
 import edu.ncsu.csc.iTrust2.models.User;
+import edu.ncsu.csc.iTrust2.models.enums.Status;
 
 /**
  * Repository for interacting with AppointmentRequest model. Method
@@ -45,4 +52,63 @@ public interface AppointmentRequestRepository extends JpaRepository<AppointmentR
      */
     public List<AppointmentRequest> findByHcpAndPatient ( User hcp, User patient );
 
+    /**
+     * Find the AppointmentRequests for the provided Patient with a given
+     * status, in order of their date
+     * 
+     * @param patient
+     *            Patient to find ARs for
+     * @param status
+     *            Status of the ARs to find
+     * @return Matching ARs
+     */
+    public List<AppointmentRequest> findByPatientAndStatusOrderByDateAscIdAsc ( User patient, Status status );
+
+    /**
+     * Find the AppointmentRequests for the provided HCP with a given status,
+     * in order of their date
+     * 
+     * @param hcp
+     *            HCP to find ARs for
+     * @param status
+     *            Status of the ARs to find
+     * @return Matching ARs
+     */
+    public List<AppointmentRequest> findByHcpAndStatusOrderByDateAscIdAsc ( User hcp, Status status );
+
+    /**
+     * Find a page of the requests that an advocate has been invited to and
+     * that have one of the given statuses, for patients the advocate is still
+     * assigned to. The invitations, assignments, and statuses are all matched
+     * by the one query.
+     * 
+     * @param advocate
+     *            The patient advocate
+     * @param statuses
+     *            Statuses to include
+     * @param pageable
+     *            Page to find
+     * @return Matching requests
+     */
+    @EntityGraph ( attributePaths = { "patient", "hcp" } )
+    @Query ( value = "select r from AppointmentRequest r join r.patientAdvocatesInvited invited "
+            + "where invited = :advocate and r.status in :statuses and exists ( select a from "
+            + "PatientAdvocateAssignment a where a.patient = r.patient and a.patientAdvocate = :advocate )",
+            countQuery = "select count( r ) from AppointmentRequest r join r.patientAdvocatesInvited invited "
+                    + "where invited = :advocate and r.status in :statuses and exists ( select a from "
+                    + "PatientAdvocateAssignment a where a.patient = r.patient and a.patientAdvocate = :advocate )" )
+    public Page<AppointmentRequest> findForAdvocate ( @Param ( "advocate" ) User advocate,
+            @Param ( "statuses" ) Collection<Status> statuses, Pageable pageable );
+
+    /**
+     * Loads the patient advocates invited to a set of requests, already read,
+     * in a single query; a request appears in the result once per advocate
+     * 
+     * @param ids
+     *            IDs of the requests
+     * @return The requests
+     */
+    @Query ( "select r from AppointmentRequest r left join fetch r.patientAdvocatesInvited where r.id in :ids" )
+    public List<AppointmentRequest> fetchPatientAdvocatesInvited ( @Param ( "ids" ) Collection<Long> ids );
+
 }
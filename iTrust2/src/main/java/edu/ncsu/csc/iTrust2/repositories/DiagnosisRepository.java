@@ -2,10 +2,17 @@ package edu.ncsu.csc.iTrust2.repositories;
 
 import java.util.List;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import edu.ncsu.csc.iTrust2.forms.DiagnosisListForm;
 import edu.ncsu.csc.iTrust2.models.Diagnosis;
 import edu.ncsu.csc.iTrust2.models.OfficeVisit;
+import edu.ncsu.csc.iTrust2.models.User;
 
 /**
  * Repository for interacting with Diagnosis model. Method implementations
@@ -25,4 +32,37 @@ public interface DiagnosisRepository extends JpaRepository<Diagnosis, Long> {
      */
     public List<Diagnosis> findByVisit ( OfficeVisit visit );
 
+    /**
+     * Find every Diagnosis made in any of a patient's visits, along with the
+     * visits themselves, in one query
+     *
+     * @param patient
+     *            Patient to search by
+     * @return Matching Diagnoses
+     */
+    @EntityGraph ( attributePaths = { "code", "visit", "visit.patient", "visit.hcp", "visit.hospital",
+            "visit.appointment", "visit.basicHealthMetrics", "visit.ophthalmologyMetrics",
+            "visit.satisfactionSurvey" } )
+    public List<Diagnosis> findByVisitPatient ( User patient );
+
+    /**
+     * Find a page of a patient's diagnosis history: the diagnoses made in any
+     * of their visits, as DiagnosisListForms. Only the columns the forms need
+     * are read, rather than the HCPs and ICD codes as entities (which would
+     * each be loaded in a query of their own), so the page is one query,
+     * whatever it covers. Sort by `visit.date` to order it by when each
+     * diagnosis was made.
+     *
+     * @param patient
+     *            Patient to search by
+     * @param pageable
+     *            Page to find, and its order
+     * @return Matching Diagnoses
+     */
+    @Query ( value = "select new edu.ncsu.csc.iTrust2.forms.DiagnosisListForm( d.id, v.date, v.hcp.username, "
+            + "d.note, c.id, c.code, c.description, c.isOphthalmology ) "
+            + "from Diagnosis d join d.visit v join d.code c where v.patient = :patient",
+            countQuery = "select count( d ) from Diagnosis d join d.visit v where v.patient = :patient" )
+    public Page<DiagnosisListForm> findHistory ( @Param ( "patient" ) User patient, Pageable pageable );
+
 }
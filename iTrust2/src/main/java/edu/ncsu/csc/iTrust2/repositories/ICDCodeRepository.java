@@ -1,5 +1,6 @@
 package edu.ncsu.csc.iTrust2.repositories;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -24,6 +25,15 @@ public interface ICDCodeRepository extends JpaRepository<ICDCode, Long> {
      */
     public ICDCode findByCode ( String code );
 
+    /**
+     * Finds the ICDCodes with any of the given codes, in one query
+     *
+     * @param codes
+     *            Codes to search by
+     * @return The codes found
+     */
+    public List<ICDCode> findByCodeIn ( Collection<String> codes );
+
     /**
      * Find all ophthalmology ICD codes
      * 
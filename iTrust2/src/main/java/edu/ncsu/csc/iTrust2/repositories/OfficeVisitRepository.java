@@ -1,15 +1,25 @@
 package edu.ncsu.csc.iTrust2.repositories;
 
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import edu.ncsu.csc.iTrust2.models.OfficeVisit;
 import edu.ncsu.csc.iTrust2.models.User;
 
 /**
  * Repository for interacting with OfficeVisit model. Method implementations
- * generated by Spring
+ * generated by Spring. Every finder reads visits with the OfficeVisit.SUMMARY
+ * entity graph, so that what each visit refers to is not loaded a visit at a
+ * time. The fetch methods load one collection of a list of visits, already
+ * read, in a single query; a visit appears in their results once per element
+ * of the collection.
  *
  * @author Kai Presler-Marshall
  *
@@ -23,6 +33,7 @@ public interface OfficeVisitRepository extends JpaRepository<OfficeVisit, Long>
      *            HCP to search by
      * @return Matching visits
      */
+    @EntityGraph ( OfficeVisit.SUMMARY )
     public List<OfficeVisit> findByHcp ( User hcp );
 
     /**
@@ -32,6 +43,7 @@ public interface OfficeVisitRepository extends JpaRepository<OfficeVisit, Long>
      *            Patient to search by
      * @return Matching visits
      */
+    @EntityGraph ( OfficeVisit.SUMMARY )
     public List<OfficeVisit> findByPatient ( User patient );
 
     /**
@@ -43,6 +55,58 @@ public interface OfficeVisitRepository extends JpaRepository<OfficeVisit, Long>
      *            Patient to search by
      * @return Matching visits
      */
+    @EntityGraph ( OfficeVisit.SUMMARY )
     public List<OfficeVisit> findByHcpAndPatient ( User hcp, User patient );
 
+    /**
+     * Find a page of office visits
+     *
+     * @param pageable
+     *            Page to find
+     * @return Matching visits
+     */
+    @Override
+    @EntityGraph ( OfficeVisit.SUMMARY )
+    public Page<OfficeVisit> findAll ( Pageable pageable );
+
+    /**
+     * Loads the diagnoses of a set of visits
+     *
+     * @param ids
+     *            IDs of the visits
+     * @return The visits
+     */
+    @Query ( "select v from OfficeVisit v left join fetch v.diagnoses where v.id in :ids" )
+    public List<OfficeVisit> fetchDiagnoses ( @Param ( "ids" ) Collection<Long> ids );
+
+    /**
+     * Loads the prescriptions of a set of visits
+     *
+     * @param ids
+     *            IDs of the visits
+     * @return The visits
+     */
+    @Query ( "select v from OfficeVisit v left join fetch v.prescriptions where v.id in :ids" )
+    public List<OfficeVisit> fetchPrescriptions ( @Param ( "ids" ) Collection<Long> ids );
+
+    /**
+     * Loads the CPT codes of a set of visits
+     *
+     * @param ids
+     *            IDs of the visits
+     * @return The visits
+     */
+    @Query ( "select v from OfficeVisit v left join fetch v.cptCodes where v.id in :ids" )
+    public List<OfficeVisit> fetchCptCodes ( @Param ( "ids" ) Collection<Long> ids );
+
+    /**
+     * Loads the patient advocates present at a set of visits
+     *
+     * @param ids
+     *            IDs of the visits
+     * @return The visits
+     */
+    @Query ( "select v from OfficeVisit v left join fetch v.patientAdvocatesPresent where v.id in :ids" )
+    public List<OfficeVisit> fetchPatientAdvocatesPresent ( @Param ( "ids" ) Collection<Long> ids );
+
 }
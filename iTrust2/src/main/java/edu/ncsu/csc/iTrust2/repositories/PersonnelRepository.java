@@ -1,7 +1,15 @@
 package edu.ncsu.csc.iTrust2.repositories;
 
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
 import edu.ncsu.csc.iTrust2.models.Personnel;
 import edu.ncsu.csc.iTrust2.models.User;
+import edu.ncsu.csc.iTrust2.models.enums.Role;
 
 /**
  * Repository for interacting with Personnel model. Method implementations
@@ -13,4 +21,27 @@ import edu.ncsu.csc.iTrust2.models.User;
  */
 public interface PersonnelRepository <T extends User> extends UserRepository<Personnel> {
 
+    /**
+     * Find a page of the personnel with a role. The role is matched in the
+     * user_roles table, by its role index.
+     *
+     * @param role
+     *            Role to search by
+     * @param pageable
+     *            Page to find, and its order
+     * @return Matching personnel
+     */
+    @Query ( value = "select p from Personnel p join p.roles r where r = :role",
+            countQuery = "select count( p ) from Personnel p join p.roles r where r = :role" )
+    public Page<Personnel> findByRole ( @Param ( "role" ) Role role, Pageable pageable );
+
+    /**
+     * Finds the username and each role of every personnel, ordered by
+     * username, for the PersonnelDirectory
+     *
+     * @return Pairs of username and role
+     */
+    @Query ( "select p.username, r from Personnel p join p.roles r order by p.username" )
+    public List<Object[]> findUsernamesAndRoles ();
+
 }
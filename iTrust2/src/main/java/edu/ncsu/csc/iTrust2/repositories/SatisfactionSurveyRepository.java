@@ -2,6 +2,8 @@ package edu.ncsu.csc.iTrust2.repositories;
 
 import java.util.List;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import edu.ncsu.csc.iTrust2.models.SatisfactionSurvey;
@@ -24,6 +26,17 @@ public interface SatisfactionSurveyRepository extends JpaRepository<Satisfaction
      */
     public List<SatisfactionSurvey> findByHcpUsername ( String hcp );
 
+    /**
+     * Find a page of the SatisfactionSurveys for the given HCP
+     *
+     * @param hcp
+     *            HCP username to search by
+     * @param pageable
+     *            Page to find
+     * @return Matching SatisfactionSurveys
+     */
+    public Page<SatisfactionSurvey> findByHcpUsername ( String hcp, Pageable pageable );
+
     /**
      * Find all SatisfactionSurveys for the given Patient
      *
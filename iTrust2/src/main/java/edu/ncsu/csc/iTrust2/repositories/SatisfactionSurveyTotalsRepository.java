@@ -0,0 +1,49 @@
+package edu.ncsu.csc.iTrust2.repositories;
+
+import javax.persistence.LockModeType;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import edu.ncsu.csc.iTrust2.models.SatisfactionSurveyTotals;
+
+/**
+ * Repository for interacting with SatisfactionSurveyTotals model. Method
+ * implementations generated by Spring
+ *
+ * @author Kai Presler-Marshall
+ *
+ */
+public interface SatisfactionSurveyTotalsRepository extends JpaRepository<SatisfactionSurveyTotals, String> {
+
+    /**
+     * Find the totals for an HCP, locking them until the transaction ends so
+     * that surveys saved at once for the same HCP are added one after another
+     *
+     * @param hcp
+     *            Username of the HCP
+     * @return The totals, or null if the HCP has none yet
+     */
+    @Lock ( LockModeType.PESSIMISTIC_WRITE )
+    @Query ( "select t from SatisfactionSurveyTotals t where t.hcp = :hcp" )
+    public SatisfactionSurveyTotals findForUpdate ( @Param ( "hcp" ) String hcp );
+
+    /**
+     * Creates empty totals for an HCP, unless they already have some. This is
+     * a single upsert rather than a read and then an insert, so that surveys
+     * saved at once for an HCP's first time cannot both insert the totals.
+     *
+     * @param hcp
+     *            Username of the HCP
+     * @return Number of rows affected
+     */
+    @Modifying
+    @Query ( value = "insert into satisfaction_survey_totals ( hcp, surveys, visit_satisfaction, "
+            + "treatment_satisfaction, waiting_room_time, examination_response_time ) "
+            + "values ( :hcp, 0, 0, 0, 0, 0 ) on duplicate key update surveys = surveys", nativeQuery = true )
+    public int createIfMissing ( @Param ( "hcp" ) String hcp );
+
+}
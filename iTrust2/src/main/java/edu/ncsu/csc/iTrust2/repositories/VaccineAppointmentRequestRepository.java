@@ -1,11 +1,19 @@
 package edu.ncsu.csc.iTrust2.repositories;
 
+import java.time.ZonedDateTime;
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import edu.ncsu.csc.iTrust2.models.User;
 import edu.ncsu.csc.iTrust2.models.VaccineAppointmentRequest;
+import edu.ncsu.csc.iTrust2.models.enums.Status;
 
 /**
  * Repository for interacting with VaccineAppointmentRequest model. Method
@@ -45,4 +53,55 @@ public interface VaccineAppointmentRequestRepository extends JpaRepository<Vacci
      */
     public List<VaccineAppointmentRequest> findByHcpAndPatient ( User hcp, User patient );
 
+    /**
+     * Find the VaccineAppointmentRequests for the provided Patient with a given
+     * status, in order of their date
+     *
+     * @param patient
+     *            Patient to find requests for
+     * @param status
+     *            Status of the requests to find
+     * @return Matching requests
+     */
+    public List<VaccineAppointmentRequest> findByPatientAndStatusOrderByDateAscIdAsc ( User patient, Status status );
+
+    /**
+     * Find the VaccineAppointmentRequests for the provided Patient that take
+     * place strictly between two times, in order of their date
+     *
+     * @param patient
+     *            Patient to find requests for
+     * @param after
+     *            Requests must be after this time
+     * @param before
+     *            Requests must be before this time
+     * @return Matching requests
+     */
+    public List<VaccineAppointmentRequest> findByPatientAndDateAfterAndDateBeforeOrderByDateAscIdAsc ( User patient,
+            ZonedDateTime after, ZonedDateTime before );
+
+    /**
+     * Find a page of the requests that an advocate has been invited to and
+     * that have one of the given statuses, for patients the advocate is still
+     * assigned to. The invitations, assignments, and statuses are all matched
+     * by the one query.
+     *
+     * @param advocate
+     *            The patient advocate
+     * @param statuses
+     *            Statuses to include
+     * @param pageable
+     *            Page to find
+     * @return Matching requests
+     */
+    @EntityGraph ( attributePaths = { "patient", "hcp" } )
+    @Query ( value = "select r from VaccineAppointmentRequest r join r.patientAdvocatesInvited invited "
+            + "where invited = :advocate and r.status in :statuses and exists ( select a from "
+            + "PatientAdvocateAssignment a where a.patient = r.patient and a.patientAdvocate = :advocate )",
+            countQuery = "select count( r ) from VaccineAppointmentRequest r join r.patientAdvocatesInvited invited "
+                    + "where invited = :advocate and r.status in :statuses and exists ( select a from "
+                    + "PatientAdvocateAssignment a where a.patient = r.patient and a.patientAdvocate = :advocate )" )
+    public Page<VaccineAppointmentRequest> findForAdvocate ( @Param ( "advocate" ) User advocate,
+            @Param ( "statuses" ) Collection<Status> statuses, Pageable pageable );
+
 }
@@ -1,11 +1,15 @@
 package edu.ncsu.csc.iTrust2.repositories.security;
 
 import java.time.ZonedDateTime;
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import edu.ncsu.csc.iTrust2.models.enums.TransactionType;
 import edu.ncsu.csc.iTrust2.models.security.LogEntry;
 
 /**
@@ -39,4 +43,117 @@ public interface LogEntryRepository extends JpaRepository<LogEntry, Long> {
     @Query ( "SELECT le FROM LogEntry le WHERE le.primaryUser = ?1 OR le.secondaryUser = ?1" )
     public List<LogEntry> findByPrimaryUserOrSecondaryUser ( String user );
 
+    /**
+     * Retrieves the most recent log entries for a user, where they are either
+     * the primary or secondary user, newest first.
+     *
+     * @param user
+     *            User to search on
+     * @param page
+     *            Limit of entries to retrieve; the offset should be 0
+     * @return List of matching records
+     */
+    @Query ( "SELECT le FROM LogEntry le WHERE le.primaryUser = :user OR le.secondaryUser = :user "
+            + "ORDER BY le.time DESC, le.id DESC" )
+    public List<LogEntry> findRecentForUser ( @Param ( "user" ) String user, Pageable page );
+
+    /**
+     * Retrieves all log entries for a user, where they are either the primary
+     * or secondary user, between (inclusive) two dates.
+     *
+     * @param user
+     *            User to search on
+     * @param start
+     *            Starting date
+     * @param end
+     *            Ending date
+     * @return List of matching records
+     */
+    @Query ( "SELECT le FROM LogEntry le WHERE ( le.primaryUser = :user OR le.secondaryUser = :user ) "
+            + "AND le.time BETWEEN :start AND :end" )
+    public List<LogEntry> findForUserBetween ( @Param ( "user" ) String user, @Param ( "start" ) ZonedDateTime start,
+            @Param ( "end" ) ZonedDateTime end );
+
+    /**
+     * Retrieves a page of log entries for a user within a date range, newest
+     * first. If `restricted` is set, only entries whose code is in `codes` are
+     * returned. Uses the Pageable's offset, so prefer `findPageForUserBefore`
+     * when the last entry of the previous page is known.
+     *
+     * @param user
+     *            User to search on
+     * @param start
+     *            Starting date (inclusive)
+     * @param end
+     *            Ending date (exclusive)
+     * @param restricted
+     *            Whether to filter on `codes`
+     * @param codes
+     *            Codes to allow when restricted; must not be empty
+     * @param page
+     *            Page to retrieve
+     * @return List of matching records
+     */
+    @Query ( "SELECT le FROM LogEntry le WHERE ( le.primaryUser = :user OR le.secondaryUser = :user ) "
+            + "AND le.time >= :start AND le.time < :end AND ( :restricted = false OR le.logCode IN :codes ) "
+            + "ORDER BY le.time DESC, le.id DESC" )
+    public List<LogEntry> findPageForUser ( @Param ( "user" ) String user, @Param ( "start" ) ZonedDateTime start,
+            @Param ( "end" ) ZonedDateTime end, @Param ( "restricted" ) boolean restricted,
+            @Param ( "codes" ) Collection<TransactionType> codes, Pageable page );
+
+    /**
+     * Retrieves the page of log entries for a user within a date range that
+     * comes after the entry identified by (`cursorTime`, `cursorId`), newest
+     * first. This is a keyset query, so it costs the same no matter how deep
+     * into the history the page is.
+     *
+     * @param user
+     *            User to search on
+     * @param start
+     *            Starting date (inclusive)
+     * @param end
+     *            Ending date (exclusive)
+     * @param restricted
+     *            Whether to filter on `codes`
+     * @param codes
+     *            Codes to allow when restricted; must not be empty
+     * @param cursorTime
+     *            Time of the last entry on the previous page
+     * @param cursorId
+     *            ID of the last entry on the previous page
+     * @param page
+     *            Limit of the page to retrieve; the offset should be 0
+     * @return List of matching records
+     */
+    @Query ( "SELECT le FROM LogEntry le WHERE ( le.primaryUser = :user OR le.secondaryUser = :user ) "
+            + "AND le.time >= :start AND le.time < :end AND ( :restricted = false OR le.logCode IN :codes ) "
+            + "AND ( le.time < :cursorTime OR ( le.time = :cursorTime AND le.id < :cursorId ) ) "
+            + "ORDER BY le.time DESC, le.id DESC" )
+    public List<LogEntry> findPageForUserBefore ( @Param ( "user" ) String user,
+            @Param ( "start" ) ZonedDateTime start, @Param ( "end" ) ZonedDateTime end,
+            @Param ( "restricted" ) boolean restricted, @Param ( "codes" ) Collection<TransactionType> codes,
+            @Param ( "cursorTime" ) ZonedDateTime cursorTime, @Param ( "cursorId" ) Long cursorId, Pageable page );
+
+    /**
+     * Counts the log entries for a user within a date range, with the same
+     * filters as `findPageForUser`.
+     *
+     * @param user
+     *            User to search on
+     * @param start
+     *            Starting date (inclusive)
+     * @param end
+     *            Ending date (exclusive)
+     * @param restricted
+     *            Whether to filter on `codes`
+     * @param codes
+     *            Codes to allow when restricted; must not be empty
+     * @return Number of matching records
+     */
+    @Query ( "SELECT COUNT(le) FROM LogEntry le WHERE ( le.primaryUser = :user OR le.secondaryUser = :user ) "
+            + "AND le.time >= :start AND le.time < :end AND ( :restricted = false OR le.logCode IN :codes )" )
+    public long countForUser ( @Param ( "user" ) String user, @Param ( "start" ) ZonedDateTime start,
+            @Param ( "end" ) ZonedDateTime end, @Param ( "restricted" ) boolean restricted,
+            @Param ( "codes" ) Collection<TransactionType> codes );
+
 }
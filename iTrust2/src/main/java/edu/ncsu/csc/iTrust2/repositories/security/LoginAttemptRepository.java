@@ -1,6 +1,14 @@
 package edu.ncsu.csc.iTrust2.repositories.security;
 
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import edu.ncsu.csc.iTrust2.models.User;
 import edu.ncsu.csc.iTrust2.models.security.LoginAttempt;
@@ -50,4 +58,28 @@ public interface LoginAttemptRepository extends JpaRepository<LoginAttempt, Long
      */
     public long deleteByUser ( User user );
 
+    /**
+     * Finds the IDs of the oldest LoginAttempts from before a time, oldest
+     * first, for purging them a chunk at a time
+     *
+     * @param cutoff
+     *            Time to search before
+     * @param chunk
+     *            Limit of IDs to find; the offset should be 0
+     * @return Matching IDs
+     */
+    @Query ( "select a.id from LoginAttempt a where a.time < :cutoff order by a.time" )
+    public List<Long> findIdsBefore ( @Param ( "cutoff" ) ZonedDateTime cutoff, Pageable chunk );
+
+    /**
+     * Deletes the LoginAttempts with the given IDs, in one statement
+     *
+     * @param ids
+     *            IDs to delete
+     * @return The number of records deleted.
+     */
+    @Modifying
+    @Query ( "delete from LoginAttempt a where a.id in :ids" )
+    public int deleteByIds ( @Param ( "ids" ) Collection<Long> ids );
+
 }
@@ -0,0 +1,44 @@
+package edu.ncsu.csc.iTrust2.repositories.security;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import edu.ncsu.csc.iTrust2.models.security.LoginFailureCount;
+
+/**
+ * Repository for interacting with LoginFailureCount model. Method
+ * implementations generated by Spring
+ *
+ * @author Kai Presler-Marshall
+ *
+ */
+public interface LoginFailureCountRepository extends JpaRepository<LoginFailureCount, Long> {
+
+    /**
+     * Finds the buckets a node last saved
+     *
+     * @param node
+     *            The node
+     * @return Its buckets
+     */
+    public List<LoginFailureCount> findByNode ( String node );
+
+    /**
+     * Deletes the buckets a node last saved, along with any bucket, from any
+     * node, that has left the window
+     *
+     * @param node
+     *            The node
+     * @param before
+     *            Oldest bucket still in the window
+     * @return Number of rows deleted
+     */
+    @Modifying
+    @Query ( "delete from LoginFailureCount c where c.node = :node or c.bucket < :before" )
+    public int deleteSnapshot ( @Param ( "node" ) String node, @Param ( "before" ) long before );
+
+}
@@ -1,8 +1,14 @@
 package edu.ncsu.csc.iTrust2.repositories.security;
 
+import java.time.ZonedDateTime;
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import edu.ncsu.csc.iTrust2.models.User;
 import edu.ncsu.csc.iTrust2.models.security.LoginLockout;
@@ -25,6 +31,38 @@ public interface LoginLockoutRepository extends JpaRepository<LoginLockout, Long
      */
     public List<LoginLockout> findByIp ( String ipAddress );
 
+    /**
+     * Retrieves the most recent LoginLockout record for the given IP address.
+     *
+     * @param ipAddress
+     *            The IP address to search on.
+     * @return The newest matching LoginLockout, or null if there is none.
+     */
+    public LoginLockout findFirstByIpOrderByTimeDesc ( String ipAddress );
+
+    /**
+     * Checks to see if there is a LoginLockout for the given IP address since
+     * a time.
+     *
+     * @param ipAddress
+     *            The IP address to search on.
+     * @param since
+     *            Time to search after
+     * @return True iff a lockout was found.
+     */
+    public boolean existsByIpAndTimeAfter ( String ipAddress, ZonedDateTime since );
+
+    /**
+     * Counts the LoginLockouts for the given IP address since a time.
+     *
+     * @param ipAddress
+     *            The IP address to search on.
+     * @param since
+     *            Time to search after
+     * @return The number of matching LoginLockouts.
+     */
+    public long countByIpAndTimeAfter ( String ipAddress, ZonedDateTime since );
+
     /**
      * Deletes all saved LoginLockouts for the given IP address.
      *
@@ -43,6 +81,29 @@ public interface LoginLockoutRepository extends JpaRepository<LoginLockout, Long
      */
     public List<LoginLockout> findByUser ( User user );
 
+    /**
+     * Checks to see if there is a LoginLockout for the given user since a
+     * time.
+     *
+     * @param user
+     *            The User to search on.
+     * @param since
+     *            Time to search after
+     * @return True iff a lockout was found.
+     */
+    public boolean existsByUserAndTimeAfter ( User user, ZonedDateTime since );
+
+    /**
+     * Counts the LoginLockouts for the given user since a time.
+     *
+     * @param user
+     *            The User to search on.
+     * @param since
+     *            Time to search after
+     * @return The number of matching LoginLockouts.
+     */
+    public long countByUserAndTimeAfter ( User user, ZonedDateTime since );
+
     /**
      * Deletes all saved LoginLockouts for the given User.
      *
@@ -52,4 +113,28 @@ public interface LoginLockoutRepository extends JpaRepository<LoginLockout, Long
      */
     public long deleteByUser ( User user );
 
+    /**
+     * Finds the IDs of the oldest LoginLockouts from before a time, oldest
+     * first, for purging them a chunk at a time
+     *
+     * @param cutoff
+     *            Time to search before
+     * @param chunk
+     *            Limit of IDs to find; the offset should be 0
+     * @return Matching IDs
+     */
+    @Query ( "select l.id from LoginLockout l where l.time < :cutoff order by l.time" )
+    public List<Long> findIdsBefore ( @Param ( "cutoff" ) ZonedDateTime cutoff, Pageable chunk );
+
+    /**
+     * Deletes the LoginLockouts with the given IDs, in one statement
+     *
+     * @param ids
+     *            IDs to delete
+     * @return The number of records deleted.
+     */
+    @Modifying
+    @Query ( "delete from LoginLockout l where l.id in :ids" )
+    public int deleteByIds ( @Param ( "ids" ) Collection<Long> ids );
+
 }
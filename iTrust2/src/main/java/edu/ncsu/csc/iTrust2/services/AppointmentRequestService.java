@@ -2,11 +2,18 @@ package edu.ncsu.csc.iTrust2.services;
 
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import javax.transaction.Transactional;
 
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Component;
 
@@ -43,11 +50,33 @@ public class AppointmentRequestService extends Service<AppointmentRequest, Long>
     @Autowired
     private PatientAdvocateAssignmentService assignmentService;
 
+    /** Approved appointments of each HCP, for rejecting double-bookings */
+    @Autowired
+    private AppointmentSchedule              schedule;
+
     @Override
     protected JpaRepository<AppointmentRequest, Long> getRepository () {
         return repository;
     }
 
+    /**
+     * Saves an appointment request. An approved request is first checked
+     * against its HCP's other approved appointments; see AppointmentSchedule.
+     *
+     * @param request
+     *            The request to save
+     * @throws IllegalArgumentException
+     *             If it is approved and overlaps another appointment its HCP
+     *             has
+     */
+    @Override
+    public void save ( final AppointmentRequest request ) {
+        if ( Status.APPROVED == request.getStatus() && null != request.getHcp() ) {
+            schedule.checkAvailable( request );
+        }
+        super.save( request );
+    }
+
     /**
      * Find all appointment requests for a given Patient
      *
@@ -83,6 +112,69 @@ public class AppointmentRequestService extends Service<AppointmentRequest, Long>
         return repository.findByHcpAndPatient( hcp, patient );
     }
 
+    /**
+     * Find the appointment requests for a given Patient with a given status,
+     * in order of their date
+     *
+     * @param patient
+     *            Patient for lookups
+     * @param status
+     *            Status of the requests
+     * @return Matching requests
+     */
+    public List<AppointmentRequest> findByPatientAndStatus ( final User patient, final Status status ) {
+        return repository.findByPatientAndStatusOrderByDateAscIdAsc( patient, status );
+    }
+
+    /**
+     * Find the appointment requests for a given HCP with a given status, in
+     * order of their date
+     *
+     * @param hcp
+     *            HCP for lookups
+     * @param status
+     *            Status of the requests
+     * @return Matching requests
+     */
+    public List<AppointmentRequest> findByHcpAndStatus ( final User hcp, final Status status ) {
+        return repository.findByHcpAndStatusOrderByDateAscIdAsc( hcp, status );
+    }
+
+    /**
+     * Finds a page of the requests an advocate has been invited to, for
+     * patients they are assigned to, in one query. Unless the Pageable says
+     * otherwise, they are in order of their date.
+     *
+     * @param advocate
+     *            Patient advocate for lookups
+     * @param statuses
+     *            Statuses of the requests to include
+     * @param pageable
+     *            The page to find
+     * @return The page of requests
+     */
+    public Page<AppointmentRequest> findForAdvocate ( final User advocate, final Collection<Status> statuses,
+            final Pageable pageable ) {
+        return repository.findForAdvocate( advocate, statuses, PageRequest.of( pageable.getPageNumber(),
+                pageable.getPageSize(), pageable.getSortOr( Sort.by( "date", "id" ) ) ) );
+    }
+
+    /**
+     * Loads the patient advocates invited to each of a list of requests that
+     * have not been loaded yet, in one query
+     *
+     * @param requests
+     *            The requests
+     */
+    public void loadAdvocatesInvited ( final Collection< ? extends AppointmentRequest> requests ) {
+        final List<Long> ids = requests.stream()
+                .filter( request -> !Hibernate.isInitialized( request.getPatientAdvocatesInvited() ) )
+                .map( AppointmentRequest::getId ).collect( Collectors.toList() );
+        if ( !ids.isEmpty() ) {
+            repository.fetchPatientAdvocatesInvited( ids );
+        }
+    }
+
     /**
      * Builds an AppointmentRequest from the deserialised form
      *
@@ -0,0 +1,444 @@
+package edu.ncsu.csc.iTrust2.services;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import edu.ncsu.csc.iTrust2.models.AppointmentRequest;
+import edu.ncsu.csc.iTrust2.models.User;
+import edu.ncsu.csc.iTrust2.models.enums.AppointmentType;
+import edu.ncsu.csc.iTrust2.models.enums.Status;
+import edu.ncsu.csc.iTrust2.repositories.AppointmentRequestRepository;
+
+/**
+ * In-memory index of each HCP's approved appointments, for checking that an
+ * appointment being approved doesn't overlap one they already have. Each
+ * appointment books the HCP from its date for the duration of its
+ * AppointmentType. An HCP's appointments are kept in a balanced tree ordered by
+ * start time; since no appointment lasts longer than the longest type, the
+ * only ones that can overlap a new appointment start within that long before
+ * it, so a check is a single O(log n) range lookup however many appointments
+ * the HCP has.
+ *
+ * An HCP's schedule is loaded from the database the first time it is checked,
+ * and reloaded once it is older than `itrust2.appointments.refresh-ms`, which
+ * keeps several application nodes in step with each other's approvals. Any
+ * AppointmentRequest created, updated or deleted is applied to the index once
+ * its transaction commits (see ChangeListener).
+ *
+ * Checks are made under a lock for the HCP (one of a fixed set of striped
+ * locks), held until the transaction approving the appointment completes, so
+ * that two appointments approved at once on this node can't both pass the
+ * check.
+ *
+ * @author Kai Presler-Marshall
+ *
+ */
+@Component
+public class AppointmentSchedule {
+
+    /** Number of striped locks; HCPs sharing a stripe are checked in turn */
+    private static final int                  STRIPES   = 64;
+
+    /** Length of the longest type of appointment, in milliseconds */
+    private static final long                 LONGEST   = Arrays.stream( AppointmentType.values() )
+            .mapToLong( t -> t.getDuration().toMillis() ).max().orElse( 0 );
+
+    /** Locks that checks and changes for each HCP are made under */
+    private final ReentrantLock[]             locks     = new ReentrantLock[STRIPES];
+
+    /** Loaded schedules, by HCP username */
+    private final ConcurrentMap<String, Hcp>  schedules = new ConcurrentHashMap<String, Hcp>();
+
+    /** Username of the HCP whose loaded schedule holds each appointment */
+    private final ConcurrentMap<Long, String> owners    = new ConcurrentHashMap<Long, String>();
+
+    /** AppointmentRequest repository, for loading schedules */
+    @Autowired
+    private AppointmentRequestRepository      repository;
+
+    /** How long a schedule is trusted before it is reloaded, in milliseconds */
+    @Value ( "${itrust2.appointments.refresh-ms:60000}" )
+    private long                              refreshMillis;
+
+    /**
+     * Creates the AppointmentSchedule
+     */
+    public AppointmentSchedule () {
+        for ( int i = 0; i < STRIPES; i++ ) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Checks that an appointment being approved doesn't overlap any other
+     * approved appointment its HCP has. This must be called in the transaction
+     * saving the appointment: it takes the HCP's lock, which is held until
+     * that transaction completes.
+     *
+     * @param request
+     *            The appointment
+     * @throws IllegalArgumentException
+     *             If it overlaps another appointment
+     */
+    public void checkAvailable ( final AppointmentRequest request ) {
+        final String hcp = request.getHcp().getUsername();
+        final ReentrantLock lock = lockFor( hcp );
+        lock.lock();
+        if ( !TransactionSynchronizationManager.isSynchronizationActive() ) {
+            try {
+                check( request );
+            }
+            finally {
+                lock.unlock();
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization( new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCompletion ( final int status ) {
+                lock.unlock();
+            }
+        } );
+        check( request );
+    }
+
+    /**
+     * Checks an appointment against its HCP's schedule. The caller must hold
+     * the HCP's lock.
+     *
+     * @param request
+     *            The appointment
+     * @throws IllegalArgumentException
+     *             If it overlaps another appointment
+     */
+    private void check ( final AppointmentRequest request ) {
+        if ( null == request.getDate() || null == request.getType() ) {
+            return;
+        }
+        final Long clash = scheduleOf( request.getHcp() ).findOverlap( new Slot( request ) );
+        if ( null != clash ) {
+            throw new IllegalArgumentException( request.getHcp().getUsername() + " already has an appointment at "
+                    + request.getDate().toString() + " (appointment request " + clash + ")" );
+        }
+    }
+
+    /**
+     * Records a change to an appointment request once its transaction (if
+     * any) commits
+     *
+     * @param request
+     *            The request that changed
+     * @param removed
+     *            True iff it was deleted
+     */
+    void changed ( final AppointmentRequest request, final boolean removed ) {
+        final Long id = request.getId();
+        final boolean booked = !removed && Status.APPROVED == request.getStatus() && null != request.getHcp()
+                && null != request.getDate() && null != request.getType();
+        /* The request may be changed again before its transaction commits */
+        final String hcp = booked ? request.getHcp().getUsername() : null;
+        final Slot slot = booked ? new Slot( request ) : null;
+        if ( TransactionSynchronizationManager.isSynchronizationActive() ) {
+            if ( !TransactionSynchronizationManager.hasResource( this ) ) {
+                /* Until it completes, this transaction's checks must see its own changes; see scheduleOf() */
+                TransactionSynchronizationManager.bindResource( this, Boolean.TRUE );
+                TransactionSynchronizationManager.registerSynchronization( new TransactionSynchronizationAdapter() {
+                    @Override
+                    public void afterCompletion ( final int status ) {
+                        TransactionSynchronizationManager.unbindResourceIfPossible( AppointmentSchedule.this );
+                    }
+                } );
+            }
+            TransactionSynchronizationManager.registerSynchronization( new TransactionSynchronizationAdapter() {
+                /* Apply it before the HCP's lock is released (see checkAvailable()) */
+                @Override
+                public int getOrder () {
+                    return Ordered.HIGHEST_PRECEDENCE;
+                }
+
+                @Override
+                public void afterCompletion ( final int status ) {
+                    if ( STATUS_COMMITTED == status ) {
+                        apply( id, hcp, slot );
+                    }
+                }
+            } );
+        }
+        else {
+            apply( id, hcp, slot );
+        }
+    }
+
+    /**
+     * Moves an appointment to its place in the loaded schedules
+     *
+     * @param id
+     *            ID of the appointment request
+     * @param hcp
+     *            Username of its HCP, or null if it no longer books them
+     * @param slot
+     *            Time it books, or null if it no longer books anyone
+     */
+    private void apply ( final Long id, final String hcp, final Slot slot ) {
+        final String previous = null == hcp ? owners.remove( id ) : owners.put( id, hcp );
+        if ( null != previous ) {
+            withLock( previous, () -> {
+                final Hcp schedule = schedules.get( previous );
+                if ( null != schedule ) {
+                    schedule.remove( id );
+                }
+            } );
+        }
+        if ( null != hcp ) {
+            withLock( hcp, () -> {
+                final Hcp schedule = schedules.get( hcp );
+                if ( null != schedule ) {
+                    schedule.add( slot );
+                }
+                else {
+                    /* It will be read from the database when the schedule is loaded */
+                    owners.remove( id, hcp );
+                }
+            } );
+        }
+    }
+
+    /**
+     * Returns an HCP's schedule, loading it if it is missing or stale. The
+     * caller must hold the HCP's lock. If the current transaction has changed
+     * any appointment requests, the schedule is read from the database (so
+     * that it includes those changes) and is not shared, as they may yet be
+     * rolled back.
+     *
+     * @param hcp
+     *            The HCP
+     * @return The schedule
+     */
+    private Hcp scheduleOf ( final User hcp ) {
+        final boolean shared = !TransactionSynchronizationManager.hasResource( this );
+        final long now = System.currentTimeMillis();
+        final Hcp cached = schedules.get( hcp.getUsername() );
+        if ( shared && null != cached && cached.loadedAt + refreshMillis > now ) {
+            return cached;
+        }
+        final Hcp loaded = new Hcp( now );
+        for ( final AppointmentRequest request : repository.findByHcpAndStatusOrderByDateAscIdAsc( hcp,
+                Status.APPROVED ) ) {
+            if ( null != request.getDate() && null != request.getType() ) {
+                loaded.add( new Slot( request ) );
+            }
+        }
+        if ( shared ) {
+            loaded.byId.keySet().forEach( id -> owners.put( id, hcp.getUsername() ) );
+            schedules.put( hcp.getUsername(), loaded );
+        }
+        return loaded;
+    }
+
+    /**
+     * Runs something under an HCP's lock
+     *
+     * @param hcp
+     *            Username of the HCP
+     * @param action
+     *            What to run
+     */
+    private void withLock ( final String hcp, final Runnable action ) {
+        final ReentrantLock lock = lockFor( hcp );
+        lock.lock();
+        try {
+            action.run();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the lock for an HCP
+     *
+     * @param hcp
+     *            Username of the HCP
+     * @return The lock for their stripe
+     */
+    private ReentrantLock lockFor ( final String hcp ) {
+        return locks[Math.floorMod( hcp.hashCode(), STRIPES )];
+    }
+
+    /**
+     * The approved appointments of one HCP, ordered by when they start. Only
+     * read or changed under the HCP's lock.
+     *
+     * @author Kai Presler-Marshall
+     *
+     */
+    private static final class Hcp {
+
+        /** Epoch millis at which the schedule was loaded */
+        private final long            loadedAt;
+
+        /** Appointments, by start time and then ID */
+        private final TreeSet<Slot>   slots = new TreeSet<Slot>( Slot.ORDER );
+
+        /** Appointments, by ID */
+        private final Map<Long, Slot> byId  = new HashMap<Long, Slot>();
+
+        /**
+         * Creates an empty schedule
+         *
+         * @param loadedAt
+         *            Epoch millis at which it was loaded
+         */
+        Hcp ( final long loadedAt ) {
+            this.loadedAt = loadedAt;
+        }
+
+        /**
+         * Adds an appointment, replacing any earlier version of it
+         *
+         * @param slot
+         *            The appointment
+         */
+        void add ( final Slot slot ) {
+            remove( slot.id );
+            slots.add( slot );
+            byId.put( slot.id, slot );
+        }
+
+        /**
+         * Removes an appointment, if it is here
+         *
+         * @param id
+         *            ID of the appointment request
+         */
+        void remove ( final Long id ) {
+            final Slot slot = byId.remove( id );
+            if ( null != slot ) {
+                slots.remove( slot );
+            }
+        }
+
+        /**
+         * Finds an appointment, other than the one given, that overlaps it
+         *
+         * @param slot
+         *            The appointment to check
+         * @return ID of an overlapping appointment, or null if there is none
+         */
+        Long findOverlap ( final Slot slot ) {
+            final Slot from = new Slot( null, slot.start - LONGEST, slot.start - LONGEST );
+            final Slot to = new Slot( null, slot.end, slot.end );
+            for ( final Slot other : slots.subSet( from, true, to, false ) ) {
+                if ( other.end > slot.start && !other.id.equals( slot.id ) ) {
+                    return other.id;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * The time an approved appointment books its HCP for
+     *
+     * @author Kai Presler-Marshall
+     *
+     */
+    private static final class Slot {
+
+        /** Orders slots by start time, then ID (missing IDs first) */
+        static final Comparator<Slot> ORDER = Comparator.<Slot> comparingLong( s -> s.start )
+                .thenComparing( s -> s.id, Comparator.nullsFirst( Comparator.naturalOrder() ) );
+
+        /** ID of the appointment request, or null if it is not yet saved */
+        private final Long id;
+
+        /** Epoch millis at which the appointment starts */
+        private final long start;
+
+        /** Epoch millis at which the appointment ends */
+        private final long end;
+
+        /**
+         * Creates the Slot an appointment request books
+         *
+         * @param request
+         *            The request
+         */
+        Slot ( final AppointmentRequest request ) {
+            this( request.getId(), request.getDate().toInstant().toEpochMilli(),
+                    request.getDate().plus( request.getType().getDuration() ).toInstant().toEpochMilli() );
+        }
+
+        /**
+         * Creates a Slot
+         *
+         * @param id
+         *            ID of the appointment request
+         * @param start
+         *            Epoch millis at which it starts
+         * @param end
+         *            Epoch millis at which it ends
+         */
+        Slot ( final Long id, final long start, final long end ) {
+            this.id = id;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    /**
+     * JPA entity listener that applies each AppointmentRequest created,
+     * updated or deleted to the schedule. Hibernate creates it through Spring,
+     * so the schedule is autowired.
+     *
+     * @author Kai Presler-Marshall
+     *
+     */
+    public static class ChangeListener {
+
+        /** The schedule to update */
+        @Autowired
+        private AppointmentSchedule schedule;
+
+        /**
+         * Applies a saved request to the schedule
+         *
+         * @param request
+         *            The request that was saved
+         */
+        @PostPersist
+        @PostUpdate
+        public void saved ( final AppointmentRequest request ) {
+            schedule.changed( request, false );
+        }
+
+        /**
+         * Removes a deleted request from the schedule
+         *
+         * @param request
+         *            The request that was deleted
+         */
+        @PostRemove
+        public void removed ( final AppointmentRequest request ) {
+            schedule.changed( request, true );
+        }
+    }
+
+}
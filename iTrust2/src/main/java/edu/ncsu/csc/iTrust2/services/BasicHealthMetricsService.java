@@ -8,7 +8,6 @@ import org.springframework.stereotype.Component;
 
 import edu.ncsu.csc.iTrust2.forms.OfficeVisitForm;
 import edu.ncsu.csc.iTrust2.models.BasicHealthMetrics;
-import edu.ncsu.csc.iTrust2.models.User;
 import edu.ncsu.csc.iTrust2.repositories.BasicHealthMetricsRepository;
 
 /**
@@ -26,9 +25,9 @@ public class BasicHealthMetricsService extends Service<BasicHealthMetrics, Long>
     @Autowired
     private BasicHealthMetricsRepository repository;
 
-    /** Service for user lookups */
+    /** Resolves the users a form refers to */
     @Autowired
-    private UserService<User>            userService;
+    private EntityResolver               resolver;
 
     @Override
     protected JpaRepository<BasicHealthMetrics, Long> getRepository () {
@@ -44,8 +43,10 @@ public class BasicHealthMetricsService extends Service<BasicHealthMetrics, Long>
      */
     public BasicHealthMetrics build ( final OfficeVisitForm ovf ) {
         final BasicHealthMetrics bhm = new BasicHealthMetrics();
-        bhm.setPatient( userService.findByName( ovf.getPatient() ) );
-        bhm.setHcp( userService.findByName( ovf.getHcp() ) );
+        try ( final EntityResolver.Scope refs = resolver.open() ) {
+            bhm.setPatient( refs.user( ovf.getPatient() ) );
+            bhm.setHcp( refs.user( ovf.getHcp() ) );
+        }
 
         bhm.setDiastolic( ovf.getDiastolic() );
         bhm.setHdl( ovf.getHdl() );
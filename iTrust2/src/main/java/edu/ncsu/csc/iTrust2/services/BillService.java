@@ -33,19 +33,19 @@ public class BillService extends Service<Bill, Long> {
      * Repository for CRUD operations
      */
     @Autowired
-    private BillRepository    repository;
+    private BillRepository repository;
 
     /**
-     * User service
+     * Resolves the users a form refers to
      */
     @Autowired
-    private UserService<User> userService;
+    private EntityResolver resolver;
 
     /**
      * User service
      */
     @Autowired
-    private CPTCodeService    cptService;
+    private CPTCodeService cptService;
 
     @Override
     protected JpaRepository<Bill, Long> getRepository () {
@@ -77,8 +77,10 @@ public class BillService extends Service<Bill, Long> {
      */
     public Bill build ( final OfficeVisitForm ovf ) {
         final Bill b = new Bill();
-        b.setPatient( userService.findByName( ovf.getPatient() ) );
-        b.setHcp( userService.findByName( ovf.getHcp() ) );
+        try ( final EntityResolver.Scope refs = resolver.open() ) {
+            b.setPatient( refs.user( ovf.getPatient() ) );
+            b.setHcp( refs.user( ovf.getHcp() ) );
+        }
 
         final ZonedDateTime date = ZonedDateTime.parse( ovf.getDate() );
         b.setDate( date );
@@ -87,11 +89,7 @@ public class BillService extends Service<Bill, Long> {
         b.setAmountPaid( 0 );
 
         double cost = 0;
-        final List<CPTCode> cptCodes = new ArrayList<CPTCode>();
-        final List<Long> cptStrings = ovf.getCptCodes();
-        for ( int i = 0; i < cptStrings.size(); i++ ) {
-            cptCodes.add( cptService.findById( cptStrings.get( i ) ) );
-        }
+        final List<CPTCode> cptCodes = cptService.findByIds( ovf.getCptCodes() );
         for ( final CPTCode c : cptCodes ) {
             cost += c.getCost();
         }
@@ -114,8 +112,10 @@ public class BillService extends Service<Bill, Long> {
     public Bill build ( final VaccineVisitForm vv ) {
         final Bill b = new Bill();
 
-        b.setPatient( userService.findByName( vv.getPatient() ) );
-        b.setHcp( userService.findByName( vv.getVaccinator() ) );
+        try ( final EntityResolver.Scope refs = resolver.open() ) {
+            b.setPatient( refs.user( vv.getPatient() ) );
+            b.setHcp( refs.user( vv.getVaccinator() ) );
+        }
 
         final ZonedDateTime date = ZonedDateTime.parse( vv.getDateTime() );
         b.setDate( date );
@@ -124,11 +124,7 @@ public class BillService extends Service<Bill, Long> {
         b.setAmountPaid( 0 );
 
         double cost = 0;
-        final List<CPTCode> cptCodes = new ArrayList<CPTCode>();
-        final List<Long> cptStrings = vv.getCptCodes();
-        for ( int i = 0; i < cptStrings.size(); i++ ) {
-            cptCodes.add( cptService.findById( cptStrings.get( i ) ) );
-        }
+        final List<CPTCode> cptCodes = cptService.findByIds( vv.getCptCodes() );
         for ( final CPTCode c : cptCodes ) {
             cost += c.getCost();
         }
@@ -0,0 +1,266 @@
+package edu.ncsu.csc.iTrust2.services;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.PrePersist;
+import javax.persistence.PreRemove;
+import javax.persistence.PreUpdate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import edu.ncsu.csc.iTrust2.models.CPTCode;
+import edu.ncsu.csc.iTrust2.repositories.CPTCodeRepository;
+
+/**
+ * In-memory copy of the CPT code catalog. The catalog is small and rarely
+ * edited, but is read for every code on every office visit, vaccine visit and
+ * bill that is built, so rather than querying for each code the builders read
+ * from an immutable Snapshot of the whole catalog. Reading a snapshot is a
+ * plain map lookup with no locking.
+ *
+ * Any change to a CPTCode through the CPTCodeService invalidates the
+ * snapshot; see SnapshotCache for how it is reloaded. Snapshots are reloaded
+ * at least every `itrust2.cptcatalog.refresh-ms`.
+ *
+ * @author Kai Presler-Marshall
+ *
+ */
+@Component
+public class CPTCodeCatalog extends SnapshotCache<CPTCodeCatalog.Snapshot> {
+
+    /** CPTCode repository, for loading snapshots */
+    @Autowired
+    private CPTCodeRepository repository;
+
+    /** How long a snapshot is trusted before it is reloaded, in milliseconds */
+    @Value ( "${itrust2.cptcatalog.refresh-ms:60000}" )
+    private long              refreshMillis;
+
+    @Override
+    protected long getRefreshMillis () {
+        return refreshMillis;
+    }
+
+    /**
+     * Loads a snapshot of the catalog from the database
+     *
+     * @param snapshotVersion
+     *            Version to give the snapshot
+     * @return The snapshot
+     */
+    @Override
+    protected Snapshot load ( final long snapshotVersion ) {
+        final List<CPTCode> codes = new ArrayList<CPTCode>();
+        for ( final CPTCode code : repository.findAll() ) {
+            codes.add( copy( code ) );
+        }
+        return new Snapshot( snapshotVersion, codes );
+    }
+
+    /**
+     * Copies a CPTCode, so that the snapshot never holds an instance that
+     * Hibernate is managing (and might change) in some other session
+     *
+     * @param code
+     *            Code to copy
+     * @return The copy
+     */
+    private static CPTCode copy ( final CPTCode code ) {
+        final CPTCode copy = new CPTCode();
+        copy.setId( code.getId() );
+        copy.setCode( code.getCode() );
+        copy.setDescription( code.getDescription() );
+        copy.setCost( code.getCost() );
+        copy.setVersion( code.getVersion() );
+        copy.setisActive( code.getisActive() );
+        return copy;
+    }
+
+    /**
+     * An immutable view of the whole CPT code catalog at one point in time,
+     * indexed by ID, by code, and by code and version. The CPTCodes in a
+     * snapshot are shared between every thread reading it, and must not be
+     * modified; use `CPTCodeService.findById()` to get a code to edit.
+     *
+     * @author Kai Presler-Marshall
+     *
+     */
+    public static final class Snapshot {
+
+        /** Version of the catalog this snapshot was loaded at */
+        private final long                        version;
+
+        /** Every code, ordered by ID */
+        private final List<CPTCode>               all;
+
+        /** Codes by ID */
+        private final Map<Long, CPTCode>          byId;
+
+        /** Every version of each code, oldest first */
+        private final Map<Integer, List<CPTCode>> byCode;
+
+        /** Codes by code and version; see `key()` */
+        private final Map<Long, CPTCode>          byCodeAndVersion;
+
+        /**
+         * Creates a Snapshot
+         *
+         * @param version
+         *            Version of the catalog
+         * @param codes
+         *            Every code in the catalog
+         */
+        Snapshot ( final long version, final List<CPTCode> codes ) {
+            this.version = version;
+            codes.sort( Comparator.comparing( CPTCode::getId ) );
+            this.all = Collections.unmodifiableList( codes );
+
+            final Map<Long, CPTCode> ids = new HashMap<Long, CPTCode>();
+            final Map<Integer, List<CPTCode>> versions = new HashMap<Integer, List<CPTCode>>();
+            final Map<Long, CPTCode> keys = new HashMap<Long, CPTCode>();
+            for ( final CPTCode code : codes ) {
+                ids.put( code.getId(), code );
+                versions.computeIfAbsent( code.getCode(), c -> new ArrayList<CPTCode>() ).add( code );
+                keys.put( key( code.getCode(), code.getVersion() ), code );
+            }
+            versions.replaceAll( ( c, list ) -> {
+                list.sort( Comparator.comparingInt( CPTCode::getVersion ) );
+                return Collections.unmodifiableList( list );
+            } );
+            this.byId = ids;
+            this.byCode = versions;
+            this.byCodeAndVersion = keys;
+        }
+
+        /**
+         * Returns the version of the catalog this snapshot was loaded at.
+         * Versions only ever increase, and change whenever a code is edited.
+         *
+         * @return Version
+         */
+        public long getVersion () {
+            return version;
+        }
+
+        /**
+         * Returns every code in the catalog, active or not, ordered by ID
+         *
+         * @return All codes
+         */
+        public List<CPTCode> findAll () {
+            return all;
+        }
+
+        /**
+         * Finds a code by its ID
+         *
+         * @param id
+         *            ID of the code
+         * @return The code, or null if there is none
+         */
+        public CPTCode findById ( final Long id ) {
+            return byId.get( id );
+        }
+
+        /**
+         * Finds every version of a code
+         *
+         * @param code
+         *            Code to search by
+         * @return Matching codes, oldest version first
+         */
+        public List<CPTCode> findByCode ( final int code ) {
+            return byCode.getOrDefault( code, Collections.emptyList() );
+        }
+
+        /**
+         * Finds one version of a code
+         *
+         * @param code
+         *            Code to search by
+         * @param codeVersion
+         *            Version of the code
+         * @return Matching code, if any
+         */
+        public CPTCode findByCodeAndVersion ( final int code, final int codeVersion ) {
+            return byCodeAndVersion.get( key( code, codeVersion ) );
+        }
+
+        /**
+         * Finds the active version of a code
+         *
+         * @param code
+         *            Code to search by
+         * @return Matching code, if any
+         */
+        public CPTCode findActiveByCode ( final int code ) {
+            for ( final CPTCode c : findByCode( code ) ) {
+                if ( Boolean.TRUE.equals( c.getisActive() ) ) {
+                    return c;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Finds the most recent version of a code, active or not
+         *
+         * @param code
+         *            Code to search by
+         * @return Matching code, if any
+         */
+        public CPTCode findMostRecentByCode ( final int code ) {
+            final List<CPTCode> versions = findByCode( code );
+            return versions.isEmpty() ? null : versions.get( versions.size() - 1 );
+        }
+
+        /**
+         * Combines a code and version into a single map key
+         *
+         * @param code
+         *            Code
+         * @param codeVersion
+         *            Version of the code
+         * @return Key
+         */
+        private static long key ( final int code, final int codeVersion ) {
+            return ( (long) code << 32 ) | ( codeVersion & 0xFFFFFFFFL );
+        }
+    }
+
+    /**
+     * JPA entity listener on CPTCode that invalidates the catalog whenever a
+     * code is created, changed, or deleted, however the change was made.
+     * Hibernate creates it through Spring, so the catalog is autowired.
+     *
+     * @author Kai Presler-Marshall
+     *
+     */
+    public static class ChangeListener {
+
+        /** The catalog to invalidate */
+        @Autowired
+        private CPTCodeCatalog catalog;
+
+        /**
+         * Invalidates the catalog
+         *
+         * @param code
+         *            The code that is changing
+         */
+        @PrePersist
+        @PreUpdate
+        @PreRemove
+        public void changed ( final CPTCode code ) {
+            catalog.invalidate();
+        }
+    }
+
+}
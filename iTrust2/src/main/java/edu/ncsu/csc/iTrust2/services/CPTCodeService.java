@@ -1,5 +1,6 @@
 package edu.ncsu.csc.iTrust2.services;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import javax.transaction.Transactional;
@@ -14,7 +15,9 @@ import edu.ncsu.csc.iTrust2.repositories.CPTCodeRepository;
 
 /**
  * Service class for interacting with CPTCode model, performing CRUD tasks with
- * database.
+ * database. Lookups by code, and lookups for building visits and bills, are
+ * answered from the CPTCodeCatalog rather than the database; `findById()`
+ * still reads the database, and should be used to get a code to edit.
  *
  * @author yli246
  *
@@ -27,6 +30,10 @@ public class CPTCodeService extends Service<CPTCode, Long> {
     @Autowired
     private CPTCodeRepository repository;
 
+    /** In-memory copy of the catalog, for lookups */
+    @Autowired
+    private CPTCodeCatalog    catalog;
+
     @Override
     protected JpaRepository<CPTCode, Long> getRepository () {
         return repository;
@@ -45,7 +52,40 @@ public class CPTCodeService extends Service<CPTCode, Long> {
 
     @Override
     public List<CPTCode> findAll () {
-        return repository.findAll();
+        return new ArrayList<CPTCode>( catalog.snapshot().findAll() );
+    }
+
+    /**
+     * Returns a snapshot of the whole catalog, for callers that look up many
+     * codes and want them all from the same version of the catalog
+     *
+     * @return The catalog
+     */
+    public CPTCodeCatalog.Snapshot getCatalog () {
+        return catalog.snapshot();
+    }
+
+    /**
+     * Finds the CPTCodes with the given IDs, in the same order. Used when
+     * building visits and bills from their forms.
+     *
+     * @param ids
+     *            IDs of the codes
+     * @return The codes
+     * @throws IllegalArgumentException
+     *             If any ID is not a CPTCode
+     */
+    public List<CPTCode> findByIds ( final List<Long> ids ) {
+        final CPTCodeCatalog.Snapshot snapshot = catalog.snapshot();
+        final List<CPTCode> codes = new ArrayList<CPTCode>( ids.size() );
+        for ( final Long id : ids ) {
+            final CPTCode code = snapshot.findById( id );
+            if ( null == code ) {
+                throw new IllegalArgumentException( "No CPT code with ID " + id );
+            }
+            codes.add( code );
+        }
+        return codes;
     }
 
     /**
@@ -56,7 +96,7 @@ public class CPTCodeService extends Service<CPTCode, Long> {
      * @return Matching code, if any
      */
     public CPTCode findActiveByCode ( final int code ) {
-        return repository.findByCodeAndIsActiveTrue( code );
+        return catalog.snapshot().findActiveByCode( code );
     }
 
     /**
@@ -67,7 +107,7 @@ public class CPTCodeService extends Service<CPTCode, Long> {
      * @return Matching code, if any
      */
     public CPTCode findMostRecentByCode ( final int code ) {
-        return repository.findFirstByCodeOrderByVersionDesc( code );
+        return catalog.snapshot().findMostRecentByCode( code );
     }
 
     /**
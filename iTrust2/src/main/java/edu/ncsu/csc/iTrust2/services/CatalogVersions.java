@@ -0,0 +1,195 @@
+package edu.ncsu.csc.iTrust2.services;
+
+import java.security.SecureRandom;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.persistence.PrePersist;
+import javax.persistence.PreRemove;
+import javax.persistence.PreUpdate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import edu.ncsu.csc.iTrust2.models.CPTCode;
+import edu.ncsu.csc.iTrust2.models.Drug;
+import edu.ncsu.csc.iTrust2.models.Hospital;
+import edu.ncsu.csc.iTrust2.models.ICDCode;
+import edu.ncsu.csc.iTrust2.models.VaccineType;
+
+/**
+ * Version counters for the reference data catalogs, from which the endpoints
+ * listing them build ETags. A client that sends back the ETag of its copy with
+ * `If-None-Match` is told its copy is current, without the catalog being read
+ * or serialized again.
+ *
+ * A catalog's version is bumped whenever one of its entities is created,
+ * changed, or deleted (see ChangeListener), and bumped again once the changing
+ * transaction completes, so that a copy read while the change was in flight is
+ * never tagged with the new version. Versions are only kept in memory, so each
+ * ETag also names a random epoch chosen when the application starts, and the
+ * period of `itrust2.etag.max-age-ms` it was issued in. The latter bounds how
+ * long a node can go on telling clients their copy is current after an edit
+ * made on another node.
+ *
+ * @author Kai Presler-Marshall
+ *
+ */
+@Component
+public class CatalogVersions {
+
+    /**
+     * A catalog of reference data, and the entity it is made of
+     *
+     * @author Kai Presler-Marshall
+     *
+     */
+    public enum Catalog {
+        /** CPT codes */
+        CPT_CODES ( CPTCode.class ),
+        /** ICD codes */
+        ICD_CODES ( ICDCode.class ),
+        /** The drug formulary */
+        DRUGS ( Drug.class ),
+        /** Hospitals */
+        HOSPITALS ( Hospital.class ),
+        /** Vaccines */
+        VACCINES ( VaccineType.class );
+
+        /** Entity the catalog is made of */
+        private final Class< ? > entity;
+
+        /**
+         * Creates a Catalog
+         *
+         * @param entity
+         *            Entity the catalog is made of
+         */
+        Catalog ( final Class< ? > entity ) {
+            this.entity = entity;
+        }
+
+        /**
+         * Finds the catalog an entity belongs to
+         *
+         * @param entity
+         *            The entity
+         * @return Its catalog
+         */
+        static Catalog of ( final Object entity ) {
+            for ( final Catalog catalog : values() ) {
+                if ( catalog.entity.isInstance( entity ) ) {
+                    return catalog;
+                }
+            }
+            throw new IllegalArgumentException( "Not part of any catalog: " + entity.getClass().getName() );
+        }
+    }
+
+    /** Chosen at startup, so that tags from before a restart never match */
+    private final String                  epoch    = Long.toString( new SecureRandom().nextLong() & Long.MAX_VALUE,
+            Character.MAX_RADIX );
+
+    /** Version of each catalog */
+    private final Map<Catalog, AtomicLong> versions = new EnumMap<Catalog, AtomicLong>( Catalog.class );
+
+    /** Longest an ETag is reused for, in milliseconds */
+    @Value ( "${itrust2.etag.max-age-ms:60000}" )
+    private long                          maxAgeMillis;
+
+    /**
+     * Creates the version counters
+     */
+    public CatalogVersions () {
+        for ( final Catalog catalog : Catalog.values() ) {
+            versions.put( catalog, new AtomicLong() );
+        }
+    }
+
+    /**
+     * Returns the current version of a catalog. This changes whenever the
+     * catalog does, and only ever increases.
+     *
+     * @param catalog
+     *            The catalog
+     * @return Version
+     */
+    public long getVersion ( final Catalog catalog ) {
+        return versions.get( catalog ).get();
+    }
+
+    /**
+     * Records that a catalog has changed. Its version is bumped now, and
+     * bumped again when the surrounding transaction (if any) completes.
+     *
+     * @param catalog
+     *            The catalog that changed
+     */
+    public void changed ( final Catalog catalog ) {
+        final AtomicLong version = versions.get( catalog );
+        version.incrementAndGet();
+        if ( TransactionSynchronizationManager.isSynchronizationActive()
+                && !TransactionSynchronizationManager.hasResource( version ) ) {
+            TransactionSynchronizationManager.bindResource( version, Boolean.TRUE );
+            TransactionSynchronizationManager.registerSynchronization( new TransactionSynchronization() {
+                @Override
+                public void afterCompletion ( final int status ) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible( version );
+                    version.incrementAndGet();
+                }
+            } );
+        }
+    }
+
+    /**
+     * Builds the strong ETag for the current version of a catalog. It must be
+     * built before the catalog is read, so that a change made in between
+     * leaves the client with a tag that no longer matches.
+     *
+     * @param catalog
+     *            The catalog
+     * @param variant
+     *            For catalogs that are listed differently depending on who
+     *            asks, which listing this is; otherwise null
+     * @return The ETag, quoted
+     */
+    public String etag ( final Catalog catalog, final Object variant ) {
+        final long period = System.currentTimeMillis() / Math.max( 1, maxAgeMillis );
+        return "\"" + catalog.name().toLowerCase( Locale.ROOT ) + "-" + epoch + "-" + getVersion( catalog ) + "-"
+                + period + ( null == variant ? "" : "-" + variant ) + "\"";
+    }
+
+    /**
+     * JPA entity listener on the entities making up each Catalog that bumps
+     * the catalog's version whenever one is created, changed, or deleted.
+     * Hibernate creates it through Spring, so the versions are autowired.
+     *
+     * @author Kai Presler-Marshall
+     *
+     */
+    public static class ChangeListener {
+
+        /** The versions to bump */
+        @Autowired
+        private CatalogVersions versions;
+
+        /**
+         * Bumps the version of the entity's catalog
+         *
+         * @param entity
+         *            The entity that is changing
+         */
+        @PrePersist
+        @PreUpdate
+        @PreRemove
+        public void changed ( final Object entity ) {
+            versions.changed( Catalog.of( entity ) );
+        }
+    }
+
+}
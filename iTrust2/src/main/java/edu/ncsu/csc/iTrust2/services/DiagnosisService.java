@@ -1,15 +1,19 @@
 package edu.ncsu.csc.iTrust2.services;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 import javax.transaction.Transactional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Component;
 
 import edu.ncsu.csc.iTrust2.forms.DiagnosisForm;
+import edu.ncsu.csc.iTrust2.forms.DiagnosisListForm;
 import edu.ncsu.csc.iTrust2.models.Diagnosis;
 import edu.ncsu.csc.iTrust2.models.OfficeVisit;
 import edu.ncsu.csc.iTrust2.models.User;
@@ -34,9 +38,9 @@ public class DiagnosisService extends Service<Diagnosis, Long> {
     @Autowired
     private OfficeVisitService  service;
 
-    /** ICDCode service for lookups */
+    /** Resolves the ICD code a form refers to */
     @Autowired
-    private ICDCodeService      icdCodeService;
+    private EntityResolver      resolver;
 
     @Override
     protected JpaRepository<Diagnosis, Long> getRepository () {
@@ -54,7 +58,9 @@ public class DiagnosisService extends Service<Diagnosis, Long> {
         final Diagnosis diag = new Diagnosis();
         diag.setVisit( service.findById( form.getVisit() ) );
         diag.setNote( form.getNote() );
-        diag.setCode( icdCodeService.findByCode( form.getCode() ) );
+        try ( final EntityResolver.Scope refs = resolver.open() ) {
+            diag.setCode( refs.icdCode( form.getCode() ) );
+        }
         diag.setId( form.getId() );
 
         return diag;
@@ -68,9 +74,35 @@ public class DiagnosisService extends Service<Diagnosis, Long> {
      * @return Diagnoses matched
      */
     public List<Diagnosis> findByPatient ( final User patient ) {
-        return service.findByPatient( patient ).stream().map( e -> findByVisit( e ) ).flatMap( e -> e.stream() )
-                .collect( Collectors.toList() );
+        return repository.findByVisitPatient( patient );
+    }
 
+    /**
+     * Finds a page of a patient's diagnosis history, in one query. Unless the
+     * Pageable says otherwise, it is in order of when each diagnosis was made.
+     *
+     * @param patient
+     *            Patient to search for
+     * @param pageable
+     *            The page to find; sort by `visit.date` (and `id`) to order
+     *            by when each diagnosis was made
+     * @return The page of diagnoses
+     */
+    public Page<DiagnosisListForm> findHistory ( final User patient, final Pageable pageable ) {
+        return repository.findHistory( patient, PageRequest.of( pageable.getPageNumber(), pageable.getPageSize(),
+                pageable.getSortOr( byVisitDate( Sort.Direction.ASC ) ) ) );
+    }
+
+    /**
+     * Orders diagnoses by when they were made, and then by ID so that pages
+     * are stable
+     *
+     * @param direction
+     *            Oldest first (ascending) or newest first (descending)
+     * @return The order, for `findHistory()`
+     */
+    public static Sort byVisitDate ( final Sort.Direction direction ) {
+        return Sort.by( direction, "visit.date", "id" );
     }
 
     /**
@@ -0,0 +1,549 @@
+package edu.ncsu.csc.iTrust2.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import javax.persistence.PrePersist;
+import javax.persistence.PreRemove;
+import javax.persistence.PreUpdate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import edu.ncsu.csc.iTrust2.models.Drug;
+import edu.ncsu.csc.iTrust2.repositories.DrugRepository;
+
+/**
+ * In-memory inverted index of the drug formulary, searchable by NDC, name and
+ * description. Prescribing pages used to download the whole formulary; they
+ * now search this index as the HCP types, and only get back one page of
+ * results.
+ *
+ * Any change to a Drug invalidates the index; see SnapshotCache for how it is
+ * reloaded. The index is reloaded at least every `itrust2.drugindex.refresh-ms`.
+ *
+ * @author Kai Presler-Marshall
+ *
+ */
+@Component
+public class DrugIndex extends SnapshotCache<DrugIndex.Snapshot> {
+
+    /** Rank of a drug whose NDC is a search term */
+    private static final int EXACT_CODE  = 0;
+
+    /** Rank of a drug whose NDC starts with a search term */
+    private static final int CODE        = 1;
+
+    /** Rank of a drug matched on a word of its name */
+    private static final int NAME        = 2;
+
+    /** Rank of a drug only matched on a word of its description */
+    private static final int DESCRIPTION = 3;
+
+    /** Rank of a drug that doesn't match */
+    private static final int NO_MATCH    = Byte.MAX_VALUE;
+
+    /** Drug repository, for loading the index */
+    @Autowired
+    private DrugRepository   repository;
+
+    /** How long the index is trusted before it is reloaded, in milliseconds */
+    @Value ( "${itrust2.drugindex.refresh-ms:60000}" )
+    private long             refreshMillis;
+
+    @Override
+    protected long getRefreshMillis () {
+        return refreshMillis;
+    }
+
+    @Override
+    protected Snapshot load ( final long snapshotVersion ) {
+        final List<Drug> drugs = new ArrayList<Drug>();
+        for ( final Drug drug : repository.findAll() ) {
+            final Drug copy = new Drug();
+            copy.setId( drug.getId() );
+            copy.setCode( drug.getCode() );
+            copy.setName( drug.getName() );
+            copy.setDescription( drug.getDescription() );
+            drugs.add( copy );
+        }
+        drugs.sort( Comparator.comparing( ( final Drug d ) -> d.getName().toUpperCase( Locale.ROOT ) )
+                .thenComparing( Drug::getCode ) );
+        return new Snapshot( snapshotVersion, drugs );
+    }
+
+    /**
+     * Splits text into the upper-case words it can be searched by. Dashes are
+     * dropped from within words, so that an NDC is a single word of digits
+     * (and `1234-56` finds `1234-5678-90`).
+     *
+     * @param text
+     *            Text to split
+     * @return The words
+     */
+    static List<String> words ( final String text ) {
+        final List<String> words = new ArrayList<String>();
+        if ( null == text ) {
+            return words;
+        }
+        /* Split by hand; a regex split is most of the cost of building the index */
+        final String upper = text.toUpperCase( Locale.ROOT );
+        final StringBuilder word = new StringBuilder();
+        for ( int i = 0; i <= upper.length(); i++ ) {
+            final char c = i < upper.length() ? upper.charAt( i ) : ' ';
+            if ( ( c >= 'A' && c <= 'Z' ) || ( c >= '0' && c <= '9' ) ) {
+                word.append( c );
+            }
+            else if ( c != '-' && word.length() > 0 ) {
+                words.add( word.toString() );
+                word.setLength( 0 );
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Returns the words an NDC can be found by: the whole code without its
+     * dashes, and each of its later segments (the product and package codes)
+     *
+     * @param code
+     *            NDC, eg `1234-5678-90`
+     * @return The words
+     */
+    static String[] codeWords ( final String code ) {
+        final Set<String> keys = new LinkedHashSet<String>();
+        if ( null != code ) {
+            keys.add( code.replace( "-", "" ) );
+            final String[] segments = code.split( "-" );
+            for ( int i = 1; i < segments.length; i++ ) {
+                keys.add( segments[i] );
+            }
+        }
+        keys.remove( "" );
+        return keys.toArray( new String[0] );
+    }
+
+    /**
+     * The formulary as of one point in time. The Drugs in a snapshot are
+     * shared between every thread reading it, and must not be modified.
+     *
+     * @author Kai Presler-Marshall
+     *
+     */
+    public static final class Snapshot {
+
+        /** Version of the formulary this snapshot was loaded at */
+        private final long       version;
+
+        /** Every drug, ordered by name; positions in this are drug numbers */
+        private final List<Drug> drugs;
+
+        /** For each drug, its NDC without dashes */
+        private final String[]   codes;
+
+        /** Index of NDC words */
+        private final Postings   byCode;
+
+        /** Index of name words */
+        private final Postings   byName;
+
+        /** Index of description words */
+        private final Postings   byDescription;
+
+        /**
+         * Creates a Snapshot
+         *
+         * @param version
+         *            Version of the formulary
+         * @param drugs
+         *            Every drug, ordered by name
+         */
+        Snapshot ( final long version, final List<Drug> drugs ) {
+            this.version = version;
+            this.drugs = Collections.unmodifiableList( drugs );
+            final int n = drugs.size();
+            this.codes = new String[n];
+            final String[][] codeWords = new String[n][];
+            final String[][] nameWords = new String[n][];
+            final String[][] descriptionWords = new String[n][];
+            for ( int i = 0; i < n; i++ ) {
+                final Drug drug = drugs.get( i );
+                codes[i] = null == drug.getCode() ? "" : drug.getCode().replace( "-", "" );
+                codeWords[i] = codeWords( drug.getCode() );
+                nameWords[i] = new LinkedHashSet<String>( words( drug.getName() ) ).toArray( new String[0] );
+                descriptionWords[i] = new LinkedHashSet<String>( words( drug.getDescription() ) )
+                        .toArray( new String[0] );
+            }
+            this.byCode = new Postings( codeWords );
+            this.byName = new Postings( nameWords );
+            this.byDescription = new Postings( descriptionWords );
+        }
+
+        /**
+         * Returns the version of the formulary this snapshot was loaded at
+         *
+         * @return Version
+         */
+        public long getVersion () {
+            return version;
+        }
+
+        /**
+         * Returns every drug, ordered by name
+         *
+         * @return The drugs
+         */
+        public List<Drug> findAll () {
+            return drugs;
+        }
+
+        /**
+         * Finds one page of the drugs matching a search. Every word in the
+         * query must be the start of the drug's NDC (or of its product or
+         * package code), or of a word in its name or description. Drugs whose
+         * NDC matches come first (exact matches before prefixes), then drugs
+         * matched on their name, then drugs only matched on their description,
+         * each in name order. An empty query pages through every drug in name
+         * order.
+         *
+         * Each query word is looked up by binary search, and only the posting
+         * lists of the words it starts are read, so the work done grows with
+         * the number of drugs the query words match rather than the size of
+         * the formulary.
+         *
+         * @param query
+         *            What to search for, eg `0378-6`, `ibuprofen` or `pain
+         *            rel`
+         * @param offset
+         *            How many matching drugs to skip
+         * @param limit
+         *            Most drugs to return
+         * @return Matching drugs
+         */
+        public List<Drug> search ( final String query, final int offset, final int limit ) {
+            final List<String> terms = words( query );
+            if ( terms.isEmpty() ) {
+                final int from = Math.min( offset, drugs.size() );
+                return drugs.subList( from, Math.min( from + limit, drugs.size() ) );
+            }
+
+            /* Start from the term with the shortest posting lists, so there are as few candidates as possible */
+            int first = 0;
+            long fewest = Long.MAX_VALUE;
+            for ( int t = 0; t < terms.size(); t++ ) {
+                final long count = count( terms.get( t ) );
+                if ( count < fewest ) {
+                    first = t;
+                    fewest = count;
+                }
+            }
+            if ( 0 == fewest ) {
+                return Collections.emptyList();
+            }
+
+            final byte[] ranks = new byte[drugs.size()];
+            Arrays.fill( ranks, (byte) NO_MATCH );
+            int[] candidates = new int[(int) Math.min( fewest, drugs.size() )];
+            int found = mark( terms.get( first ), ranks, candidates );
+
+            /* Drop the candidates that any other term doesn't match */
+            if ( terms.size() > 1 ) {
+                final byte[] termRanks = new byte[drugs.size()];
+                for ( int t = 0; t < terms.size(); t++ ) {
+                    if ( t == first ) {
+                        continue;
+                    }
+                    final String term = terms.get( t );
+                    Arrays.fill( termRanks, (byte) NO_MATCH );
+                    mark( term, termRanks, new int[(int) Math.min( count( term ), drugs.size() )] );
+                    int kept = 0;
+                    for ( int c = 0; c < found; c++ ) {
+                        final int drug = candidates[c];
+                        if ( NO_MATCH == termRanks[drug] ) {
+                            ranks[drug] = NO_MATCH;
+                        }
+                        else {
+                            ranks[drug] = (byte) Math.min( ranks[drug], termRanks[drug] );
+                            candidates[kept++] = drug;
+                        }
+                    }
+                    found = kept;
+                }
+            }
+
+            candidates = order( ranks, candidates, found );
+            final List<Drug> matches = new ArrayList<Drug>( Math.max( 0, Math.min( limit, found - offset ) ) );
+            for ( int c = offset; c < found && matches.size() < limit; c++ ) {
+                matches.add( drugs.get( candidates[c] ) );
+            }
+            return matches;
+        }
+
+        /**
+         * Returns the total length of the posting lists read to look up a term
+         *
+         * @param term
+         *            Term searched for
+         * @return Count
+         */
+        private long count ( final String term ) {
+            return byCode.count( term ) + byName.count( term ) + byDescription.count( term );
+        }
+
+        /**
+         * Finds every drug a term matches, along with the best field it matched
+         *
+         * @param term
+         *            Term searched for
+         * @param ranks
+         *            For each drug, NO_MATCH; set to the rank of the best
+         *            field the term matched
+         * @param found
+         *            Filled in with the drugs matched; must be at least
+         *            `count( term )` long
+         * @return Number of drugs matched
+         */
+        private int mark ( final String term, final byte[] ranks, final int[] found ) {
+            int size = 0;
+            for ( int at = byCode.start( term ), to = byCode.end( term ); at < to; at++ ) {
+                for ( final int drug : byCode.drugs[at] ) {
+                    final byte rank = (byte) ( codes[drug].equals( term ) ? EXACT_CODE : CODE );
+                    if ( NO_MATCH == ranks[drug] ) {
+                        found[size++] = drug;
+                    }
+                    ranks[drug] = (byte) Math.min( ranks[drug], rank );
+                }
+            }
+            size = mark( byName, term, NAME, ranks, found, size );
+            return mark( byDescription, term, DESCRIPTION, ranks, found, size );
+        }
+
+        /**
+         * Finds the drugs a term matches in one field that haven't already
+         * been matched in a better one
+         *
+         * @param postings
+         *            Index of the field
+         * @param term
+         *            Term searched for
+         * @param rank
+         *            Rank of a match in this field
+         * @param ranks
+         *            Best rank of each drug so far
+         * @param found
+         *            Drugs matched so far
+         * @param size
+         *            Number of drugs matched so far
+         * @return Number of drugs matched now
+         */
+        private static int mark ( final Postings postings, final String term, final int rank, final byte[] ranks,
+                final int[] found, final int size ) {
+            int matched = size;
+            for ( int at = postings.start( term ), to = postings.end( term ); at < to; at++ ) {
+                for ( final int drug : postings.drugs[at] ) {
+                    if ( NO_MATCH == ranks[drug] ) {
+                        ranks[drug] = (byte) rank;
+                        found[matched++] = drug;
+                    }
+                }
+            }
+            return matched;
+        }
+
+        /**
+         * Orders the matched drugs by rank, then by name. A few matches are
+         * sorted; when a large part of the formulary matches, it is quicker to
+         * walk every drug once for each rank.
+         *
+         * @param ranks
+         *            Rank of each drug
+         * @param candidates
+         *            Drugs matched
+         * @param found
+         *            Number of drugs matched
+         * @return The matched drugs, in order
+         */
+        private int[] order ( final byte[] ranks, final int[] candidates, final int found ) {
+            final int[] ordered = new int[found];
+            if ( found < drugs.size() / 16 ) {
+                final long[] keys = new long[found];
+                for ( int c = 0; c < found; c++ ) {
+                    keys[c] = ( (long) ranks[candidates[c]] << 32 ) | candidates[c];
+                }
+                Arrays.sort( keys );
+                for ( int c = 0; c < found; c++ ) {
+                    ordered[c] = (int) keys[c];
+                }
+                return ordered;
+            }
+            int next = 0;
+            for ( int rank = EXACT_CODE; rank <= DESCRIPTION; rank++ ) {
+                for ( int drug = 0; drug < ranks.length; drug++ ) {
+                    if ( rank == ranks[drug] ) {
+                        ordered[next++] = drug;
+                    }
+                }
+            }
+            return ordered;
+        }
+    }
+
+    /**
+     * Inverted index of one field: every distinct word in the field, sorted,
+     * with the drugs that contain it. The words starting with a prefix are a
+     * contiguous run found by binary search.
+     *
+     * @author Kai Presler-Marshall
+     *
+     */
+    static final class Postings {
+
+        /** Every word, sorted */
+        private final String[] words;
+
+        /** For each word, the numbers of the drugs containing it, ascending */
+        private final int[][]  drugs;
+
+        /**
+         * For each word, how many drugs the words before it contain in total,
+         * so that the size of a run is found without walking it
+         */
+        private final long[]   before;
+
+        /**
+         * Creates a Postings index
+         *
+         * @param wordsByDrug
+         *            For each drug, its distinct words in this field
+         */
+        Postings ( final String[][] wordsByDrug ) {
+            final Map<String, Builder> lists = new HashMap<String, Builder>();
+            for ( int d = 0; d < wordsByDrug.length; d++ ) {
+                for ( final String word : wordsByDrug[d] ) {
+                    lists.computeIfAbsent( word, w -> new Builder() ).add( d );
+                }
+            }
+
+            this.words = lists.keySet().toArray( new String[0] );
+            Arrays.sort( words );
+            this.drugs = new int[words.length][];
+            this.before = new long[words.length + 1];
+            for ( int i = 0; i < words.length; i++ ) {
+                drugs[i] = lists.get( words[i] ).toArray();
+                before[i + 1] = before[i] + drugs[i].length;
+            }
+        }
+
+        /**
+         * Returns the position of the first word starting with a prefix
+         *
+         * @param prefix
+         *            Prefix
+         * @return Position
+         */
+        int start ( final String prefix ) {
+            final int at = Arrays.binarySearch( words, prefix );
+            return at < 0 ? -at - 1 : at;
+        }
+
+        /**
+         * Returns the position after the last word starting with a prefix
+         *
+         * @param prefix
+         *            Prefix
+         * @return Position
+         */
+        int end ( final String prefix ) {
+            /* Words are only letters and digits, so this sorts after every word with the prefix */
+            final int at = Arrays.binarySearch( words, prefix + Character.MAX_VALUE );
+            return at < 0 ? -at - 1 : at;
+        }
+
+        /**
+         * Returns the total length of the posting lists of the words starting
+         * with a prefix. A drug is counted once for each such word it has.
+         *
+         * @param prefix
+         *            Prefix
+         * @return Count
+         */
+        long count ( final String prefix ) {
+            return before[end( prefix )] - before[start( prefix )];
+        }
+
+        /**
+         * A posting list being built
+         *
+         * @author Kai Presler-Marshall
+         *
+         */
+        private static final class Builder {
+
+            /** Drug numbers so far */
+            private int[] drugs = new int[1];
+
+            /** How many of `drugs` are used */
+            private int   size;
+
+            /**
+             * Adds a drug to the list
+             *
+             * @param drug
+             *            Number of the drug
+             */
+            void add ( final int drug ) {
+                if ( size == drugs.length ) {
+                    drugs = Arrays.copyOf( drugs, size * 2 );
+                }
+                drugs[size++] = drug;
+            }
+
+            /**
+             * Returns the finished list
+             *
+             * @return Drug numbers
+             */
+            int[] toArray () {
+                return Arrays.copyOf( drugs, size );
+            }
+        }
+    }
+
+    /**
+     * JPA entity listener on Drug that invalidates the index whenever a drug
+     * is added, edited, or deleted. Hibernate creates it through Spring, so the
+     * index is autowired.
+     *
+     * @author Kai Presler-Marshall
+     *
+     */
+    public static class ChangeListener {
+
+        /** The index to invalidate */
+        @Autowired
+        private DrugIndex index;
+
+        /**
+         * Invalidates the index
+         *
+         * @param drug
+         *            The drug that is changing
+         */
+        @PrePersist
+        @PreUpdate
+        @PreRemove
+        public void changed ( final Drug drug ) {
+            index.invalidate();
+        }
+    }
+
+}
@@ -1,5 +1,8 @@
 package edu.ncsu.csc.iTrust2.services;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import javax.transaction.Transactional;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,7 +14,7 @@ import edu.ncsu.csc.iTrust2.repositories.DrugRepository;
 
 /**
  * Service class for interacting with Drug model, performing CRUD tasks with
- * database.
+ * database. Searching the formulary is answered from the DrugIndex.
  *
  * @author Kai Presler-Marshall
  *
@@ -24,6 +27,10 @@ public class DrugService extends Service<Drug, Long> {
     @Autowired
     private DrugRepository repository;
 
+    /** In-memory index of the formulary, for searching */
+    @Autowired
+    private DrugIndex      index;
+
     @Override
     protected JpaRepository<Drug, Long> getRepository () {
         return repository;
@@ -50,4 +57,21 @@ public class DrugService extends Service<Drug, Long> {
     public Drug findByCode ( final String code ) {
         return repository.findByCode( code );
     }
+
+    /**
+     * Finds one page of the drugs best matching a search; see
+     * `DrugIndex.Snapshot.search()` for how drugs are matched and ranked
+     *
+     * @param query
+     *            What to search for
+     * @param page
+     *            Page of results to return, from 0
+     * @param limit
+     *            Most drugs on a page
+     * @return Matching drugs
+     */
+    public List<Drug> search ( final String query, final int page, final int limit ) {
+        final int offset = (int) Math.min( (long) page * limit, Integer.MAX_VALUE );
+        return new ArrayList<Drug>( index.snapshot().search( query, offset, limit ) );
+    }
 }
@@ -0,0 +1,322 @@
+package edu.ncsu.csc.iTrust2.services;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import edu.ncsu.csc.iTrust2.forms.DiagnosisForm;
+import edu.ncsu.csc.iTrust2.forms.OfficeVisitForm;
+import edu.ncsu.csc.iTrust2.forms.PrescriptionForm;
+import edu.ncsu.csc.iTrust2.models.Drug;
+import edu.ncsu.csc.iTrust2.models.Hospital;
+import edu.ncsu.csc.iTrust2.models.ICDCode;
+import edu.ncsu.csc.iTrust2.models.PatientAdvocateAssignment;
+import edu.ncsu.csc.iTrust2.models.User;
+import edu.ncsu.csc.iTrust2.repositories.DrugRepository;
+import edu.ncsu.csc.iTrust2.repositories.HospitalRepository;
+import edu.ncsu.csc.iTrust2.repositories.ICDCodeRepository;
+import edu.ncsu.csc.iTrust2.repositories.UserRepository;
+
+/**
+ * Resolves the entities that forms refer to by name (users, drugs, ICD codes,
+ * and hospitals) for the services building entities from them. Rather than
+ * looking each reference up as it is reached, a builder opens a Scope, tells
+ * it every key the form graph refers to (see `Scope.prefetch()`), and has them
+ * loaded with one query per type of entity. Everything looked up in a scope
+ * is remembered until it closes, so a user named by several parts of a form is
+ * only loaded once.
+ *
+ * Scopes nest: a builder that opens a scope while another is open on the same
+ * thread (eg, PrescriptionService building the prescriptions of an office
+ * visit) joins it, and the scope lasts until the outermost builder is done.
+ * Each request builds one form graph, so this amounts to a per-request
+ * identity map; it is deliberately not kept any longer, so that nothing it
+ * holds can outlive an edit made later in the same request.
+ *
+ * CPT codes are not resolved here, as every lookup of them is already answered
+ * from the CPTCodeCatalog.
+ *
+ * @author Kai Presler-Marshall
+ *
+ */
+@Component
+public class EntityResolver {
+
+    /** The open scope on each thread, if any */
+    private final ThreadLocal<Scope>         current = new ThreadLocal<Scope>();
+
+    /** For loading users */
+    @Autowired
+    private UserRepository<User>             userRepository;
+
+    /** For loading drugs */
+    @Autowired
+    private DrugRepository                   drugRepository;
+
+    /** For loading ICD codes */
+    @Autowired
+    private ICDCodeRepository                icdCodeRepository;
+
+    /** For loading hospitals */
+    @Autowired
+    private HospitalRepository               hospitalRepository;
+
+    /** For loading a patient's advocates */
+    @Autowired
+    private PatientAdvocateAssignmentService assignmentService;
+
+    /**
+     * Opens a scope on the current thread, or joins the one already open. The
+     * caller must close it, ideally with try-with-resources.
+     *
+     * @return The scope
+     */
+    public Scope open () {
+        Scope scope = current.get();
+        if ( null == scope ) {
+            scope = new Scope();
+            current.set( scope );
+        }
+        scope.depth++;
+        return scope;
+    }
+
+    /**
+     * An identity map of the entities resolved for one form graph
+     *
+     * @author Kai Presler-Marshall
+     *
+     */
+    public final class Scope implements AutoCloseable {
+
+        /** Number of builders that have opened the scope and not yet closed it */
+        private int                                                depth;
+
+        /** Users, by username */
+        private final Batch<String, User>                          users;
+
+        /** Drugs, by NDC */
+        private final Batch<String, Drug>                          drugs;
+
+        /** ICD codes, by code */
+        private final Batch<String, ICDCode>                       icdCodes;
+
+        /** Hospitals, by name */
+        private final Batch<String, Hospital>                      hospitals;
+
+        /** Each patient's advocate assignments, by the patient's username */
+        private final Map<String, List<PatientAdvocateAssignment>> assignments;
+
+        /**
+         * Use `EntityResolver.open()` instead
+         */
+        private Scope () {
+            users = new Batch<String, User>( userRepository::findAllById, User::getUsername );
+            drugs = new Batch<String, Drug>( drugRepository::findByCodeIn, Drug::getCode );
+            icdCodes = new Batch<String, ICDCode>( icdCodeRepository::findByCodeIn, ICDCode::getCode );
+            hospitals = new Batch<String, Hospital>( hospitalRepository::findAllById, Hospital::getName );
+            assignments = new HashMap<String, List<PatientAdvocateAssignment>>();
+        }
+
+        /**
+         * Loads everything an office visit form refers to: its patient, HCP,
+         * hospital and advocates, and the drugs, ICD codes and patients of its
+         * prescriptions and diagnoses. Anything already resolved in this scope
+         * is not loaded again.
+         *
+         * @param form
+         *            The form
+         * @return This scope
+         */
+        public Scope prefetch ( final OfficeVisitForm form ) {
+            users.want( form.getPatient() );
+            users.want( form.getHcp() );
+            hospitals.want( form.getHospital() );
+            if ( null != form.getPatientAdvocatesPresent() ) {
+                form.getPatientAdvocatesPresent().forEach( users::want );
+            }
+            if ( null != form.getPrescriptions() ) {
+                for ( final PrescriptionForm prescription : form.getPrescriptions() ) {
+                    drugs.want( prescription.getDrug() );
+                    users.want( prescription.getPatient() );
+                }
+            }
+            if ( null != form.getDiagnoses() ) {
+                for ( final DiagnosisForm diagnosis : form.getDiagnoses() ) {
+                    icdCodes.want( diagnosis.getCode() );
+                }
+            }
+            users.load();
+            hospitals.load();
+            drugs.load();
+            icdCodes.load();
+            return this;
+        }
+
+        /**
+         * Finds a user by username
+         *
+         * @param username
+         *            The username
+         * @return The user, or null if there is none
+         */
+        public User user ( final String username ) {
+            return users.get( username );
+        }
+
+        /**
+         * Finds a drug by NDC
+         *
+         * @param code
+         *            The NDC
+         * @return The drug, or null if there is none
+         */
+        public Drug drug ( final String code ) {
+            return drugs.get( code );
+        }
+
+        /**
+         * Finds an ICD code by its code
+         *
+         * @param code
+         *            The code
+         * @return The ICDCode, or null if there is none
+         */
+        public ICDCode icdCode ( final String code ) {
+            return icdCodes.get( code );
+        }
+
+        /**
+         * Finds a hospital by name
+         *
+         * @param name
+         *            The name
+         * @return The hospital, or null if there is none
+         */
+        public Hospital hospital ( final String name ) {
+            return hospitals.get( name );
+        }
+
+        /**
+         * Finds a patient's advocate assignments; see
+         * `PatientAdvocateAssignmentService.getAssignmentsByPatient()`
+         *
+         * @param patient
+         *            The patient
+         * @return Their assignments
+         */
+        public List<PatientAdvocateAssignment> assignmentsOf ( final User patient ) {
+            List<PatientAdvocateAssignment> found = assignments.get( patient.getUsername() );
+            if ( null == found ) {
+                found = assignmentService.getAssignmentsByPatient( patient );
+                assignments.put( patient.getUsername(), found );
+            }
+            return found;
+        }
+
+        /**
+         * Closes the scope. Everything it resolved is forgotten once the
+         * outermost builder closes it.
+         */
+        @Override
+        public void close () {
+            if ( --depth == 0 ) {
+                current.remove();
+            }
+        }
+    }
+
+    /**
+     * The entities of one type resolved in a Scope, along with the keys that
+     * are wanted but not yet loaded
+     *
+     * @author Kai Presler-Marshall
+     *
+     * @param <K>
+     *            Type of the key entities are resolved by
+     * @param <V>
+     *            Type of the entity
+     */
+    private static final class Batch <K, V> {
+
+        /** Entities resolved so far; null for keys that matched nothing */
+        private final Map<K, V>                                  found  = new HashMap<K, V>();
+
+        /** Keys wanted but not yet loaded */
+        private final Set<K>                                     wanted = new HashSet<K>();
+
+        /** Loads every entity with one of the keys, in one query */
+        private final Function<Collection<K>, ? extends List<V>> loader;
+
+        /** Key of an entity */
+        private final Function<V, K>                             key;
+
+        /**
+         * Creates a Batch
+         *
+         * @param loader
+         *            Loads every entity with one of the keys, in one query
+         * @param key
+         *            Key of an entity
+         */
+        Batch ( final Function<Collection<K>, ? extends List<V>> loader, final Function<V, K> key ) {
+            this.loader = loader;
+            this.key = key;
+        }
+
+        /**
+         * Adds a key to load with the next `load()`
+         *
+         * @param k
+         *            The key, or null for none
+         */
+        void want ( final K k ) {
+            if ( null != k && !found.containsKey( k ) ) {
+                wanted.add( k );
+            }
+        }
+
+        /**
+         * Loads every wanted key, in one query
+         */
+        void load () {
+            if ( wanted.isEmpty() ) {
+                return;
+            }
+            for ( final V entity : loader.apply( wanted ) ) {
+                found.put( key.apply( entity ), entity );
+            }
+            for ( final K k : wanted ) {
+                found.putIfAbsent( k, null );
+            }
+            wanted.clear();
+        }
+
+        /**
+         * Returns the entity with a key, loading it (along with anything else
+         * wanted) if it hasn't been already
+         *
+         * @param k
+         *            The key
+         * @return The entity, or null if there is none
+         */
+        V get ( final K k ) {
+            if ( null == k ) {
+                return null;
+            }
+            if ( !found.containsKey( k ) ) {
+                want( k );
+                load();
+            }
+            return found.get( k );
+        }
+    }
+
+}
@@ -0,0 +1,361 @@
+package edu.ncsu.csc.iTrust2.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import javax.persistence.PrePersist;
+import javax.persistence.PreRemove;
+import javax.persistence.PreUpdate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import edu.ncsu.csc.iTrust2.models.ICDCode;
+import edu.ncsu.csc.iTrust2.repositories.ICDCodeRepository;
+
+/**
+ * In-memory index of the ICD codes, split up by which codes each kind of user
+ * may see (see Visibility), and searchable by prefix. The HCP's office visit
+ * page used to download every code they could see on each visit; instead it
+ * now searches this index as the HCP types.
+ *
+ * Any change to an ICDCode invalidates the index; see SnapshotCache for how it
+ * is reloaded. The index is reloaded at least every
+ * `itrust2.icdindex.refresh-ms`.
+ *
+ * @author Kai Presler-Marshall
+ *
+ */
+@Component
+public class ICDCodeIndex extends SnapshotCache<ICDCodeIndex.Snapshot> {
+
+    /**
+     * Which ICD codes a user may see
+     *
+     * @author Kai Presler-Marshall
+     *
+     */
+    public enum Visibility {
+        /** Every code; for admins and ophthalmologist HCPs */
+        ALL ( code -> true ),
+        /** Only ophthalmology codes; for ophthalmologists */
+        OPHTHALMOLOGY ( code -> Boolean.TRUE.equals( code.getIsOphthalmology() ) ),
+        /** Only codes that are not ophthalmology codes; for everyone else */
+        GENERAL ( code -> !Boolean.TRUE.equals( code.getIsOphthalmology() ) );
+
+        /** Whether a code is visible */
+        private final Predicate<ICDCode> visible;
+
+        /**
+         * Creates a Visibility
+         *
+         * @param visible
+         *            Whether a code is visible
+         */
+        Visibility ( final Predicate<ICDCode> visible ) {
+            this.visible = visible;
+        }
+    }
+
+    /** ICDCode repository, for loading the index */
+    @Autowired
+    private ICDCodeRepository repository;
+
+    /** How long the index is trusted before it is reloaded, in milliseconds */
+    @Value ( "${itrust2.icdindex.refresh-ms:60000}" )
+    private long              refreshMillis;
+
+    @Override
+    protected long getRefreshMillis () {
+        return refreshMillis;
+    }
+
+    @Override
+    protected Snapshot load ( final long snapshotVersion ) {
+        final List<ICDCode> codes = new ArrayList<ICDCode>();
+        for ( final ICDCode code : repository.findAll() ) {
+            final ICDCode copy = new ICDCode();
+            copy.setId( code.getId() );
+            copy.setCode( code.getCode() );
+            copy.setDescription( code.getDescription() );
+            copy.setIsOphthalmology( code.getIsOphthalmology() );
+            codes.add( copy );
+        }
+        codes.sort( Comparator.comparing( ICDCode::getCode ) );
+        return new Snapshot( snapshotVersion, codes );
+    }
+
+    /**
+     * Splits a code or a description into the upper-case words it can be
+     * searched by. Codes are also searchable without their decimal point.
+     *
+     * @param text
+     *            Text to split
+     * @param keepDecimals
+     *            Whether `.` is part of a word (true for codes and queries)
+     * @return The words
+     */
+    static List<String> words ( final String text, final boolean keepDecimals ) {
+        final List<String> words = new ArrayList<String>();
+        if ( null == text ) {
+            return words;
+        }
+        final String separators = keepDecimals ? "[^A-Z0-9.]+" : "[^A-Z0-9]+";
+        for ( final String word : text.toUpperCase( Locale.ROOT ).split( separators ) ) {
+            if ( !word.isEmpty() ) {
+                words.add( word );
+            }
+        }
+        return words;
+    }
+
+    /**
+     * The ICD codes as of one point in time, with a Partition for each
+     * Visibility. The ICDCodes in a snapshot are shared between every thread
+     * reading it, and must not be modified.
+     *
+     * @author Kai Presler-Marshall
+     *
+     */
+    public static final class Snapshot {
+
+        /** Version of the codes this snapshot was loaded at */
+        private final long                       version;
+
+        /** Codes each kind of user may see */
+        private final Map<Visibility, Partition> partitions;
+
+        /**
+         * Creates a Snapshot
+         *
+         * @param version
+         *            Version of the codes
+         * @param codes
+         *            Every code, ordered by code
+         */
+        Snapshot ( final long version, final List<ICDCode> codes ) {
+            this.version = version;
+            this.partitions = new EnumMap<Visibility, Partition>( Visibility.class );
+            for ( final Visibility visibility : Visibility.values() ) {
+                final List<ICDCode> visible = new ArrayList<ICDCode>();
+                for ( final ICDCode code : codes ) {
+                    if ( visibility.visible.test( code ) ) {
+                        visible.add( code );
+                    }
+                }
+                partitions.put( visibility, new Partition( visible ) );
+            }
+        }
+
+        /**
+         * Returns the version of the codes this snapshot was loaded at
+         *
+         * @return Version
+         */
+        public long getVersion () {
+            return version;
+        }
+
+        /**
+         * Returns the codes a kind of user may see
+         *
+         * @param visibility
+         *            Which codes the user may see
+         * @return The codes
+         */
+        public Partition get ( final Visibility visibility ) {
+            return partitions.get( visibility );
+        }
+    }
+
+    /**
+     * The codes visible to one kind of user, along with a sorted table of
+     * every word in them for prefix search. Each entry in the table is a word
+     * from a code or its description and the code it came from, so the codes
+     * matching a prefix are a contiguous run found by binary search.
+     *
+     * @author Kai Presler-Marshall
+     *
+     */
+    public static final class Partition {
+
+        /** Codes, ordered by code */
+        private final List<ICDCode> codes;
+
+        /** Every word, sorted */
+        private final String[]      words;
+
+        /** For each word, the index in `codes` of the code it came from */
+        private final int[]         owners;
+
+        /** For each code, the words it can be found by */
+        private final String[][]    wordsByCode;
+
+        /**
+         * Creates a Partition
+         *
+         * @param codes
+         *            Codes in the partition, ordered by code
+         */
+        Partition ( final List<ICDCode> codes ) {
+            this.codes = Collections.unmodifiableList( codes );
+            this.wordsByCode = new String[codes.size()][];
+
+            final List<Object[]> entries = new ArrayList<Object[]>();
+            for ( int i = 0; i < codes.size(); i++ ) {
+                final Set<String> keys = new LinkedHashSet<String>();
+                for ( final String word : words( codes.get( i ).getCode(), true ) ) {
+                    keys.add( word );
+                    keys.add( word.replace( ".", "" ) );
+                }
+                keys.addAll( words( codes.get( i ).getDescription(), false ) );
+                wordsByCode[i] = keys.toArray( new String[0] );
+                for ( final String key : keys ) {
+                    entries.add( new Object[] { key, i } );
+                }
+            }
+            entries.sort( Comparator.comparing( ( final Object[] e ) -> (String) e[0] )
+                    .thenComparingInt( e -> (Integer) e[1] ) );
+
+            this.words = new String[entries.size()];
+            this.owners = new int[entries.size()];
+            for ( int i = 0; i < entries.size(); i++ ) {
+                words[i] = (String) entries.get( i )[0];
+                owners[i] = (Integer) entries.get( i )[1];
+            }
+        }
+
+        /**
+         * Returns every code in the partition, ordered by code
+         *
+         * @return The codes
+         */
+        public List<ICDCode> findAll () {
+            return codes;
+        }
+
+        /**
+         * Finds the codes best matching a search. Every word in the query must
+         * be the start of the code, or of a word in its description. Codes
+         * whose code matches come first (exact matches before prefixes),
+         * then codes that only matched on their description, each in code
+         * order. An empty query returns the first codes in code order.
+         *
+         * @param query
+         *            What to search for, eg `J45` or `chronic asth`
+         * @param limit
+         *            Most codes to return
+         * @return Matching codes
+         */
+        public List<ICDCode> search ( final String query, final int limit ) {
+            final List<String> terms = words( query, true );
+            if ( terms.isEmpty() ) {
+                return codes.subList( 0, Math.min( limit, codes.size() ) );
+            }
+
+            /* The longest term usually matches the fewest words, so start with it */
+            final String first = terms.stream().max( Comparator.comparingInt( String::length ) ).get();
+            final List<Integer> candidates = new ArrayList<Integer>();
+            int at = Arrays.binarySearch( words, first );
+            if ( at < 0 ) {
+                at = -at - 1;
+            }
+            final boolean[] seen = new boolean[codes.size()];
+            for ( ; at < words.length && words[at].startsWith( first ); at++ ) {
+                if ( !seen[owners[at]] ) {
+                    seen[owners[at]] = true;
+                    candidates.add( owners[at] );
+                }
+            }
+
+            final List<int[]> ranked = new ArrayList<int[]>();
+            for ( final int candidate : candidates ) {
+                final int rank = rank( candidate, terms );
+                if ( rank >= 0 ) {
+                    ranked.add( new int[] { rank, candidate } );
+                }
+            }
+            ranked.sort( Comparator.comparingInt( ( final int[] r ) -> r[0] ).thenComparingInt( r -> r[1] ) );
+
+            final List<ICDCode> matches = new ArrayList<ICDCode>( Math.min( limit, ranked.size() ) );
+            for ( int i = 0; i < ranked.size() && i < limit; i++ ) {
+                matches.add( codes.get( ranked.get( i )[1] ) );
+            }
+            return matches;
+        }
+
+        /**
+         * Ranks how well a code matches a search
+         *
+         * @param index
+         *            Index of the code
+         * @param terms
+         *            Words searched for
+         * @return 0 if a term is the code, 1 if a term starts the code, 2 if
+         *         only the description matched, or -1 if some term matched
+         *         nothing
+         */
+        private int rank ( final int index, final List<String> terms ) {
+            final String code = codes.get( index ).getCode().toUpperCase( Locale.ROOT );
+            int rank = 2;
+            for ( final String term : terms ) {
+                boolean found = false;
+                for ( final String word : wordsByCode[index] ) {
+                    if ( word.startsWith( term ) ) {
+                        found = true;
+                        break;
+                    }
+                }
+                if ( !found ) {
+                    return -1;
+                }
+                if ( code.equals( term ) || code.replace( ".", "" ).equals( term ) ) {
+                    rank = 0;
+                }
+                else if ( code.startsWith( term ) || code.replace( ".", "" ).startsWith( term ) ) {
+                    rank = Math.min( rank, 1 );
+                }
+            }
+            return rank;
+        }
+    }
+
+    /**
+     * JPA entity listener on ICDCode that invalidates the index whenever a
+     * code is created, changed, or deleted. Hibernate creates it through
+     * Spring, so the index is autowired.
+     *
+     * @author Kai Presler-Marshall
+     *
+     */
+    public static class ChangeListener {
+
+        /** The index to invalidate */
+        @Autowired
+        private ICDCodeIndex index;
+
+        /**
+         * Invalidates the index
+         *
+         * @param code
+         *            The code that is changing
+         */
+        @PrePersist
+        @PreUpdate
+        @PreRemove
+        public void changed ( final ICDCode code ) {
+            index.invalidate();
+        }
+    }
+
+}
@@ -1,5 +1,6 @@
 package edu.ncsu.csc.iTrust2.services;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
@@ -17,7 +18,7 @@ import edu.ncsu.csc.iTrust2.utils.LoggerUtil;
 
 /**
  * Service class for interacting with ICDCode model, performing CRUD tasks with
- * database.
+ * database. Listing and searching codes is answered from the ICDCodeIndex.
  *
  * @author Kai Presler-Marshall
  *
@@ -34,6 +35,10 @@ public class ICDCodeService extends Service<ICDCode, Long> {
     @Autowired
     private PersonnelService  service;
 
+    /** In-memory index of the codes, for listing and searching */
+    @Autowired
+    private ICDCodeIndex      index;
+
     @Override
     protected JpaRepository<ICDCode, Long> getRepository () {
         return repository;
@@ -50,21 +55,49 @@ public class ICDCodeService extends Service<ICDCode, Long> {
         return repository.findByCode( code );
     }
 
+    /**
+     * Returns the codes the current user may see
+     *
+     * @return The codes
+     */
     @Override
     public List<ICDCode> findAll () {
+        return new ArrayList<ICDCode>( index.snapshot().get( currentVisibility() ).findAll() );
+    }
+
+    /**
+     * Finds the codes the current user may see that best match a search; see
+     * `ICDCodeIndex.Partition.search()` for how codes are matched and ranked
+     *
+     * @param query
+     *            What to search for
+     * @param limit
+     *            Most codes to return
+     * @return Matching codes
+     */
+    public List<ICDCode> search ( final String query, final int limit ) {
+        return new ArrayList<ICDCode>( index.snapshot().get( currentVisibility() ).search( query, limit ) );
+    }
+
+    /**
+     * Works out which codes the current user may see
+     *
+     * @return Visibility of codes for the current user
+     */
+    public ICDCodeIndex.Visibility currentVisibility () {
         final User user = service.findByName( LoggerUtil.currentUser() );
         final Collection<Role> roles = user.getRoles();
 
         if ( roles.contains( Role.ROLE_ADMIN )
                 || ( roles.contains( Role.ROLE_OPH ) && roles.contains( Role.ROLE_HCP ) ) ) {
-            return repository.findAll();
+            return ICDCodeIndex.Visibility.ALL;
         }
 
         if ( roles.contains( Role.ROLE_OPH ) ) {
-            return repository.findByIsOphthalmologyIsTrue();
+            return ICDCodeIndex.Visibility.OPHTHALMOLOGY;
         }
 
-        return repository.findByIsOphthalmologyIsFalseOrIsOphthalmologyIsNull();
+        return ICDCodeIndex.Visibility.GENERAL;
     }
 
 }
@@ -4,18 +4,23 @@ import java.time.LocalDate;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import javax.transaction.Transactional;
 
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Component;
 
 import edu.ncsu.csc.iTrust2.forms.OfficeVisitForm;
 import edu.ncsu.csc.iTrust2.forms.PrescriptionForm;
 import edu.ncsu.csc.iTrust2.models.AppointmentRequest;
-import edu.ncsu.csc.iTrust2.models.CPTCode;
 import edu.ncsu.csc.iTrust2.models.Diagnosis;
 import edu.ncsu.csc.iTrust2.models.OfficeVisit;
 import edu.ncsu.csc.iTrust2.models.Patient;
@@ -39,90 +44,96 @@ public class OfficeVisitService extends Service<OfficeVisit, Long> {
      * Repository for CRUD operations
      */
     @Autowired
-    private OfficeVisitRepository            repository;
-
-    /**
-     * User service
-     */
-    @Autowired
-    private UserService<User>                userService;
+    private OfficeVisitRepository       repository;
 
     /**
      * AppointmentRequest service
      */
     @Autowired
-    private AppointmentRequestService        appointmentRequestService;
-
-    /**
-     * Hospital Service
-     */
-    @Autowired
-    private HospitalService                  hospitalService;
+    private AppointmentRequestService   appointmentRequestService;
 
     /**
      * BasicHealthMetrics service
      */
     @Autowired
-    private BasicHealthMetricsService        bhmService;
+    private BasicHealthMetricsService   bhmService;
 
     /**
      * OphthalmologyMetrics service
      */
     @Autowired
-    private OphthalmologyMetricsService      omService;
+    private OphthalmologyMetricsService omService;
 
     /**
      * Prescription service
      */
     @Autowired
-    private PrescriptionService              prescriptionService;
+    private PrescriptionService         prescriptionService;
 
     /**
      * CPTCode service
      */
     @Autowired
-    private CPTCodeService                   cptService;
+    private CPTCodeService              cptService;
 
     /**
      * Diagnosis service
      */
     @Autowired
-    private DiagnosisService                 diagnosisService;
+    private DiagnosisService            diagnosisService;
+
     /**
-     * PatientAdvocateAssignment service
+     * Resolves the users, hospital, drugs and ICD codes a form refers to
      */
     @Autowired
-    private PatientAdvocateAssignmentService assignmentService;
+    private EntityResolver              resolver;
 
     @Override
     protected JpaRepository<OfficeVisit, Long> getRepository () {
         return repository;
     }
 
+    @Override
+    protected String getListGraph () {
+        return OfficeVisit.SUMMARY;
+    }
+
+    @Override
+    public Page<OfficeVisit> findPage ( final Pageable pageable ) {
+        final Page<OfficeVisit> page = super.findPage( pageable );
+        withDetail( page.getContent() );
+        return page;
+    }
+
+    @Override
+    public List<OfficeVisit> findAfter ( final Long cursor, final int limit ) {
+        return withDetail( super.findAfter( cursor, limit ) );
+    }
+
     /**
-     * Finds all OfficeVisits created by the specified HCP
+     * Finds all OfficeVisits created by the specified HCP, in full
      *
      * @param hcp
      *            HCP to search for
      * @return Matching OfficeVisits
      */
     public List<OfficeVisit> findByHcp ( final User hcp ) {
-        return repository.findByHcp( hcp );
+        return withDetail( repository.findByHcp( hcp ) );
     }
 
     /**
-     * Finds all OfficeVisits for the specified Patient
+     * Finds all OfficeVisits for the specified Patient, in full
      *
      * @param patient
      *            Patient to search for
      * @return Matching OfficeVisits
      */
     public List<OfficeVisit> findByPatient ( final User patient ) {
-        return repository.findByPatient( patient );
+        return withDetail( repository.findByPatient( patient ) );
     }
 
     /**
-     * Find all OfficeVisits for both the specified Patient and HCP
+     * Find all OfficeVisits for both the specified Patient and HCP, in full
      *
      * @param hcp
      *            HCP to search for
@@ -131,21 +142,80 @@ public class OfficeVisitService extends Service<OfficeVisit, Long> {
      * @return List of visits found
      */
     public List<OfficeVisit> findByHcpAndPatient ( final User hcp, final User patient ) {
-        return repository.findByHcpAndPatient( hcp, patient );
+        return withDetail( repository.findByHcpAndPatient( hcp, patient ) );
     }
 
     /**
-     * Builds an OfficeVisit based on the deserialised OfficeVisitForm
+     * Loads the collections of a list of visits just read with the
+     * OfficeVisit.SUMMARY graph (and the advocates invited to their
+     * appointments), so that they can be used (or serialised) in full, even
+     * once the transaction is over. Each collection is loaded for exactly the
+     * visits listed, by their IDs, so this takes one query per collection
+     * however long the list is, and reads nothing for visits not on it.
+     *
+     * @param visits
+     *            The visits
+     * @return The same visits
+     */
+    private List<OfficeVisit> withDetail ( final List<OfficeVisit> visits ) {
+        load( visits, OfficeVisit::getDiagnoses, repository::fetchDiagnoses );
+        load( visits, OfficeVisit::getPrescriptions, repository::fetchPrescriptions );
+        load( visits, OfficeVisit::getCptCodes, repository::fetchCptCodes );
+        load( visits, OfficeVisit::getPatientAdvocatesPresent, repository::fetchPatientAdvocatesPresent );
+        appointmentRequestService.loadAdvocatesInvited( visits.stream().map( OfficeVisit::getAppointment )
+                .filter( Objects::nonNull ).collect( Collectors.toList() ) );
+        return visits;
+    }
+
+    /**
+     * Loads one collection of each of a list of visits that has not been
+     * loaded yet, in one query
+     *
+     * @param visits
+     *            The visits
+     * @param collection
+     *            Gets the collection from a visit
+     * @param fetch
+     *            Loads the collection of the visits with the IDs given
+     */
+    private static void load ( final List<OfficeVisit> visits, final Function<OfficeVisit, Object> collection,
+            final Consumer<List<Long>> fetch ) {
+        final List<Long> ids = visits.stream().filter( visit -> !Hibernate.isInitialized( collection.apply( visit ) ) )
+                .map( OfficeVisit::getId ).collect( Collectors.toList() );
+        if ( !ids.isEmpty() ) {
+            fetch.accept( ids );
+        }
+    }
+
+    /**
+     * Builds an OfficeVisit based on the deserialised OfficeVisitForm. Every
+     * user, drug, ICD code and hospital the form refers to is loaded up front,
+     * one query for each type, rather than one at a time.
      *
      * @param ovf
      *            Form to build from
      * @return Constructed OfficeVisit
      */
     public OfficeVisit build ( final OfficeVisitForm ovf ) {
+        try ( final EntityResolver.Scope refs = resolver.open() ) {
+            return build( ovf, refs.prefetch( ovf ) );
+        }
+    }
+
+    /**
+     * Builds an OfficeVisit based on the deserialised OfficeVisitForm
+     *
+     * @param ovf
+     *            Form to build from
+     * @param refs
+     *            Entities the form refers to
+     * @return Constructed OfficeVisit
+     */
+    private OfficeVisit build ( final OfficeVisitForm ovf, final EntityResolver.Scope refs ) {
         final OfficeVisit ov = new OfficeVisit();
 
-        ov.setPatient( userService.findByName( ovf.getPatient() ) );
-        ov.setHcp( userService.findByName( ovf.getHcp() ) );
+        ov.setPatient( refs.user( ovf.getPatient() ) );
+        ov.setHcp( refs.user( ovf.getHcp() ) );
         ov.setNotes( ovf.getNotes() );
 
         if ( ovf.getId() != null ) {
@@ -186,7 +256,7 @@ public class OfficeVisitService extends Service<OfficeVisit, Long> {
             }
 
         }
-        ov.setHospital( hospitalService.findByName( ovf.getHospital() ) );
+        ov.setHospital( refs.hospital( ovf.getHospital() ) );
         ov.setBasicHealthMetrics( bhmService.build( ovf ) );
         ov.setOphthalmologyMetrics( omService.build( ovf ) );
         // associate all diagnoses with this visit
@@ -207,22 +277,17 @@ public class OfficeVisitService extends Service<OfficeVisit, Long> {
         }
 
         if ( ovf.getCptCodes() != null ) {
-            final List<CPTCode> cs = new ArrayList<CPTCode>();
-            for ( int i = 0; i < ovf.getCptCodes().size(); i++ ) {
-                cs.add( cptService.findById( ovf.getCptCodes().get( i ) ) );
-            }
-            ov.setCptCodes( cs );
+            ov.setCptCodes( cptService.findByIds( ovf.getCptCodes() ) );
         }
 
         if ( ovf.getPatientAdvocatesPresent() != null ) {
             final List<User> as = new ArrayList<User>();
             for ( final String username : ovf.getPatientAdvocatesPresent() ) {
-                final User patientAdvocate = userService.findByName( username );
+                final User patientAdvocate = refs.user( username );
                 if ( patientAdvocate == null ) {
                     throw new IllegalArgumentException( "Error, Patient Advocate doesn't exist" );
                 }
-                final List<PatientAdvocateAssignment> relatedAssignments = assignmentService
-                        .getAssignmentsByPatient( ov.getPatient() );
+                final List<PatientAdvocateAssignment> relatedAssignments = refs.assignmentsOf( ov.getPatient() );
                 final boolean valid = relatedAssignments.stream()
                         .anyMatch( assignment -> patientAdvocate.equals( assignment.getPatientAdvocate() ) );
                 if ( !valid ) {
@@ -0,0 +1,184 @@
+package edu.ncsu.csc.iTrust2.services;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.PrePersist;
+import javax.persistence.PreRemove;
+import javax.persistence.PreUpdate;
+
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import edu.ncsu.csc.iTrust2.models.Personnel;
+import edu.ncsu.csc.iTrust2.models.User;
+import edu.ncsu.csc.iTrust2.models.enums.Role;
+import edu.ncsu.csc.iTrust2.repositories.PersonnelRepository;
+
+/**
+ * In-memory directory of which personnel have each role. Lists of personnel by
+ * role (eg, the HCPs a patient can pick from when requesting an appointment)
+ * are read on most pages, but personnel and their roles are rarely edited, so
+ * rather than querying the roles for each list the directory keeps an
+ * immutable Snapshot of the usernames holding each role. The personnel
+ * themselves are then loaded by username, which takes any that are in
+ * Hibernate's second-level cache (see UserCacheConfiguration) from there, and
+ * the rest in one batch.
+ *
+ * Any change to a Personnel record invalidates the snapshot; see SnapshotCache
+ * for how it is reloaded. Hibernate doesn't call entity listeners on a user
+ * when only their roles change, so UserService also invalidates the directory
+ * whenever it saves Personnel. Snapshots are reloaded at least
+ * every `itrust2.personneldirectory.refresh-ms`.
+ *
+ * @author Kai Presler-Marshall
+ *
+ */
+@Component
+public class PersonnelDirectory extends SnapshotCache<PersonnelDirectory.Snapshot> {
+
+    /** Personnel repository, for loading snapshots */
+    @Autowired
+    private PersonnelRepository<Personnel> repository;
+
+    /** For loading personnel by username */
+    @PersistenceContext
+    private EntityManager                  entityManager;
+
+    /** How long a snapshot is trusted before it is reloaded, in milliseconds */
+    @Value ( "${itrust2.personneldirectory.refresh-ms:60000}" )
+    private long                           refreshMillis;
+
+    @Override
+    protected long getRefreshMillis () {
+        return refreshMillis;
+    }
+
+    /**
+     * Loads a snapshot of the directory from the database
+     *
+     * @param snapshotVersion
+     *            Version to give the snapshot
+     * @return The snapshot
+     */
+    @Override
+    protected Snapshot load ( final long snapshotVersion ) {
+        final Map<Role, List<String>> usernames = new EnumMap<Role, List<String>>( Role.class );
+        for ( final Object[] row : repository.findUsernamesAndRoles() ) {
+            usernames.computeIfAbsent( (Role) row[1], r -> new ArrayList<String>() ).add( (String) row[0] );
+        }
+        return new Snapshot( snapshotVersion, usernames );
+    }
+
+    /**
+     * Finds every personnel with a role, ordered by username. The Personnel
+     * returned are loaded in the caller's session, so they may be edited.
+     *
+     * @param role
+     *            The role
+     * @return The personnel with that role
+     */
+    public List<Personnel> findByRole ( final Role role ) {
+        final List<String> usernames = snapshot().getUsernames( role );
+        if ( usernames.isEmpty() ) {
+            return new ArrayList<Personnel>();
+        }
+        /* Anyone deleted since the snapshot was loaded comes back as null */
+        return entityManager.unwrap( Session.class ).byMultipleIds( Personnel.class ).enableSessionCheck( true )
+                .multiLoad( usernames ).stream().filter( Objects::nonNull ).collect( Collectors.toList() );
+    }
+
+    /**
+     * An immutable view of the usernames of the personnel holding each role at
+     * one point in time
+     *
+     * @author Kai Presler-Marshall
+     *
+     */
+    public static final class Snapshot {
+
+        /** Version of the directory this snapshot was loaded at */
+        private final long                    version;
+
+        /** Usernames of the personnel with each role, ordered by username */
+        private final Map<Role, List<String>> usernames;
+
+        /**
+         * Creates a Snapshot
+         *
+         * @param version
+         *            Version of the directory
+         * @param usernames
+         *            Usernames of the personnel with each role, ordered by
+         *            username
+         */
+        Snapshot ( final long version, final Map<Role, List<String>> usernames ) {
+            this.version = version;
+            final Map<Role, List<String>> copy = new EnumMap<Role, List<String>>( Role.class );
+            usernames.forEach( ( role, names ) -> copy.put( role, Collections.unmodifiableList( names ) ) );
+            this.usernames = Collections.unmodifiableMap( copy );
+        }
+
+        /**
+         * Returns the version of the directory this snapshot was loaded at
+         *
+         * @return Version
+         */
+        public long getVersion () {
+            return version;
+        }
+
+        /**
+         * Returns the usernames of the personnel with a role
+         *
+         * @param role
+         *            The role
+         * @return Their usernames, ordered by username
+         */
+        public List<String> getUsernames ( final Role role ) {
+            return usernames.getOrDefault( role, Collections.emptyList() );
+        }
+    }
+
+    /**
+     * JPA entity listener that invalidates the directory whenever a Personnel
+     * record is created, updated or deleted. A change to only their roles
+     * isn't seen here (the user itself is not updated); UserService covers
+     * that. Hibernate creates it through Spring, so the directory is
+     * autowired.
+     *
+     * @author Kai Presler-Marshall
+     *
+     */
+    public static class ChangeListener {
+
+        /** The directory to invalidate */
+        @Autowired
+        private PersonnelDirectory directory;
+
+        /**
+         * Invalidates the directory if the user changing is a Personnel
+         *
+         * @param user
+         *            The user that is changing
+         */
+        @PrePersist
+        @PreUpdate
+        @PreRemove
+        public void changed ( final User user ) {
+            if ( user instanceof Personnel ) {
+                directory.invalidate();
+            }
+        }
+    }
+
+}
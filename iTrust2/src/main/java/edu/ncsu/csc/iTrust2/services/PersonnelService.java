@@ -1,12 +1,19 @@
 package edu.ncsu.csc.iTrust2.services;
 
+import java.util.List;
+
 import javax.transaction.Transactional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Component;
 
 import edu.ncsu.csc.iTrust2.models.Personnel;
+import edu.ncsu.csc.iTrust2.models.enums.Role;
 import edu.ncsu.csc.iTrust2.repositories.PersonnelRepository;
 
 /**
@@ -26,9 +33,40 @@ public class PersonnelService extends UserService<Personnel> {
     @Autowired
     private PersonnelRepository<Personnel> repository;
 
+    /** Which personnel have each role */
+    @Autowired
+    private PersonnelDirectory             directory;
+
     @Override
     protected JpaRepository<Personnel, String> getRepository () {
         return repository;
     }
 
+    /**
+     * Finds every personnel with a role, ordered by username; see
+     * PersonnelDirectory
+     *
+     * @param role
+     *            Role to search by
+     * @return Matching personnel
+     */
+    public List<Personnel> findByRole ( final Role role ) {
+        return directory.findByRole( role );
+    }
+
+    /**
+     * Finds a page of the personnel with a role, ordered by username unless
+     * the page asks for another order
+     *
+     * @param role
+     *            Role to search by
+     * @param pageable
+     *            Page to find
+     * @return Matching personnel
+     */
+    public Page<Personnel> findByRole ( final Role role, final Pageable pageable ) {
+        return repository.findByRole( role, PageRequest.of( pageable.getPageNumber(), pageable.getPageSize(),
+                pageable.getSortOr( Sort.by( "username" ) ) ) );
+    }
+
 }
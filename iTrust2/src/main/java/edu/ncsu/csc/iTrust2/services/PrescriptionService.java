@@ -29,13 +29,9 @@ public class PrescriptionService extends Service<Prescription, Long> {
     @Autowired
     private PrescriptionRepository repository;
 
-    /** Drug service */
+    /** Resolves the drug and patient a form refers to */
     @Autowired
-    private DrugService            drugService;
-
-    /** User service */
-    @Autowired
-    private UserService<User>      userService;
+    private EntityResolver         resolver;
 
     @Override
     protected JpaRepository<Prescription, Long> getRepository () {
@@ -52,10 +48,12 @@ public class PrescriptionService extends Service<Prescription, Long> {
     public Prescription build ( final PrescriptionForm form ) {
         final Prescription pr = new Prescription();
 
-        pr.setDrug( drugService.findByCode( form.getDrug() ) );
+        try ( final EntityResolver.Scope refs = resolver.open() ) {
+            pr.setDrug( refs.drug( form.getDrug() ) );
+            pr.setPatient( refs.user( form.getPatient() ) );
+        }
         pr.setDosage( form.getDosage() );
         pr.setRenewals( form.getRenewals() );
-        pr.setPatient( userService.findByName( form.getPatient() ) );
 
         if ( form.getId() != null ) {
             pr.setId( form.getId() );
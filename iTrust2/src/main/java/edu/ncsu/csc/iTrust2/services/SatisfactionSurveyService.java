@@ -5,10 +5,15 @@ import java.util.List;
 import javax.transaction.Transactional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Component;
 
 import edu.ncsu.csc.iTrust2.forms.SatisfactionSurveyForm;
+import edu.ncsu.csc.iTrust2.forms.display.SatisfactionSurveyNote;
 import edu.ncsu.csc.iTrust2.models.OfficeVisit;
 import edu.ncsu.csc.iTrust2.models.SatisfactionSurvey;
 import edu.ncsu.csc.iTrust2.repositories.OfficeVisitRepository;
@@ -28,11 +33,15 @@ public class SatisfactionSurveyService extends Service<SatisfactionSurvey, Long>
 
     /** Repository for CRUD operations */
     @Autowired
-    private SatisfactionSurveyRepository repository;
+    private SatisfactionSurveyRepository        repository;
 
     /** OfficeVisit repository */
     @Autowired
-    private OfficeVisitRepository        officeVisitRepository;
+    private OfficeVisitRepository               officeVisitRepository;
+
+    /** Keeps each HCP's survey totals up to date */
+    @Autowired
+    private SatisfactionSurveyStatisticsService statisticsService;
 
     @Override
     protected JpaRepository<SatisfactionSurvey, Long> getRepository () {
@@ -50,6 +59,22 @@ public class SatisfactionSurveyService extends Service<SatisfactionSurvey, Long>
         return repository.findByHcpUsername( hcp );
     }
 
+    /**
+     * Gets a page of the notes left on the satisfaction surveys for a given
+     * HCP. Unless the Pageable says otherwise, they are in the order they were
+     * left.
+     *
+     * @param hcp
+     *            HCP username to search by
+     * @param pageable
+     *            The page to find
+     * @return The page of notes
+     */
+    public Page<SatisfactionSurveyNote> findNotes ( final String hcp, final Pageable pageable ) {
+        return repository.findByHcpUsername( hcp, PageRequest.of( pageable.getPageNumber(), pageable.getPageSize(),
+                pageable.getSortOr( Sort.by( "id" ) ) ) ).map( SatisfactionSurveyNote::new );
+    }
+
     /**
      * Gets all satisfactionsurveys for a given patient
      *
@@ -74,6 +99,44 @@ public class SatisfactionSurveyService extends Service<SatisfactionSurvey, Long>
         return repository.findByHcpUsernameAndPatientUsername( hcp, patient );
     }
 
+    /**
+     * Saves a new satisfaction survey, attaches it to the office visit it is
+     * about, and adds it to its HCP's totals, all in one transaction
+     *
+     * @param survey
+     *            The survey, as built by `build()`
+     * @param officeVisitId
+     *            ID of the office visit the survey is about
+     */
+    public void submit ( final SatisfactionSurvey survey, final Long officeVisitId ) {
+        save( survey );
+        final OfficeVisit officeVisit = officeVisitRepository.findById( officeVisitId ).orElseThrow();
+        officeVisit.setSatisfactionSurvey( survey );
+        officeVisitRepository.save( officeVisit );
+        statisticsService.record( survey );
+    }
+
+    /**
+     * Deletes a satisfaction survey, taking it out of its HCP's totals
+     *
+     * @param survey
+     *            The survey to delete
+     */
+    @Override
+    public void delete ( final SatisfactionSurvey survey ) {
+        statisticsService.retract( survey );
+        super.delete( survey );
+    }
+
+    /**
+     * Deletes every satisfaction survey, and so every HCP's totals
+     */
+    @Override
+    public void deleteAll () {
+        super.deleteAll();
+        statisticsService.rebuild();
+    }
+
     /**
      * Builds a SatisfactionSurvey from a deserialised SatisfactionSurveyForm
      *
@@ -1,26 +1,43 @@
 package edu.ncsu.csc.iTrust2.services;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import javax.transaction.Transactional;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Component;
 
-import edu.ncsu.csc.iTrust2.forms.display.SatisfactionSurveyNote;
 import edu.ncsu.csc.iTrust2.forms.display.SatisfactionSurveyStatistics;
-import edu.ncsu.csc.iTrust2.models.Personnel;
 import edu.ncsu.csc.iTrust2.models.SatisfactionSurvey;
+import edu.ncsu.csc.iTrust2.models.SatisfactionSurveyTotals;
 import edu.ncsu.csc.iTrust2.models.User;
 import edu.ncsu.csc.iTrust2.models.enums.Role;
 import edu.ncsu.csc.iTrust2.models.enums.WaitTime;
+import edu.ncsu.csc.iTrust2.repositories.SatisfactionSurveyRepository;
+import edu.ncsu.csc.iTrust2.repositories.SatisfactionSurveyTotalsRepository;
 
 /**
  * Service class for interacting with SatisfactionSurveyStatistics model,
  * performing CRUD tasks with database and building a persistence object from a
  * Form.
  *
+ * Statistics are worked out from each HCP's SatisfactionSurveyTotals, which
+ * are kept up to date as surveys are saved and deleted (see `record()` and
+ * `retract()`), rather than from the surveys themselves. If the totals are
+ * ever missing (eg, on the first start after they were introduced) they are
+ * rebuilt from the surveys once the application is up.
+ *
  * @author Kai Presler-Marshall
  * @author bvolpat
  *
@@ -29,13 +46,24 @@ import edu.ncsu.csc.iTrust2.models.enums.WaitTime;
 @Transactional
 public class SatisfactionSurveyStatisticsService {
 
-    /** SatisfactionSurvey service */
+    /** Logger, to report rebuilds */
+    private static final Logger                LOG           = LoggerFactory
+            .getLogger( SatisfactionSurveyStatisticsService.class );
+
+    /** Number of surveys read at once when rebuilding the totals */
+    private static final int                   REBUILD_CHUNK = 500;
+
+    /** Running totals of each HCP's surveys */
     @Autowired
-    private SatisfactionSurveyService surveyService;
+    private SatisfactionSurveyTotalsRepository totalsRepository;
+
+    /** SatisfactionSurvey repository, for rebuilding the totals */
+    @Autowired
+    private SatisfactionSurveyRepository       surveyRepository;
 
     /** Personnel service */
     @Autowired
-    private PersonnelService          personnelService;
+    private PersonnelService                   personnelService;
 
     /**
      * Finds all SatisfactionSurveyStatistics for all HCPs
@@ -43,18 +71,27 @@ public class SatisfactionSurveyStatisticsService {
      * @return Matching Statistics
      */
     public List<SatisfactionSurveyStatistics> findAll () {
-        final List<SatisfactionSurveyStatistics> allStatistics = new ArrayList<>();
-
-        final List<Personnel> personnel = personnelService.findAll();
+        return findForHcps( personnelService.findByRole( Role.ROLE_HCP ) );
+    }
 
-        for ( final Personnel p : personnel ) {
-            if ( !p.getRoles().contains( Role.ROLE_HCP ) ) {
-                continue;
-            }
-            allStatistics.add( findForHcp( p ) );
+    /**
+     * Finds SatisfactionSurveyStatistics for each of several HCPs, reading
+     * all of their totals at once
+     *
+     * @param hcps
+     *            HCPs to search for
+     * @return Statistics for each HCP, in the same order
+     */
+    public List<SatisfactionSurveyStatistics> findForHcps ( final List< ? extends User> hcps ) {
+        final Map<String, SatisfactionSurveyTotals> totals = new HashMap<String, SatisfactionSurveyTotals>();
+        totalsRepository.findAllById( hcps.stream().map( User::getUsername ).collect( Collectors.toList() ) )
+                .forEach( t -> totals.put( t.getHcp(), t ) );
+
+        final List<SatisfactionSurveyStatistics> statistics = new ArrayList<SatisfactionSurveyStatistics>();
+        for ( final User hcp : hcps ) {
+            statistics.add( statisticsOf( hcp, totals.get( hcp.getUsername() ) ) );
         }
-
-        return allStatistics;
+        return statistics;
     }
 
     /**
@@ -65,37 +102,107 @@ public class SatisfactionSurveyStatisticsService {
      * @return Statistics for that HCP
      */
     public SatisfactionSurveyStatistics findForHcp ( final User hcp ) {
+        return statisticsOf( hcp, totalsRepository.findById( hcp.getUsername() ).orElse( null ) );
+    }
+
+    /**
+     * Works out an HCP's statistics from their totals
+     *
+     * @param hcp
+     *            The HCP
+     * @param totals
+     *            Their totals, or null if they have no surveys
+     * @return The statistics
+     */
+    private SatisfactionSurveyStatistics statisticsOf ( final User hcp, final SatisfactionSurveyTotals totals ) {
+        final SatisfactionSurveyTotals t = null == totals ? new SatisfactionSurveyTotals( hcp.getUsername() )
+                : totals;
         final SatisfactionSurveyStatistics statistics = new SatisfactionSurveyStatistics();
         statistics.setHcp( hcp );
+        statistics.setNumberOfSurveys( (int) t.getSurveys() );
+        statistics.setAverageVisitSatisfaction( t.average( t.getVisitSatisfaction() ) );
+        statistics.setAverageTreatmentSatisfaction( t.average( t.getTreatmentSatisfaction() ) );
+        statistics.setAverageWaitingRoomTime( WaitTime.getByCode( t.average( t.getWaitingRoomTime() ) ) );
+        statistics.setAverageExaminationResponseTime(
+                WaitTime.getByCode( t.average( t.getExaminationResponseTime() ) ) );
+        return statistics;
+    }
 
-        final List<SatisfactionSurvey> surveys = surveyService.findByHcp( hcp.getUsername() );
-        statistics.setNumberOfSurveys( surveys.size() );
-        statistics.setAverageVisitSatisfaction(
-                (int) surveys.stream().mapToInt( SatisfactionSurvey::getVisitSatisfaction ).average().orElse( 0 ) );
-        statistics.setAverageTreatmentSatisfaction(
-                (int) surveys.stream().mapToInt( SatisfactionSurvey::getTreatmentSatisfaction ).average().orElse( 0 ) );
-
-        final int averageWaitingRoomTime = (int) surveys.stream().map( SatisfactionSurvey::getWaitingRoomTime )
-                .mapToInt( WaitTime::getCode ).average().orElse( 0 );
-        statistics.setAverageWaitingRoomTime( WaitTime.getByCode( averageWaitingRoomTime ) );
-
-        final int averageExaminationResponseTime = (int) surveys.stream()
-                .map( SatisfactionSurvey::getExaminationResponseTime ).mapToInt( WaitTime::getCode ).average()
-                .orElse( 0 );
-        statistics.setAverageExaminationResponseTime( WaitTime.getByCode( averageExaminationResponseTime ) );
-
-        final List<SatisfactionSurveyNote> notes = new ArrayList<>();
-
-        for ( final SatisfactionSurvey satisfactionSurvey : surveys ) {
-            final SatisfactionSurveyNote note = new SatisfactionSurveyNote();
-            note.setComments( satisfactionSurvey.getComments() );
-            note.setAverageSatisfaction(
-                    ( satisfactionSurvey.getVisitSatisfaction() + satisfactionSurvey.getTreatmentSatisfaction() ) / 2 );
-            notes.add( note );
+    /**
+     * Adds a newly saved survey to its HCP's totals. This must be called in
+     * the transaction saving the survey, so that the two are committed (or
+     * not) together. The totals are created first if the HCP has none, so
+     * that there is always a row to lock: locking a row that does not exist
+     * yet would let two first surveys for an HCP both insert it.
+     *
+     * @param survey
+     *            The survey
+     */
+    public void record ( final SatisfactionSurvey survey ) {
+        final String hcp = survey.getHcp().getUsername();
+        totalsRepository.createIfMissing( hcp );
+        final SatisfactionSurveyTotals totals = totalsRepository.findForUpdate( hcp );
+        totals.add( survey );
+        totalsRepository.save( totals );
+    }
+
+    /**
+     * Takes a survey that is being deleted out of its HCP's totals. Like
+     * `record()`, this must be called in the transaction deleting it.
+     *
+     * @param survey
+     *            The survey
+     */
+    public void retract ( final SatisfactionSurvey survey ) {
+        final SatisfactionSurveyTotals totals = totalsRepository.findForUpdate( survey.getHcp().getUsername() );
+        if ( null != totals ) {
+            totals.remove( survey );
+            totalsRepository.save( totals );
         }
+    }
 
-        statistics.setNotes( notes );
-        return statistics;
+    /**
+     * Throws away every HCP's totals and works them out again from the
+     * surveys, reading them a chunk at a time. This is for filling in the
+     * totals for surveys saved without them (eg, before they were kept, or
+     * deleted along with their office visit); surveys saved while it runs may
+     * be left out, so it is best run while none are being filled in.
+     *
+     * @return Number of surveys counted
+     */
+    public long rebuild () {
+        final Map<String, SatisfactionSurveyTotals> totals = new HashMap<String, SatisfactionSurveyTotals>();
+        long surveys = 0;
+        Page<SatisfactionSurvey> page = surveyRepository
+                .findAll( PageRequest.of( 0, REBUILD_CHUNK, Sort.by( "id" ) ) );
+        while ( true ) {
+            for ( final SatisfactionSurvey survey : page ) {
+                totals.computeIfAbsent( survey.getHcp().getUsername(), SatisfactionSurveyTotals::new )
+                        .add( survey );
+                surveys++;
+            }
+            if ( !page.hasNext() ) {
+                break;
+            }
+            page = surveyRepository.findAll( page.nextPageable() );
+        }
+
+        totalsRepository.deleteAll();
+        totalsRepository.flush();
+        totalsRepository.saveAll( totals.values() );
+        LOG.info( "Rebuilt satisfaction survey totals for {} HCPs from {} surveys", totals.size(), surveys );
+        return surveys;
+    }
+
+    /**
+     * Rebuilds the totals once the application has started, if there are
+     * surveys but no totals for them
+     */
+    @EventListener ( ApplicationReadyEvent.class )
+    public void backfill () {
+        if ( 0 == totalsRepository.count() && 0 != surveyRepository.count() ) {
+            rebuild();
+        }
     }
 
 }
@@ -3,7 +3,21 @@ package edu.ncsu.csc.iTrust2.services;
 import java.util.List;
 import java.util.Optional;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Root;
+import javax.persistence.metamodel.EntityType;
+
+import org.springframework.core.ResolvableType;
 import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import edu.ncsu.csc.iTrust2.models.DomainObject;
@@ -21,6 +35,10 @@ import edu.ncsu.csc.iTrust2.models.DomainObject;
  * IngredientRepository) with the `@Autowired` annotation on it. You'll also
  * need to implement `getRepository()` to return this field.
  *
+ * Anything that might list a whole table for a client should use
+ * `findPage()` or `findAfter()` rather than `findAll()`. Both read records in
+ * order of their ID, so that a client walking through them sees each once.
+ *
  * @author Kai Presler-Marshall
  * @author Bruno Volpato
  * @param <T>
@@ -30,6 +48,16 @@ import edu.ncsu.csc.iTrust2.models.DomainObject;
  */
 abstract public class Service <T extends DomainObject, K> {
 
+    /** For the keyset queries behind `findAfter()` */
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /** The entity served; found on first use */
+    private Class<T>      domainClass;
+
+    /** Name of the entity's ID attribute; found on first use */
+    private String        idAttribute;
+
     /**
      * Returns the Repository that Spring uses for interacting with the
      * database. This is the only method that _must_ be overridden in child
@@ -62,6 +90,88 @@ abstract public class Service <T extends DomainObject, K> {
         return getRepository().findAll();
     }
 
+    /**
+     * Returns one page of the records of this type. Unless the Pageable says
+     * otherwise, records are in order of their ID.
+     *
+     * @param pageable
+     *            The page to return, and its size
+     * @return The page, along with the total number of records
+     */
+    public Page<T> findPage ( final Pageable pageable ) {
+        return getRepository().findAll( PageRequest.of( pageable.getPageNumber(), pageable.getPageSize(),
+                pageable.getSortOr( Sort.by( getIdAttribute() ) ) ) );
+    }
+
+    /**
+     * Returns the records of this type that follow a cursor, in order of their
+     * ID. Unlike `findPage()`, the database seeks straight to the cursor
+     * instead of counting off the records before it, so this stays as fast at
+     * the end of a large table as at the start, and records saved or deleted
+     * in between calls do not shift the ones a client has yet to see.
+     *
+     * @param cursor
+     *            ID of the last record the caller has seen, or null to start
+     *            from the beginning
+     * @param limit
+     *            Most records to return
+     * @return Up to `limit` records, each with an ID after the cursor
+     */
+    @SuppressWarnings ( { "unchecked", "rawtypes" } )
+    public List<T> findAfter ( final K cursor, final int limit ) {
+        final CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        final CriteriaQuery<T> query = cb.createQuery( getDomainClass() );
+        final Root<T> root = query.from( getDomainClass() );
+        final Path<Comparable> id = root.get( getIdAttribute() );
+        query.select( root ).orderBy( cb.asc( id ) );
+        if ( null != cursor ) {
+            query.where( cb.greaterThan( id, (Comparable) cursor ) );
+        }
+        final TypedQuery<T> typed = entityManager.createQuery( query ).setMaxResults( limit );
+        if ( null != getListGraph() ) {
+            typed.setHint( "javax.persistence.loadgraph", entityManager.getEntityGraph( getListGraph() ) );
+        }
+        return typed.getResultList();
+    }
+
+    /**
+     * Names the entity graph `findAfter()` reads records with. Override this
+     * for entities that have a graph for reading lists of them, and declare
+     * `findAll(Pageable)` on the repository with the same graph for
+     * `findPage()`.
+     *
+     * @return Name of the graph, or null (the default) for none
+     */
+    protected String getListGraph () {
+        return null;
+    }
+
+    /**
+     * Finds the entity served, from how the subclass binds `T`
+     *
+     * @return The entity
+     */
+    @SuppressWarnings ( "unchecked" )
+    private Class<T> getDomainClass () {
+        if ( null == domainClass ) {
+            domainClass = (Class<T>) ResolvableType.forClass( Service.class, getClass() ).resolveGeneric( 0 );
+        }
+        return domainClass;
+    }
+
+    /**
+     * Finds the name of the entity's ID attribute
+     *
+     * @return The attribute's name
+     */
+    private String getIdAttribute () {
+        if ( null == idAttribute ) {
+            final EntityType<T> entity = entityManager.getMetamodel().entity( getDomainClass() );
+            idAttribute = entity.getId( entity.getIdType().getJavaType() ).getName();
+        }
+        return idAttribute;
+    }
+
     /**
      * Saves a collection of elements to the database. If an error occurs saving
      * any of them, no objects will be saved. This makes it handy for ensuring
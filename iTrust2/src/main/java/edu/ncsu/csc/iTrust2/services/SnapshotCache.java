@@ -0,0 +1,145 @@
+package edu.ncsu.csc.iTrust2.services;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Base class for in-memory copies of small, rarely-edited reference data (eg,
+ * the CPT code catalog). Readers get an immutable snapshot of the whole data
+ * set, which is shared between threads and read without locking.
+ *
+ * Any change to the underlying entities should call `invalidate()` (usually
+ * from a JPA entity listener, so that changes cascaded from other entities are
+ * seen as well). This drops the current snapshot, and the next read loads a
+ * new one with a higher version. Until the changing transaction completes,
+ * reads on its own thread load a private snapshot so that they see its
+ * uncommitted changes, and once it commits or rolls back the shared snapshot
+ * is dropped again. A snapshot is also reloaded once it is older than
+ * `getRefreshMillis()`, which keeps several application nodes in step with
+ * each other's edits.
+ *
+ * @author Kai Presler-Marshall
+ *
+ * @param <S>
+ *            Type of the snapshot
+ */
+abstract public class SnapshotCache <S> {
+
+    /** Incremented on every change; the version of the next snapshot loaded */
+    private final AtomicLong   version = new AtomicLong();
+
+    /** Current snapshot, or null if it must be reloaded */
+    private volatile Loaded<S> current;
+
+    /**
+     * Loads a snapshot from the database
+     *
+     * @param snapshotVersion
+     *            Version of the data being loaded
+     * @return The snapshot
+     */
+    protected abstract S load ( long snapshotVersion );
+
+    /**
+     * Returns how long a snapshot is trusted before it is reloaded
+     *
+     * @return Time, in milliseconds
+     */
+    protected abstract long getRefreshMillis ();
+
+    /**
+     * Returns a snapshot of the data, loading a new one if the current
+     * snapshot has been invalidated or is due to be refreshed
+     *
+     * @return The snapshot
+     */
+    public S snapshot () {
+        if ( TransactionSynchronizationManager.hasResource( this ) ) {
+            /* This thread's transaction has changed the data; don't share what it sees */
+            return load( version.get() );
+        }
+        final Loaded<S> cached = current;
+        if ( null != cached && cached.loadedAt + getRefreshMillis() > System.currentTimeMillis() ) {
+            return cached.snapshot;
+        }
+        final long loading = version.get();
+        final Loaded<S> fresh = new Loaded<S>( load( loading ), System.currentTimeMillis() );
+        synchronized ( this ) {
+            /* Don't install a snapshot that missed a change made while it was loading */
+            if ( version.get() == loading ) {
+                current = fresh;
+            }
+        }
+        return fresh.snapshot;
+    }
+
+    /**
+     * Returns the current version of the data. This changes whenever the data
+     * is, and only ever increases.
+     *
+     * @return Version
+     */
+    public long getVersion () {
+        return version.get();
+    }
+
+    /**
+     * Records that the data has changed. The current snapshot is dropped, and
+     * dropped again when the surrounding transaction (if any) completes.
+     */
+    public void invalidate () {
+        drop();
+        if ( TransactionSynchronizationManager.isSynchronizationActive()
+                && !TransactionSynchronizationManager.hasResource( this ) ) {
+            TransactionSynchronizationManager.bindResource( this, Boolean.TRUE );
+            TransactionSynchronizationManager.registerSynchronization( new TransactionSynchronization() {
+                @Override
+                public void afterCompletion ( final int status ) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible( SnapshotCache.this );
+                    drop();
+                }
+            } );
+        }
+    }
+
+    /**
+     * Drops the current snapshot and moves on to the next version
+     */
+    private synchronized void drop () {
+        version.incrementAndGet();
+        current = null;
+    }
+
+    /**
+     * A snapshot along with when it was loaded
+     *
+     * @author Kai Presler-Marshall
+     *
+     * @param <S>
+     *            Type of the snapshot
+     */
+    private static final class Loaded <S> {
+
+        /** The snapshot */
+        private final S    snapshot;
+
+        /** Epoch millis at which the snapshot was loaded */
+        private final long loadedAt;
+
+        /**
+         * Creates a Loaded snapshot
+         *
+         * @param snapshot
+         *            The snapshot
+         * @param loadedAt
+         *            Epoch millis at which it was loaded
+         */
+        Loaded ( final S snapshot, final long loadedAt ) {
+            this.snapshot = snapshot;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+}
@@ -1,18 +1,29 @@
 package edu.ncsu.csc.iTrust2.services;
 
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
 import javax.transaction.Transactional;
 
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Primary;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import edu.ncsu.csc.iTrust2.models.Personnel;
 import edu.ncsu.csc.iTrust2.models.User;
 import edu.ncsu.csc.iTrust2.repositories.UserRepository;
 
 /**
  * Service class for interacting with User model, performing CRUD tasks with
- * database and building a persistence object from a Form.
+ * database and building a persistence object from a Form. Users are looked up
+ * by their ID, so that lookups are answered from Hibernate's second-level
+ * cache (see UserCacheConfiguration). Saving Personnel invalidates the
+ * PersonnelDirectory.
  *
  * @author Kai Presler-Marshall
  * @param <T>
@@ -27,12 +38,52 @@ public class UserService <T extends User> extends Service<T, String> {
     @Autowired
     private UserRepository<User> repository;
 
+    /** For evicting users from the second-level cache */
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /** Which personnel have each role */
+    @Autowired
+    private PersonnelDirectory   directory;
+
     @Override
     @SuppressWarnings ( "unchecked" )
     protected JpaRepository<T, String> getRepository () {
         return (JpaRepository<T, String>) repository;
     }
 
+    /**
+     * Saves a user. If they are Personnel, the PersonnelDirectory is
+     * invalidated too: a change to nothing but their roles doesn't make
+     * Hibernate call the entity listeners on the user, so the directory's own
+     * listener would miss it.
+     *
+     * @param user
+     *            The user to save
+     */
+    @Override
+    public void save ( final T user ) {
+        super.save( user );
+        if ( user instanceof Personnel ) {
+            directory.invalidate();
+        }
+    }
+
+    /**
+     * Saves a list of users, invalidating the PersonnelDirectory if any of
+     * them are Personnel; see `save()`
+     *
+     * @param users
+     *            The users to save
+     */
+    @Override
+    public void saveAll ( final List<T> users ) {
+        super.saveAll( users );
+        if ( users.stream().anyMatch( user -> user instanceof Personnel ) ) {
+            directory.invalidate();
+        }
+    }
+
     /**
      * Finds a User with the given username
      *
@@ -41,7 +92,10 @@ public class UserService <T extends User> extends Service<T, String> {
      * @return Matching user, if any
      */
     public User findByName ( final String username ) {
-        return repository.findByUsername( username );
+        if ( null == username ) {
+            return null;
+        }
+        return repository.findById( username ).orElse( null );
     }
 
     /**
@@ -52,7 +106,42 @@ public class UserService <T extends User> extends Service<T, String> {
      * @return Whether user exists
      */
     public boolean existsByName ( final String name ) {
-        return repository.existsByUsername( name );
+        return null != findByName( name );
+    }
+
+    /**
+     * Drops a user and their roles from the second-level cache, now and again
+     * once the surrounding transaction (if any) completes, so that the next
+     * lookup reads them from the database. Hibernate keeps the cache up to
+     * date for changes made through it; this is called after users are edited
+     * or deleted as well, so that nothing a cached copy could miss (such as a
+     * user whose Patient or Personnel record was replaced) is served stale.
+     *
+     * @param username
+     *            Username of the user to evict
+     */
+    public void evict ( final String username ) {
+        evictNow( username );
+        if ( TransactionSynchronizationManager.isSynchronizationActive() ) {
+            TransactionSynchronizationManager.registerSynchronization( new TransactionSynchronization() {
+                @Override
+                public void afterCompletion ( final int status ) {
+                    evictNow( username );
+                }
+            } );
+        }
+    }
+
+    /**
+     * Drops a user and their roles from the second-level cache
+     *
+     * @param username
+     *            Username of the user to evict
+     */
+    private void evictNow ( final String username ) {
+        final Cache cache = entityManagerFactory.unwrap( SessionFactory.class ).getCache();
+        cache.evictEntityData( User.class, username );
+        cache.evictCollectionData( User.class.getName() + ".roles", username );
     }
 
 }
@@ -1,12 +1,18 @@
 package edu.ncsu.csc.iTrust2.services;
 
+import java.time.Duration;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import javax.transaction.Transactional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Component;
 
@@ -89,6 +95,57 @@ public class VaccineAppointmentRequestService extends Service<VaccineAppointment
         return repository.findByHcpAndPatient( hcp, patient );
     }
 
+    /**
+     * Find the appointment requests for a given Patient with a given status,
+     * in order of their date
+     *
+     * @param patient
+     *            Patient for lookups
+     * @param status
+     *            Status of the requests
+     * @return Matching requests
+     */
+    public List<VaccineAppointmentRequest> findByPatientAndStatus ( final User patient, final Status status ) {
+        return repository.findByPatientAndStatusOrderByDateAscIdAsc( patient, status );
+    }
+
+    /**
+     * Find the appointment requests for a given Patient that take place less
+     * than some time before or after a given time, in order of their date
+     *
+     * @param patient
+     *            Patient for lookups
+     * @param time
+     *            Time the requests must be near
+     * @param within
+     *            How near they must be
+     * @return Matching requests
+     */
+    public List<VaccineAppointmentRequest> findByPatientAround ( final User patient, final ZonedDateTime time,
+            final Duration within ) {
+        return repository.findByPatientAndDateAfterAndDateBeforeOrderByDateAscIdAsc( patient, time.minus( within ),
+                time.plus( within ) );
+    }
+
+    /**
+     * Finds a page of the requests an advocate has been invited to, for
+     * patients they are assigned to, in one query. Unless the Pageable says
+     * otherwise, they are in order of their date.
+     *
+     * @param advocate
+     *            Patient advocate for lookups
+     * @param statuses
+     *            Statuses of the requests to include
+     * @param pageable
+     *            The page to find
+     * @return The page of requests
+     */
+    public Page<VaccineAppointmentRequest> findForAdvocate ( final User advocate, final Collection<Status> statuses,
+            final Pageable pageable ) {
+        return repository.findForAdvocate( advocate, statuses, PageRequest.of( pageable.getPageNumber(),
+                pageable.getPageSize(), pageable.getSortOr( Sort.by( "date", "id" ) ) ) );
+    }
+
     /**
      * Builds a VaccineAppointmentRequest from a VaccineAppointmentRequestForm
      *
@@ -1,7 +1,6 @@
 package edu.ncsu.csc.iTrust2.services;
 
 import java.time.ZonedDateTime;
-import java.util.ArrayList;
 import java.util.List;
 
 import javax.transaction.Transactional;
@@ -11,7 +10,6 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Component;
 
 import edu.ncsu.csc.iTrust2.forms.VaccineVisitForm;
-import edu.ncsu.csc.iTrust2.models.CPTCode;
 import edu.ncsu.csc.iTrust2.models.Patient;
 import edu.ncsu.csc.iTrust2.models.User;
 import edu.ncsu.csc.iTrust2.models.VaccineAppointmentRequest;
@@ -137,11 +135,7 @@ public class VaccineVisitService extends Service<VaccineVisit, Long> {
         }
 
         if ( varf.getCptCodes() != null ) {
-            final List<CPTCode> cs = new ArrayList<CPTCode>();
-            for ( int i = 0; i < varf.getCptCodes().size(); i++ ) {
-                cs.add( cptService.findById( varf.getCptCodes().get( i ) ) );
-            }
-            request.setCptCodes( cs );
+            request.setCptCodes( cptService.findByIds( varf.getCptCodes() ) );
 
         }
 
@@ -0,0 +1,192 @@
+package edu.ncsu.csc.iTrust2.services.security;
+
+import java.time.ZonedDateTime;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import edu.ncsu.csc.iTrust2.models.security.LoginLockout;
+
+/**
+ * In-memory cache of whether an IP address is banned or locked out. The
+ * IPFilter consults this on every request, so a decision that is already
+ * cached is answered with a single map lookup and no allocation.
+ *
+ * Decisions are loaded from the database the first time an address is seen,
+ * and reloaded once they are older than `itrust2.ipcache.refresh-ms`, which
+ * keeps several application nodes in step with each other's bans and
+ * lockouts. The FailureHandler records new bans and lockouts here directly so
+ * that they take effect immediately on this node. Nothing in the application
+ * lifts a ban, and a lockout runs out on its own at the time cached for it, so
+ * decisions never need dropping early; a ban removed from the database by hand
+ * is picked up at the next reload.
+ *
+ * @author Kai Presler-Marshall
+ *
+ */
+@Component
+public class IPDecisionCache {
+
+    /** How long an IP lockout lasts, in milliseconds */
+    public static final long                      LOCKOUT_MILLIS = LoginLockoutService.LOCKOUT_DURATION.toMillis();
+
+    /** LoginBan service */
+    @Autowired
+    private LoginBanService                       loginBanService;
+
+    /** LoginLockout service */
+    @Autowired
+    private LoginLockoutService                   loginLockoutService;
+
+    /** How long a decision is trusted before it is reloaded, in milliseconds */
+    @Value ( "${itrust2.ipcache.refresh-ms:30000}" )
+    private long                                  refreshMillis;
+
+    /** Current decision for each IP address seen recently */
+    private final ConcurrentMap<String, Decision> decisions = new ConcurrentHashMap<String, Decision>();
+
+    /**
+     * Checks if an IP address is banned
+     *
+     * @param ipAddress
+     *            IP address to check
+     * @return Ban status
+     */
+    public boolean isBanned ( final String ipAddress ) {
+        return decide( ipAddress ).banned;
+    }
+
+    /**
+     * Checks if an IP address is locked out (has a lockout within the past 60
+     * minutes)
+     *
+     * @param ipAddress
+     *            IP address to check
+     * @return Lockout status
+     */
+    public boolean isLocked ( final String ipAddress ) {
+        return decide( ipAddress ).lockedUntil > System.currentTimeMillis();
+    }
+
+    /**
+     * Records that an IP address has just been banned
+     *
+     * @param ipAddress
+     *            IP address that was banned
+     */
+    public void recordBan ( final String ipAddress ) {
+        final long now = System.currentTimeMillis();
+        store( ipAddress, new Decision( true, 0, now, now + refreshMillis ) );
+    }
+
+    /**
+     * Records that an IP address has just been locked out
+     *
+     * @param ipAddress
+     *            IP address that was locked out
+     * @param time
+     *            Time the lockout started
+     */
+    public void recordLockout ( final String ipAddress, final ZonedDateTime time ) {
+        final long now = System.currentTimeMillis();
+        store( ipAddress, new Decision( false, time.toInstant().toEpochMilli() + LOCKOUT_MILLIS, now,
+                now + refreshMillis ) );
+    }
+
+    /**
+     * Periodically drops decisions that are due to be reloaded anyway, so that
+     * addresses which stopped making requests don't stay in memory forever
+     */
+    @Scheduled ( fixedDelayString = "${itrust2.ipcache.sweep-ms:300000}" )
+    public void sweep () {
+        final long now = System.currentTimeMillis();
+        decisions.values().removeIf( d -> d.refreshAt <= now );
+    }
+
+    /**
+     * Returns the cached decision for an address, loading it from the
+     * database if it is missing or stale
+     *
+     * @param ipAddress
+     *            IP address to check
+     * @return Current decision
+     */
+    private Decision decide ( final String ipAddress ) {
+        final Decision cached = decisions.get( ipAddress );
+        final long now = System.currentTimeMillis();
+        if ( null != cached && cached.refreshAt > now ) {
+            return cached;
+        }
+
+        final boolean banned = loginBanService.isIPBanned( ipAddress );
+        long lockedUntil = 0;
+        if ( !banned ) {
+            final LoginLockout latest = loginLockoutService.findLatestIPLockout( ipAddress );
+            if ( null != latest && null != latest.getTime() ) {
+                lockedUntil = latest.getTime().toInstant().toEpochMilli() + LOCKOUT_MILLIS;
+            }
+        }
+        return store( ipAddress, new Decision( banned, lockedUntil, now, now + refreshMillis ) );
+    }
+
+    /**
+     * Stores a decision unless a newer one has been stored in the meantime (eg,
+     * a lockout recorded while the database was being read)
+     *
+     * @param ipAddress
+     *            IP address the decision is for
+     * @param decision
+     *            The new decision
+     * @return The decision now in the cache
+     */
+    private Decision store ( final String ipAddress, final Decision decision ) {
+        return decisions.merge( ipAddress, decision, ( old, fresh ) -> fresh.asOf >= old.asOf ? fresh : old );
+    }
+
+    /**
+     * Immutable ban/lockout decision for a single IP address
+     *
+     * @author Kai Presler-Marshall
+     *
+     */
+    private static final class Decision {
+
+        /** Whether the address is banned */
+        private final boolean banned;
+
+        /** Epoch millis until which the address is locked out */
+        private final long    lockedUntil;
+
+        /** Epoch millis at which this decision was known to be correct */
+        private final long    asOf;
+
+        /** Epoch millis after which this decision should be reloaded */
+        private final long    refreshAt;
+
+        /**
+         * Creates a Decision
+         *
+         * @param banned
+         *            Whether the address is banned
+         * @param lockedUntil
+         *            Epoch millis until which the address is locked out
+         * @param asOf
+         *            Epoch millis at which this decision was known to be
+         *            correct
+         * @param refreshAt
+         *            Epoch millis after which this decision should be
+         *            reloaded
+         */
+        Decision ( final boolean banned, final long lockedUntil, final long asOf, final long refreshAt ) {
+            this.banned = banned;
+            this.lockedUntil = lockedUntil;
+            this.asOf = asOf;
+            this.refreshAt = refreshAt;
+        }
+    }
+
+}
@@ -1,15 +1,19 @@
 package edu.ncsu.csc.iTrust2.services.security;
 
 import java.time.ZonedDateTime;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import javax.transaction.Transactional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Component;
 
+import edu.ncsu.csc.iTrust2.models.enums.TransactionType;
 import edu.ncsu.csc.iTrust2.models.security.LogEntry;
 import edu.ncsu.csc.iTrust2.repositories.security.LogEntryRepository;
 import edu.ncsu.csc.iTrust2.services.Service;
@@ -24,11 +28,24 @@ import edu.ncsu.csc.iTrust2.services.Service;
 @Transactional
 public class LogEntryService extends Service<LogEntry, Long> {
 
+    /**
+     * Codes of the events a patient is allowed to see in their own log
+     */
+    private static final Set<TransactionType> PATIENT_VIEWABLE = Arrays.stream( TransactionType.values() )
+            .filter( TransactionType::isPatientViewable ).collect( Collectors.toSet() );
+
     /**
      * LogEntry repository, for CRUD tasks
      */
     @Autowired
-    private LogEntryRepository repository;
+    private LogEntryRepository                repository;
+
+    /**
+     * Recent entries for each user, which must be dropped when entries are
+     * deleted
+     */
+    @Autowired
+    private RecentActivityCache               recentActivity;
 
     @Override
     protected JpaRepository<LogEntry, Long> getRepository () {
@@ -47,6 +64,32 @@ public class LogEntryService extends Service<LogEntry, Long> {
         return repository.findByPrimaryUserOrSecondaryUser( user );
     }
 
+    /**
+     * Finds the most recent LogEntries for a given user, where they are the
+     * primary or secondary user
+     *
+     * @param user
+     *            User to find entries for
+     * @param limit
+     *            Maximum number of entries to return
+     * @return Matching LogEntries, newest first
+     */
+    public List<LogEntry> findRecentForUser ( final String user, final int limit ) {
+        return repository.findRecentForUser( user, PageRequest.of( 0, limit ) );
+    }
+
+    @Override
+    public void delete ( final LogEntry obj ) {
+        super.delete( obj );
+        recentActivity.invalidateAll();
+    }
+
+    @Override
+    public void deleteAll () {
+        super.deleteAll();
+        recentActivity.invalidateAll();
+    }
+
     /**
      * Finds LogEntries for a user within a provided date range.
      * 
@@ -60,13 +103,61 @@ public class LogEntryService extends Service<LogEntry, Long> {
      */
     public List<LogEntry> findByDateRange ( final String user, final ZonedDateTime startDate,
             final ZonedDateTime endDate ) {
+        return repository.findForUserBetween( user, startDate, endDate );
+    }
 
-        final List<LogEntry> withinRange = repository.findByTimeBetween( startDate, endDate );
-
-        return withinRange.stream()
-                .filter( e -> e.getPrimaryUser().equals( user ) || e.getSecondaryUser().equals( user ) )
-                .collect( Collectors.toList() );
+    /**
+     * Finds one page of LogEntries for a user within a date range, newest
+     * first. If the last entry of the previous page is known, pass its time
+     * and ID as the cursor; the page is then found with a keyset query rather
+     * than by skipping over `(page - 1) * pageLength` rows.
+     *
+     * @param user
+     *            User to find entries for
+     * @param startDate
+     *            Start date (inclusive)
+     * @param endDate
+     *            End date (exclusive)
+     * @param patientViewableOnly
+     *            Whether to only include events a patient may see
+     * @param page
+     *            1-based page number, used when there is no cursor
+     * @param pageLength
+     *            Number of entries per page
+     * @param cursorTime
+     *            Time of the last entry on the previous page, or null
+     * @param cursorId
+     *            ID of the last entry on the previous page, or null
+     * @return Matching LogEntries
+     */
+    public List<LogEntry> findPageForUser ( final String user, final ZonedDateTime startDate,
+            final ZonedDateTime endDate, final boolean patientViewableOnly, final int page, final int pageLength,
+            final ZonedDateTime cursorTime, final Long cursorId ) {
+        if ( null != cursorTime && null != cursorId ) {
+            return repository.findPageForUserBefore( user, startDate, endDate, patientViewableOnly,
+                    PATIENT_VIEWABLE, cursorTime, cursorId, PageRequest.of( 0, pageLength ) );
+        }
+        return repository.findPageForUser( user, startDate, endDate, patientViewableOnly, PATIENT_VIEWABLE,
+                PageRequest.of( Math.max( page - 1, 0 ), pageLength ) );
+    }
 
+    /**
+     * Counts the LogEntries for a user within a date range, using the same
+     * filters as `findPageForUser`.
+     *
+     * @param user
+     *            User to count entries for
+     * @param startDate
+     *            Start date (inclusive)
+     * @param endDate
+     *            End date (exclusive)
+     * @param patientViewableOnly
+     *            Whether to only include events a patient may see
+     * @return Number of matching LogEntries
+     */
+    public long countForUser ( final String user, final ZonedDateTime startDate, final ZonedDateTime endDate,
+            final boolean patientViewableOnly ) {
+        return repository.countForUser( user, startDate, endDate, patientViewableOnly, PATIENT_VIEWABLE );
     }
 
 }
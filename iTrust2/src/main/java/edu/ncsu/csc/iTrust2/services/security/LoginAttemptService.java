@@ -1,8 +1,12 @@
 package edu.ncsu.csc.iTrust2.services.security;
 
+import java.time.ZonedDateTime;
+import java.util.List;
+
 import javax.transaction.Transactional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Component;
 
@@ -74,4 +78,19 @@ public class LoginAttemptService extends Service<LoginAttempt, Long> {
         return repository.deleteByUser( user );
     }
 
+    /**
+     * Deletes one chunk of the login attempts made before a time, oldest
+     * first, in its own transaction; see LoginRecordPurger.
+     *
+     * @param cutoff
+     *            Time to delete attempts before
+     * @param chunk
+     *            Most attempts to delete
+     * @return Number of records deleted
+     */
+    public int purgeBefore ( final ZonedDateTime cutoff, final int chunk ) {
+        final List<Long> ids = repository.findIdsBefore( cutoff, PageRequest.of( 0, chunk ) );
+        return ids.isEmpty() ? 0 : repository.deleteByIds( ids );
+    }
+
 }
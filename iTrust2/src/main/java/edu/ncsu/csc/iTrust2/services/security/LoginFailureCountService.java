@@ -0,0 +1,65 @@
+package edu.ncsu.csc.iTrust2.services.security;
+
+import java.util.List;
+
+import javax.transaction.Transactional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Component;
+
+import edu.ncsu.csc.iTrust2.models.security.LoginFailureCount;
+import edu.ncsu.csc.iTrust2.repositories.security.LoginFailureCountRepository;
+import edu.ncsu.csc.iTrust2.services.Service;
+
+/**
+ * Service for saving and loading snapshots of the failed login counters. Each
+ * node saves and loads only its own snapshot, so nodes never overwrite one
+ * another's counters.
+ *
+ * @author Kai Presler-Marshall
+ *
+ */
+@Component
+@Transactional
+public class LoginFailureCountService extends Service<LoginFailureCount, Long> {
+
+    /** Repository for CRUD operations */
+    @Autowired
+    private LoginFailureCountRepository repository;
+
+    @Override
+    protected JpaRepository<LoginFailureCount, Long> getRepository () {
+        return repository;
+    }
+
+    /**
+     * Finds the snapshot a node last saved
+     *
+     * @param node
+     *            The node
+     * @return The buckets making up its snapshot
+     */
+    public List<LoginFailureCount> findSnapshot ( final String node ) {
+        return repository.findByNode( node );
+    }
+
+    /**
+     * Replaces a node's saved snapshot with a new one, in a single
+     * transaction. Buckets that have left the window are deleted too, whichever
+     * node saved them, so a node that has gone away does not leave its rows
+     * behind forever.
+     *
+     * @param node
+     *            The node
+     * @param oldest
+     *            Oldest bucket still in the window
+     * @param counts
+     *            The buckets making up the new snapshot
+     */
+    public void replaceSnapshot ( final String node, final long oldest, final List<LoginFailureCount> counts ) {
+        repository.deleteSnapshot( node, oldest );
+        saveAll( counts );
+    }
+
+}
@@ -0,0 +1,215 @@
+package edu.ncsu.csc.iTrust2.services.security;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import edu.ncsu.csc.iTrust2.models.security.LoginFailureCount;
+import edu.ncsu.csc.iTrust2.utils.SlidingWindowCounter;
+
+/**
+ * Keeps track of failed logins per IP address and per username, and decides
+ * when a lockout is due. Failures are counted in memory over a sliding window
+ * (see SlidingWindowCounter), so a burst of failed logins does not turn into a
+ * burst of database writes; only the resulting LoginLockouts and LoginBans are
+ * saved by the FailureHandler.
+ *
+ * Only failures within the last `itrust2.login.failure-window-minutes` (60 by
+ * default) count towards a lockout. This is a change from when each failure
+ * was saved as a LoginAttempt: those counted until a lockout or a successful
+ * login cleared them, however old they were. The thresholds themselves are
+ * unchanged.
+ *
+ * The counters are snapshotted to the database every
+ * `itrust2.login.snapshot-ms` and on shutdown, and reloaded on startup, so a
+ * restart does not reset them. Each node (`itrust2.login.node-id`, the host
+ * name by default) keeps its own counters, and saves and reloads only its own
+ * snapshot.
+ *
+ * @author Kai Presler-Marshall
+ *
+ */
+@Component
+public class LoginFailureTracker {
+
+    /** Failures allowed from one IP address before it is locked out */
+    public static final long         IP_THRESHOLD   = 5;
+
+    /** Failures allowed for one user before they are locked out */
+    public static final long         USER_THRESHOLD = 2;
+
+    /** Logger, to report snapshot problems */
+    private static final Logger      LOG            = LoggerFactory.getLogger( LoginFailureTracker.class );
+
+    /** Prefix for IP address keys in the snapshot */
+    private static final String      IP_PREFIX      = "ip:";
+
+    /** Prefix for username keys in the snapshot */
+    private static final String      USER_PREFIX    = "user:";
+
+    /** Width of a counter bucket, in milliseconds */
+    private static final long        BUCKET_MILLIS  = 60 * 1000L;
+
+    /** Service for saving and loading snapshots */
+    @Autowired
+    private LoginFailureCountService snapshotService;
+
+    /** How far back failures are counted, in minutes */
+    @Value ( "${itrust2.login.failure-window-minutes:60}" )
+    private int                      windowMinutes;
+
+    /** Name this node's snapshot is saved under; the host name if blank */
+    @Value ( "${itrust2.login.node-id:}" )
+    private String                   node;
+
+    /** Failures per IP address */
+    private SlidingWindowCounter     ipFailures;
+
+    /** Failures per username */
+    private SlidingWindowCounter     userFailures;
+
+    /**
+     * Creates the counters and reloads this node's last snapshot
+     */
+    @PostConstruct
+    public void start () {
+        ipFailures = new SlidingWindowCounter( windowMinutes, BUCKET_MILLIS );
+        userFailures = new SlidingWindowCounter( windowMinutes, BUCKET_MILLIS );
+        if ( null == node || node.trim().isEmpty() ) {
+            try {
+                node = InetAddress.getLocalHost().getHostName();
+            }
+            catch ( final UnknownHostException e ) {
+                node = "localhost";
+            }
+        }
+
+        try {
+            final long now = System.currentTimeMillis();
+            for ( final LoginFailureCount count : snapshotService.findSnapshot( node ) ) {
+                final String key = count.getCounterKey();
+                if ( key.startsWith( IP_PREFIX ) ) {
+                    ipFailures.restore( key.substring( IP_PREFIX.length() ), count.getBucket(), count.getFailures(),
+                            now );
+                }
+                else if ( key.startsWith( USER_PREFIX ) ) {
+                    userFailures.restore( key.substring( USER_PREFIX.length() ), count.getBucket(),
+                            count.getFailures(), now );
+                }
+            }
+        }
+        catch ( final RuntimeException e ) {
+            LOG.warn( "Could not restore failed login counters; starting from zero", e );
+        }
+    }
+
+    /**
+     * Records a failed login from an IP address
+     *
+     * @param ipAddress
+     *            IP address the attempt came from
+     * @return True iff this failure means the address should now be locked
+     *         out. The address's count is cleared when this happens.
+     */
+    public boolean recordIPFailure ( final String ipAddress ) {
+        return ipFailures.incrementAndTrip( ipAddress, IP_THRESHOLD, System.currentTimeMillis() );
+    }
+
+    /**
+     * Records a failed login for a user
+     *
+     * @param username
+     *            User the attempt was for
+     * @return True iff this failure means the user should now be locked out.
+     *         The user's count is cleared when this happens.
+     */
+    public boolean recordUserFailure ( final String username ) {
+        return userFailures.incrementAndTrip( username, USER_THRESHOLD, System.currentTimeMillis() );
+    }
+
+    /**
+     * Returns the number of recent failed logins from an IP address
+     *
+     * @param ipAddress
+     *            IP address to check
+     * @return Number of failures within the window
+     */
+    public long countIP ( final String ipAddress ) {
+        return ipFailures.count( ipAddress, System.currentTimeMillis() );
+    }
+
+    /**
+     * Returns the number of recent failed logins for a user
+     *
+     * @param username
+     *            User to check
+     * @return Number of failures within the window
+     */
+    public long countUser ( final String username ) {
+        return userFailures.count( username, System.currentTimeMillis() );
+    }
+
+    /**
+     * Clears the failed logins for an IP address
+     *
+     * @param ipAddress
+     *            IP address to clear
+     */
+    public void clearIP ( final String ipAddress ) {
+        ipFailures.reset( ipAddress );
+    }
+
+    /**
+     * Clears the failed logins for a user
+     *
+     * @param username
+     *            User to clear
+     */
+    public void clearUser ( final String username ) {
+        userFailures.reset( username );
+    }
+
+    /**
+     * Saves the current counters to the database, replacing this node's
+     * previous snapshot. Keys with nothing left in the window are dropped
+     * first.
+     */
+    @Scheduled ( fixedDelayString = "${itrust2.login.snapshot-ms:60000}" )
+    public void snapshot () {
+        final long now = System.currentTimeMillis();
+        ipFailures.evictExpired( now );
+        userFailures.evictExpired( now );
+
+        final List<LoginFailureCount> counts = new ArrayList<LoginFailureCount>();
+        ipFailures.forEachBucket( now, ( key, bucket, failures ) -> counts
+                .add( new LoginFailureCount( node, IP_PREFIX + key, bucket, failures ) ) );
+        userFailures.forEachBucket( now, ( key, bucket, failures ) -> counts
+                .add( new LoginFailureCount( node, USER_PREFIX + key, bucket, failures ) ) );
+        try {
+            snapshotService.replaceSnapshot( node, now / BUCKET_MILLIS - windowMinutes + 1, counts );
+        }
+        catch ( final RuntimeException e ) {
+            LOG.warn( "Could not snapshot failed login counters", e );
+        }
+    }
+
+    /**
+     * Takes a final snapshot on shutdown
+     */
+    @PreDestroy
+    public void stop () {
+        snapshot();
+    }
+
+}
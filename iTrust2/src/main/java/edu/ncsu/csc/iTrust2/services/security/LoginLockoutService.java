@@ -1,11 +1,13 @@
 package edu.ncsu.csc.iTrust2.services.security;
 
+import java.time.Duration;
 import java.time.ZonedDateTime;
-import java.util.stream.Collectors;
+import java.util.List;
 
 import javax.transaction.Transactional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Component;
 
@@ -15,7 +17,9 @@ import edu.ncsu.csc.iTrust2.repositories.security.LoginLockoutRepository;
 import edu.ncsu.csc.iTrust2.services.Service;
 
 /**
- * Service for interacting with the LoginLockout model
+ * Service for interacting with the LoginLockout model. A lockout locks its IP
+ * address or user out for an hour, and three within a day result in a ban; the
+ * checks count only the lockouts within those windows, in the database.
  *
  * @author Kai Presler-Marshall
  *
@@ -24,6 +28,12 @@ import edu.ncsu.csc.iTrust2.services.Service;
 @Transactional
 public class LoginLockoutService extends Service<LoginLockout, Long> {
 
+    /** How long a lockout lasts */
+    public static final Duration   LOCKOUT_DURATION = Duration.ofHours( 1 );
+
+    /** How far back lockouts count towards a ban */
+    public static final Duration   BAN_WINDOW       = Duration.ofDays( 1 );
+
     /**
      * Repository for CRUD operations
      */
@@ -36,18 +46,27 @@ public class LoginLockoutService extends Service<LoginLockout, Long> {
     }
 
     /**
-     * Checks if an IP address is locked out
+     * Checks if an IP address is locked out (does it have a lockout within the
+     * past hour)
      *
      * @param ipAddress
      *            IP address to check
      * @return Lockout status
      */
     public boolean isIPLocked ( final String ipAddress ) {
-        final long now = ZonedDateTime.now().toEpochSecond();
+        return repository.existsByIpAndTimeAfter( ipAddress, ZonedDateTime.now().minus( LOCKOUT_DURATION ) );
+    }
 
-        return repository.findByIp( ipAddress ).stream().filter( e -> ( now - e.getTime().toEpochSecond() ) < 60 * 60 )
-                .collect( Collectors.toList() ).size() > 0; // locked if within
-                                                            // 60 minutes
+    /**
+     * Finds the most recent lockout for an IP address, whether or not it is
+     * still in effect
+     *
+     * @param ipAddress
+     *            IP address to check
+     * @return The newest lockout, or null if the address was never locked out
+     */
+    public LoginLockout findLatestIPLockout ( final String ipAddress ) {
+        return repository.findFirstByIpOrderByTimeDesc( ipAddress );
     }
 
     /**
@@ -63,30 +82,25 @@ public class LoginLockoutService extends Service<LoginLockout, Long> {
     }
 
     /**
-     * Gets the number of IP lockouts for an address within the past 60 minutes
+     * Gets the number of IP lockouts for an address within the past 24 hours
      *
      * @param ipAddress
      *            IP address to check
      * @return Number of lockouts
      */
     public int getRecentIPLockouts ( final String ipAddress ) {
-        final long now = ZonedDateTime.now().toEpochSecond();
-        return repository.findByIp( ipAddress ).stream()
-                .filter( e -> ( now - e.getTime().toEpochSecond() ) < 1440 * 60 ).collect( Collectors.toList() ).size(); // 1440
-                                                                                                                         // minutes
+        return (int) repository.countByIpAndTimeAfter( ipAddress, ZonedDateTime.now().minus( BAN_WINDOW ) );
     }
 
     /**
-     * Gets the number of lockouts for a user within the past 60 minutes
+     * Gets the number of lockouts for a user within the past 24 hours
      *
      * @param user
      *            to check
      * @return Number of lockouts
      */
     public int getRecentUserLockouts ( final User user ) {
-        final long now = ZonedDateTime.now().toEpochSecond();
-        return repository.findByUser( user ).stream().filter( e -> ( now - e.getTime().toEpochSecond() ) < 1440 * 60 )
-                .collect( Collectors.toList() ).size(); // 1440 minutes
+        return (int) repository.countByUserAndTimeAfter( user, ZonedDateTime.now().minus( BAN_WINDOW ) );
     }
 
     /**
@@ -109,10 +123,23 @@ public class LoginLockoutService extends Service<LoginLockout, Long> {
      * @return Lockout status
      */
     public boolean isUserLocked ( final User user ) {
-        final long now = ZonedDateTime.now().toEpochSecond();
-        return repository.findByUser( user ).stream().filter( e -> ( now - e.getTime().toEpochSecond() ) < 60 * 60 )
-                .collect( Collectors.toList() ).size() > 0; // locked if within
-                                                            // 60 minutes
+        return repository.existsByUserAndTimeAfter( user, ZonedDateTime.now().minus( LOCKOUT_DURATION ) );
+    }
+
+    /**
+     * Deletes one chunk of the lockouts that have expired: those older than
+     * the ban window, which neither lock anyone out nor count towards a ban.
+     * Each chunk is deleted in its own transaction, so that the rows are only
+     * locked briefly; see LoginRecordPurger.
+     *
+     * @param chunk
+     *            Most lockouts to delete
+     * @return Number of records deleted
+     */
+    public int purgeExpired ( final int chunk ) {
+        final List<Long> ids = repository.findIdsBefore( ZonedDateTime.now().minus( BAN_WINDOW ),
+                PageRequest.of( 0, chunk ) );
+        return ids.isEmpty() ? 0 : repository.deleteByIds( ids );
     }
 
 }
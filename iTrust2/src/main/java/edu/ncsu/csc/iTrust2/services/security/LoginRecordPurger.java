@@ -0,0 +1,79 @@
+package edu.ncsu.csc.iTrust2.services.security;
+
+import java.time.ZonedDateTime;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically deletes the login records that no longer matter: LoginAttempts
+ * older than the failed login window (`itrust2.login.failure-window-minutes`),
+ * and LoginLockouts older than `LoginLockoutService.BAN_WINDOW`. LoginBans do
+ * not expire, so they are kept.
+ *
+ * Records are deleted `itrust2.login.purge-chunk` at a time, each chunk in its
+ * own transaction, so that a large backlog never holds locks on the tables for
+ * long; logins recording lockouts in the meantime only wait for one chunk. The
+ * purge runs every `itrust2.login.purge-ms`.
+ *
+ * @author Kai Presler-Marshall
+ *
+ */
+@Component
+public class LoginRecordPurger {
+
+    /** Logger, to report what was purged */
+    private static final Logger LOG = LoggerFactory.getLogger( LoginRecordPurger.class );
+
+    /** LoginAttempt service */
+    @Autowired
+    private LoginAttemptService loginAttemptService;
+
+    /** LoginLockout service */
+    @Autowired
+    private LoginLockoutService loginLockoutService;
+
+    /** How far back failed logins are counted, in minutes */
+    @Value ( "${itrust2.login.failure-window-minutes:60}" )
+    private int                 windowMinutes;
+
+    /** Most records deleted in one transaction */
+    @Value ( "${itrust2.login.purge-chunk:500}" )
+    private int                 chunk;
+
+    /**
+     * Deletes every expired LoginAttempt and LoginLockout, a chunk at a time
+     */
+    @Scheduled ( fixedDelayString = "${itrust2.login.purge-ms:3600000}" )
+    public void purge () {
+        try {
+            final ZonedDateTime cutoff = ZonedDateTime.now().minusMinutes( windowMinutes );
+            long attempts = 0;
+            int deleted;
+            do {
+                deleted = loginAttemptService.purgeBefore( cutoff, chunk );
+                attempts += deleted;
+            }
+            while ( deleted == chunk );
+
+            long lockouts = 0;
+            do {
+                deleted = loginLockoutService.purgeExpired( chunk );
+                lockouts += deleted;
+            }
+            while ( deleted == chunk );
+
+            if ( attempts > 0 || lockouts > 0 ) {
+                LOG.info( "Purged {} expired login attempts and {} expired lockouts", attempts, lockouts );
+            }
+        }
+        catch ( final RuntimeException e ) {
+            LOG.warn( "Could not purge expired login records", e );
+        }
+    }
+
+}
@@ -0,0 +1,239 @@
+package edu.ncsu.csc.iTrust2.services.security;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import edu.ncsu.csc.iTrust2.models.security.LogEntry;
+import edu.ncsu.csc.iTrust2.repositories.security.LogEntryRepository;
+
+/**
+ * In-memory ring of the most recent LogEntries for each user, so that the
+ * "recent activity" shown on dashboards costs O(N) rather than a read of the
+ * user's whole history.
+ *
+ * A user's ring is loaded from the database the first time it is asked for,
+ * and from then on kept up to date by the LoggerUtil as new entries are
+ * logged. Rings are evicted least-recently-used first; at most
+ * `itrust2.recent-activity.max-entries / itrust2.recent-activity.size` users
+ * are kept, which bounds the number of entries held in memory.
+ *
+ * @author Kai Presler-Marshall
+ *
+ */
+@Component
+public class RecentActivityCache {
+
+    /** Newest first, with ID to break ties between entries logged together */
+    private static final Comparator<LogEntry> NEWEST_FIRST = Comparator
+            .comparing( LogEntry::getTime, Comparator.reverseOrder() )
+            .thenComparing( LogEntry::getId, Comparator.nullsFirst( Comparator.reverseOrder() ) );
+
+    /** LogEntry repository, for loading a user's ring */
+    @Autowired
+    private LogEntryRepository                repository;
+
+    /** Number of entries kept for each user */
+    @Value ( "${itrust2.recent-activity.size:20}" )
+    private int                               ringSize;
+
+    /** Most entries kept across all users */
+    @Value ( "${itrust2.recent-activity.max-entries:100000}" )
+    private int                               maxEntries;
+
+    /** Ring for each user, in least-recently-used order */
+    private Map<String, Ring>                 rings;
+
+    /**
+     * Creates the LRU map, sized from the configured limits
+     */
+    @PostConstruct
+    public void start () {
+        final int maxUsers = Math.max( 1, maxEntries / Math.max( 1, ringSize ) );
+        rings = new LinkedHashMap<String, Ring>( 16, 0.75f, true ) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry ( final Map.Entry<String, Ring> eldest ) {
+                return size() > maxUsers;
+            }
+        };
+    }
+
+    /**
+     * Returns the most recent entries for a user, newest first. Requests for
+     * more entries than are kept per user go to the database.
+     *
+     * @param user
+     *            User to find entries for
+     * @param top
+     *            Number of entries to return
+     * @return Up to `top` entries
+     */
+    public List<LogEntry> getRecent ( final String user, final int top ) {
+        if ( top > ringSize ) {
+            return repository.findRecentForUser( user, PageRequest.of( 0, top ) );
+        }
+        Ring ring;
+        synchronized ( rings ) {
+            ring = rings.get( user );
+            if ( null == ring ) {
+                ring = new Ring( ringSize );
+                rings.put( user, ring );
+            }
+        }
+        return ring.top( user, top );
+    }
+
+    /**
+     * Adds a newly-logged entry to the rings of its primary and secondary
+     * user. Users without a ring are skipped; their ring will pick the entry
+     * up from the database when it is first read.
+     *
+     * @param entry
+     *            Entry that was just logged
+     */
+    public void record ( final LogEntry entry ) {
+        add( entry.getPrimaryUser(), entry );
+        if ( null != entry.getSecondaryUser() && !entry.getSecondaryUser().equals( entry.getPrimaryUser() ) ) {
+            add( entry.getSecondaryUser(), entry );
+        }
+    }
+
+    /**
+     * Drops every ring, so that they are reloaded from the database. Called
+     * when LogEntries are deleted.
+     */
+    public void invalidateAll () {
+        synchronized ( rings ) {
+            rings.clear();
+        }
+    }
+
+    /**
+     * Adds an entry to a single user's ring, if they have one
+     *
+     * @param user
+     *            User the entry is for
+     * @param entry
+     *            The entry
+     */
+    private void add ( final String user, final LogEntry entry ) {
+        if ( null == user ) {
+            return;
+        }
+        final Ring ring;
+        synchronized ( rings ) {
+            ring = rings.get( user );
+        }
+        if ( null != ring ) {
+            ring.add( entry );
+        }
+    }
+
+    /**
+     * Fixed-size ring of the most recent entries for one user. Entries are
+     * stored oldest to newest, overwriting the oldest once full.
+     *
+     * @author Kai Presler-Marshall
+     *
+     */
+    private final class Ring {
+
+        /** The entries */
+        private final LogEntry[] entries;
+
+        /** Index the next entry is written to */
+        private int              next;
+
+        /** Number of entries held */
+        private int              size;
+
+        /** Whether the ring has been loaded from the database */
+        private boolean          loaded;
+
+        /**
+         * Creates an empty, unloaded Ring
+         *
+         * @param capacity
+         *            Number of entries to keep
+         */
+        Ring ( final int capacity ) {
+            entries = new LogEntry[capacity];
+        }
+
+        /**
+         * Returns the newest entries, loading the ring first if needed. An
+         * entry recorded while the ring is loading waits for the load to
+         * finish, so it is not lost, and entries recorded before the load are
+         * kept as the newest.
+         *
+         * @param user
+         *            User the ring is for
+         * @param top
+         *            Number of entries to return
+         * @return Up to `top` entries, newest first
+         */
+        synchronized List<LogEntry> top ( final String user, final int top ) {
+            if ( !loaded ) {
+                /* Anything recorded before this point is newer than what is stored */
+                final List<LogEntry> recorded = snapshot();
+                final List<LogEntry> stored = repository.findRecentForUser( user,
+                        PageRequest.of( 0, entries.length ) );
+                size = 0;
+                next = 0;
+                for ( int i = stored.size() - 1; i >= 0; i-- ) {
+                    add( stored.get( i ) );
+                }
+                recorded.forEach( this::add );
+                loaded = true;
+            }
+            final List<LogEntry> result = snapshot();
+            result.sort( NEWEST_FIRST );
+            return result.size() > top ? result.subList( 0, top ) : result;
+        }
+
+        /**
+         * Copies out the entries held, oldest first
+         *
+         * @return The entries
+         */
+        private List<LogEntry> snapshot () {
+            final List<LogEntry> held = new ArrayList<LogEntry>( size );
+            final int first = size < entries.length ? 0 : next;
+            for ( int i = 0; i < size; i++ ) {
+                held.add( entries[ ( first + i ) % entries.length] );
+            }
+            return held;
+        }
+
+        /**
+         * Adds an entry, unless it is already held (eg, an entry that was
+         * both saved before the ring loaded and recorded after)
+         *
+         * @param entry
+         *            The entry
+         */
+        synchronized void add ( final LogEntry entry ) {
+            for ( int i = 0; i < size; i++ ) {
+                final LogEntry held = entries[i];
+                if ( held == entry || ( null != entry.getId() && entry.getId().equals( held.getId() ) ) ) {
+                    return;
+                }
+            }
+            entries[next] = entry;
+            next = ( next + 1 ) % entries.length;
+            size = Math.min( size + 1, entries.length );
+        }
+    }
+
+}
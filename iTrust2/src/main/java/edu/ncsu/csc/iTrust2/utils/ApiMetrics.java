@@ -0,0 +1,295 @@
+package edu.ncsu.csc.iTrust2.utils;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Latency, error, and in-flight metrics for each API handler (controller
+ * method), broken down by the role of the user making the request. Fed by the
+ * AuditLogInterceptor and published to Micrometer as:
+ *
+ * - `itrust2.api.latency` (timer, tags `handler` and `role`): total time to
+ * handle a request, with 50th/95th/99th percentiles
+ *
+ * - `itrust2.api.db` (timer, tags `handler` and `role`): time spent running
+ * SQL while handling a request
+ *
+ * - `itrust2.api.errors` (counter, tags `handler`, `role` and `status`):
+ * requests that ended with a 4xx or 5xx status
+ *
+ * - `itrust2.api.inflight` (gauge, tag `handler`): requests currently being
+ * handled
+ *
+ * - `itrust2.api.queries` (distribution, tags `handler` and `role`): SQL
+ * statements run per request
+ *
+ * - `itrust2.api.repeated.queries` (counter, tags `handler` and `role`):
+ * requests that ran the same statement suspiciously many times (a likely
+ * N+1)
+ *
+ * Meters are looked up once and then cached against the handler method, so
+ * recording a request does not go through the registry.
+ *
+ * @author Kai Presler-Marshall
+ *
+ */
+@Component
+public class ApiMetrics {
+
+    /** Registry to publish metrics to */
+    @Autowired
+    private MeterRegistry                        registry;
+
+    /** Metrics for each handler method seen so far */
+    private final ConcurrentMap<Method, Handler> handlers = new ConcurrentHashMap<Method, Handler>();
+
+    /**
+     * Returns the metrics for a handler, creating them the first time the
+     * handler is seen
+     *
+     * @param handlerMethod
+     *            Controller method handling the request
+     * @return Metrics for the handler
+     */
+    public Handler forHandler ( final HandlerMethod handlerMethod ) {
+        final Handler handler = handlers.get( handlerMethod.getMethod() );
+        if ( null != handler ) {
+            return handler;
+        }
+        return handlers.computeIfAbsent( handlerMethod.getMethod(),
+                m -> new Handler( handlerMethod.getBeanType().getSimpleName() + "." + m.getName() ) );
+    }
+
+    /**
+     * Returns the metrics for every handler seen so far
+     *
+     * @return Handler metrics
+     */
+    public Collection<Handler> getHandlers () {
+        return Collections.unmodifiableCollection( handlers.values() );
+    }
+
+    /**
+     * Metrics for a single handler method
+     *
+     * @author Kai Presler-Marshall
+     *
+     */
+    public final class Handler {
+
+        /** Name of the handler, as `Controller.method` */
+        private final String                             name;
+
+        /** Requests currently being handled */
+        private final AtomicInteger                      inFlight = new AtomicInteger();
+
+        /** Metrics for each role that has used this handler */
+        private final ConcurrentMap<String, RoleMetrics> roles    = new ConcurrentHashMap<String, RoleMetrics>();
+
+        /**
+         * Creates the metrics for a handler
+         *
+         * @param name
+         *            Name of the handler
+         */
+        Handler ( final String name ) {
+            this.name = name;
+            Gauge.builder( "itrust2.api.inflight", inFlight, AtomicInteger::get )
+                    .description( "API requests currently being handled" ).tag( "handler", name )
+                    .register( registry );
+        }
+
+        /**
+         * Records that a request has started
+         */
+        public void started () {
+            inFlight.incrementAndGet();
+        }
+
+        /**
+         * Records that a request has finished
+         *
+         * @param role
+         *            Role of the user who made the request
+         * @param status
+         *            HTTP status of the response
+         * @param totalNanos
+         *            Total time taken, in nanoseconds
+         * @param dbNanos
+         *            Time spent running SQL, in nanoseconds
+         * @param statements
+         *            Number of SQL statements run
+         * @param repeated
+         *            Whether the request ran the same statement too many times
+         */
+        public void finished ( final String role, final int status, final long totalNanos, final long dbNanos,
+                final int statements, final boolean repeated ) {
+            inFlight.decrementAndGet();
+            RoleMetrics metrics = roles.get( role );
+            if ( null == metrics ) {
+                metrics = roles.computeIfAbsent( role, RoleMetrics::new );
+            }
+            metrics.latency.record( totalNanos, TimeUnit.NANOSECONDS );
+            metrics.db.record( dbNanos, TimeUnit.NANOSECONDS );
+            metrics.queries.record( statements );
+            if ( repeated ) {
+                metrics.repeatedQueries.increment();
+            }
+            if ( status >= 400 ) {
+                metrics.error( status ).increment();
+            }
+        }
+
+        /**
+         * Returns the name of the handler
+         *
+         * @return Name, as `Controller.method`
+         */
+        public String getName () {
+            return name;
+        }
+
+        /**
+         * Returns the number of requests currently being handled
+         *
+         * @return Requests in flight
+         */
+        public int getInFlight () {
+            return inFlight.get();
+        }
+
+        /**
+         * Returns the metrics for each role that has used this handler
+         *
+         * @return Role metrics, by role
+         */
+        public Map<String, RoleMetrics> getRoles () {
+            return Collections.unmodifiableMap( roles );
+        }
+
+        /**
+         * Metrics for requests to a handler made by users with a single role
+         *
+         * @author Kai Presler-Marshall
+         *
+         */
+        public final class RoleMetrics {
+
+            /** Role these metrics are for */
+            private final String                          role;
+
+            /** Total time per request */
+            private final Timer                           latency;
+
+            /** SQL time per request */
+            private final Timer                           db;
+
+            /** SQL statements per request */
+            private final DistributionSummary             queries;
+
+            /** Requests that ran the same statement too many times */
+            private final Counter                         repeatedQueries;
+
+            /** Failed requests, by status */
+            private final ConcurrentMap<Integer, Counter> errors = new ConcurrentHashMap<Integer, Counter>();
+
+            /**
+             * Creates the metrics for a role
+             *
+             * @param role
+             *            The role
+             */
+            RoleMetrics ( final String role ) {
+                this.role = role;
+                latency = Timer.builder( "itrust2.api.latency" ).description( "Time taken to handle API requests" )
+                        .tag( "handler", name ).tag( "role", role ).publishPercentiles( 0.5, 0.95, 0.99 )
+                        .register( registry );
+                db = Timer.builder( "itrust2.api.db" ).description( "Time spent running SQL for API requests" )
+                        .tag( "handler", name ).tag( "role", role ).publishPercentiles( 0.5, 0.95, 0.99 )
+                        .register( registry );
+                queries = DistributionSummary.builder( "itrust2.api.queries" )
+                        .description( "SQL statements run per API request" ).tag( "handler", name )
+                        .tag( "role", role ).register( registry );
+                repeatedQueries = Counter.builder( "itrust2.api.repeated.queries" )
+                        .description( "API requests that ran the same SQL statement many times" )
+                        .tag( "handler", name ).tag( "role", role ).register( registry );
+            }
+
+            /**
+             * Returns the error counter for a status, creating it if needed
+             *
+             * @param status
+             *            HTTP status
+             * @return The counter
+             */
+            private Counter error ( final int status ) {
+                return errors.computeIfAbsent( status,
+                        s -> Counter.builder( "itrust2.api.errors" ).description( "API requests that failed" )
+                                .tag( "handler", name ).tag( "role", role ).tag( "status", String.valueOf( s ) )
+                                .register( registry ) );
+            }
+
+            /**
+             * Returns the total time per request
+             *
+             * @return Latency timer
+             */
+            public Timer getLatency () {
+                return latency;
+            }
+
+            /**
+             * Returns the SQL time per request
+             *
+             * @return DB timer
+             */
+            public Timer getDb () {
+                return db;
+            }
+
+            /**
+             * Returns the SQL statements per request
+             *
+             * @return Query count distribution
+             */
+            public DistributionSummary getQueries () {
+                return queries;
+            }
+
+            /**
+             * Returns the requests that ran the same statement too many times
+             *
+             * @return Repeated query counter
+             */
+            public Counter getRepeatedQueries () {
+                return repeatedQueries;
+            }
+
+            /**
+             * Returns the failed requests, by status
+             *
+             * @return Error counters
+             */
+            public Map<Integer, Counter> getErrors () {
+                return Collections.unmodifiableMap( errors );
+            }
+        }
+    }
+
+}
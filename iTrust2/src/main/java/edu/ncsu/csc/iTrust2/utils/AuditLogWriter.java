@@ -0,0 +1,404 @@
+package edu.ncsu.csc.iTrust2.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import edu.ncsu.csc.iTrust2.models.security.LogEntry;
+import edu.ncsu.csc.iTrust2.services.security.LogEntryService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Background writer for audit LogEntries. Entries handed to `submit()` are
+ * placed on a bounded queue and drained by a small pool of writer threads,
+ * which save them in batches (one transaction and one JDBC batch per drain)
+ * rather than one INSERT and flush per event.
+ *
+ * The writer supports two durability modes, selected with
+ * `itrust2.audit.durability`:
+ *
+ * - `SYNC` (default): the caller blocks until the batch containing its entry
+ * has been committed. Concurrent requests still share batches.
+ *
+ * - `ASYNC`: fire-and-forget; the caller returns as soon as the entry is
+ * queued.
+ *
+ * If the queue is full, callers wait up to `itrust2.audit.offer-timeout-ms`
+ * for room and then write the entry themselves, so that backpressure slows
+ * producers down instead of dropping events. On shutdown the queue is drained
+ * completely before the application context closes.
+ *
+ * @author Kai Presler-Marshall
+ *
+ */
+@Component
+public class AuditLogWriter {
+
+    /**
+     * How long to wait for the caller's entry to be committed before giving up
+     *
+     * @author Kai Presler-Marshall
+     *
+     */
+    public enum Durability {
+        /** Return as soon as the entry is queued */
+        ASYNC,
+        /** Block until the entry has been committed */
+        SYNC
+    }
+
+    /** Logger, to report failed writes */
+    private static final Logger               LOG          = LoggerFactory.getLogger( AuditLogWriter.class );
+
+    /** How long a writer thread waits on an empty queue, in milliseconds */
+    private static final long                 POLL_TIMEOUT = 100;
+
+    /** LogEntry service, for saving batches of entries */
+    @Autowired
+    private LogEntryService                   service;
+
+    /** Registry to publish queue and flush metrics to */
+    @Autowired
+    private MeterRegistry                     registry;
+
+    /** Durability mode for submitted entries */
+    @Value ( "${itrust2.audit.durability:SYNC}" )
+    private Durability                        durability;
+
+    /** Maximum number of submissions waiting to be written */
+    @Value ( "${itrust2.audit.queue-capacity:10000}" )
+    private int                               capacity;
+
+    /**
+     * Maximum number of submissions saved in a single batch; a group from
+     * `submitAll()` counts as one
+     */
+    @Value ( "${itrust2.audit.batch-size:100}" )
+    private int                               batchSize;
+
+    /** Number of background writer threads */
+    @Value ( "${itrust2.audit.writer-threads:2}" )
+    private int                               writerThreads;
+
+    /** How long a caller waits for space in a full queue, in milliseconds */
+    @Value ( "${itrust2.audit.offer-timeout-ms:50}" )
+    private long                              offerTimeout;
+
+    /** Entries waiting to be written */
+    private BlockingQueue<PendingEntry>       queue;
+
+    /** Pool running the writer threads */
+    private ExecutorService                   writers;
+
+    /** Whether new entries are accepted onto the queue */
+    private volatile boolean                  running;
+
+    /** Time taken to save each batch */
+    private Timer                             flushTimer;
+
+    /** Number of entries in each batch */
+    private DistributionSummary               batchSizes;
+
+    /** Entries written on the caller's thread because the queue was full */
+    private Counter                           overflow;
+
+    /** Entries that could not be written at all */
+    private Counter                           failures;
+
+    /**
+     * Creates the queue, registers metrics, and starts the writer threads
+     */
+    @PostConstruct
+    public void start () {
+        queue = new ArrayBlockingQueue<PendingEntry>( capacity );
+
+        Gauge.builder( "itrust2.audit.queue.depth", queue, BlockingQueue::size )
+                .description( "Audit log entries waiting to be written" ).register( registry );
+        flushTimer = Timer.builder( "itrust2.audit.flush" ).description( "Time taken to save a batch of audit entries" )
+                .publishPercentiles( 0.5, 0.95, 0.99 ).register( registry );
+        batchSizes = DistributionSummary.builder( "itrust2.audit.batch.size" )
+                .description( "Number of audit entries saved per batch" ).register( registry );
+        overflow = Counter.builder( "itrust2.audit.overflow" )
+                .description( "Audit entries written on the request thread because the queue was full" )
+                .register( registry );
+        failures = Counter.builder( "itrust2.audit.failures" ).description( "Audit entries that could not be saved" )
+                .register( registry );
+
+        final AtomicInteger threadCount = new AtomicInteger();
+        writers = Executors.newFixedThreadPool( writerThreads, r -> {
+            final Thread t = new Thread( r, "audit-writer-" + threadCount.incrementAndGet() );
+            t.setDaemon( true );
+            return t;
+        } );
+        running = true;
+        for ( int i = 0; i < writerThreads; i++ ) {
+            writers.submit( this::drainLoop );
+        }
+    }
+
+    /**
+     * Stops accepting new entries and writes out everything still queued.
+     * Spring calls this before the LogEntryService (which we depend on) is
+     * destroyed, so nothing is lost on a clean shutdown.
+     */
+    @PreDestroy
+    public void stop () {
+        running = false;
+        writers.shutdown();
+        try {
+            writers.awaitTermination( 30, TimeUnit.SECONDS );
+        }
+        catch ( final InterruptedException e ) {
+            Thread.currentThread().interrupt();
+        }
+        /* Anything submitted while the writers were winding down */
+        final List<PendingEntry> remaining = new ArrayList<PendingEntry>();
+        queue.drainTo( remaining );
+        if ( !remaining.isEmpty() ) {
+            write( remaining );
+        }
+    }
+
+    /**
+     * Hands an entry off to be written. Depending on the durability mode, this
+     * will either return immediately or once the entry has been committed.
+     *
+     * @param entry
+     *            The LogEntry to save
+     */
+    public void submit ( final LogEntry entry ) {
+        enqueue( Collections.singletonList( entry ) );
+    }
+
+    /**
+     * Hands a group of related entries (eg, one per patient shown on a list
+     * page) off to be written together. They take up a single place on the
+     * queue and are saved in the same transaction, so in SYNC mode the caller
+     * waits for one commit however many entries there are.
+     *
+     * @param entries
+     *            The LogEntries to save
+     */
+    public void submitAll ( final List<LogEntry> entries ) {
+        if ( !entries.isEmpty() ) {
+            enqueue( entries );
+        }
+    }
+
+    /**
+     * Places entries on the queue as a single unit, or writes them on the
+     * caller's thread if the queue is full or the writer has been stopped.
+     *
+     * @param entries
+     *            The LogEntries to save
+     */
+    private void enqueue ( final List<LogEntry> entries ) {
+        if ( !running ) {
+            writeDirectly( entries );
+            return;
+        }
+
+        final PendingEntry pending = new PendingEntry( entries, Durability.SYNC == durability );
+        boolean queued;
+        try {
+            queued = queue.offer( pending, offerTimeout, TimeUnit.MILLISECONDS );
+        }
+        catch ( final InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            queued = false;
+        }
+
+        if ( !queued ) {
+            overflow.increment( entries.size() );
+            writeDirectly( entries );
+            return;
+        }
+
+        if ( null != pending.committed ) {
+            try {
+                pending.committed.get();
+            }
+            catch ( final InterruptedException e ) {
+                Thread.currentThread().interrupt();
+            }
+            catch ( final ExecutionException e ) {
+                if ( e.getCause() instanceof RuntimeException ) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new IllegalStateException( "Could not save log entry", e.getCause() );
+            }
+        }
+    }
+
+    /**
+     * Returns the number of entries currently waiting to be written
+     *
+     * @return Queue depth
+     */
+    public int getQueueDepth () {
+        return queue.size();
+    }
+
+    /**
+     * Body of each writer thread: waits for entries, then takes as many as fit
+     * in a batch and saves them together.
+     */
+    private void drainLoop () {
+        final List<PendingEntry> batch = new ArrayList<PendingEntry>( batchSize );
+        while ( running || !queue.isEmpty() ) {
+            try {
+                final PendingEntry first = queue.poll( POLL_TIMEOUT, TimeUnit.MILLISECONDS );
+                if ( null == first ) {
+                    continue;
+                }
+                batch.add( first );
+                queue.drainTo( batch, batchSize - 1 );
+                write( batch );
+            }
+            catch ( final InterruptedException e ) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            catch ( final RuntimeException e ) {
+                /* Never let a bad batch kill the writer */
+                LOG.error( "Unexpected error in audit writer", e );
+            }
+            finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Saves a batch of entries in one transaction. If that fails, falls back
+     * to saving each submission on its own so a single bad entry does not lose
+     * the rest of the batch.
+     *
+     * @param batch
+     *            Entries to save
+     */
+    private void write ( final List<PendingEntry> batch ) {
+        final long start = System.nanoTime();
+        final List<LogEntry> entries = batch.stream().flatMap( p -> p.entries.stream() )
+                .collect( Collectors.toList() );
+        try {
+            service.saveAll( entries );
+            batch.forEach( PendingEntry::complete );
+        }
+        catch ( final RuntimeException e ) {
+            LOG.warn( "Batch of {} audit entries failed, retrying individually", entries.size(), e );
+            for ( final PendingEntry pending : batch ) {
+                try {
+                    service.saveAll( pending.entries );
+                    pending.complete();
+                }
+                catch ( final RuntimeException inner ) {
+                    failures.increment( pending.entries.size() );
+                    LOG.error( "Could not save audit entry {}", pending.entries.get( 0 ).getLogCode(), inner );
+                    pending.fail( inner );
+                }
+            }
+        }
+        finally {
+            flushTimer.record( System.nanoTime() - start, TimeUnit.NANOSECONDS );
+            batchSizes.record( entries.size() );
+        }
+    }
+
+    /**
+     * Writes entries on the calling thread. Used when the queue is full or the
+     * writer has been stopped. A failure is counted like one from a batch,
+     * and then passed on to the caller.
+     *
+     * @param entries
+     *            Entries to save
+     */
+    private void writeDirectly ( final List<LogEntry> entries ) {
+        final long start = System.nanoTime();
+        try {
+            service.saveAll( entries );
+        }
+        catch ( final RuntimeException e ) {
+            failures.increment( entries.size() );
+            LOG.error( "Could not save audit entry {}", entries.get( 0 ).getLogCode(), e );
+            throw e;
+        }
+        finally {
+            flushTimer.record( System.nanoTime() - start, TimeUnit.NANOSECONDS );
+        }
+    }
+
+    /**
+     * One submission waiting on the queue (a single entry, or a group from
+     * `submitAll()`), along with the future to complete once it has been
+     * committed (SYNC mode only).
+     *
+     * @author Kai Presler-Marshall
+     *
+     */
+    private static class PendingEntry {
+
+        /** The entries to save */
+        private final List<LogEntry>          entries;
+
+        /** Completed once the entries are committed; null in ASYNC mode */
+        private final CompletableFuture<Void> committed;
+
+        /**
+         * Creates a PendingEntry
+         *
+         * @param entries
+         *            The entries to save
+         * @param waitForCommit
+         *            Whether the submitter will wait on the commit
+         */
+        PendingEntry ( final List<LogEntry> entries, final boolean waitForCommit ) {
+            this.entries = entries;
+            this.committed = waitForCommit ? new CompletableFuture<Void>() : null;
+        }
+
+        /**
+         * Marks the entries as committed
+         */
+        void complete () {
+            if ( null != committed ) {
+                committed.complete( null );
+            }
+        }
+
+        /**
+         * Marks the entries as failed
+         *
+         * @param cause
+         *            Why the entries could not be saved
+         */
+        void fail ( final Throwable cause ) {
+            if ( null != committed ) {
+                committed.completeExceptionally( cause );
+            }
+        }
+    }
+
+}
@@ -1,8 +1,12 @@
 package edu.ncsu.csc.iTrust2.utils;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
@@ -10,6 +14,7 @@ import edu.ncsu.csc.iTrust2.models.User;
 import edu.ncsu.csc.iTrust2.models.enums.TransactionType;
 import edu.ncsu.csc.iTrust2.models.security.LogEntry;
 import edu.ncsu.csc.iTrust2.services.security.LogEntryService;
+import edu.ncsu.csc.iTrust2.services.security.RecentActivityCache;
 
 /**
  * Logging class to handle saving log-worthy events and for retrieving those
@@ -27,12 +32,26 @@ public class LoggerUtil {
      * events
      */
     @Autowired
-    private LogEntryService service;
+    private LogEntryService     service;
+
+    /**
+     * Background writer that batches new LogEntries into the database
+     */
+    @Autowired
+    private AuditLogWriter      writer;
+
+    /**
+     * Most recent entries for each user, for `getTopForUser`
+     */
+    @Autowired
+    private RecentActivityCache recentActivity;
 
     /**
      * Most complete logger utility. Usually won't need all of this information,
      * but if you do, it has it all. The time of the event is added
-     * automatically and is assumed to be the current time.
+     * automatically and is assumed to be the current time. The entry is
+     * handed off to the AuditLogWriter, which saves it in a batch with other
+     * recent events, and added to the users' recent activity.
      *
      * @param code
      *            The TransactionType of the event that occurred
@@ -46,7 +65,32 @@ public class LoggerUtil {
     public void log ( final TransactionType code, final String primaryUser, final String secondaryUser,
             final String message ) {
         final LogEntry le = new LogEntry( code, primaryUser, secondaryUser, message );
-        service.save( le );
+        writer.submit( le );
+        recentActivity.record( le );
+    }
+
+    /**
+     * Logs the same event once for each of several secondary users, eg when an
+     * HCP views a list showing many patients. Every secondary user gets their
+     * own LogEntry (so the event still shows up in each patient's log), but
+     * the entries are handed to the AuditLogWriter together and saved in a
+     * single batch, rather than waiting for one INSERT per patient.
+     *
+     * @param code
+     *            The TransactionType of the event that occurred
+     * @param primaryUser
+     *            The primary user involved in the event that was logged.
+     * @param secondaryUsers
+     *            The secondary users involved in the event; duplicates are
+     *            logged only once
+     */
+    public void logAll ( final TransactionType code, final String primaryUser,
+            final Collection<String> secondaryUsers ) {
+        final List<LogEntry> entries = secondaryUsers.stream().distinct()
+                .map( secondaryUser -> new LogEntry( code, primaryUser, secondaryUser, null ) )
+                .collect( Collectors.toList() );
+        writer.submitAll( entries );
+        entries.forEach( recentActivity::record );
     }
 
     /**
@@ -110,28 +154,19 @@ public class LoggerUtil {
     }
 
     /**
-     * Get the top logged events for a single user specified by name.
+     * Get the most recent logged events for a single user specified by name.
+     * These are served from memory, so this does not read the user's whole
+     * history.
      *
      * @param user
      *            User to find LogEntries for
      * @param top
      *            Number of events to find
-     * @return A List of the LogEntry Entries for the user. If the number of
-     *         Entries is less than `top`, returns all
+     * @return A List of the LogEntry Entries for the user, newest first. If
+     *         the number of Entries is less than `top`, returns all
      */
-    public Object getTopForUser ( final String user, final Integer top ) {
-        final List<LogEntry> all = getAllForUser( user );
-        all.sort( ( x1, x2 ) -> x1.getTime().compareTo( x2.getTime() ) );
-        try {
-            return all.subList( 0, top );
-        }
-        /*
-         * If num < top (ie, fewer records exist than were requested) return all
-         */
-        catch ( final IndexOutOfBoundsException e ) {
-            return all;
-        }
-
+    public List<LogEntry> getTopForUser ( final String user, final Integer top ) {
+        return recentActivity.getRecent( user, top );
     }
 
     /**
@@ -162,4 +197,24 @@ public class LoggerUtil {
             return "SPRING_API_TEST_USER"; // API tests have no explicit user
         }
     }
+
+    /**
+     * Gets the role(s) of the currently authenticated user, for tagging
+     * metrics. Users with several roles get them sorted and joined with
+     * commas.
+     *
+     * @return the role of the current user, or `anonymous` if there is none
+     */
+    public static String currentRole () {
+        final Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if ( null == auth || auth.getAuthorities().isEmpty() ) {
+            return "anonymous";
+        }
+        final Collection< ? extends GrantedAuthority> authorities = auth.getAuthorities();
+        if ( authorities.size() == 1 ) {
+            return authorities.iterator().next().getAuthority();
+        }
+        return authorities.stream().map( GrantedAuthority::getAuthority ).sorted()
+                .collect( Collectors.joining( "," ) );
+    }
 }
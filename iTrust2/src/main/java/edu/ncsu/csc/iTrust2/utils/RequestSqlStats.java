@@ -0,0 +1,164 @@
+package edu.ncsu.csc.iTrust2.utils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-thread tally of the SQL run on behalf of the current HTTP request. The
+ * AuditLogInterceptor starts the tally when a request reaches a controller and
+ * reads it once the request completes; SqlTimingListener adds the time taken
+ * by each statement and SqlStatementInspector counts each statement as
+ * Hibernate prepares it.
+ *
+ * Statements are also counted by their SQL text. Hibernate always binds values
+ * as parameters, so the same query run once per row of a result (an "N+1")
+ * shows up as the same statement repeated.
+ *
+ * Each thread reuses a single instance, so tallying allocates nothing per
+ * request or per statement beyond the first time a statement is seen.
+ * Statements run outside of a request (eg, by the background audit writer) are
+ * not counted.
+ *
+ * @author Kai Presler-Marshall
+ *
+ */
+public final class RequestSqlStats {
+
+    /** Tally for each thread */
+    private static final ThreadLocal<RequestSqlStats> CURRENT = ThreadLocal.withInitial( RequestSqlStats::new );
+
+    /** Whether a request is being tallied on this thread */
+    private boolean                                   active;
+
+    /** Time spent running statements, in nanoseconds */
+    private long                                      dbNanos;
+
+    /** Number of statements run */
+    private int                                       statements;
+
+    /** Number of times each distinct statement was run */
+    private final Map<String, int[]>                  shapes  = new HashMap<String, int[]>();
+
+    /** Most times any single statement was run */
+    private int                                       maxRepeats;
+
+    /** The statement that was run `maxRepeats` times */
+    private String                                    mostRepeated;
+
+    /**
+     * Use `begin()` or `current()` instead
+     */
+    private RequestSqlStats () {
+    }
+
+    /**
+     * Starts a fresh tally for the current thread
+     *
+     * @return The tally
+     */
+    public static RequestSqlStats begin () {
+        final RequestSqlStats stats = CURRENT.get();
+        stats.active = true;
+        stats.dbNanos = 0;
+        stats.statements = 0;
+        stats.shapes.clear();
+        stats.maxRepeats = 0;
+        stats.mostRepeated = null;
+        return stats;
+    }
+
+    /**
+     * Stops tallying on the current thread. The totals can still be read until
+     * the next `begin()`.
+     */
+    public static void end () {
+        final RequestSqlStats stats = CURRENT.get();
+        stats.active = false;
+        stats.shapes.clear();
+    }
+
+    /**
+     * Returns the tally for the current thread
+     *
+     * @return The tally
+     */
+    public static RequestSqlStats current () {
+        return CURRENT.get();
+    }
+
+    /**
+     * Adds time spent running a statement to the current thread's tally, if
+     * one has been started
+     *
+     * @param nanos
+     *            Time spent, in nanoseconds
+     */
+    public static void addDbTime ( final long nanos ) {
+        final RequestSqlStats stats = CURRENT.get();
+        if ( stats.active ) {
+            stats.dbNanos += nanos;
+        }
+    }
+
+    /**
+     * Counts a statement against the current thread's tally, if one has been
+     * started
+     *
+     * @param sql
+     *            The statement's SQL
+     */
+    public static void addStatement ( final String sql ) {
+        final RequestSqlStats stats = CURRENT.get();
+        if ( !stats.active ) {
+            return;
+        }
+        stats.statements++;
+        int[] count = stats.shapes.get( sql );
+        if ( null == count ) {
+            count = new int[1];
+            stats.shapes.put( sql, count );
+        }
+        if ( ++count[0] > stats.maxRepeats ) {
+            stats.maxRepeats = count[0];
+            stats.mostRepeated = sql;
+        }
+    }
+
+    /**
+     * Returns the number of statements run since `begin()`
+     *
+     * @return Number of statements
+     */
+    public int getStatements () {
+        return statements;
+    }
+
+    /**
+     * Returns the most times any single statement has been run since
+     * `begin()`
+     *
+     * @return Number of runs
+     */
+    public int getMaxRepeats () {
+        return maxRepeats;
+    }
+
+    /**
+     * Returns the statement that has been run the most times since `begin()`
+     *
+     * @return SQL of the statement, or null if none have run
+     */
+    public String getMostRepeated () {
+        return mostRepeated;
+    }
+
+    /**
+     * Returns the time spent running statements since `begin()`
+     *
+     * @return Time, in nanoseconds
+     */
+    public long getDbNanos () {
+        return dbNanos;
+    }
+
+}
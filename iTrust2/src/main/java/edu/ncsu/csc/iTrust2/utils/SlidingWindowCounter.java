@@ -0,0 +1,293 @@
+package edu.ncsu.csc.iTrust2.utils;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free, per-key event counter over a sliding time window. The window is
+ * split into a fixed number of buckets; each bucket is a single `long` holding
+ * both the bucket's epoch (which slice of time it counts) and the number of
+ * events in it, so that recording an event is a single compare-and-set and a
+ * bucket that has aged out is recycled in the same operation.
+ *
+ * Keys are spread over a ConcurrentHashMap, so unrelated keys never contend
+ * with each other. Used to count failed logins per IP address and per user
+ * without writing anything to the database.
+ *
+ * @author Kai Presler-Marshall
+ *
+ */
+public class SlidingWindowCounter {
+
+    /** Number of low bits of a bucket used to hold its count */
+    private static final int                    COUNT_BITS = 20;
+
+    /** Mask for the count in a bucket; also the largest count a bucket holds */
+    private static final long                   COUNT_MASK = ( 1L << COUNT_BITS ) - 1;
+
+    /** Number of buckets the window is split into */
+    private final int                           buckets;
+
+    /** Width of each bucket, in milliseconds */
+    private final long                          bucketMillis;
+
+    /** Window for every key with events in it */
+    private final ConcurrentMap<String, Window> windows = new ConcurrentHashMap<String, Window>();
+
+    /**
+     * Callback used to read out the non-empty buckets of every key
+     *
+     * @author Kai Presler-Marshall
+     *
+     */
+    @FunctionalInterface
+    public interface BucketVisitor {
+        /**
+         * Called once for each non-empty bucket
+         *
+         * @param key
+         *            Key the bucket belongs to
+         * @param epoch
+         *            Which slice of time the bucket counts (time in millis
+         *            divided by the bucket width)
+         * @param count
+         *            Number of events in the bucket
+         */
+        void visit ( String key, long epoch, long count );
+    }
+
+    /**
+     * Creates a counter whose window is `buckets * bucketMillis` long
+     *
+     * @param buckets
+     *            Number of buckets in the window
+     * @param bucketMillis
+     *            Width of each bucket, in milliseconds
+     */
+    public SlidingWindowCounter ( final int buckets, final long bucketMillis ) {
+        if ( buckets < 1 || bucketMillis < 1 ) {
+            throw new IllegalArgumentException( "Window must have at least one bucket of at least one millisecond" );
+        }
+        this.buckets = buckets;
+        this.bucketMillis = bucketMillis;
+    }
+
+    /**
+     * Records one event for a key
+     *
+     * @param key
+     *            Key the event is for
+     * @param now
+     *            Current time, in epoch millis
+     * @return Number of events for the key within the window, including this
+     *         one
+     */
+    public long increment ( final String key, final long now ) {
+        final long epoch = epoch( now );
+        return windows.computeIfAbsent( key, k -> new Window( buckets ) ).add( epoch, 1 );
+    }
+
+    /**
+     * Records one event for a key, and if that takes the key over `threshold`
+     * events within the window, clears the key. When several threads push a
+     * key over the threshold at once, exactly one of them is told so.
+     *
+     * @param key
+     *            Key the event is for
+     * @param threshold
+     *            Most events allowed within the window
+     * @param now
+     *            Current time, in epoch millis
+     * @return True iff this call took the key over the threshold
+     */
+    public boolean incrementAndTrip ( final String key, final long threshold, final long now ) {
+        final long epoch = epoch( now );
+        final Window window = windows.computeIfAbsent( key, k -> new Window( buckets ) );
+        return window.add( epoch, 1 ) > threshold && windows.remove( key, window );
+    }
+
+    /**
+     * Returns the number of events for a key within the window
+     *
+     * @param key
+     *            Key to count
+     * @param now
+     *            Current time, in epoch millis
+     * @return Number of events
+     */
+    public long count ( final String key, final long now ) {
+        final Window window = windows.get( key );
+        return null == window ? 0 : window.sum( epoch( now ) );
+    }
+
+    /**
+     * Forgets all events for a key
+     *
+     * @param key
+     *            Key to clear
+     */
+    public void reset ( final String key ) {
+        windows.remove( key );
+    }
+
+    /**
+     * Restores a bucket, eg from a snapshot taken before a restart. Buckets
+     * that have already left the window are ignored.
+     *
+     * @param key
+     *            Key the bucket belongs to
+     * @param epoch
+     *            Which slice of time the bucket counts
+     * @param count
+     *            Number of events in the bucket
+     * @param now
+     *            Current time, in epoch millis
+     */
+    public void restore ( final String key, final long epoch, final long count, final long now ) {
+        if ( count <= 0 || !inWindow( epoch, epoch( now ) ) ) {
+            return;
+        }
+        windows.computeIfAbsent( key, k -> new Window( buckets ) ).add( epoch, count );
+    }
+
+    /**
+     * Visits every non-empty bucket that is still within the window
+     *
+     * @param now
+     *            Current time, in epoch millis
+     * @param visitor
+     *            Callback for each bucket
+     */
+    public void forEachBucket ( final long now, final BucketVisitor visitor ) {
+        final long current = epoch( now );
+        windows.forEach( ( key, window ) -> {
+            for ( int i = 0; i < buckets; i++ ) {
+                final long slot = window.slots.get( i );
+                final long count = slot & COUNT_MASK;
+                if ( count > 0 && inWindow( slot >>> COUNT_BITS, current ) ) {
+                    visitor.visit( key, slot >>> COUNT_BITS, count );
+                }
+            }
+        } );
+    }
+
+    /**
+     * Drops every key with no events left in the window, so memory use follows
+     * the number of recently active keys rather than every key ever seen
+     *
+     * @param now
+     *            Current time, in epoch millis
+     */
+    public void evictExpired ( final long now ) {
+        final long current = epoch( now );
+        windows.entrySet().removeIf( e -> e.getValue().sum( current ) == 0 );
+    }
+
+    /**
+     * Returns the number of keys currently tracked
+     *
+     * @return Number of keys
+     */
+    public int size () {
+        return windows.size();
+    }
+
+    /**
+     * Converts a time to the epoch of the bucket it falls in
+     *
+     * @param now
+     *            Time, in epoch millis
+     * @return Bucket epoch
+     */
+    private long epoch ( final long now ) {
+        return now / bucketMillis;
+    }
+
+    /**
+     * Checks if a bucket epoch is within the window ending at `current`
+     *
+     * @param epoch
+     *            Bucket epoch to check
+     * @param current
+     *            Epoch of the current bucket
+     * @return Whether the bucket still counts
+     */
+    private boolean inWindow ( final long epoch, final long current ) {
+        return epoch <= current && epoch > current - buckets;
+    }
+
+    /**
+     * The buckets for a single key
+     *
+     * @author Kai Presler-Marshall
+     *
+     */
+    private final class Window {
+
+        /** Packed (epoch, count) for each bucket */
+        private final AtomicLongArray slots;
+
+        /**
+         * Creates an empty Window
+         *
+         * @param size
+         *            Number of buckets
+         */
+        Window ( final int size ) {
+            slots = new AtomicLongArray( size );
+        }
+
+        /**
+         * Adds events to the bucket for `epoch`, recycling the bucket if it
+         * still holds an older epoch
+         *
+         * @param epoch
+         *            Epoch to add to
+         * @param delta
+         *            Number of events to add
+         * @return Number of events in the window after adding
+         */
+        long add ( final long epoch, final long delta ) {
+            final int idx = (int) ( epoch % buckets );
+            while ( true ) {
+                final long slot = slots.get( idx );
+                final long slotEpoch = slot >>> COUNT_BITS;
+                final long next;
+                if ( slotEpoch == epoch ) {
+                    next = ( epoch << COUNT_BITS ) | Math.min( COUNT_MASK, ( slot & COUNT_MASK ) + delta );
+                }
+                else if ( slotEpoch < epoch ) {
+                    next = ( epoch << COUNT_BITS ) | Math.min( COUNT_MASK, delta );
+                }
+                else {
+                    /* Bucket already belongs to a newer epoch; nothing to do */
+                    break;
+                }
+                if ( slots.compareAndSet( idx, slot, next ) ) {
+                    break;
+                }
+            }
+            return sum( epoch );
+        }
+
+        /**
+         * Sums the buckets that are still within the window
+         *
+         * @param current
+         *            Epoch of the current bucket
+         * @return Number of events in the window
+         */
+        long sum ( final long current ) {
+            long total = 0;
+            for ( int i = 0; i < buckets; i++ ) {
+                final long slot = slots.get( i );
+                if ( inWindow( slot >>> COUNT_BITS, current ) ) {
+                    total += slot & COUNT_MASK;
+                }
+            }
+            return total;
+        }
+    }
+
+}
@@ -0,0 +1,189 @@
+package edu.ncsu.csc.iTrust2.utils.datagen;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+/**
+ * Writes rows to several tables over a single connection using JDBC batches.
+ * Rows are queued per table and, once `batchSize` rows are queued in total,
+ * every table's batch is sent in the order the tables were added. Adding
+ * parent tables before the tables that refer to them therefore keeps foreign
+ * keys satisfied without having to send each table on its own schedule.
+ *
+ * Nothing is visible to other connections until `commit()`.
+ *
+ * @author Kai Presler-Marshall
+ *
+ */
+public class BatchWriter implements AutoCloseable {
+
+    /** Connection rows are written over */
+    private final Connection  connection;
+
+    /** Rows queued across all tables before they are sent */
+    private final int         batchSize;
+
+    /** Tables, in the order their batches are sent */
+    private final List<Table> tables = new ArrayList<Table>();
+
+    /** Rows queued and not yet sent */
+    private int               pending;
+
+    /** Rows written since this writer was created */
+    private long              written;
+
+    /**
+     * Opens a writer on a new connection
+     *
+     * @param dataSource
+     *            Database to write to
+     * @param batchSize
+     *            Rows queued across all tables before they are sent
+     * @throws SQLException
+     *             If a connection cannot be opened
+     */
+    public BatchWriter ( final DataSource dataSource, final int batchSize ) throws SQLException {
+        this.connection = dataSource.getConnection();
+        this.connection.setAutoCommit( false );
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Adds a table to write to. Tables must be added parents first.
+     *
+     * @param statement
+     *            INSERT for the table
+     * @return The table
+     * @throws SQLException
+     *             If the statement cannot be prepared
+     */
+    public Table add ( final InsertStatement statement ) throws SQLException {
+        final Table table = new Table( statement, connection.prepareStatement( statement.getSql() ) );
+        tables.add( table );
+        return table;
+    }
+
+    /**
+     * Sends every queued row
+     *
+     * @throws SQLException
+     *             If a row cannot be inserted
+     */
+    public void flush () throws SQLException {
+        for ( final Table table : tables ) {
+            table.flush();
+        }
+        written += pending;
+        pending = 0;
+    }
+
+    /**
+     * Sends every queued row and commits
+     *
+     * @throws SQLException
+     *             If a row cannot be inserted
+     */
+    public void commit () throws SQLException {
+        flush();
+        connection.commit();
+    }
+
+    /**
+     * Returns the number of rows sent since this writer was created
+     *
+     * @return Number of rows
+     */
+    public long getWritten () {
+        return written;
+    }
+
+    /**
+     * Closes the connection, rolling back anything not yet committed
+     *
+     * @throws SQLException
+     *             If the connection cannot be closed
+     */
+    @Override
+    public void close () throws SQLException {
+        try {
+            connection.rollback();
+        }
+        finally {
+            connection.close();
+        }
+    }
+
+    /**
+     * A single table being written to
+     *
+     * @author Kai Presler-Marshall
+     *
+     */
+    public class Table {
+
+        /** INSERT for the table */
+        private final InsertStatement   statement;
+
+        /** Prepared form of the INSERT */
+        private final PreparedStatement prepared;
+
+        /** Whether any rows are queued for this table */
+        private boolean                 queued;
+
+        /**
+         * Creates a table
+         *
+         * @param statement
+         *            INSERT for the table
+         * @param prepared
+         *            Prepared form of the INSERT
+         */
+        private Table ( final InsertStatement statement, final PreparedStatement prepared ) {
+            this.statement = statement;
+            this.prepared = prepared;
+        }
+
+        /**
+         * Queues a row, sending every table's rows if the batch is full
+         *
+         * @param values
+         *            One value for each parameter of the INSERT
+         * @throws SQLException
+         *             If rows cannot be inserted
+         */
+        public void insert ( final Object... values ) throws SQLException {
+            if ( values.length != statement.getParameterCount() ) {
+                throw new IllegalArgumentException( "Expected " + statement.getParameterCount() + " values for `"
+                        + statement.getSql() + "` but got " + values.length );
+            }
+            for ( int i = 0; i < values.length; i++ ) {
+                prepared.setObject( i + 1, statement.convert( i, values[i] ) );
+            }
+            prepared.addBatch();
+            queued = true;
+            if ( ++pending >= batchSize ) {
+                BatchWriter.this.flush();
+            }
+        }
+
+        /**
+         * Sends this table's queued rows
+         *
+         * @throws SQLException
+         *             If a row cannot be inserted
+         */
+        private void flush () throws SQLException {
+            if ( queued ) {
+                prepared.executeBatch();
+                queued = false;
+            }
+        }
+
+    }
+
+}
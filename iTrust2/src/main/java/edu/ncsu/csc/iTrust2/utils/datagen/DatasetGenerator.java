@@ -0,0 +1,927 @@
+package edu.ncsu.csc.iTrust2.utils.datagen;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.enhanced.DatabaseStructure;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import edu.ncsu.csc.iTrust2.ITrust2Application;
+import edu.ncsu.csc.iTrust2.models.BasicHealthMetrics;
+import edu.ncsu.csc.iTrust2.models.Bill;
+import edu.ncsu.csc.iTrust2.models.CPTCode;
+import edu.ncsu.csc.iTrust2.models.Hospital;
+import edu.ncsu.csc.iTrust2.models.OfficeVisit;
+import edu.ncsu.csc.iTrust2.models.Patient;
+import edu.ncsu.csc.iTrust2.models.Personnel;
+import edu.ncsu.csc.iTrust2.models.User;
+import edu.ncsu.csc.iTrust2.models.VaccineType;
+import edu.ncsu.csc.iTrust2.models.VaccineVisit;
+import edu.ncsu.csc.iTrust2.models.enums.AppointmentType;
+import edu.ncsu.csc.iTrust2.models.enums.BillStatus;
+import edu.ncsu.csc.iTrust2.models.enums.BloodType;
+import edu.ncsu.csc.iTrust2.models.enums.Ethnicity;
+import edu.ncsu.csc.iTrust2.models.enums.Gender;
+import edu.ncsu.csc.iTrust2.models.enums.HouseholdSmokingStatus;
+import edu.ncsu.csc.iTrust2.models.enums.PatientSmokingStatus;
+import edu.ncsu.csc.iTrust2.models.enums.Role;
+import edu.ncsu.csc.iTrust2.models.enums.State;
+import edu.ncsu.csc.iTrust2.models.enums.TransactionType;
+import edu.ncsu.csc.iTrust2.models.security.LogEntry;
+import edu.ncsu.csc.iTrust2.services.CPTCodeService;
+import edu.ncsu.csc.iTrust2.services.HospitalService;
+import edu.ncsu.csc.iTrust2.services.UserService;
+import edu.ncsu.csc.iTrust2.services.VaccineTypeService;
+
+/**
+ * Generates a large, realistic data set for load testing and benchmarking:
+ * personnel, patients, and for each patient a history of office visits (with
+ * basic health metrics that match the patient's age at the time), vaccine
+ * visits, the bills for both, and log entries. See DatasetSpec for what can be
+ * configured.
+ *
+ * The handful of hospitals, CPT codes and vaccines are saved through the usual
+ * services. Everything else is written with JDBC batches, with patients split
+ * into partitions that are written in parallel; table and column names come
+ * from the Hibernate mapping, and IDs are reserved from Hibernate's ID table
+ * in one block so the application can keep creating records afterwards.
+ *
+ * Every random choice about a patient is drawn from a generator seeded by the
+ * seed and the patient's number, and IDs are handed out in patient order, so
+ * the same settings always produce the same data however many partitions are
+ * used.
+ *
+ * Run it against a local database (whose URL should include
+ * `rewriteBatchedStatements=true`, so that MySQL really does insert each batch
+ * in one statement) with:
+ *
+ * `mvn spring-boot:run -Dspring-boot.run.main-class=edu.ncsu.csc.iTrust2.utils.datagen.DatasetGenerator
+ * -Dspring-boot.run.arguments="--itrust2.datagen.patients=1000000 --itrust2.datagen.personnel=10000"`
+ *
+ * @author Kai Presler-Marshall
+ *
+ */
+@Component
+public class DatasetGenerator {
+
+    /** Logger */
+    private static final Logger            LOG               = LoggerFactory.getLogger( DatasetGenerator.class );
+
+    /** Password of every generated user */
+    public static final String             PASSWORD          = "123456";
+
+    /** Prefix of generated patients' usernames */
+    public static final String             PATIENT_PREFIX    = "patient";
+
+    /** Prefix of generated HCPs' usernames */
+    public static final String             HCP_PREFIX        = "hcp";
+
+    /** Prefix of generated vaccinators' usernames */
+    public static final String             VACCINATOR_PREFIX = "vaccinator";
+
+    /** Patients written between commits */
+    private static final int               COMMIT_EVERY      = 1000;
+
+    /** Oldest a generated patient can be, in years */
+    private static final int               MAX_AGE           = 90;
+
+    /** Log entry types that are about a patient */
+    private static final TransactionType[] PATIENT_EVENTS    = { TransactionType.VIEW_DEMOGRAPHICS,
+            TransactionType.EDIT_DEMOGRAPHICS, TransactionType.OFFICE_VISIT_VIEWED,
+            TransactionType.GENERAL_CHECKUP_HCP_VIEW, TransactionType.GENERAL_CHECKUP_PATIENT_VIEW,
+            TransactionType.APPOINTMENT_REQUEST_SUBMITTED, TransactionType.APPOINTMENT_REQUEST_VIEWED,
+            TransactionType.DIAGNOSIS_PATIENT_VIEW_ALL, TransactionType.LOGIN_SUCCESS, TransactionType.LOGOUT };
+
+    /** First names to choose from */
+    private static final String[]          FIRST_NAMES       = { "Alice", "Bob", "Carmen", "Deepak", "Elena",
+            "Farid", "Grace", "Hiro", "Imani", "Jorge", "Kai", "Lena", "Mateo", "Nia", "Omar", "Priya", "Quinn",
+            "Rosa", "Sam", "Tariq", "Uma", "Victor", "Wei", "Yara", "Zoe" };
+
+    /** Last names to choose from */
+    private static final String[]          LAST_NAMES        = { "Smith", "Johnson", "Nguyen", "Garcia", "Patel",
+            "Kim", "Brown", "Okafor", "Martinez", "Chen", "Davis", "Lopez", "Wilson", "Singh", "Anderson", "Haddad",
+            "Thomas", "Moore", "Jackson", "Ivanova" };
+
+    /** Cities to choose from; no more than 15 characters each */
+    private static final String[]          CITIES            = { "Raleigh", "Durham", "Cary", "Chapel Hill",
+            "Greensboro", "Charlotte", "Wilmington", "Asheville", "Boone", "Apex" };
+
+    /** Hibernate mapping, for building INSERTs */
+    @Autowired
+    private EntityManagerFactory           entityManagerFactory;
+
+    /** Database to write to */
+    @Autowired
+    private DataSource                     dataSource;
+
+    /** Hospitals */
+    @Autowired
+    private HospitalService                hospitalService;
+
+    /** CPT codes */
+    @Autowired
+    private CPTCodeService                 cptCodeService;
+
+    /** Vaccines */
+    @Autowired
+    private VaccineTypeService             vaccineTypeService;
+
+    /** Users */
+    @Autowired
+    private UserService<User>              userService;
+
+    /**
+     * Generates a data set from the command line. Takes the usual Spring
+     * arguments (eg, `--spring.datasource.url=...`) plus the
+     * `itrust2.datagen.*` settings described by DatasetSpec.
+     *
+     * @param args
+     *            Command-line arguments
+     */
+    public static void main ( final String[] args ) {
+        try ( ConfigurableApplicationContext context = new SpringApplicationBuilder( ITrust2Application.class )
+                .web( WebApplicationType.NONE ).run( args ) ) {
+            final DatasetSpec spec = Binder.get( context.getEnvironment() )
+                    .bind( "itrust2.datagen", DatasetSpec.class ).orElseGet( DatasetSpec::new );
+            context.getBean( DatasetGenerator.class ).generate( spec );
+        }
+    }
+
+    /**
+     * Generates a data set. The database must not already hold a generated
+     * data set.
+     *
+     * @param spec
+     *            What to generate
+     * @return Number of rows written
+     */
+    public long generate ( final DatasetSpec spec ) {
+        final long started = System.currentTimeMillis();
+        final Plan plan = new Plan( spec );
+        if ( userService.existsByName( PATIENT_PREFIX + 0 ) || userService.existsByName( HCP_PREFIX + 0 ) ) {
+            throw new IllegalStateException( "This database already holds a generated data set" );
+        }
+
+        final SplittableRandom random = new SplittableRandom( spec.getSeed() );
+        plan.hospitals = createHospitals( spec, random );
+        plan.cptCodes = createCptCodes( spec, random );
+        plan.vaccines = createVaccines();
+
+        final SessionFactoryImplementor factory = entityManagerFactory.unwrap( SessionFactoryImplementor.class );
+        final Statements statements = new Statements( factory );
+        try {
+            long written = createPersonnel( plan, statements );
+            LOG.info( "Wrote {} personnel; planning {} patients", spec.getPersonnel(), spec.getPatients() );
+
+            plan.count();
+            plan.firstId = reserveIds( factory, plan.ids() );
+            LOG.info( "Planned {} office visits, {} vaccine visits and {} log entries", plan.visits, plan.vaccineVisits,
+                    plan.logEntries );
+
+            final int threads = Math.max( 1, Math.min( spec.getPartitions(), maxConnections() ) );
+            final ExecutorService executor = Executors.newFixedThreadPool( threads );
+            try {
+                final List<Future<Long>> partitions = new ArrayList<Future<Long>>();
+                for ( int p = 0; p < spec.getPartitions(); p++ ) {
+                    final int partition = p;
+                    partitions.add( executor.submit( () -> writePartition( plan, statements, partition ) ) );
+                }
+                for ( final Future<Long> partition : partitions ) {
+                    written += partition.get();
+                }
+            }
+            finally {
+                executor.shutdownNow();
+            }
+
+            LOG.info( "Wrote {} rows in {} s", written, ( System.currentTimeMillis() - started ) / 1000 );
+            return written;
+        }
+        catch ( final SQLException | ExecutionException e ) {
+            throw new IllegalStateException( "Could not generate data set", e );
+        }
+        catch ( final InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException( "Interrupted while generating data set", e );
+        }
+    }
+
+    /**
+     * Saves the hospitals
+     *
+     * @param spec
+     *            What to generate
+     * @param random
+     *            Source of randomness
+     * @return Names of the hospitals
+     */
+    private String[] createHospitals ( final DatasetSpec spec, final SplittableRandom random ) {
+        final List<Hospital> hospitals = new ArrayList<Hospital>();
+        for ( int i = 0; i < spec.getHospitals(); i++ ) {
+            hospitals.add( new Hospital( "Generated Hospital " + i, ( 100 + i ) + " Hospital Drive",
+                    String.valueOf( 27000 + random.nextInt( 1000 ) ),
+                    State.values()[random.nextInt( State.values().length )].getAbbrev() ) );
+        }
+        hospitalService.saveAll( hospitals );
+        return hospitals.stream().map( Hospital::getName ).toArray( String[]::new );
+    }
+
+    /**
+     * Saves the CPT codes
+     *
+     * @param spec
+     *            What to generate
+     * @param random
+     *            Source of randomness
+     * @return CPT codes, in the order saved
+     */
+    private CPTCode[] createCptCodes ( final DatasetSpec spec, final SplittableRandom random ) {
+        final List<CPTCode> codes = new ArrayList<CPTCode>();
+        for ( int i = 0; i < spec.getCptCodes(); i++ ) {
+            final CPTCode code = new CPTCode();
+            code.setCode( 90000 + i );
+            code.setDescription( "Generated procedure " + i );
+            code.setCost( 20 + random.nextInt( 480 ) );
+            code.setVersion( 1 );
+            code.setisActive( true );
+            codes.add( code );
+        }
+        cptCodeService.saveAll( codes );
+        return codes.toArray( new CPTCode[0] );
+    }
+
+    /**
+     * Saves the vaccines; between them they cover patients of every age
+     *
+     * @return Vaccines
+     */
+    private VaccineType[] createVaccines () {
+        final VaccineType[] vaccines = { vaccine( "Generated Pediatric", 0, 17, 2, 28 ),
+                vaccine( "Generated Adult", 18, MAX_AGE + 10, 2, 21 ), vaccine( "Generated Booster", 12, MAX_AGE + 10,
+                        1, 0 ) };
+        vaccineTypeService.saveAll( Arrays.asList( vaccines ) );
+        return vaccines;
+    }
+
+    /**
+     * Creates (but does not save) a vaccine
+     *
+     * @param name
+     *            Name
+     * @param minAge
+     *            Youngest patient it is given to
+     * @param maxAge
+     *            Oldest patient it is given to
+     * @param doses
+     *            Number of doses
+     * @param daysBetween
+     *            Days between doses
+     * @return The vaccine
+     */
+    private static VaccineType vaccine ( final String name, final int minAge, final int maxAge, final int doses,
+            final int daysBetween ) {
+        final VaccineType vaccine = new VaccineType();
+        vaccine.setName( name );
+        vaccine.setMinAge( minAge );
+        vaccine.setMaxAge( maxAge );
+        vaccine.setNumDoses( doses );
+        vaccine.setDaysBetweenDoses( daysBetween );
+        vaccine.setIsAvailable( true );
+        vaccine.setInventoryAmount( 1000000 );
+        return vaccine;
+    }
+
+    /**
+     * Writes the personnel. About one in ten is a vaccinator; the rest are
+     * HCPs.
+     *
+     * @param plan
+     *            What to generate
+     * @param statements
+     *            INSERTs for each table
+     * @return Number of rows written
+     * @throws SQLException
+     *             If the rows cannot be written
+     */
+    private long createPersonnel ( final Plan plan, final Statements statements ) throws SQLException {
+        final SplittableRandom random = new SplittableRandom( plan.spec.getSeed() ).split();
+        final List<String> hcps = new ArrayList<String>();
+        final List<String> vaccinators = new ArrayList<String>();
+        try ( BatchWriter writer = new BatchWriter( dataSource, plan.spec.getBatchSize() ) ) {
+            final BatchWriter.Table users = writer.add( statements.personnel );
+            final BatchWriter.Table roles = writer.add( statements.roles );
+            for ( int i = 0; i < plan.spec.getPersonnel(); i++ ) {
+                final boolean vaccinator = i % 10 == 1;
+                final String username = ( vaccinator ? VACCINATOR_PREFIX : HCP_PREFIX ) + i;
+                final String first = pick( FIRST_NAMES, random );
+                final String last = pick( LAST_NAMES, random );
+                users.insert( username, plan.password, 1, first, last, email( first, last, i ),
+                        ( 1 + random.nextInt( 9999 ) ) + " Clinic Road", pick( CITIES, random ), State.NC,
+                        String.valueOf( 27500 + random.nextInt( 500 ) ), phone( random ) );
+                roles.insert( username, vaccinator ? Role.ROLE_VACCINATOR : Role.ROLE_HCP );
+                ( vaccinator ? vaccinators : hcps ).add( username );
+            }
+            writer.commit();
+            plan.hcps = hcps.toArray( new String[0] );
+            plan.vaccinators = vaccinators.isEmpty() ? plan.hcps : vaccinators.toArray( new String[0] );
+            return writer.getWritten();
+        }
+    }
+
+    /**
+     * Reserves a block of IDs from Hibernate's ID table, so that the
+     * application does not hand out the same IDs once it is running again
+     *
+     * @param factory
+     *            Hibernate session factory
+     * @param count
+     *            Number of IDs to reserve
+     * @return First ID reserved
+     * @throws SQLException
+     *             If the IDs cannot be reserved
+     */
+    private long reserveIds ( final SessionFactoryImplementor factory, final long count ) throws SQLException {
+        final EntityPersister persister = factory.getMetamodel().entityPersister( OfficeVisit.class );
+        if ( ! ( persister.getIdentifierGenerator() instanceof SequenceStyleGenerator ) ) {
+            throw new IllegalStateException( "IDs can only be reserved from a table-backed ID generator" );
+        }
+        final DatabaseStructure structure = ( (SequenceStyleGenerator) persister.getIdentifierGenerator() )
+                .getDatabaseStructure();
+        if ( structure.isPhysicalSequence() ) {
+            throw new IllegalStateException( "IDs can only be reserved from a table-backed ID generator" );
+        }
+        final String table = structure.getName();
+        try ( Connection connection = dataSource.getConnection() ) {
+            connection.setAutoCommit( false );
+            try ( PreparedStatement select = connection
+                    .prepareStatement( "SELECT next_val FROM " + table + " FOR UPDATE" );
+                    ResultSet rs = select.executeQuery();
+                    PreparedStatement update = connection
+                            .prepareStatement( "UPDATE " + table + " SET next_val = ?" ) ) {
+                if ( !rs.next() ) {
+                    throw new IllegalStateException( "ID table " + table + " is empty" );
+                }
+                final long first = rs.getLong( 1 );
+                update.setLong( 1, first + count );
+                update.executeUpdate();
+                connection.commit();
+                return first;
+            }
+        }
+    }
+
+    /**
+     * Returns how many connections the partitions can use at once, leaving
+     * one for the rest of the application
+     *
+     * @return Number of connections
+     */
+    private int maxConnections () {
+        return dataSource instanceof HikariDataSource
+                ? ( (HikariDataSource) dataSource ).getMaximumPoolSize() - 1 : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Writes one partition of patients and everything about them
+     *
+     * @param plan
+     *            What to generate
+     * @param statements
+     *            INSERTs for each table
+     * @param partition
+     *            Partition to write
+     * @return Number of rows written
+     * @throws SQLException
+     *             If the rows cannot be written
+     */
+    private long writePartition ( final Plan plan, final Statements statements, final int partition )
+            throws SQLException {
+        final int from = plan.start( partition );
+        final int to = plan.start( partition + 1 );
+        final long[] before = plan.before( partition );
+        long visitId = plan.firstId + before[0];
+        long metricsId = plan.firstId + plan.visits + before[0];
+        long billId = plan.firstId + 2 * plan.visits + before[0];
+        long vaccineBillId = plan.firstId + 3 * plan.visits + before[1];
+        long vaccineVisitId = plan.firstId + 3 * plan.visits + plan.vaccineVisits + before[1];
+        long logId = plan.firstId + 3 * plan.visits + 2 * plan.vaccineVisits + before[2];
+
+        final ZonedDateTime end = plan.end.atStartOfDay( ZoneId.systemDefault() );
+        final ZonedDateTime historyStart = end.minusYears( plan.spec.getHistoryYears() );
+
+        try ( BatchWriter writer = new BatchWriter( dataSource, plan.spec.getBatchSize() ) ) {
+            final BatchWriter.Table patients = writer.add( statements.patient );
+            final BatchWriter.Table roles = writer.add( statements.roles );
+            final BatchWriter.Table metrics = writer.add( statements.metrics );
+            final BatchWriter.Table visits = writer.add( statements.visit );
+            final BatchWriter.Table visitCodes = writer.add( statements.visitCodes );
+            final BatchWriter.Table vaccineVisits = writer.add( statements.vaccineVisit );
+            final BatchWriter.Table vaccineVisitCodes = writer.add( statements.vaccineVisitCodes );
+            final BatchWriter.Table bills = writer.add( statements.bill );
+            final BatchWriter.Table billCodes = writer.add( statements.billCodes );
+            final BatchWriter.Table logEntries = writer.add( statements.logEntry );
+
+            for ( int i = from; i < to; i++ ) {
+                final SplittableRandom random = plan.random( i );
+                final int visitCount = plan.visitsPerPatient.sample( random );
+                final int vaccineVisitCount = plan.vaccineVisitsPerPatient.sample( random );
+                final int logCount = plan.logEntriesPerPatient.sample( random );
+
+                final String username = PATIENT_PREFIX + i;
+                final LocalDate dob = plan.end.minusDays( 1 + random.nextInt( MAX_AGE * 365 ) );
+                final String first = pick( FIRST_NAMES, random );
+                final String last = pick( LAST_NAMES, random );
+                patients.insert( username, plan.password, 1, first, last, email( first, last, i ),
+                        ( 1 + random.nextInt( 9999 ) ) + " Main Street", pick( CITIES, random ), State.NC,
+                        String.valueOf( 27500 + random.nextInt( 500 ) ), phone( random ), dob,
+                        pick( Gender.values(), random ), pick( BloodType.values(), random ),
+                        pick( Ethnicity.values(), random ) );
+                roles.insert( username, Role.ROLE_PATIENT );
+
+                final ZonedDateTime born = dob.atStartOfDay( ZoneId.systemDefault() );
+                final ZonedDateTime earliest = born.isAfter( historyStart ) ? born : historyStart;
+
+                for ( int v = 0; v < visitCount; v++ ) {
+                    final String hcp = pick( plan.hcps, random );
+                    final ZonedDateTime date = between( earliest, end, random );
+                    final int age = (int) ChronoUnit.YEARS.between( dob, date.toLocalDate() );
+                    writeMetrics( metrics, metricsId, username, hcp, age, random );
+                    visits.insert( visitId, username, hcp, metricsId, date, AppointmentType.GENERAL_CHECKUP,
+                            pick( plan.hospitals, random ), "Generated visit" );
+                    final CPTCode[] codes = plan.codes( random );
+                    for ( final CPTCode code : codes ) {
+                        visitCodes.insert( visitId, code.getId() );
+                    }
+                    writeBill( bills, billCodes, billId, username, hcp, date, codes, random );
+                    visitId++;
+                    metricsId++;
+                    billId++;
+                }
+
+                for ( int v = 0; v < vaccineVisitCount; v++ ) {
+                    final String vaccinator = pick( plan.vaccinators, random );
+                    final ZonedDateTime date = between( earliest, end, random );
+                    final int age = (int) ChronoUnit.YEARS.between( dob, date.toLocalDate() );
+                    final VaccineType vaccine = plan.vaccineFor( age, random );
+                    final int dose = 1 + random.nextInt( vaccine.getNumDoses() );
+                    vaccineVisits.insert( vaccineVisitId, username, vaccinator, date, vaccine.getId(), dose,
+                            dose < vaccine.getNumDoses() ? date.plusDays( vaccine.getDaysBetweenDoses() ) : null );
+                    final CPTCode[] codes = plan.codes( random );
+                    for ( final CPTCode code : codes ) {
+                        vaccineVisitCodes.insert( vaccineVisitId, code.getId() );
+                    }
+                    writeBill( bills, billCodes, vaccineBillId, username, vaccinator, date, codes, random );
+                    vaccineVisitId++;
+                    vaccineBillId++;
+                }
+
+                for ( int l = 0; l < logCount; l++ ) {
+                    final String hcp = pick( plan.hcps, random );
+                    final TransactionType type = pick( PATIENT_EVENTS, random );
+                    final boolean byPatient = random.nextBoolean();
+                    logEntries.insert( logId, type, byPatient ? username : hcp, between( earliest, end, random ),
+                            byPatient ? null : username, type.getDescription() );
+                    logId++;
+                }
+
+                if ( ( i - from + 1 ) % COMMIT_EVERY == 0 ) {
+                    writer.commit();
+                }
+            }
+            writer.commit();
+            LOG.info( "Wrote partition {} (patients {} to {})", partition, from, to - 1 );
+            return writer.getWritten();
+        }
+    }
+
+    /**
+     * Writes basic health metrics, filling in the fields an office visit for a
+     * patient of that age requires
+     *
+     * @param metrics
+     *            Table to write to
+     * @param id
+     *            ID of the metrics
+     * @param patient
+     *            Patient
+     * @param hcp
+     *            HCP
+     * @param age
+     *            Age of the patient at the visit, in years
+     * @param random
+     *            Source of randomness
+     * @throws SQLException
+     *             If the row cannot be written
+     */
+    private static void writeMetrics ( final BatchWriter.Table metrics, final long id, final String patient,
+            final String hcp, final int age, final SplittableRandom random ) throws SQLException {
+        final float height = age < 18 ? 20 + age * 3.5f + random.nextInt( 60 ) / 10f : 58 + random.nextInt( 200 ) / 10f;
+        final float weight = age < 18 ? 8 + age * 8 + random.nextInt( 100 ) / 10f : 110 + random.nextInt( 1500 ) / 10f;
+        final Float headCircumference = age < 3 ? 13 + random.nextInt( 70 ) / 10f : null;
+        final Integer systolic = age >= 3 ? 90 + random.nextInt( 60 ) : null;
+        final Integer diastolic = age >= 3 ? 60 + random.nextInt( 30 ) : null;
+        final Integer hdl = age >= 12 ? 30 + random.nextInt( 61 ) : null;
+        final Integer ldl = age >= 12 ? 50 + random.nextInt( 200 ) : null;
+        final Integer tri = age >= 12 ? 100 + random.nextInt( 300 ) : null;
+        final PatientSmokingStatus smoking = age >= 12
+                ? PatientSmokingStatus.values()[1 + random.nextInt( PatientSmokingStatus.values().length - 1 )]
+                : null;
+        final HouseholdSmokingStatus household = HouseholdSmokingStatus.values()[1
+                + random.nextInt( HouseholdSmokingStatus.values().length - 1 )];
+        metrics.insert( id, patient, hcp, height, weight, headCircumference, systolic, diastolic, hdl, ldl, tri,
+                household, smoking );
+    }
+
+    /**
+     * Writes a bill for a visit. Most older bills have been paid.
+     *
+     * @param bills
+     *            Table to write the bill to
+     * @param billCodes
+     *            Table to write the bill's CPT codes to
+     * @param id
+     *            ID of the bill
+     * @param patient
+     *            Patient billed
+     * @param hcp
+     *            HCP who saw the patient
+     * @param date
+     *            Date of the visit
+     * @param codes
+     *            CPT codes billed
+     * @param random
+     *            Source of randomness
+     * @throws SQLException
+     *             If the rows cannot be written
+     */
+    private static void writeBill ( final BatchWriter.Table bills, final BatchWriter.Table billCodes, final long id,
+            final String patient, final String hcp, final ZonedDateTime date, final CPTCode[] codes,
+            final SplittableRandom random ) throws SQLException {
+        double cost = 0;
+        for ( final CPTCode code : codes ) {
+            cost += code.getCost();
+        }
+        final boolean paid = random.nextInt( 10 ) < 8;
+        bills.insert( id, patient, hcp, date, paid ? BillStatus.PAID : BillStatus.UNPAID, paid ? 0.0 : cost,
+                paid ? cost : 0.0 );
+        for ( final CPTCode code : codes ) {
+            billCodes.insert( id, code.getId() );
+        }
+    }
+
+    /**
+     * Picks a time between two others
+     *
+     * @param from
+     *            Earliest time
+     * @param to
+     *            Latest time
+     * @param random
+     *            Source of randomness
+     * @return The time, to the minute
+     */
+    private static ZonedDateTime between ( final ZonedDateTime from, final ZonedDateTime to,
+            final SplittableRandom random ) {
+        final long minutes = Math.max( 1, ChronoUnit.MINUTES.between( from, to ) );
+        return from.plusMinutes( random.nextLong( minutes ) );
+    }
+
+    /**
+     * Picks an element of an array
+     *
+     * @param <T>
+     *            Element type
+     * @param values
+     *            Array to pick from
+     * @param random
+     *            Source of randomness
+     * @return The element
+     */
+    private static <T> T pick ( final T[] values, final SplittableRandom random ) {
+        return values[random.nextInt( values.length )];
+    }
+
+    /**
+     * Makes up an email address; no more than 30 characters
+     *
+     * @param first
+     *            First name
+     * @param last
+     *            Last name
+     * @param i
+     *            Number of the user, to keep the address unique
+     * @return The address
+     */
+    private static String email ( final String first, final String last, final int i ) {
+        return ( first.charAt( 0 ) + last + i ).toLowerCase() + "@example.com";
+    }
+
+    /**
+     * Makes up a phone number, in the 123-456-7890 format users are asked for
+     *
+     * @param random
+     *            Source of randomness
+     * @return The phone number
+     */
+    private static String phone ( final SplittableRandom random ) {
+        return String.format( "919-%03d-%04d", 200 + random.nextInt( 800 ), random.nextInt( 10000 ) );
+    }
+
+    /**
+     * The INSERT for each table written with JDBC
+     *
+     * @author Kai Presler-Marshall
+     *
+     */
+    private static class Statements {
+
+        /** Personnel */
+        private final InsertStatement personnel;
+
+        /** Patients */
+        private final InsertStatement patient;
+
+        /** Roles of each user */
+        private final InsertStatement roles;
+
+        /** Basic health metrics */
+        private final InsertStatement metrics;
+
+        /** Office visits */
+        private final InsertStatement visit;
+
+        /** CPT codes of each office visit */
+        private final InsertStatement visitCodes;
+
+        /** Vaccine visits */
+        private final InsertStatement vaccineVisit;
+
+        /** CPT codes of each vaccine visit */
+        private final InsertStatement vaccineVisitCodes;
+
+        /** Bills */
+        private final InsertStatement bill;
+
+        /** CPT codes of each bill */
+        private final InsertStatement billCodes;
+
+        /** Log entries */
+        private final InsertStatement logEntry;
+
+        /**
+         * Builds the INSERTs from Hibernate's mapping
+         *
+         * @param factory
+         *            Hibernate session factory
+         */
+        Statements ( final SessionFactoryImplementor factory ) {
+            personnel = InsertStatement.forEntity( factory, Personnel.class, "password", "enabled", "firstName",
+                    "lastName", "email", "address1", "city", "state", "zip", "phone" );
+            patient = InsertStatement.forEntity( factory, Patient.class, "password", "enabled", "firstName",
+                    "lastName", "email", "address1", "city", "state", "zip", "phone", "dateOfBirth", "gender",
+                    "bloodType", "ethnicity" );
+            roles = InsertStatement.forCollection( factory, User.class, "roles" );
+            metrics = InsertStatement.forEntity( factory, BasicHealthMetrics.class, "patient", "hcp", "height",
+                    "weight", "headCircumference", "systolic", "diastolic", "hdl", "ldl", "tri", "houseSmokingStatus",
+                    "patientSmokingStatus" );
+            visit = InsertStatement.forEntity( factory, OfficeVisit.class, "patient", "hcp", "basicHealthMetrics",
+                    "date", "type", "hospital", "notes" );
+            visitCodes = InsertStatement.forCollection( factory, OfficeVisit.class, "cptCodes" );
+            vaccineVisit = InsertStatement.forEntity( factory, VaccineVisit.class, "patient", "vaccinator", "date",
+                    "vaccineType", "dose", "followUpDate" );
+            vaccineVisitCodes = InsertStatement.forCollection( factory, VaccineVisit.class, "cptCodes" );
+            bill = InsertStatement.forEntity( factory, Bill.class, "patient", "hcp", "date", "status",
+                    "remainingCost", "amountPaid" );
+            billCodes = InsertStatement.forCollection( factory, Bill.class, "cptCodes" );
+            logEntry = InsertStatement.forEntity( factory, LogEntry.class, "logCode", "primaryUser", "time",
+                    "secondaryUser", "message" );
+        }
+
+    }
+
+    /**
+     * Everything decided about a data set before the partitions are written:
+     * the parsed settings, the reference data, and how many records each
+     * partition creates, which fixes where each partition's IDs start
+     *
+     * @author Kai Presler-Marshall
+     *
+     */
+    private static class Plan {
+
+        /** Settings */
+        private final DatasetSpec  spec;
+
+        /** Office visits per patient */
+        private final Distribution visitsPerPatient;
+
+        /** CPT codes per bill */
+        private final Distribution cptCodesPerBill;
+
+        /** Vaccine visits per patient */
+        private final Distribution vaccineVisitsPerPatient;
+
+        /** Log entries per patient */
+        private final Distribution logEntriesPerPatient;
+
+        /** Date the history ends */
+        private final LocalDate    end;
+
+        /** Encoded password of every user */
+        private final String       password;
+
+        /** Hospital names */
+        private String[]           hospitals;
+
+        /** CPT codes */
+        private CPTCode[]          cptCodes;
+
+        /** Vaccines */
+        private VaccineType[]      vaccines;
+
+        /** HCP usernames */
+        private String[]           hcps;
+
+        /** Vaccinator usernames */
+        private String[]           vaccinators;
+
+        /** Office visits, vaccine visits and log entries in each partition */
+        private long[][]           counts;
+
+        /** Total office visits */
+        private long               visits;
+
+        /** Total vaccine visits */
+        private long               vaccineVisits;
+
+        /** Total log entries */
+        private long               logEntries;
+
+        /** First ID reserved */
+        private long               firstId;
+
+        /**
+         * Parses and checks the settings
+         *
+         * @param spec
+         *            Settings
+         */
+        Plan ( final DatasetSpec spec ) {
+            if ( spec.getPatients() < 0 || spec.getPersonnel() < 1 || spec.getHospitals() < 1
+                    || spec.getCptCodes() < 1 || spec.getPartitions() < 1 || spec.getBatchSize() < 1
+                    || spec.getHistoryYears() < 1 ) {
+                throw new IllegalArgumentException( "A data set needs at least one each of personnel, hospitals, "
+                        + "CPT codes, partitions and years of history, and a positive batch size" );
+            }
+            this.spec = spec;
+            visitsPerPatient = Distribution.parse( spec.getVisitsPerPatient() );
+            cptCodesPerBill = Distribution.parse( spec.getCptCodesPerBill() );
+            vaccineVisitsPerPatient = Distribution.parse( spec.getVaccineVisitsPerPatient() );
+            logEntriesPerPatient = Distribution.parse( spec.getLogEntriesPerPatient() );
+            end = LocalDate.parse( spec.getEndDate() );
+            /* Hashing is deliberately slow, so every user shares one hash */
+            password = new BCryptPasswordEncoder().encode( PASSWORD );
+        }
+
+        /**
+         * Counts the records each partition will create, drawing the same
+         * numbers that writing the partition will
+         */
+        void count () {
+            counts = new long[spec.getPartitions()][3];
+            for ( int p = 0; p < spec.getPartitions(); p++ ) {
+                for ( int i = start( p ); i < start( p + 1 ); i++ ) {
+                    final SplittableRandom random = random( i );
+                    counts[p][0] += visitsPerPatient.sample( random );
+                    counts[p][1] += vaccineVisitsPerPatient.sample( random );
+                    counts[p][2] += logEntriesPerPatient.sample( random );
+                }
+                visits += counts[p][0];
+                vaccineVisits += counts[p][1];
+                logEntries += counts[p][2];
+            }
+        }
+
+        /**
+         * Returns the number of IDs needed: one each for every office visit,
+         * its metrics and its bill, every vaccine visit and its bill, and
+         * every log entry
+         *
+         * @return Number of IDs
+         */
+        long ids () {
+            return 3 * visits + 2 * vaccineVisits + logEntries;
+        }
+
+        /**
+         * Returns the office visits, vaccine visits and log entries in all
+         * partitions before one
+         *
+         * @param partition
+         *            Partition
+         * @return Counts
+         */
+        long[] before ( final int partition ) {
+            final long[] before = new long[3];
+            for ( int p = 0; p < partition; p++ ) {
+                for ( int c = 0; c < 3; c++ ) {
+                    before[c] += counts[p][c];
+                }
+            }
+            return before;
+        }
+
+        /**
+         * Returns the first patient in a partition
+         *
+         * @param partition
+         *            Partition
+         * @return Number of the first patient
+         */
+        int start ( final int partition ) {
+            return (int) ( (long) spec.getPatients() * partition / spec.getPartitions() );
+        }
+
+        /**
+         * Returns the source of randomness for everything about a patient
+         *
+         * @param patient
+         *            Number of the patient
+         * @return Source of randomness
+         */
+        SplittableRandom random ( final int patient ) {
+            return new SplittableRandom( spec.getSeed() ^ ( patient * 0x9E3779B97F4A7C15L ) );
+        }
+
+        /**
+         * Picks distinct CPT codes to bill
+         *
+         * @param random
+         *            Source of randomness
+         * @return CPT codes
+         */
+        CPTCode[] codes ( final SplittableRandom random ) {
+            final int count = Math.min( cptCodes.length, cptCodesPerBill.sample( random ) );
+            final int first = random.nextInt( cptCodes.length );
+            final int stride = 1 + random.nextInt( cptCodes.length );
+            final CPTCode[] codes = new CPTCode[count];
+            final boolean[] used = new boolean[cptCodes.length];
+            for ( int i = 0, next = first; i < count; i++ ) {
+                while ( used[next] ) {
+                    next = ( next + 1 ) % cptCodes.length;
+                }
+                used[next] = true;
+                codes[i] = cptCodes[next];
+                next = ( next + stride ) % cptCodes.length;
+            }
+            return codes;
+        }
+
+        /**
+         * Picks a vaccine suitable for a patient's age
+         *
+         * @param age
+         *            Age of the patient, in years
+         * @param random
+         *            Source of randomness
+         * @return Vaccine
+         */
+        VaccineType vaccineFor ( final int age, final SplittableRandom random ) {
+            final VaccineType[] suitable = Arrays.stream( vaccines )
+                    .filter( v -> v.getMinAge() <= age && age <= v.getMaxAge() ).toArray( VaccineType[]::new );
+            return pick( suitable, random );
+        }
+
+    }
+
+}
@@ -0,0 +1,303 @@
+package edu.ncsu.csc.iTrust2.utils.datagen;
+
+/**
+ * Describes the data set the DatasetGenerator should create. On the command
+ * line, each setting is given as an `itrust2.datagen.*` property, eg
+ * `--itrust2.datagen.patients=1000000 --itrust2.datagen.visits-per-patient=poisson:12`.
+ *
+ * The defaults make a small data set suitable for trying the generator out.
+ * The same settings and seed always produce the same data.
+ *
+ * @author Kai Presler-Marshall
+ *
+ */
+public class DatasetSpec {
+
+    /** Seed for every random choice the generator makes */
+    private long   seed                    = 2021;
+
+    /** Number of patients */
+    private int    patients                = 1000;
+
+    /** Number of personnel; about one in ten is a vaccinator, the rest HCPs */
+    private int    personnel               = 50;
+
+    /** Number of hospitals */
+    private int    hospitals               = 20;
+
+    /** Number of CPT codes */
+    private int    cptCodes                = 100;
+
+    /** Office visits for each patient; each is billed */
+    private String visitsPerPatient        = "poisson:6";
+
+    /** CPT codes on each office visit and vaccine visit, and so on each bill */
+    private String cptCodesPerBill         = "uniform:1:4";
+
+    /** Vaccine visits for each patient; each is billed */
+    private String vaccineVisitsPerPatient = "uniform:0:2";
+
+    /** Log entries about each patient */
+    private String logEntriesPerPatient    = "poisson:20";
+
+    /** Visits and log entries are spread over this many years */
+    private int    historyYears            = 5;
+
+    /** Date the history ends, as an ISO date; fixed so that runs are repeatable */
+    private String endDate                 = "2021-01-01";
+
+    /** Number of partitions patients are split into and generated in parallel */
+    private int    partitions              = Runtime.getRuntime().availableProcessors();
+
+    /** Number of rows sent to the database in each JDBC batch */
+    private int    batchSize               = 500;
+
+    /**
+     * Returns the seed
+     *
+     * @return Seed
+     */
+    public long getSeed () {
+        return seed;
+    }
+
+    /**
+     * Sets the seed
+     *
+     * @param seed
+     *            Seed
+     */
+    public void setSeed ( final long seed ) {
+        this.seed = seed;
+    }
+
+    /**
+     * Returns the number of patients
+     *
+     * @return Number of patients
+     */
+    public int getPatients () {
+        return patients;
+    }
+
+    /**
+     * Sets the number of patients
+     *
+     * @param patients
+     *            Number of patients
+     */
+    public void setPatients ( final int patients ) {
+        this.patients = patients;
+    }
+
+    /**
+     * Returns the number of personnel
+     *
+     * @return Number of personnel
+     */
+    public int getPersonnel () {
+        return personnel;
+    }
+
+    /**
+     * Sets the number of personnel
+     *
+     * @param personnel
+     *            Number of personnel
+     */
+    public void setPersonnel ( final int personnel ) {
+        this.personnel = personnel;
+    }
+
+    /**
+     * Returns the number of hospitals
+     *
+     * @return Number of hospitals
+     */
+    public int getHospitals () {
+        return hospitals;
+    }
+
+    /**
+     * Sets the number of hospitals
+     *
+     * @param hospitals
+     *            Number of hospitals
+     */
+    public void setHospitals ( final int hospitals ) {
+        this.hospitals = hospitals;
+    }
+
+    /**
+     * Returns the number of CPT codes
+     *
+     * @return Number of CPT codes
+     */
+    public int getCptCodes () {
+        return cptCodes;
+    }
+
+    /**
+     * Sets the number of CPT codes
+     *
+     * @param cptCodes
+     *            Number of CPT codes
+     */
+    public void setCptCodes ( final int cptCodes ) {
+        this.cptCodes = cptCodes;
+    }
+
+    /**
+     * Returns the distribution of office visits per patient
+     *
+     * @return Distribution
+     */
+    public String getVisitsPerPatient () {
+        return visitsPerPatient;
+    }
+
+    /**
+     * Sets the distribution of office visits per patient
+     *
+     * @param visitsPerPatient
+     *            Distribution, as understood by Distribution.parse
+     */
+    public void setVisitsPerPatient ( final String visitsPerPatient ) {
+        this.visitsPerPatient = visitsPerPatient;
+    }
+
+    /**
+     * Returns the distribution of CPT codes per bill
+     *
+     * @return Distribution
+     */
+    public String getCptCodesPerBill () {
+        return cptCodesPerBill;
+    }
+
+    /**
+     * Sets the distribution of CPT codes per bill
+     *
+     * @param cptCodesPerBill
+     *            Distribution, as understood by Distribution.parse
+     */
+    public void setCptCodesPerBill ( final String cptCodesPerBill ) {
+        this.cptCodesPerBill = cptCodesPerBill;
+    }
+
+    /**
+     * Returns the distribution of vaccine visits per patient
+     *
+     * @return Distribution
+     */
+    public String getVaccineVisitsPerPatient () {
+        return vaccineVisitsPerPatient;
+    }
+
+    /**
+     * Sets the distribution of vaccine visits per patient
+     *
+     * @param vaccineVisitsPerPatient
+     *            Distribution, as understood by Distribution.parse
+     */
+    public void setVaccineVisitsPerPatient ( final String vaccineVisitsPerPatient ) {
+        this.vaccineVisitsPerPatient = vaccineVisitsPerPatient;
+    }
+
+    /**
+     * Returns the distribution of log entries per patient
+     *
+     * @return Distribution
+     */
+    public String getLogEntriesPerPatient () {
+        return logEntriesPerPatient;
+    }
+
+    /**
+     * Sets the distribution of log entries per patient
+     *
+     * @param logEntriesPerPatient
+     *            Distribution, as understood by Distribution.parse
+     */
+    public void setLogEntriesPerPatient ( final String logEntriesPerPatient ) {
+        this.logEntriesPerPatient = logEntriesPerPatient;
+    }
+
+    /**
+     * Returns how many years of history are generated
+     *
+     * @return Number of years
+     */
+    public int getHistoryYears () {
+        return historyYears;
+    }
+
+    /**
+     * Sets how many years of history are generated
+     *
+     * @param historyYears
+     *            Number of years
+     */
+    public void setHistoryYears ( final int historyYears ) {
+        this.historyYears = historyYears;
+    }
+
+    /**
+     * Returns the date the history ends
+     *
+     * @return ISO date
+     */
+    public String getEndDate () {
+        return endDate;
+    }
+
+    /**
+     * Sets the date the history ends
+     *
+     * @param endDate
+     *            ISO date
+     */
+    public void setEndDate ( final String endDate ) {
+        this.endDate = endDate;
+    }
+
+    /**
+     * Returns the number of partitions generated in parallel
+     *
+     * @return Number of partitions
+     */
+    public int getPartitions () {
+        return partitions;
+    }
+
+    /**
+     * Sets the number of partitions generated in parallel. This does not
+     * change the data generated, only how quickly it is generated.
+     *
+     * @param partitions
+     *            Number of partitions
+     */
+    public void setPartitions ( final int partitions ) {
+        this.partitions = partitions;
+    }
+
+    /**
+     * Returns the JDBC batch size
+     *
+     * @return Batch size
+     */
+    public int getBatchSize () {
+        return batchSize;
+    }
+
+    /**
+     * Sets the JDBC batch size
+     *
+     * @param batchSize
+     *            Batch size
+     */
+    public void setBatchSize ( final int batchSize ) {
+        this.batchSize = batchSize;
+    }
+
+}
@@ -0,0 +1,148 @@
+package edu.ncsu.csc.iTrust2.utils.datagen;
+
+import java.util.SplittableRandom;
+
+/**
+ * A distribution of non-negative whole numbers, used by the DatasetGenerator to
+ * decide how many of something to create (eg, office visits per patient).
+ * Distributions are written as strings so that they can be given on the
+ * command line:
+ *
+ * - `fixed:N` always N
+ *
+ * - `uniform:MIN:MAX` evenly between MIN and MAX, inclusive
+ *
+ * - `poisson:MEAN` Poisson-distributed around MEAN, which gives the long tail
+ * of a few patients with many visits that real data has
+ *
+ * @author Kai Presler-Marshall
+ *
+ */
+public final class Distribution {
+
+    /** Kind of distribution */
+    private final String kind;
+
+    /** Fixed value, minimum, or mean, depending on the kind */
+    private final double a;
+
+    /** Maximum, for uniform distributions */
+    private final int    b;
+
+    /**
+     * Use `parse()` instead
+     *
+     * @param kind
+     *            Kind of distribution
+     * @param a
+     *            Fixed value, minimum, or mean
+     * @param b
+     *            Maximum
+     */
+    private Distribution ( final String kind, final double a, final int b ) {
+        this.kind = kind;
+        this.a = a;
+        this.b = b;
+    }
+
+    /**
+     * Parses a distribution from its string form
+     *
+     * @param spec
+     *            Distribution, eg `poisson:12`
+     * @return The distribution
+     * @throws IllegalArgumentException
+     *             If the string is not a valid distribution
+     */
+    public static Distribution parse ( final String spec ) {
+        final String[] parts = spec.trim().split( ":" );
+        try {
+            switch ( parts[0] ) {
+                case "fixed":
+                    if ( parts.length == 2 && Integer.parseInt( parts[1] ) >= 0 ) {
+                        return new Distribution( parts[0], Integer.parseInt( parts[1] ), 0 );
+                    }
+                    break;
+                case "uniform":
+                    if ( parts.length == 3 && Integer.parseInt( parts[1] ) >= 0
+                            && Integer.parseInt( parts[2] ) >= Integer.parseInt( parts[1] ) ) {
+                        return new Distribution( parts[0], Integer.parseInt( parts[1] ),
+                                Integer.parseInt( parts[2] ) );
+                    }
+                    break;
+                case "poisson":
+                    if ( parts.length == 2 && Double.parseDouble( parts[1] ) >= 0 ) {
+                        return new Distribution( parts[0], Double.parseDouble( parts[1] ), 0 );
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        catch ( final NumberFormatException nfe ) {
+            // fall through to the error below
+        }
+        throw new IllegalArgumentException( "Invalid distribution `" + spec
+                + "`; expected fixed:N, uniform:MIN:MAX or poisson:MEAN" );
+    }
+
+    /**
+     * Draws a value from the distribution
+     *
+     * @param random
+     *            Source of randomness
+     * @return The value
+     */
+    public int sample ( final SplittableRandom random ) {
+        switch ( kind ) {
+            case "uniform":
+                return random.nextInt( (int) a, b + 1 );
+            case "poisson":
+                return poisson( random );
+            default:
+                return (int) a;
+        }
+    }
+
+    /**
+     * Returns the mean of the distribution
+     *
+     * @return The mean
+     */
+    public double getMean () {
+        return "uniform".equals( kind ) ? ( a + b ) / 2 : a;
+    }
+
+    /**
+     * Draws from a Poisson distribution. Small means use Knuth's method, which
+     * is exact; large ones use the normal approximation, which is close enough
+     * for test data and does not slow down as the mean grows.
+     *
+     * @param random
+     *            Source of randomness
+     * @return The value
+     */
+    private int poisson ( final SplittableRandom random ) {
+        if ( a > 30 ) {
+            final double u = 1 - random.nextDouble();
+            final double v = random.nextDouble();
+            final double normal = Math.sqrt( -2 * Math.log( u ) ) * Math.cos( 2 * Math.PI * v );
+            return (int) Math.max( 0, Math.round( a + normal * Math.sqrt( a ) ) );
+        }
+        final double limit = Math.exp( -a );
+        int k = 0;
+        double p = random.nextDouble();
+        while ( p > limit ) {
+            k++;
+            p *= random.nextDouble();
+        }
+        return k;
+    }
+
+    @Override
+    public String toString () {
+        return "uniform".equals( kind ) ? kind + ":" + (int) a + ":" + b
+                : "fixed".equals( kind ) ? kind + ":" + (int) a : kind + ":" + a;
+    }
+
+}
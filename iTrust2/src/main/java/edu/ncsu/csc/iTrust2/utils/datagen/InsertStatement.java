@@ -0,0 +1,197 @@
+package edu.ncsu.csc.iTrust2.utils.datagen;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.collection.AbstractCollectionPersister;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.type.CustomType;
+import org.hibernate.type.EnumType;
+import org.hibernate.type.Type;
+
+/**
+ * An INSERT statement for an entity's table, or for the table behind one of its
+ * collections, built from Hibernate's own mapping so that the table and column
+ * names (and whether each enum is stored by name or by position) always match
+ * what the application reads back. Values are given in Java terms and
+ * converted the same way the entity mappings convert them.
+ *
+ * @author Kai Presler-Marshall
+ *
+ */
+public final class InsertStatement {
+
+    /** SQL for the statement */
+    private final String    sql;
+
+    /** For each parameter, whether an enum value is stored by its ordinal */
+    private final boolean[] ordinal;
+
+    /**
+     * Use `forEntity()` or `forCollection()` instead
+     *
+     * @param sql
+     *            SQL for the statement
+     * @param ordinal
+     *            For each parameter, whether an enum value is stored by its
+     *            ordinal
+     */
+    private InsertStatement ( final String sql, final boolean[] ordinal ) {
+        this.sql = sql;
+        this.ordinal = ordinal;
+    }
+
+    /**
+     * Builds an INSERT for an entity. The first parameter is always the
+     * entity's ID, followed by one parameter for each property listed. Rows
+     * for a subclass stored in its parent's table have their discriminator
+     * filled in automatically.
+     *
+     * @param factory
+     *            Hibernate session factory
+     * @param entity
+     *            Entity to insert
+     * @param properties
+     *            Properties to insert, by their Java name. Associations are
+     *            given as the ID of the associated entity.
+     * @return The statement
+     */
+    public static InsertStatement forEntity ( final SessionFactoryImplementor factory, final Class< ? > entity,
+            final String... properties ) {
+        final AbstractEntityPersister persister = (AbstractEntityPersister) factory.getMetamodel()
+                .entityPersister( entity );
+        final List<String> columns = new ArrayList<String>();
+        final List<String> values = new ArrayList<String>();
+        final boolean[] ordinal = new boolean[properties.length + 1];
+
+        columns.add( single( persister.getIdentifierColumnNames(), entity.getSimpleName() + " ID" ) );
+        values.add( "?" );
+        for ( int i = 0; i < properties.length; i++ ) {
+            columns.add( single( persister.getPropertyColumnNames( properties[i] ), properties[i] ) );
+            values.add( "?" );
+            ordinal[i + 1] = isOrdinal( persister.getPropertyType( properties[i] ) );
+        }
+        if ( null != persister.getDiscriminatorColumnName() ) {
+            columns.add( persister.getDiscriminatorColumnName() );
+            values.add( persister.getDiscriminatorSQLValue() );
+        }
+        return new InsertStatement( sql( persister.getTableName(), columns, values ), ordinal );
+    }
+
+    /**
+     * Builds an INSERT for one element of a collection. The parameters are the
+     * ID of the entity that owns the collection, then the element (or the ID
+     * of the element, for a collection of entities).
+     *
+     * @param factory
+     *            Hibernate session factory
+     * @param owner
+     *            Entity that declares the collection
+     * @param property
+     *            Name of the collection
+     * @return The statement
+     */
+    public static InsertStatement forCollection ( final SessionFactoryImplementor factory, final Class< ? > owner,
+            final String property ) {
+        final AbstractCollectionPersister persister = (AbstractCollectionPersister) factory.getMetamodel()
+                .collectionPersister( owner.getName() + "." + property );
+        final List<String> columns = new ArrayList<String>();
+        columns.add( single( persister.getKeyColumnNames(), property + " key" ) );
+        columns.add( single( persister.getElementColumnNames(), property + " element" ) );
+        final List<String> values = new ArrayList<String>();
+        values.add( "?" );
+        values.add( "?" );
+        return new InsertStatement( sql( persister.getTableName(), columns, values ),
+                new boolean[] { false, isOrdinal( persister.getElementType() ) } );
+    }
+
+    /**
+     * Returns the SQL for the statement
+     *
+     * @return SQL
+     */
+    public String getSql () {
+        return sql;
+    }
+
+    /**
+     * Returns the number of parameters the statement takes
+     *
+     * @return Number of parameters
+     */
+    public int getParameterCount () {
+        return ordinal.length;
+    }
+
+    /**
+     * Converts a value to what is stored in the database for a parameter
+     *
+     * @param parameter
+     *            Index of the parameter, from 0
+     * @param value
+     *            Value to convert
+     * @return Converted value
+     */
+    public Object convert ( final int parameter, final Object value ) {
+        if ( value instanceof Enum ) {
+            final Enum< ? > e = (Enum< ? >) value;
+            return ordinal[parameter] ? (Object) e.ordinal() : e.name();
+        }
+        if ( value instanceof ZonedDateTime ) {
+            return Timestamp.from( ( (ZonedDateTime) value ).toInstant() );
+        }
+        if ( value instanceof LocalDate ) {
+            return java.sql.Date.valueOf( (LocalDate) value );
+        }
+        return value;
+    }
+
+    /**
+     * Checks whether a mapped type is an enum stored by its ordinal
+     *
+     * @param type
+     *            Mapped type
+     * @return Whether it is
+     */
+    private static boolean isOrdinal ( final Type type ) {
+        return type instanceof CustomType && ( (CustomType) type ).getUserType() instanceof EnumType
+                && ( (EnumType) ( (CustomType) type ).getUserType() ).isOrdinal();
+    }
+
+    /**
+     * Returns the only column a property is mapped to
+     *
+     * @param columns
+     *            Columns the property is mapped to
+     * @param what
+     *            Name of the property, for the error message
+     * @return The column
+     */
+    private static String single ( final String[] columns, final String what ) {
+        if ( columns.length != 1 ) {
+            throw new IllegalArgumentException( what + " is mapped to " + columns.length + " columns" );
+        }
+        return columns[0];
+    }
+
+    /**
+     * Assembles an INSERT statement
+     *
+     * @param table
+     *            Table to insert into
+     * @param columns
+     *            Columns to insert
+     * @param values
+     *            Placeholder or literal for each column
+     * @return SQL
+     */
+    private static String sql ( final String table, final List<String> columns, final List<String> values ) {
+        return "INSERT INTO " + table + " (" + String.join( ", ", columns ) + ") VALUES ("
+                + String.join( ", ", values ) + ")";
+    }
+
+}
@@ -6,10 +6,14 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import javax.transaction.Transactional;
 
@@ -18,6 +22,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
@@ -65,6 +70,9 @@ public class APIAppointmentRequestTest {
     @Autowired
     private UserService<User>                service;
 
+    @Value ( "${itrust2.paging.max-size:500}" )
+    private int                              maxPageSize;
+
     /**
      * Sets up tests
      */
@@ -206,4 +214,197 @@ public class APIAppointmentRequestTest {
 
     }
 
+    /**
+     * Tests that an advocate's queue holds only the requests they were invited
+     * to with the status asked for, and is paged
+     *
+     * @throws Exception
+     */
+    @Test
+    @WithMockUser ( username = "advocate", roles = { "ADVOCATE" } )
+    @Transactional
+    public void testAdvocateQueue () throws Exception {
+        saveRequest( "2030-11-20T04:50:00.000-05:00", Status.PENDING, true );
+        final Long earliest = saveRequest( "2030-11-19T04:50:00.000-05:00", Status.PENDING, true ).getId();
+        saveRequest( "2030-11-21T04:50:00.000-05:00", Status.APPROVED, true );
+        saveRequest( "2030-11-22T04:50:00.000-05:00", Status.PENDING, false );
+
+        mvc.perform( get( "/api/v1/appointmentrequestForAdvocate" ).param( "size", "1" ) )
+                .andExpect( status().isOk() ).andExpect( header().string( "X-Total-Count", "2" ) )
+                .andExpect( jsonPath( "$.length()" ).value( 1 ) )
+                .andExpect( jsonPath( "$[0].id" ).value( earliest.intValue() ) );
+
+        mvc.perform( get( "/api/v1/appointmentrequestForAdvocate/approved" ).param( "page", "0" ) )
+                .andExpect( status().isOk() ).andExpect( header().string( "X-Total-Count", "1" ) )
+                .andExpect( jsonPath( "$[0].status" ).value( Status.APPROVED.toString() ) );
+
+        /* Requests for patients the advocate is no longer assigned to drop out */
+        padvservice.deleteAll();
+        mvc.perform( get( "/api/v1/appointmentrequestForAdvocate" ).param( "page", "0" ) )
+                .andExpect( status().isOk() ).andExpect( header().string( "X-Total-Count", "0" ) );
+    }
+
+    /**
+     * Tests that an advocate's queue is returned whole, as the advocate's
+     * pages expect, when no page or size is asked for, even if it holds more
+     * than a page
+     *
+     * @throws Exception
+     */
+    @Test
+    @WithMockUser ( username = "advocate", roles = { "ADVOCATE" } )
+    @Transactional
+    public void testAdvocateQueueUnpaged () throws Exception {
+        final User hcp = service.findByName( "hcp" );
+        final User patient = service.findByName( "patient" );
+        final User advocate = service.findByName( "advocate" );
+        final ZonedDateTime start = ZonedDateTime.parse( "2030-11-19T04:00:00.000-05:00" );
+        final List<AppointmentRequest> requests = new ArrayList<AppointmentRequest>();
+        for ( int i = 0; i <= maxPageSize; i++ ) {
+            final AppointmentRequest request = new AppointmentRequest();
+            request.setHcp( hcp );
+            request.setPatient( patient );
+            request.setDate( start.plusMinutes( 15L * i ) );
+            request.setType( AppointmentType.GENERAL_CHECKUP );
+            request.setStatus( i % 2 == 0 ? Status.PENDING : Status.APPROVED );
+            request.setComments( "Test appointment please ignore" );
+            request.setPatientAdvocatesInvited( List.of( advocate ) );
+            requests.add( request );
+        }
+        arService.saveAll( requests );
+        final int pending = maxPageSize / 2 + 1;
+        final int approved = maxPageSize + 1 - pending;
+
+        mvc.perform( get( "/api/v1/appointmentrequestForAdvocate" ) ).andExpect( status().isOk() )
+                .andExpect( jsonPath( "$.length()" ).value( pending ) )
+                .andExpect( header().doesNotExist( "X-Total-Count" ) ).andExpect( header().doesNotExist( "Link" ) );
+        mvc.perform( get( "/api/v1/appointmentrequestForAdvocate/approved" ) ).andExpect( status().isOk() )
+                .andExpect( jsonPath( "$.length()" ).value( approved ) )
+                .andExpect( header().doesNotExist( "X-Total-Count" ) );
+
+        /* Asking for a page still caps it */
+        mvc.perform( get( "/api/v1/appointmentrequestForAdvocate" ).param( "size", "1" ) )
+                .andExpect( status().isOk() ).andExpect( jsonPath( "$.length()" ).value( 1 ) )
+                .andExpect( header().string( "X-Total-Count", Integer.toString( pending ) ) )
+                .andExpect( header().exists( "Link" ) );
+    }
+
+    /**
+     * Tests that the patient's and HCP's lists hold only the requests with the
+     * status asked for, in order of their date
+     *
+     * @throws Exception
+     */
+    @Test
+    @WithMockUser ( username = "patient", roles = { "PATIENT" } )
+    @Transactional
+    public void testListsByStatus () throws Exception {
+        final Long later = saveRequest( "2030-11-20T04:50:00.000-05:00", Status.PENDING, false ).getId();
+        final Long earlier = saveRequest( "2030-11-19T04:50:00.000-05:00", Status.PENDING, false ).getId();
+        final Long approved = saveRequest( "2030-11-21T04:50:00.000-05:00", Status.APPROVED, false ).getId();
+
+        mvc.perform( get( "/api/v1/appointmentrequest" ) ).andExpect( status().isOk() )
+                .andExpect( jsonPath( "$.length()" ).value( 2 ) )
+                .andExpect( jsonPath( "$[0].id" ).value( earlier.intValue() ) )
+                .andExpect( jsonPath( "$[1].id" ).value( later.intValue() ) );
+
+        mvc.perform( get( "/api/v1/appointmentrequest/approved" ) ).andExpect( status().isOk() )
+                .andExpect( jsonPath( "$.length()" ).value( 1 ) )
+                .andExpect( jsonPath( "$[0].id" ).value( approved.intValue() ) );
+
+        final User hcp = service.findByName( "hcp" );
+        Assertions.assertEquals( List.of( earlier, later ), arService.findByHcpAndStatus( hcp, Status.PENDING )
+                .stream().map( AppointmentRequest::getId ).collect( Collectors.toList() ) );
+        Assertions.assertTrue( arService.findByHcpAndStatus( hcp, Status.REJECTED ).isEmpty() );
+    }
+
+    /**
+     * Tests that an HCP can't have two approved appointments that overlap,
+     * going by how long each type of appointment lasts. This commits, so that
+     * the approvals go through the shared schedule.
+     *
+     * @throws Exception
+     */
+    @Test
+    @WithMockUser ( username = "hcp", roles = { "HCP" } )
+    public void testDoubleBooking () throws Exception {
+        try {
+            final Long first = saveRequest( "2030-11-19T10:00:00.000-05:00", Status.APPROVED, false ).getId();
+
+            /* A checkup lasts half an hour, so this overlaps the first one */
+            final Long overlapping = saveRequest( "2030-11-19T10:15:00.000-05:00", Status.PENDING, false ).getId();
+            final AppointmentRequestForm approval = approvalForm( "2030-11-19T10:15:00.000-05:00",
+                    AppointmentType.GENERAL_CHECKUP );
+            mvc.perform( put( "/api/v1/appointmentrequests/" + overlapping ).with( csrf() )
+                    .contentType( MediaType.APPLICATION_JSON ).content( TestUtils.asJsonString( approval ) ) )
+                    .andExpect( status().isBadRequest() );
+            Assertions.assertEquals( Status.PENDING, arService.findById( overlapping ).getStatus() );
+
+            /* One starting as the first ends is fine */
+            arService.save( arService
+                    .build( approvalForm( "2030-11-19T10:30:00.000-05:00", AppointmentType.GENERAL_CHECKUP ) ) );
+
+            /* Surgery lasts two hours, so this reaches the first one */
+            final AppointmentRequest surgery = arService
+                    .build( approvalForm( "2030-11-19T08:30:00.000-05:00", AppointmentType.OPHTHALMOLOGY_SURGERY ) );
+            Assertions.assertThrows( IllegalArgumentException.class, () -> arService.save( surgery ) );
+
+            /* Once the first is deleted, the overlapping request can be approved */
+            arService.delete( arService.findById( first ) );
+            mvc.perform( put( "/api/v1/appointmentrequests/" + overlapping ).with( csrf() )
+                    .contentType( MediaType.APPLICATION_JSON ).content( TestUtils.asJsonString( approval ) ) )
+                    .andExpect( status().isOk() );
+            Assertions.assertEquals( Status.APPROVED, arService.findById( overlapping ).getStatus() );
+        }
+        finally {
+            arService.deleteAll();
+        }
+    }
+
+    /**
+     * Creates a form approving an appointment for the patient with the HCP
+     *
+     * @param date
+     *            When the appointment is
+     * @param type
+     *            Type of appointment
+     * @return The form
+     */
+    private AppointmentRequestForm approvalForm ( final String date, final AppointmentType type ) {
+        final AppointmentRequestForm appointmentForm = new AppointmentRequestForm();
+        appointmentForm.setDate( date );
+        appointmentForm.setType( type.toString() );
+        appointmentForm.setStatus( Status.APPROVED.toString() );
+        appointmentForm.setHcp( "hcp" );
+        appointmentForm.setPatient( "patient" );
+        appointmentForm.setComments( "Test appointment please ignore" );
+        appointmentForm.setPatientAdvocatesInvited( new ArrayList<String>() );
+        return appointmentForm;
+    }
+
+    /**
+     * Saves an appointment request for the patient with the HCP
+     *
+     * @param date
+     *            When the appointment is
+     * @param status
+     *            Status of the request
+     * @param invite
+     *            Whether the advocate is invited
+     * @return The saved request
+     */
+    private AppointmentRequest saveRequest ( final String date, final Status status, final boolean invite ) {
+        final AppointmentRequestForm appointmentForm = new AppointmentRequestForm();
+        appointmentForm.setDate( date );
+        appointmentForm.setType( AppointmentType.GENERAL_CHECKUP.toString() );
+        appointmentForm.setStatus( status.toString() );
+        appointmentForm.setHcp( "hcp" );
+        appointmentForm.setPatient( "patient" );
+        appointmentForm.setComments( "Test appointment please ignore" );
+        appointmentForm.setPatientAdvocatesInvited( invite ? List.of( "advocate" ) : new ArrayList<String>() );
+        final AppointmentRequest request = arService.build( appointmentForm );
+        arService.save( request );
+        return request;
+    }
+
 }
@@ -3,6 +3,9 @@ package edu.ncsu.csc.iTrust2.api;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -11,13 +14,17 @@ import java.util.stream.Collectors;
 
 import javax.transaction.Transactional;
 
+import org.hamcrest.Matchers;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
@@ -26,8 +33,10 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import com.google.gson.reflect.TypeToken;
 
+import edu.ncsu.csc.iTrust2.common.QueryCount;
 import edu.ncsu.csc.iTrust2.common.TestUtils;
 import edu.ncsu.csc.iTrust2.forms.DiagnosisForm;
+import edu.ncsu.csc.iTrust2.forms.DiagnosisListForm;
 import edu.ncsu.csc.iTrust2.forms.OfficeVisitForm;
 import edu.ncsu.csc.iTrust2.forms.UserForm;
 import edu.ncsu.csc.iTrust2.models.Diagnosis;
@@ -71,6 +80,9 @@ public class APIDiagnosisTest {
     @Autowired
     private OfficeVisitService officeVisitService;
 
+    @Value ( "${itrust2.paging.max-size:500}" )
+    private int                maxPageSize;
+
     /**
      * Sets up test
      */
@@ -191,6 +203,15 @@ public class APIDiagnosisTest {
         }
         Assertions.assertTrue( flag );
 
+        // and both should be in their history, which can be read a page at a
+        // time
+        final Page<DiagnosisListForm> history = diagnosisService.findHistory( userService.findByName( "patient" ),
+                PageRequest.of( 0, 1 ) );
+        Assertions.assertEquals( 2, history.getTotalElements() );
+        Assertions.assertEquals( 1, history.getContent().size() );
+        Assertions.assertEquals( "hcp", history.getContent().get( 0 ).getHcp().getUsername() );
+        Assertions.assertTrue( retrieved.getDate().isEqual( history.getContent().get( 0 ).getVisitDate() ) );
+
         // edit a diagnosis within the editing of office visit and check they
         // work.
         form.setId( id + "" );
@@ -249,4 +270,137 @@ public class APIDiagnosisTest {
         Assertions.assertEquals( 2, diagnosisService.count() );
 
     }
+
+    /**
+     * Tests reading the logged in patient's diagnoses a page at a time, and
+     * that a page takes the same few queries however many HCPs and codes it
+     * shows. Not transactional, so that the HCPs and codes are not already
+     * loaded when the request is made.
+     *
+     * @throws Exception
+     */
+    @Test
+    @WithMockUser ( username = "patient", roles = { "PATIENT" } )
+    public void testDiagnosisHistoryPaged () throws Exception {
+        try {
+            userService.saveAll( List.of( new Personnel( new UserForm( "hcp2", "123456", Role.ROLE_HCP, 1 ) ),
+                    new Personnel( new UserForm( "hcp3", "123456", Role.ROLE_HCP, 1 ) ) ) );
+            saveVisit( "hcp", "2048-04-16T09:50:00.000-04:00", "T20", "First" );
+            saveVisit( "hcp2", "2048-04-17T09:50:00.000-04:00", "T21", "Second" );
+            saveVisit( "hcp3", "2048-04-18T09:50:00.000-04:00", "T22", "Third" );
+
+            mvc.perform( get( "/api/v1/diagnoses" ).param( "page", "0" ).param( "size", "2" ) )
+                    .andExpect( status().isOk() ).andExpect( jsonPath( "$.length()" ).value( 2 ) )
+                    .andExpect( jsonPath( "$[0].note" ).value( "First" ) )
+                    .andExpect( jsonPath( "$[0].hcp.username" ).value( "hcp" ) )
+                    .andExpect( jsonPath( "$[0].code.code" ).value( "T20" ) )
+                    .andExpect( jsonPath( "$[0].code.description" ).value( "Test T20" ) )
+                    .andExpect( jsonPath( "$[1].note" ).value( "Second" ) )
+                    .andExpect( header().string( "X-Total-Count", "3" ) )
+                    .andExpect( header().string( "Link", Matchers.containsString( "page=1" ) ) )
+                    .andExpect( QueryCount.atMost( 4 ) ).andExpect( QueryCount.repeatsAtMost( 1 ) );
+
+            mvc.perform( get( "/api/v1/diagnoses" ).param( "page", "1" ).param( "size", "2" ) )
+                    .andExpect( status().isOk() ).andExpect( jsonPath( "$.length()" ).value( 1 ) )
+                    .andExpect( jsonPath( "$[0].note" ).value( "Third" ) )
+                    .andExpect( jsonPath( "$[0].hcp.username" ).value( "hcp3" ) )
+                    .andExpect( header().string( "X-Total-Count", "3" ) ).andExpect( header().doesNotExist( "Link" ) );
+
+            mvc.perform( get( "/api/v1/diagnoses" ).param( "size", "2" ).param( "order", "desc" ) )
+                    .andExpect( status().isOk() ).andExpect( jsonPath( "$.length()" ).value( 2 ) )
+                    .andExpect( jsonPath( "$[0].note" ).value( "Third" ) )
+                    .andExpect( jsonPath( "$[1].note" ).value( "Second" ) );
+
+            mvc.perform( get( "/api/v1/diagnoses" ).param( "order", "sideways" ) )
+                    .andExpect( status().isBadRequest() );
+
+            /* With no page or size, the whole history comes back, unpaged */
+            mvc.perform( get( "/api/v1/diagnoses" ) ).andExpect( status().isOk() )
+                    .andExpect( jsonPath( "$.length()" ).value( 3 ) )
+                    .andExpect( jsonPath( "$[0].note" ).value( "First" ) )
+                    .andExpect( jsonPath( "$[2].note" ).value( "Third" ) )
+                    .andExpect( header().doesNotExist( "X-Total-Count" ) ).andExpect( header().doesNotExist( "Link" ) );
+        }
+        finally {
+            officeVisitService.deleteAll();
+            icdCodeService.deleteAll();
+            userService.deleteAll();
+            hospitalService.deleteAll();
+        }
+    }
+
+    /**
+     * Tests that a patient with more diagnoses than fit on a page still gets
+     * all of them when no page or size is asked for, as the diagnoses page
+     * does
+     *
+     * @throws Exception
+     */
+    @Test
+    @Transactional
+    @WithMockUser ( username = "patient", roles = { "PATIENT" } )
+    public void testDiagnosisHistoryWhole () throws Exception {
+        final String[] notes = new String[maxPageSize + 1];
+        for ( int i = 0; i < notes.length; i++ ) {
+            notes[i] = "Diagnosis " + i;
+        }
+        saveVisit( "hcp", "2048-04-16T09:50:00.000-04:00", "T30", notes );
+
+        mvc.perform( get( "/api/v1/diagnoses" ) ).andExpect( status().isOk() )
+                .andExpect( jsonPath( "$.length()" ).value( notes.length ) )
+                .andExpect( header().doesNotExist( "X-Total-Count" ) ).andExpect( header().doesNotExist( "Link" ) );
+
+        mvc.perform( get( "/api/v1/diagnoses" ).param( "page", "0" ) ).andExpect( status().isOk() )
+                .andExpect( jsonPath( "$.length()" ).value( maxPageSize ) )
+                .andExpect( header().string( "X-Total-Count", Integer.toString( notes.length ) ) );
+    }
+
+    /**
+     * Saves an office visit for the test patient, with a diagnosis for each
+     * note given
+     *
+     * @param hcp
+     *            HCP who made the diagnosis
+     * @param date
+     *            When the visit was
+     * @param code
+     *            ICD code for the diagnoses, which is created
+     * @param notes
+     *            Note for each diagnosis
+     */
+    private void saveVisit ( final String hcp, final String date, final String code, final String... notes ) {
+        final ICDCode icd = new ICDCode();
+        icd.setCode( code );
+        icd.setDescription( "Test " + code );
+        icdCodeService.save( icd );
+
+        final OfficeVisitForm form = new OfficeVisitForm();
+        form.setDate( date );
+        form.setHcp( hcp );
+        form.setPatient( "patient" );
+        form.setNotes( "Test office visit" );
+        form.setType( AppointmentType.GENERAL_CHECKUP.toString() );
+        form.setHospital( "iTrust Test Hospital 2" );
+        form.setPatientAdvocatesPresent( List.of() );
+        form.setHdl( 1 );
+        form.setHeight( 1f );
+        form.setWeight( 1f );
+        form.setLdl( 1 );
+        form.setTri( 100 );
+        form.setDiastolic( 1 );
+        form.setSystolic( 1 );
+        form.setHouseSmokingStatus( HouseholdSmokingStatus.NONSMOKING );
+        form.setPatientSmokingStatus( PatientSmokingStatus.FORMER );
+
+        final List<DiagnosisForm> diagnoses = new ArrayList<DiagnosisForm>();
+        for ( final String note : notes ) {
+            final Diagnosis diagnosis = new Diagnosis();
+            diagnosis.setCode( icd );
+            diagnosis.setNote( note );
+            diagnoses.add( new DiagnosisForm( diagnosis ) );
+        }
+        form.setDiagnoses( diagnoses );
+
+        officeVisitService.save( officeVisitService.build( form ) );
+    }
 }
@@ -1,6 +1,7 @@
 package edu.ncsu.csc.iTrust2.api;
 
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
@@ -8,6 +9,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.io.UnsupportedEncodingException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import javax.transaction.Transactional;
 
@@ -132,4 +136,68 @@ public class APIDrugTest {
 
     }
 
+    private Drug addDrug ( final String code, final String name, final String description ) throws Exception {
+        final DrugForm form = new DrugForm();
+        form.setCode( code );
+        form.setName( name );
+        form.setDescription( description );
+        final String content = mvc
+                .perform( post( "/api/v1/drugs" ).with( csrf() ).contentType( MediaType.APPLICATION_JSON )
+                        .content( TestUtils.asJsonString( form ) ) )
+                .andExpect( status().isOk() ).andReturn().getResponse().getContentAsString();
+        return TestUtils.gson().fromJson( content, Drug.class );
+    }
+
+    private List<String> search ( final String query, final int page, final int limit ) throws Exception {
+        final String content = mvc
+                .perform( get( "/api/v1/drugs/search" ).param( "q", query ).param( "page", "" + page ).param( "limit",
+                        "" + limit ) )
+                .andExpect( status().isOk() ).andReturn().getResponse().getContentAsString();
+        return Arrays.stream( TestUtils.gson().fromJson( content, Drug[].class ) ).map( Drug::getName )
+                .collect( Collectors.toList() );
+    }
+
+    /**
+     * Tests searching the formulary, and that the search index follows drugs
+     * being added, edited and deleted
+     *
+     * @throws Exception
+     */
+    @Test
+    @Transactional
+    @WithMockUser ( username = "admin", roles = { "USER", "ADMIN" } )
+    public void testSearch () throws Exception {
+        final Drug ibuprofen = addDrug( "0378-6208-93", "Ibuprofen", "Pain reliever" );
+        addDrug( "1234-5678-90", "Aspirin", "Pain relief, see also 0378" );
+        addDrug( "0378-0001-01", "Quinapril", "ACE inhibitor" );
+        addDrug( "5555-6208-00", "Acetaminophen", "Fever and pain" );
+
+        Assertions.assertEquals( List.of( "Ibuprofen" ), search( "0378-6208-93", 0, 20 ) );
+        Assertions.assertEquals( List.of( "Ibuprofen" ), search( "037862", 0, 20 ),
+                "Codes should match without their dashes" );
+        Assertions.assertEquals( List.of( "Ibuprofen", "Quinapril", "Aspirin" ), search( "0378", 0, 20 ),
+                "Drugs matching on their code should come before drugs matching on their description" );
+        Assertions.assertEquals( List.of( "Acetaminophen", "Ibuprofen" ), search( "6208", 0, 20 ),
+                "Product codes should be searchable on their own" );
+        Assertions.assertEquals( List.of( "Acetaminophen", "Quinapril" ), search( "ace", 0, 20 ),
+                "Drugs matching on their name should come before drugs matching on their description" );
+        Assertions.assertEquals( List.of( "Aspirin", "Ibuprofen" ), search( "PAIN rel", 0, 20 ),
+                "Every word should have to match" );
+        Assertions.assertTrue( search( "zzz", 0, 20 ).isEmpty() );
+
+        Assertions.assertEquals( List.of( "Acetaminophen", "Aspirin" ), search( "pain", 0, 2 ) );
+        Assertions.assertEquals( List.of( "Ibuprofen" ), search( "pain", 1, 2 ) );
+        Assertions.assertEquals( List.of( "Ibuprofen", "Quinapril" ), search( "", 1, 2 ),
+                "An empty search should page through every drug by name" );
+
+        ibuprofen.setName( "Advil" );
+        mvc.perform( put( "/api/v1/drugs" ).with( csrf() ).contentType( MediaType.APPLICATION_JSON )
+                .content( TestUtils.asJsonString( ibuprofen ) ) ).andExpect( status().isOk() );
+        Assertions.assertEquals( List.of( "Advil" ), search( "adv", 0, 20 ), "Edits should be searchable at once" );
+        Assertions.assertTrue( search( "ibuprofen", 0, 20 ).isEmpty() );
+
+        mvc.perform( delete( "/api/v1/drugs/" + ibuprofen.getId() ).with( csrf() ) ).andExpect( status().isOk() );
+        Assertions.assertTrue( search( "adv", 0, 20 ).isEmpty(), "Deleted drugs should not be found" );
+    }
+
 }
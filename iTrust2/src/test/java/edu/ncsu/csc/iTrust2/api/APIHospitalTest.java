@@ -5,6 +5,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import javax.transaction.Transactional;
@@ -16,6 +17,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
@@ -114,6 +116,39 @@ public class APIHospitalTest {
 
     }
 
+    /**
+     * Tests that the list of hospitals can be revalidated with its ETag, and
+     * that adding a hospital changes the ETag
+     *
+     * @throws Exception
+     */
+    @Test
+    @Transactional
+    @WithMockUser ( username = "admin", roles = { "ADMIN" } )
+    public void testConditionalGet () throws Exception {
+        final String etag = mvc.perform( get( "/api/v1/hospitals" ) ).andExpect( status().isOk() )
+                .andExpect( header().exists( HttpHeaders.ETAG ) ).andReturn().getResponse()
+                .getHeader( HttpHeaders.ETAG );
+
+        // The client's copy is current, so it isn't sent again
+        mvc.perform( get( "/api/v1/hospitals" ).header( HttpHeaders.IF_NONE_MATCH, etag ) )
+                .andExpect( status().isNotModified() ).andExpect( header().string( HttpHeaders.ETAG, etag ) )
+                .andExpect( content().string( "" ) );
+        mvc.perform( get( "/api/v1/hospitals" ).header( HttpHeaders.IF_NONE_MATCH, "\"stale\", W/" + etag ) )
+                .andExpect( status().isNotModified() );
+        mvc.perform( get( "/api/v1/hospitals" ).header( HttpHeaders.IF_NONE_MATCH, "\"stale\"" ) )
+                .andExpect( status().isOk() );
+
+        final Hospital hospital = new Hospital( "iTrust Test Hospital 2", "1 iTrust Test Street", "27607", "NC" );
+        mvc.perform( post( "/api/v1/hospitals" ).with( csrf() ).contentType( MediaType.APPLICATION_JSON )
+                .content( TestUtils.asJsonString( hospital ) ) ).andExpect( status().isOk() );
+
+        // Now it is out of date
+        final String changed = mvc.perform( get( "/api/v1/hospitals" ).header( HttpHeaders.IF_NONE_MATCH, etag ) )
+                .andExpect( status().isOk() ).andReturn().getResponse().getHeader( HttpHeaders.ETAG );
+        Assertions.assertNotEquals( etag, changed );
+    }
+
     @Test
     @Transactional
     @WithMockUser ( username = "patient", roles = { "PATIENT" } )
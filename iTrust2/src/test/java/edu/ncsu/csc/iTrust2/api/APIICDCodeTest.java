@@ -9,6 +9,10 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
 import javax.transaction.Transactional;
 
 import org.junit.jupiter.api.Assertions;
@@ -27,6 +31,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import edu.ncsu.csc.iTrust2.common.TestUtils;
 import edu.ncsu.csc.iTrust2.forms.ICDCodeForm;
 import edu.ncsu.csc.iTrust2.forms.UserForm;
+import edu.ncsu.csc.iTrust2.models.ICDCode;
 import edu.ncsu.csc.iTrust2.models.Personnel;
 import edu.ncsu.csc.iTrust2.models.User;
 import edu.ncsu.csc.iTrust2.models.enums.Role;
@@ -169,4 +174,41 @@ public class APIICDCodeTest {
         Assertions.assertTrue( getContent.contains( "B13" ) );
         Assertions.assertFalse( getContent.contains( "B12" ) );
     }
+
+    private void addCode ( final String code, final String description, final boolean ophthalmology ) {
+        final ICDCodeForm form = new ICDCodeForm();
+        form.setCode( code );
+        form.setDescription( description );
+        form.setIsOphthalmology( ophthalmology );
+        service.save( new ICDCode( form ) );
+    }
+
+    private List<String> search ( final String query, final int limit ) throws Exception {
+        final String content = mvc
+                .perform( get( "/api/v1/icdcodes/search" ).param( "q", query ).param( "limit", "" + limit ) )
+                .andExpect( status().isOk() ).andReturn().getResponse().getContentAsString();
+        return Arrays.stream( TestUtils.gson().fromJson( content, ICDCodeForm[].class ) ).map( ICDCodeForm::getCode )
+                .collect( Collectors.toList() );
+    }
+
+    @Test
+    @Transactional
+    @WithMockUser ( username = "hcp", roles = { "HCP" } )
+    public void testSearch () throws Exception {
+        addCode( "J45.2", "Mild intermittent asthma", false );
+        addCode( "J45", "Asthma", false );
+        addCode( "J44", "Chronic obstructive pulmonary disease", false );
+        addCode( "H40", "Glaucoma", true );
+
+        Assertions.assertEquals( List.of( "J45", "J45.2" ), search( "J45", 20 ),
+                "The exact code should come before longer codes that start with it" );
+        Assertions.assertEquals( List.of( "J45.2" ), search( "j452", 20 ), "Codes should match without their decimal" );
+        Assertions.assertEquals( List.of( "J45", "J45.2" ), search( "asth", 20 ) );
+        Assertions.assertEquals( List.of( "J44" ), search( "chronic pulm", 20 ), "Every word should have to match" );
+        Assertions.assertEquals( List.of( "J44" ), search( "J4 obstructive", 20 ) );
+        Assertions.assertEquals( List.of( "J45" ), search( "J45", 1 ) );
+        Assertions.assertEquals( 3, search( "", 20 ).size(), "An empty search should list the first codes" );
+        Assertions.assertTrue( search( "glaucoma", 20 ).isEmpty(),
+                "Ophthalmology codes should not be found by a general HCP" );
+    }
 }
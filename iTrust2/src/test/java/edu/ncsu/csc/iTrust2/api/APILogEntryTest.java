@@ -113,4 +113,66 @@ public class APILogEntryTest {
 
     }
 
+    /**
+     * Tests that pages come back newest first, and that asking for the page
+     * after the last row of the previous one continues where it left off.
+     *
+     * @throws UnsupportedEncodingException
+     * @throws Exception
+     */
+    @Test
+    @Transactional
+    @WithMockUser ( username = "admin", roles = { "USER", "ADMIN" } )
+    public void testLogPaging () throws UnsupportedEncodingException, Exception {
+        final ZonedDateTime now = ZonedDateTime.now();
+        for ( int i = 0; i < 15; i++ ) {
+            final LogEntry logEntry = new LogEntry();
+            logEntry.setLogCode( TransactionType.LOGIN_SUCCESS );
+            logEntry.setPrimaryUser( "admin" );
+            logEntry.setMessage( "Logged In " + i );
+            logEntry.setTime( now.minusMinutes( i + 1 ) );
+            service.save( logEntry );
+        }
+
+        final LogEntryRequestBody body = new LogEntryRequestBody();
+        body.setStartDate( "" );
+        body.setEndDate( "" );
+        body.setPageLength( 10 );
+        body.setPage( 1 );
+
+        final String content1 = mvc
+                .perform( post( "/api/v1/logentries/range" ).with( csrf() ).contentType( MediaType.APPLICATION_JSON )
+                        .content( TestUtils.asJsonString( body ) ) )
+                .andExpect( status().isOk() ).andReturn().getResponse().getContentAsString();
+        final List<LogEntryTableRow> first = TestUtils.gson().fromJson( content1,
+                new TypeToken<ArrayList<LogEntryTableRow>>() {
+                }.getType() );
+        Assertions.assertEquals( 10, first.size() );
+        Assertions.assertEquals( 2, first.get( 0 ).getNumPages() );
+        for ( int i = 1; i < first.size(); i++ ) {
+            Assertions.assertTrue(
+                    ZonedDateTime.parse( first.get( i - 1 ).getDateTime() )
+                            .compareTo( ZonedDateTime.parse( first.get( i ).getDateTime() ) ) >= 0,
+                    "Log entries should be returned newest first" );
+        }
+
+        final LogEntryTableRow last = first.get( first.size() - 1 );
+        body.setPage( 2 );
+        body.setCursorTime( last.getDateTime() );
+        body.setCursorId( last.getId() );
+
+        final String content2 = mvc
+                .perform( post( "/api/v1/logentries/range" ).with( csrf() ).contentType( MediaType.APPLICATION_JSON )
+                        .content( TestUtils.asJsonString( body ) ) )
+                .andExpect( status().isOk() ).andReturn().getResponse().getContentAsString();
+        final List<LogEntryTableRow> second = TestUtils.gson().fromJson( content2,
+                new TypeToken<ArrayList<LogEntryTableRow>>() {
+                }.getType() );
+        Assertions.assertEquals( 5, second.size(), "The second page should hold the remaining entries" );
+        for ( final LogEntryTableRow row : second ) {
+            Assertions.assertTrue( first.stream().noneMatch( r -> r.getId().equals( row.getId() ) ),
+                    "Pages should not overlap" );
+        }
+    }
+
 }
@@ -0,0 +1,127 @@
+package edu.ncsu.csc.iTrust2.api;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+import edu.ncsu.csc.iTrust2.common.QueryCount;
+import edu.ncsu.csc.iTrust2.config.ApiMetricsEndpoint;
+import edu.ncsu.csc.iTrust2.utils.ApiMetrics;
+
+/**
+ * Checks that API requests are recorded in the per-handler metrics
+ *
+ * @author Kai Presler-Marshall
+ *
+ */
+@ExtendWith ( SpringExtension.class )
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles ( { "test" } )
+public class APIMetricsTest {
+
+    private static final String   ROLE            = "ROLE_ADMIN,ROLE_USER";
+
+    private static final String[] ADMIN_ENDPOINTS = { "/actuator/metrics", "/actuator/apimetrics",
+            "/actuator/usercache" };
+
+    @Autowired
+    private MockMvc               mvc;
+
+    @Autowired
+    private ApiMetrics            apiMetrics;
+
+    @Autowired
+    private ApiMetricsEndpoint    endpoint;
+
+    @Test
+    @WithMockUser ( username = "admin", roles = { "USER", "ADMIN" } )
+    @SuppressWarnings ( "unchecked" )
+    public void testHandlerMetrics () throws Exception {
+        final long listedBefore = count( "APIDrugController.getDrugs" );
+        final double notFoundBefore = errors( "APIDrugController.deleteDrug", 404 );
+
+        mvc.perform( get( "/api/v1/drugs" ) ).andExpect( status().isOk() ).andExpect( QueryCount.atMost( 1 ) );
+        mvc.perform( get( "/api/v1/drugs" ) ).andExpect( status().isOk() )
+                .andExpect( QueryCount.repeatsAtMost( 1 ) );
+        mvc.perform( delete( "/api/v1/drugs/-1" ).with( csrf() ) ).andExpect( status().isNotFound() );
+
+        Assertions.assertEquals( listedBefore + 2, count( "APIDrugController.getDrugs" ),
+                "Each request should be timed against its handler and role" );
+        Assertions.assertEquals( notFoundBefore + 1, errors( "APIDrugController.deleteDrug", 404 ),
+                "Failed requests should be counted by status" );
+        Assertions.assertEquals( 0, handler( "APIDrugController.getDrugs" ).getInFlight(),
+                "Nothing should be in flight once requests complete" );
+
+        final Map<String, Object> summary = endpoint.summary();
+        final Map<String, Object> drugs = (Map<String, Object>) summary.get( "APIDrugController.getDrugs" );
+        Assertions.assertNotNull( drugs, "The actuator summary should include every handler called" );
+        final Map<String, Object> roles = (Map<String, Object>) drugs.get( "roles" );
+        final Map<String, Object> admin = (Map<String, Object>) roles.get( ROLE );
+        Assertions.assertTrue( admin.containsKey( "p95Ms" ) );
+        Assertions.assertTrue( admin.containsKey( "dbMeanMs" ) );
+        Assertions.assertTrue( admin.containsKey( "queriesMean" ) );
+    }
+
+    @Test
+    public void testEndpointsNeedAdmin () throws Exception {
+        mvc.perform( get( "/actuator/info" ) ).andExpect( status().isOk() );
+        for ( final String endpoint : ADMIN_ENDPOINTS ) {
+            mvc.perform( get( endpoint ) ).andExpect( status().isForbidden() );
+        }
+    }
+
+    @Test
+    @WithMockUser ( username = "hcp", roles = { "USER", "HCP" } )
+    public void testEndpointsForbidHcp () throws Exception {
+        mvc.perform( get( "/actuator/info" ) ).andExpect( status().isOk() );
+        for ( final String endpoint : ADMIN_ENDPOINTS ) {
+            mvc.perform( get( endpoint ) ).andExpect( status().isForbidden() );
+        }
+    }
+
+    @Test
+    @WithMockUser ( username = "admin", roles = { "USER", "ADMIN" } )
+    public void testEndpointsAllowAdmin () throws Exception {
+        for ( final String endpoint : ADMIN_ENDPOINTS ) {
+            mvc.perform( get( endpoint ) ).andExpect( status().isOk() );
+        }
+    }
+
+    private ApiMetrics.Handler handler ( final String name ) {
+        return apiMetrics.getHandlers().stream().filter( h -> h.getName().equals( name ) ).findFirst()
+                .orElse( null );
+    }
+
+    private long count ( final String name ) {
+        final ApiMetrics.Handler handler = handler( name );
+        if ( null == handler || !handler.getRoles().containsKey( ROLE ) ) {
+            return 0;
+        }
+        return handler.getRoles().get( ROLE ).getLatency().count();
+    }
+
+    private double errors ( final String name, final int status ) {
+        final ApiMetrics.Handler handler = handler( name );
+        if ( null == handler || !handler.getRoles().containsKey( ROLE )
+                || !handler.getRoles().get( ROLE ).getErrors().containsKey( status ) ) {
+            return 0;
+        }
+        return handler.getRoles().get( ROLE ).getErrors().get( status ).count();
+    }
+
+}
@@ -3,8 +3,12 @@ package edu.ncsu.csc.iTrust2.api;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.util.Arrays;
+
 import javax.transaction.Transactional;
 
 import org.junit.jupiter.api.Assertions;
@@ -14,6 +18,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
@@ -226,4 +231,29 @@ public class APIPatientTest {
         mvc.perform( get( "/api/v1/patient/" ) ).andExpect( status().isOk() );
     }
 
+    /**
+     * Tests that the enums used to fill in patient demographics are served
+     * with ETags, and not sent again to a client whose copy is current
+     *
+     * @throws Exception
+     */
+    @Test
+    @WithMockUser ( username = "hcp", roles = { "HCP" } )
+    public void testEnumConditionalGet () throws Exception {
+        for ( final String path : new String[] { "state", "bloodtype", "ethnicity", "gender", "patientsmoking" } ) {
+            final String etag = mvc.perform( get( "/api/v1/" + path ) ).andExpect( status().isOk() )
+                    .andExpect( content().contentTypeCompatibleWith( MediaType.APPLICATION_JSON ) )
+                    .andReturn().getResponse().getHeader( HttpHeaders.ETAG );
+            Assertions.assertNotNull( etag, "Enum responses should carry an ETag" );
+
+            mvc.perform( get( "/api/v1/" + path ).header( HttpHeaders.IF_NONE_MATCH, etag ) )
+                    .andExpect( status().isNotModified() ).andExpect( header().string( HttpHeaders.ETAG, etag ) )
+                    .andExpect( content().string( "" ) );
+        }
+
+        // Still serialized the way it always was
+        mvc.perform( get( "/api/v1/state" ) ).andExpect( content().json(
+                TestUtils.asJsonString( Arrays.stream( State.values() ).map( State::getInfo ).toArray() ), true ) );
+    }
+
 }
@@ -4,6 +4,8 @@ import static org.springframework.security.test.web.servlet.request.SecurityMock
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.util.List;
@@ -226,4 +228,60 @@ public class APIPersonnelTest {
 
     }
 
+    /**
+     * Tests listing personnel by role a page at a time
+     *
+     * @throws Exception
+     */
+    @Test
+    @Transactional
+    @WithMockUser ( username = "admin", roles = { "ADMIN" } )
+    public void testRoleFilteringPaged () throws Exception {
+        final Personnel hcp = new Personnel( new UserForm( "hcp_test1", "123456", Role.ROLE_HCP, 1 ) );
+        final Personnel hcp2 = new Personnel( new UserForm( "hcp_test2", "123456", Role.ROLE_HCP, 1 ) );
+        final Personnel hcp3 = new Personnel( new UserForm( "hcp_test3", "123456", Role.ROLE_HCP, 1 ) );
+        final Personnel admin = new Personnel( new UserForm( "admin_test", "123456", Role.ROLE_ADMIN, 1 ) );
+        service.saveAll( List.of( hcp3, hcp, admin, hcp2 ) );
+
+        mvc.perform( get( "/api/v1/personnel/getbyroles/ROLE_HCP?page=0&size=2" ) ).andExpect( status().isOk() )
+                .andExpect( header().string( "X-Total-Count", "3" ) ).andExpect( jsonPath( "$.length()" ).value( 2 ) )
+                .andExpect( jsonPath( "$[0].username" ).value( "hcp_test1" ) )
+                .andExpect( jsonPath( "$[1].username" ).value( "hcp_test2" ) );
+        mvc.perform( get( "/api/v1/personnel/getbyroles/ROLE_HCP?page=1&size=2" ) ).andExpect( status().isOk() )
+                .andExpect( jsonPath( "$.length()" ).value( 1 ) )
+                .andExpect( jsonPath( "$[0].username" ).value( "hcp_test3" ) );
+        mvc.perform( get( "/api/v1/personnel/getbyroles/ROLE_HCP/statistics?page=0&size=2" ) )
+                .andExpect( status().isOk() ).andExpect( header().string( "X-Total-Count", "3" ) )
+                .andExpect( jsonPath( "$.length()" ).value( 2 ) );
+    }
+
+    /**
+     * Tests that a change to nothing but someone's roles is seen in the next
+     * list by role. Not transactional, so that the directory is loaded and
+     * shared before the change, and the change is made in a transaction of
+     * its own.
+     *
+     * @throws Exception
+     */
+    @Test
+    @WithMockUser ( username = "admin", roles = { "ADMIN" } )
+    public void testRoleChangeSeen () throws Exception {
+        try {
+            service.save( new Personnel( new UserForm( "admin_test", "123456", Role.ROLE_ADMIN, 1 ) ) );
+            mvc.perform( get( "/api/v1/personnel/getbyroles/ROLE_ER" ) ).andExpect( status().isOk() )
+                    .andExpect( jsonPath( "$.length()" ).value( 0 ) );
+
+            final Personnel fromDb = (Personnel) service.findByName( "admin_test" );
+            fromDb.addRole( Role.ROLE_ER );
+            service.save( fromDb );
+
+            mvc.perform( get( "/api/v1/personnel/getbyroles/ROLE_ER" ) ).andExpect( status().isOk() )
+                    .andExpect( jsonPath( "$.length()" ).value( 1 ) )
+                    .andExpect( jsonPath( "$[0].username" ).value( "admin_test" ) );
+        }
+        finally {
+            service.deleteAll();
+        }
+    }
+
 }
@@ -19,6 +19,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
@@ -29,6 +30,7 @@ import edu.ncsu.csc.iTrust2.common.TestUtils;
 import edu.ncsu.csc.iTrust2.forms.OfficeVisitForm;
 import edu.ncsu.csc.iTrust2.forms.SatisfactionSurveyForm;
 import edu.ncsu.csc.iTrust2.forms.UserForm;
+import edu.ncsu.csc.iTrust2.forms.display.SatisfactionSurveyStatistics;
 import edu.ncsu.csc.iTrust2.models.Hospital;
 import edu.ncsu.csc.iTrust2.models.OfficeVisit;
 import edu.ncsu.csc.iTrust2.models.Patient;
@@ -46,6 +48,7 @@ import edu.ncsu.csc.iTrust2.services.HospitalService;
 import edu.ncsu.csc.iTrust2.services.OfficeVisitService;
 import edu.ncsu.csc.iTrust2.services.PatientAdvocateAssignmentService;
 import edu.ncsu.csc.iTrust2.services.SatisfactionSurveyService;
+import edu.ncsu.csc.iTrust2.services.SatisfactionSurveyStatisticsService;
 import edu.ncsu.csc.iTrust2.services.UserService;
 
 /**
@@ -61,25 +64,28 @@ import edu.ncsu.csc.iTrust2.services.UserService;
 public class APISatisfactionSurveyTest {
 
     @Autowired
-    private MockMvc                          mvc;
+    private MockMvc                             mvc;
 
     @Autowired
-    private OfficeVisitService               officeVisitService;
+    private OfficeVisitService                  officeVisitService;
 
     @Autowired
-    private UserService<User>                userService;
+    private UserService<User>                   userService;
 
     @Autowired
-    private AppointmentRequestService        appointmentRequestService;
+    private AppointmentRequestService           appointmentRequestService;
 
     @Autowired
-    private HospitalService                  hospitalService;
+    private HospitalService                     hospitalService;
 
     @Autowired
-    private SatisfactionSurveyService        surveyService;
+    private SatisfactionSurveyService           surveyService;
 
     @Autowired
-    private PatientAdvocateAssignmentService assignmentService;
+    private SatisfactionSurveyStatisticsService statisticsService;
+
+    @Autowired
+    private PatientAdvocateAssignmentService    assignmentService;
 
     /**
      * Sets up test
@@ -222,5 +228,12 @@ public class APISatisfactionSurveyTest {
                 .content( TestUtils.asJsonString( sform ) ) ).andExpect( status().isOk() );
 
         Assertions.assertEquals( 1, surveyService.count() );
+
+        /* The survey is counted in the HCP's statistics as it is saved */
+        final SatisfactionSurveyStatistics statistics = statisticsService.findForHcp( hcp );
+        Assertions.assertEquals( 1, statistics.getNumberOfSurveys().intValue() );
+        Assertions.assertEquals( 5, statistics.getAverageVisitSatisfaction().intValue() );
+        Assertions.assertEquals( WaitTime.LESS_THAN_FIVE, statistics.getAverageWaitingRoomTime() );
+        Assertions.assertEquals( 1, surveyService.findNotes( "hcp", PageRequest.of( 0, 10 ) ).getTotalElements() );
     }
 }
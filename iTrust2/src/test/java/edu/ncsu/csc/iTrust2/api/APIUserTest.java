@@ -4,6 +4,7 @@ import static org.springframework.security.test.web.servlet.request.SecurityMock
 
 import javax.transaction.Transactional;
 
+import org.hamcrest.Matchers;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -214,6 +215,55 @@ public class APIUserTest {
 
     }
 
+    /**
+     * Tests listing users a page at a time, both by cursor and by page number
+     *
+     * @throws Exception
+     */
+    @Test
+    @Transactional
+    @WithMockUser ( username = "admin", roles = { "ADMIN" } )
+    public void testListUsersInPages () throws Exception {
+        for ( int i = 0; i < 5; i++ ) {
+            service.save( new Personnel( new UserForm( "API_PAGE_" + i, PW, Role.ROLE_HCP, 1 ) ) );
+        }
+
+        /* Without a cursor, listing starts from the first user */
+        mvc.perform( MockMvcRequestBuilders.get( "/api/v1/users" ).param( "size", "2" ) )
+                .andExpect( MockMvcResultMatchers.status().isOk() )
+                .andExpect( MockMvcResultMatchers.jsonPath( "$.length()" ).value( 2 ) )
+                .andExpect( MockMvcResultMatchers.jsonPath( "$[0].username" ).value( "API_PAGE_0" ) )
+                .andExpect( MockMvcResultMatchers.header().string( "X-Next-Cursor", "API_PAGE_1" ) )
+                .andExpect( MockMvcResultMatchers.header().string( "Link",
+                        Matchers.containsString( "cursor=API_PAGE_1" ) ) );
+
+        mvc.perform(
+                MockMvcRequestBuilders.get( "/api/v1/users" ).param( "size", "2" ).param( "cursor", "API_PAGE_3" ) )
+                .andExpect( MockMvcResultMatchers.status().isOk() )
+                .andExpect( MockMvcResultMatchers.jsonPath( "$.length()" ).value( 1 ) )
+                .andExpect( MockMvcResultMatchers.jsonPath( "$[0].username" ).value( "API_PAGE_4" ) )
+                .andExpect( MockMvcResultMatchers.header().doesNotExist( "X-Next-Cursor" ) )
+                .andExpect( MockMvcResultMatchers.header().doesNotExist( "Link" ) );
+
+        mvc.perform( MockMvcRequestBuilders.get( "/api/v1/users" ).param( "size", "2" ).param( "page", "1" ) )
+                .andExpect( MockMvcResultMatchers.status().isOk() )
+                .andExpect( MockMvcResultMatchers.jsonPath( "$.length()" ).value( 2 ) )
+                .andExpect( MockMvcResultMatchers.jsonPath( "$[0].username" ).value( "API_PAGE_2" ) )
+                .andExpect( MockMvcResultMatchers.header().string( "X-Total-Count", "5" ) )
+                .andExpect( MockMvcResultMatchers.header().string( "Link", Matchers.containsString( "page=2" ) ) );
+
+        /* Asking for nothing gets at least one user */
+        mvc.perform( MockMvcRequestBuilders.get( "/api/v1/users" ).param( "size", "0" ) )
+                .andExpect( MockMvcResultMatchers.jsonPath( "$.length()" ).value( 1 ) );
+
+        /* Asking for no page at all gets every user, unpaged */
+        mvc.perform( MockMvcRequestBuilders.get( "/api/v1/users" ) ).andExpect( MockMvcResultMatchers.status().isOk() )
+                .andExpect( MockMvcResultMatchers.jsonPath( "$.length()" ).value( (int) service.count() ) )
+                .andExpect( MockMvcResultMatchers.header().doesNotExist( "X-Next-Cursor" ) )
+                .andExpect( MockMvcResultMatchers.header().doesNotExist( "X-Total-Count" ) )
+                .andExpect( MockMvcResultMatchers.header().doesNotExist( "Link" ) );
+    }
+
     /**
      * Tests the roles
      *
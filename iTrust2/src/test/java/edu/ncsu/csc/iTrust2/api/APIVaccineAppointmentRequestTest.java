@@ -6,8 +6,10 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -261,4 +263,40 @@ public class APIVaccineAppointmentRequestTest {
         Assertions.assertEquals( Status.APPROVED, parsedFromAPI[0].getStatus() );
 
     }
+
+    /**
+     * Tests that only the patient's vaccine appointments less than three hours
+     * from now are offered for a visit
+     *
+     * @throws Exception
+     */
+    @Test
+    @Transactional
+    @WithMockUser ( username = "hcp", roles = { "HCP" } )
+    public void testAppointmentsForVisit () throws Exception {
+        final ZonedDateTime now = ZonedDateTime.now();
+        final VaccineAppointmentRequestForm appointmentForm = new VaccineAppointmentRequestForm();
+        appointmentForm.setType( AppointmentType.VACCINATION.toString() );
+        appointmentForm.setStatus( Status.APPROVED.toString() );
+        appointmentForm.setHcp( "hcp" );
+        appointmentForm.setPatient( "patient" );
+        appointmentForm.setVaccineType( "Moderna" );
+        appointmentForm.setComments( "Test appointment please ignore" );
+        appointmentForm.setVaccineStatus( VaccinationStatus.NOT_VACCINATED.toString() );
+        appointmentForm.setDate( now.plusHours( 1 ).toString() );
+
+        final VaccineAppointmentRequest soon = service.build( appointmentForm );
+        final VaccineAppointmentRequest earlier = service.build( appointmentForm );
+        earlier.setDate( now.minusHours( 2 ) );
+        final VaccineAppointmentRequest tooEarly = service.build( appointmentForm );
+        tooEarly.setDate( now.minusHours( 4 ) );
+        final VaccineAppointmentRequest tooLate = service.build( appointmentForm );
+        tooLate.setDate( now.plusHours( 4 ) );
+        service.saveAll( List.of( soon, earlier, tooEarly, tooLate ) );
+
+        mvc.perform( get( "/api/v1/vaccineappointments/forvisit/patient" ) ).andExpect( status().isOk() )
+                .andExpect( jsonPath( "$.length()" ).value( 2 ) )
+                .andExpect( jsonPath( "$[0].id" ).value( earlier.getId().intValue() ) )
+                .andExpect( jsonPath( "$[1].id" ).value( soon.getId().intValue() ) );
+    }
 }
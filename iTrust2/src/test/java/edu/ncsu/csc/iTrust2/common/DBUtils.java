@@ -5,12 +5,27 @@ import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
 import java.sql.Statement;
 
+import javax.persistence.EntityManagerFactory;
 import javax.sql.DataSource;
 
 import org.junit.Assert;
 
 public class DBUtils {
 
+    /**
+     * Empties every table, then Hibernate's second-level cache, which would
+     * otherwise keep serving the users that were just deleted underneath it
+     *
+     * @param dataSource
+     *            Database to empty
+     * @param entityManagerFactory
+     *            Hibernate, whose cache to empty
+     */
+    static public void resetDB ( final DataSource dataSource, final EntityManagerFactory entityManagerFactory ) {
+        resetDB( dataSource );
+        entityManagerFactory.getCache().evictAll();
+    }
+
     static public void resetDB ( final DataSource dataSource ) {
 
         try ( Connection conn = dataSource.getConnection(); ) {
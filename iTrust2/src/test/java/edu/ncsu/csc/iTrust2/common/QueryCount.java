@@ -0,0 +1,55 @@
+package edu.ncsu.csc.iTrust2.common;
+
+import org.junit.jupiter.api.Assertions;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import edu.ncsu.csc.iTrust2.config.AuditLogInterceptor;
+
+/**
+ * MockMvc ResultMatchers for the number of SQL statements an API request ran,
+ * as counted by the AuditLogInterceptor. Use these to lock in how many queries
+ * an endpoint needs, so that an N+1 creeping back in fails a test:
+ *
+ * `mvc.perform( get( "/api/v1/drugs" ) ).andExpect( QueryCount.atMost( 1 ) );`
+ *
+ * @author Kai Presler-Marshall
+ *
+ */
+public class QueryCount {
+
+    /**
+     * Expects the request to have run at most `max` SQL statements
+     *
+     * @param max
+     *            Most statements allowed
+     * @return ResultMatcher
+     */
+    public static ResultMatcher atMost ( final int max ) {
+        return result -> {
+            final Integer count = (Integer) result.getRequest()
+                    .getAttribute( AuditLogInterceptor.QUERY_COUNT_ATTRIBUTE );
+            Assertions.assertNotNull( count, "Request did not reach a controller, so no queries were counted" );
+            Assertions.assertTrue( count <= max,
+                    "Expected at most " + max + " SQL statements but " + count + " were run" );
+        };
+    }
+
+    /**
+     * Expects the request not to have run any single SQL statement more than
+     * `max` times (ie, no N+1 over more than `max` rows)
+     *
+     * @param max
+     *            Most times any one statement may run
+     * @return ResultMatcher
+     */
+    public static ResultMatcher repeatsAtMost ( final int max ) {
+        return result -> {
+            final Integer repeats = (Integer) result.getRequest()
+                    .getAttribute( AuditLogInterceptor.MAX_REPEATS_ATTRIBUTE );
+            Assertions.assertNotNull( repeats, "Request did not reach a controller, so no queries were counted" );
+            Assertions.assertTrue( repeats <= max,
+                    "Expected no statement to run more than " + max + " times but one ran " + repeats + " times" );
+        };
+    }
+
+}
@@ -0,0 +1,70 @@
+package edu.ncsu.csc.iTrust2.unit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import edu.ncsu.csc.iTrust2.TestConfig;
+import edu.ncsu.csc.iTrust2.models.enums.TransactionType;
+import edu.ncsu.csc.iTrust2.services.security.LogEntryService;
+import edu.ncsu.csc.iTrust2.utils.AuditLogWriter;
+import edu.ncsu.csc.iTrust2.utils.LoggerUtil;
+
+@ExtendWith ( SpringExtension.class )
+@EnableAutoConfiguration
+@SpringBootTest ( classes = TestConfig.class )
+@ActiveProfiles ( { "test" } )
+public class AuditLogWriterTest {
+
+    @Autowired
+    private LoggerUtil          loggerUtil;
+
+    @Autowired
+    private AuditLogWriter      writer;
+
+    @Autowired
+    private LogEntryService     service;
+
+    private static final String USER    = "auditWriterUser";
+
+    private static final int    THREADS = 8;
+
+    private static final int    PER     = 25;
+
+    @BeforeEach
+    public void setup () {
+        service.deleteAll();
+    }
+
+    @Test
+    public void testConcurrentLogging () throws InterruptedException {
+        final List<Thread> threads = new ArrayList<Thread>();
+        for ( int i = 0; i < THREADS; i++ ) {
+            final Thread t = new Thread( () -> {
+                for ( int j = 0; j < PER; j++ ) {
+                    loggerUtil.log( TransactionType.HTTP_REQUEST, USER, "Request " + j );
+                }
+            } );
+            threads.add( t );
+            t.start();
+        }
+        for ( final Thread t : threads ) {
+            t.join();
+        }
+
+        /* Default durability is SYNC, so everything has been committed */
+        Assertions.assertEquals( THREADS * PER, service.findAllForUser( USER ).size(),
+                "Every entry logged concurrently should be saved exactly once" );
+        Assertions.assertEquals( 0, writer.getQueueDepth(), "Nothing should be left waiting on the queue" );
+    }
+
+}
@@ -1,5 +1,8 @@
 package edu.ncsu.csc.iTrust2.unit;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
 import javax.transaction.Transactional;
 
 import org.junit.jupiter.api.Assertions;
@@ -14,6 +17,7 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 import edu.ncsu.csc.iTrust2.TestConfig;
 import edu.ncsu.csc.iTrust2.forms.CPTCodeForm;
 import edu.ncsu.csc.iTrust2.models.CPTCode;
+import edu.ncsu.csc.iTrust2.services.CPTCodeCatalog;
 import edu.ncsu.csc.iTrust2.services.CPTCodeService;
 
 /**
@@ -127,4 +131,53 @@ class CPTCodeTest {
                     e.getMessage() );
         }
     }
+
+    @Test
+    public void testCatalog () {
+        final int number = 88001;
+        final CPTCodeCatalog.Snapshot before = CPTCodeService.getCatalog();
+        Assertions.assertTrue( before.findByCode( number ).isEmpty() );
+
+        final CPTCode first = new CPTCode();
+        first.setCode( number );
+        first.setDescription( "Catalog test" );
+        first.setCost( 40 );
+        first.setVersion( 1 );
+        first.setisActive( true );
+        CPTCodeService.save( first );
+
+        final CPTCodeCatalog.Snapshot created = CPTCodeService.getCatalog();
+        Assertions.assertTrue( created.getVersion() > before.getVersion(),
+                "Saving a code should move the catalog on to a new version" );
+        Assertions.assertSame( created, CPTCodeService.getCatalog(), "An unchanged catalog should not be reloaded" );
+        Assertions.assertEquals( 40, created.findById( first.getId() ).getCost() );
+        Assertions.assertEquals( first.getId(), CPTCodeService.findActiveByCode( number ).getId() );
+
+        /* Edit the code the way the API does: retire the old version, add a new one */
+        final CPTCode retired = CPTCodeService.findById( first.getId() );
+        retired.setisActive( false );
+        final CPTCode second = new CPTCode();
+        second.setCode( number );
+        second.setDescription( "Catalog test" );
+        second.setCost( 60 );
+        second.setVersion( 2 );
+        second.setisActive( true );
+        CPTCodeService.saveAll( List.of( retired, second ) );
+
+        final CPTCodeCatalog.Snapshot edited = CPTCodeService.getCatalog();
+        Assertions.assertTrue( edited.getVersion() > created.getVersion() );
+        Assertions.assertEquals( 2, edited.findByCode( number ).size() );
+        Assertions.assertFalse( edited.findByCodeAndVersion( number, 1 ).getisActive() );
+        Assertions.assertEquals( 60, CPTCodeService.findActiveByCode( number ).getCost() );
+        Assertions.assertEquals( 2, CPTCodeService.findMostRecentByCode( number ).getVersion() );
+        Assertions.assertEquals( List.of( 40, 60 ), CPTCodeService.findByIds( List.of( first.getId(), second.getId() ) )
+                .stream().map( CPTCode::getCost ).collect( Collectors.toList() ) );
+        Assertions.assertThrows( IllegalArgumentException.class,
+                () -> CPTCodeService.findByIds( List.of( -1L ) ) );
+
+        CPTCodeService.delete( CPTCodeService.findById( first.getId() ) );
+        CPTCodeService.delete( CPTCodeService.findById( second.getId() ) );
+        Assertions.assertTrue( CPTCodeService.getCatalog().findByCode( number ).isEmpty(),
+                "Deleted codes should leave the catalog" );
+    }
 }
@@ -0,0 +1,75 @@
+package edu.ncsu.csc.iTrust2.unit;
+
+import java.time.ZonedDateTime;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import edu.ncsu.csc.iTrust2.TestConfig;
+import edu.ncsu.csc.iTrust2.models.security.LoginLockout;
+import edu.ncsu.csc.iTrust2.services.security.IPDecisionCache;
+import edu.ncsu.csc.iTrust2.services.security.LoginBanService;
+import edu.ncsu.csc.iTrust2.services.security.LoginLockoutService;
+
+@ExtendWith ( SpringExtension.class )
+@EnableAutoConfiguration
+@SpringBootTest ( classes = TestConfig.class )
+@ActiveProfiles ( { "test" } )
+public class IPDecisionCacheTest {
+
+    @Autowired
+    private IPDecisionCache     cache;
+
+    @Autowired
+    private LoginLockoutService lockoutService;
+
+    @Autowired
+    private LoginBanService     banService;
+
+    private static final String IP_1 = "10.0.0.1";
+
+    private static final String IP_2 = "10.0.0.2";
+
+    @BeforeEach
+    public void setup () {
+        lockoutService.deleteAll();
+        banService.deleteAll();
+        cache.evict( IP_1 );
+        cache.evict( IP_2 );
+    }
+
+    @Test
+    public void testDecisions () {
+        Assertions.assertFalse( cache.isBanned( IP_1 ) );
+        Assertions.assertFalse( cache.isLocked( IP_1 ) );
+
+        cache.recordLockout( IP_1, ZonedDateTime.now() );
+        Assertions.assertTrue( cache.isLocked( IP_1 ), "A recorded lockout should apply immediately" );
+        Assertions.assertFalse( cache.isBanned( IP_1 ) );
+
+        cache.recordLockout( IP_2, ZonedDateTime.now().minusMinutes( 61 ) );
+        Assertions.assertFalse( cache.isLocked( IP_2 ), "Lockouts should expire after 60 minutes" );
+
+        cache.recordBan( IP_2 );
+        Assertions.assertTrue( cache.isBanned( IP_2 ), "A recorded ban should apply immediately" );
+    }
+
+    @Test
+    public void testLoadsFromDatabase () {
+        final LoginLockout lockout = new LoginLockout();
+        lockout.setIp( IP_1 );
+        lockout.setTime( ZonedDateTime.now().minusMinutes( 5 ) );
+        lockoutService.save( lockout );
+
+        Assertions.assertTrue( cache.isLocked( IP_1 ), "A lockout saved by another node should be picked up" );
+        Assertions.assertFalse( cache.isLocked( IP_2 ) );
+    }
+
+}
@@ -3,6 +3,8 @@ package edu.ncsu.csc.iTrust2.unit;
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import org.junit.jupiter.api.Assertions;
@@ -20,6 +22,7 @@ import edu.ncsu.csc.iTrust2.TestConfig;
 import edu.ncsu.csc.iTrust2.models.enums.TransactionType;
 import edu.ncsu.csc.iTrust2.models.security.LogEntry;
 import edu.ncsu.csc.iTrust2.services.security.LogEntryService;
+import edu.ncsu.csc.iTrust2.utils.LoggerUtil;
 
 @ExtendWith ( SpringExtension.class )
 @EnableAutoConfiguration
@@ -30,6 +33,9 @@ public class LogEntryTest {
     @Autowired
     private LogEntryService     service;
 
+    @Autowired
+    private LoggerUtil          loggerUtil;
+
     private static final String USER_1 = "testUser123";
 
     private static final String USER_2 = "testUser1234";
@@ -80,4 +86,47 @@ public class LogEntryTest {
                 "Creating a Log Entry with a secondary user should still find the Log Entry when querying by the primary user" );
 
     }
+
+    @Test
+    public void testTopForUser () {
+        /* Some history from before the user's recent activity was loaded */
+        for ( int i = 0; i < 30; i++ ) {
+            service.save( new LogEntry( TransactionType.VIEW_DEMOGRAPHICS, USER_1, null, "Old " + i ) );
+        }
+
+        List<LogEntry> top = loggerUtil.getTopForUser( USER_1, 10 );
+        Assertions.assertEquals( 10, top.size(), "Should return as many entries as requested" );
+        Assertions.assertEquals( "Old 29", top.get( 0 ).getMessage(), "Newest entry should come first" );
+
+        loggerUtil.log( TransactionType.APPOINTMENT_REQUEST_SUBMITTED, USER_2, USER_1, "New" );
+        top = loggerUtil.getTopForUser( USER_1, 10 );
+        Assertions.assertEquals( "New", top.get( 0 ).getMessage(),
+                "Entries logged after loading should show up, including as secondary user" );
+        Assertions.assertEquals( "New", loggerUtil.getTopForUser( USER_2, 5 ).get( 0 ).getMessage() );
+
+        Assertions.assertEquals( 31, loggerUtil.getTopForUser( USER_1, 100 ).size(),
+                "Asking for more than is kept in memory should read the database" );
+
+        service.deleteAll();
+        Assertions.assertTrue( loggerUtil.getTopForUser( USER_1, 10 ).isEmpty(),
+                "Deleting entries should drop the recent activity" );
+    }
+
+    @Test
+    public void testLogAll () {
+        final String user3 = "testUser12345";
+
+        loggerUtil.logAll( TransactionType.APPOINTMENT_REQUEST_VIEWED, USER_1,
+                Arrays.asList( USER_2, user3, USER_2 ) );
+
+        Assertions.assertEquals( 2, service.count(), "One entry should be saved for each distinct secondary user" );
+        Assertions.assertEquals( 2, service.findAllForUser( USER_1 ).size() );
+        Assertions.assertEquals( 1, service.findAllForUser( USER_2 ).size(),
+                "Each secondary user should see the event in their own log" );
+        Assertions.assertEquals( 1, service.findAllForUser( user3 ).size() );
+        Assertions.assertEquals( USER_1, loggerUtil.getTopForUser( user3, 5 ).get( 0 ).getPrimaryUser() );
+
+        loggerUtil.logAll( TransactionType.APPOINTMENT_REQUEST_VIEWED, USER_1, Collections.emptyList() );
+        Assertions.assertEquals( 2, service.count(), "Logging for nobody should not save anything" );
+    }
 }
@@ -0,0 +1,97 @@
+package edu.ncsu.csc.iTrust2.unit;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import edu.ncsu.csc.iTrust2.TestConfig;
+import edu.ncsu.csc.iTrust2.models.security.LoginFailureCount;
+import edu.ncsu.csc.iTrust2.services.security.LoginFailureCountService;
+import edu.ncsu.csc.iTrust2.services.security.LoginFailureTracker;
+
+@ExtendWith ( SpringExtension.class )
+@EnableAutoConfiguration
+@SpringBootTest ( classes = TestConfig.class )
+@ActiveProfiles ( { "test" } )
+public class LoginFailureTrackerTest {
+
+    @Autowired
+    private LoginFailureTracker      tracker;
+
+    @Autowired
+    private LoginFailureCountService snapshotService;
+
+    private static final String      IP_1       = "10.0.1.1";
+
+    private static final String      IP_2       = "10.0.1.2";
+
+    private static final String      USER       = "trackerTestUser";
+
+    private static final String      OTHER_NODE = "some-other-node";
+
+    private static final long        MINUTE     = 60 * 1000L;
+
+    @BeforeEach
+    public void setup () {
+        snapshotService.deleteAll();
+        tracker.clearIP( IP_1 );
+        tracker.clearIP( IP_2 );
+        tracker.clearUser( USER );
+    }
+
+    @Test
+    public void testSnapshotAndRestore () {
+        tracker.recordIPFailure( IP_1 );
+        tracker.recordIPFailure( IP_1 );
+        tracker.recordIPFailure( IP_1 );
+        tracker.recordUserFailure( USER );
+        tracker.snapshot();
+
+        /* Restarting should bring the counters back */
+        tracker.start();
+        Assertions.assertEquals( 3, tracker.countIP( IP_1 ) );
+        Assertions.assertEquals( 1, tracker.countUser( USER ) );
+
+        /* A second snapshot replaces the first, rather than adding to it */
+        tracker.snapshot();
+        tracker.start();
+        Assertions.assertEquals( 3, tracker.countIP( IP_1 ) );
+        Assertions.assertEquals( 1, tracker.countUser( USER ) );
+
+        tracker.clearIP( IP_1 );
+        tracker.clearUser( USER );
+        tracker.snapshot();
+        tracker.start();
+        Assertions.assertEquals( 0, tracker.countIP( IP_1 ) );
+        Assertions.assertEquals( 0, tracker.countUser( USER ) );
+    }
+
+    @Test
+    public void testSnapshotKeepsOtherNodes () {
+        final long bucket = System.currentTimeMillis() / MINUTE;
+        snapshotService.save( new LoginFailureCount( OTHER_NODE, "ip:" + IP_2, bucket, 4 ) );
+        snapshotService.save( new LoginFailureCount( OTHER_NODE, "ip:" + IP_2, bucket - 24 * 60, 4 ) );
+
+        tracker.recordIPFailure( IP_1 );
+        tracker.snapshot();
+
+        /* The other node's current bucket survives; its expired one does not */
+        final List<LoginFailureCount> saved = snapshotService.findSnapshot( OTHER_NODE );
+        Assertions.assertEquals( 1, saved.size() );
+        Assertions.assertEquals( bucket, saved.get( 0 ).getBucket() );
+
+        /* Only this node's own counters are restored */
+        tracker.start();
+        Assertions.assertEquals( 1, tracker.countIP( IP_1 ) );
+        Assertions.assertEquals( 0, tracker.countIP( IP_2 ) );
+    }
+
+}
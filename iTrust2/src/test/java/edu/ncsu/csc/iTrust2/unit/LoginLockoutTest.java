@@ -0,0 +1,96 @@
+package edu.ncsu.csc.iTrust2.unit;
+
+import java.time.ZonedDateTime;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import edu.ncsu.csc.iTrust2.TestConfig;
+import edu.ncsu.csc.iTrust2.models.security.LoginAttempt;
+import edu.ncsu.csc.iTrust2.models.security.LoginLockout;
+import edu.ncsu.csc.iTrust2.services.security.LoginAttemptService;
+import edu.ncsu.csc.iTrust2.services.security.LoginLockoutService;
+import edu.ncsu.csc.iTrust2.services.security.LoginRecordPurger;
+
+@ExtendWith ( SpringExtension.class )
+@EnableAutoConfiguration
+@SpringBootTest ( classes = TestConfig.class )
+@ActiveProfiles ( { "test" } )
+public class LoginLockoutTest {
+
+    @Autowired
+    private LoginLockoutService lockoutService;
+
+    @Autowired
+    private LoginAttemptService attemptService;
+
+    @Autowired
+    private LoginRecordPurger   purger;
+
+    private static final String IP_1 = "10.0.0.1";
+
+    private static final String IP_2 = "10.0.0.2";
+
+    @BeforeEach
+    public void setup () {
+        lockoutService.deleteAll();
+        attemptService.deleteAll();
+    }
+
+    @Test
+    public void testLockoutWindows () {
+        lockout( IP_1, ZonedDateTime.now().minusMinutes( 5 ) );
+        lockout( IP_1, ZonedDateTime.now().minusHours( 2 ) );
+        lockout( IP_1, ZonedDateTime.now().minusHours( 25 ) );
+        lockout( IP_2, ZonedDateTime.now().minusMinutes( 61 ) );
+
+        Assertions.assertTrue( lockoutService.isIPLocked( IP_1 ) );
+        Assertions.assertFalse( lockoutService.isIPLocked( IP_2 ), "Lockouts should expire after 60 minutes" );
+        Assertions.assertEquals( 2, lockoutService.getRecentIPLockouts( IP_1 ),
+                "Only lockouts within the past day should count towards a ban" );
+        Assertions.assertEquals( 1, lockoutService.getRecentIPLockouts( IP_2 ) );
+    }
+
+    @Test
+    public void testPurge () {
+        for ( int i = 0; i < 3; i++ ) {
+            lockout( IP_1, ZonedDateTime.now().minusHours( 25 + i ) );
+            attempt( IP_1, ZonedDateTime.now().minusHours( 2 + i ) );
+        }
+        lockout( IP_1, ZonedDateTime.now().minusHours( 2 ) );
+        attempt( IP_1, ZonedDateTime.now().minusMinutes( 5 ) );
+
+        purger.purge();
+
+        Assertions.assertEquals( 1, lockoutService.count(), "Lockouts older than a day should be purged" );
+        Assertions.assertEquals( 1, lockoutService.getRecentIPLockouts( IP_1 ) );
+        Assertions.assertEquals( 1, attemptService.count(),
+                "Attempts older than the failed login window should be purged" );
+
+        purger.purge();
+        Assertions.assertEquals( 1, lockoutService.count() );
+        Assertions.assertEquals( 1, attemptService.count() );
+    }
+
+    private void lockout ( final String ip, final ZonedDateTime time ) {
+        final LoginLockout lockout = new LoginLockout();
+        lockout.setIp( ip );
+        lockout.setTime( time );
+        lockoutService.save( lockout );
+    }
+
+    private void attempt ( final String ip, final ZonedDateTime time ) {
+        final LoginAttempt attempt = new LoginAttempt();
+        attempt.setIp( ip );
+        attempt.setTime( time );
+        attemptService.save( attempt );
+    }
+
+}
@@ -8,10 +8,17 @@ import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.Vector;
+import java.util.stream.Collectors;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import javax.transaction.Transactional;
 
+import org.hibernate.Session;
+import org.hibernate.engine.spi.EntityKey;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -19,12 +26,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import edu.ncsu.csc.iTrust2.TestConfig;
+import edu.ncsu.csc.iTrust2.forms.DiagnosisForm;
 import edu.ncsu.csc.iTrust2.forms.OfficeVisitForm;
 import edu.ncsu.csc.iTrust2.forms.OphthalmologyVisitForm;
+import edu.ncsu.csc.iTrust2.forms.PrescriptionForm;
 import edu.ncsu.csc.iTrust2.forms.UserForm;
 import edu.ncsu.csc.iTrust2.models.BasicHealthMetrics;
 import edu.ncsu.csc.iTrust2.models.Diagnosis;
@@ -49,6 +60,7 @@ import edu.ncsu.csc.iTrust2.services.OfficeVisitService;
 import edu.ncsu.csc.iTrust2.services.PatientAdvocateAssignmentService;
 import edu.ncsu.csc.iTrust2.services.PrescriptionService;
 import edu.ncsu.csc.iTrust2.services.UserService;
+import edu.ncsu.csc.iTrust2.utils.RequestSqlStats;
 
 @ExtendWith ( SpringExtension.class )
 @EnableAutoConfiguration
@@ -80,6 +92,9 @@ public class OfficeVisitTest {
     @Autowired
     private PatientAdvocateAssignmentService assignmentService;
 
+    @PersistenceContext
+    private EntityManager                    entityManager;
+
     @BeforeEach
     public void setup () {
         officeVisitService.deleteAll();
@@ -386,4 +401,237 @@ public class OfficeVisitTest {
         Assertions.assertEquals( 20, retrieved.getOphthalmologyMetrics().getVisualAcuityLeft().intValue() );
 
     }
+
+    /**
+     * Building a visit from its form should look up everything the form
+     * refers to in a fixed number of queries, however many prescriptions,
+     * diagnoses and advocates it has
+     */
+    @Test
+    @Transactional
+    public void testBuildQueryCount () {
+        saveReferences();
+
+        final int one = statementsToBuild( 1 );
+        final int three = statementsToBuild( 3 );
+        Assertions.assertEquals( one, three, "Building a bigger visit should not need more queries" );
+    }
+
+    /**
+     * Reading a patient's visits should take a fixed number of queries,
+     * however many visits there are and whatever they refer to
+     */
+    @Test
+    @Transactional
+    public void testReadQueryCount () {
+        saveReferences();
+        final User patient = userService.findByName( "AliceThirteen" );
+
+        officeVisitService.save( officeVisitService.build( visitForm( 3 ) ) );
+        final int one = statementsToRead( patient, 1 );
+
+        for ( int i = 0; i < 3; i++ ) {
+            officeVisitService.save( officeVisitService.build( visitForm( 3 ) ) );
+        }
+        final int four = statementsToRead( patient, 4 );
+        Assertions.assertEquals( one, four, "Reading more visits should not need more queries" );
+    }
+
+    /**
+     * Reading a page of visits should load the collections of the visits on
+     * that page, and of no others, in a fixed number of queries
+     */
+    @Test
+    @Transactional
+    public void testPagedReadQueryCount () {
+        saveReferences();
+        for ( int i = 0; i < 6; i++ ) {
+            officeVisitService.save( officeVisitService.build( visitForm( 3 ) ) );
+        }
+
+        final int first = statementsToReadPage( 0 );
+        final int last = statementsToReadPage( 2 );
+        Assertions.assertEquals( first, last, "Every page should take the same number of queries" );
+    }
+
+    /**
+     * Saves the hospital, advocates, drugs and ICD codes that `visitForm()`
+     * refers to
+     */
+    private void saveReferences () {
+        hospitalService.save( new Hospital( "General Hospital", "123 Main St", "12345", "NC" ) );
+        final Patient patient = (Patient) userService.findByName( "AliceThirteen" );
+        for ( int i = 0; i < 3; i++ ) {
+            final User advocate = new Personnel( new UserForm( "advocate" + i, "123456", Role.ROLE_ADVOCATE, 1 ) );
+            userService.save( advocate );
+            assignmentService.save( new PatientAdvocateAssignment( patient, advocate ) );
+
+            final Drug drug = new Drug();
+            drug.setCode( "1234-5678-0" + i );
+            drug.setName( "Drug " + i );
+            drug.setDescription( "Drug number " + i );
+            drugService.save( drug );
+
+            final ICDCode code = new ICDCode();
+            code.setCode( "T0" + i );
+            code.setDescription( "Code number " + i );
+            icdCodeService.save( code );
+        }
+    }
+
+    /**
+     * Creates a form for a visit with a number of prescriptions, diagnoses and
+     * advocates present
+     *
+     * @param references
+     *            How many of each to include
+     * @return The form
+     */
+    private OfficeVisitForm visitForm ( final int references ) {
+        final OfficeVisitForm form = new OfficeVisitForm();
+        form.setPatient( "AliceThirteen" );
+        form.setHcp( "hcp" );
+        form.setHospital( "General Hospital" );
+        form.setDate( "2048-04-16T09:50:00.000-04:00" );
+        form.setType( AppointmentType.GENERAL_CHECKUP.toString() );
+        form.setNotes( "Building" );
+
+        final List<PrescriptionForm> prescriptions = new ArrayList<PrescriptionForm>();
+        final List<DiagnosisForm> diagnoses = new ArrayList<DiagnosisForm>();
+        final List<String> advocates = new ArrayList<String>();
+        for ( int i = 0; i < references; i++ ) {
+            final PrescriptionForm prescription = new PrescriptionForm();
+            prescription.setDrug( "1234-5678-0" + i );
+            prescription.setPatient( "AliceThirteen" );
+            prescription.setDosage( 10 );
+            prescription.setRenewals( 1 );
+            prescription.setStartDate( "2048-04-16" );
+            prescription.setEndDate( "2048-05-16" );
+            prescriptions.add( prescription );
+
+            final DiagnosisForm diagnosis = new DiagnosisForm();
+            diagnosis.setCode( "T0" + i );
+            diagnosis.setNote( "Note " + i );
+            diagnoses.add( diagnosis );
+
+            advocates.add( "advocate" + i );
+        }
+        form.setPrescriptions( prescriptions );
+        form.setDiagnoses( diagnoses );
+        form.setPatientAdvocatesPresent( advocates );
+        return form;
+    }
+
+    /**
+     * Reads a patient's visits, afresh from the database, and counts the SQL
+     * statements it took
+     *
+     * @param patient
+     *            The patient
+     * @param expected
+     *            How many visits they have
+     * @return Number of statements run
+     */
+    private int statementsToRead ( final User patient, final int expected ) {
+        entityManager.flush();
+        entityManager.clear();
+
+        final List<OfficeVisit> visits;
+        RequestSqlStats.begin();
+        try {
+            visits = officeVisitService.findByPatient( patient );
+        }
+        finally {
+            RequestSqlStats.end();
+        }
+
+        /* Everything should already be loaded */
+        entityManager.clear();
+        Assertions.assertEquals( expected, visits.size() );
+        for ( final OfficeVisit visit : visits ) {
+            Assertions.assertEquals( "General Hospital", visit.getHospital().getName() );
+            Assertions.assertEquals( "hcp", visit.getHcp().getUsername() );
+            Assertions.assertEquals( 3, visit.getPrescriptions().size() );
+            Assertions.assertTrue( visit.getPrescriptions().get( 0 ).getDrug().getName().startsWith( "Drug " ) );
+            Assertions.assertEquals( 3, visit.getDiagnoses().size() );
+            Assertions.assertEquals( 3, visit.getPatientAdvocatesPresent().size() );
+            Assertions.assertEquals( 0, visit.getCptCodes().size() );
+        }
+        return RequestSqlStats.current().getStatements();
+    }
+
+    /**
+     * Reads a page of two visits, afresh from the database, checks that only
+     * the collections of those two were loaded, and counts the SQL statements
+     * it took
+     *
+     * @param page
+     *            Number of the page
+     * @return Number of statements run
+     */
+    private int statementsToReadPage ( final int page ) {
+        entityManager.flush();
+        entityManager.clear();
+
+        final Page<OfficeVisit> visits;
+        RequestSqlStats.begin();
+        try {
+            visits = officeVisitService.findPage( PageRequest.of( page, 2 ) );
+        }
+        finally {
+            RequestSqlStats.end();
+        }
+
+        Assertions.assertEquals( 6, visits.getTotalElements() );
+        Assertions.assertEquals( 2, visits.getNumberOfElements() );
+        final Map<String, Long> loaded = ( (Set< ? >) entityManager.unwrap( Session.class ).getStatistics()
+                .getEntityKeys() ).stream().collect(
+                        Collectors.groupingBy( key -> ( (EntityKey) key ).getEntityName(), Collectors.counting() ) );
+        Assertions.assertEquals( 2L, loaded.get( OfficeVisit.class.getName() ) );
+        Assertions.assertEquals( 6L, loaded.get( Diagnosis.class.getName() ),
+                "Only the diagnoses of the visits on the page should be read" );
+        Assertions.assertEquals( 6L, loaded.get( Prescription.class.getName() ),
+                "Only the prescriptions of the visits on the page should be read" );
+
+        entityManager.clear();
+        for ( final OfficeVisit visit : visits ) {
+            Assertions.assertEquals( 3, visit.getDiagnoses().size() );
+            Assertions.assertEquals( 3, visit.getPrescriptions().size() );
+            Assertions.assertEquals( 3, visit.getPatientAdvocatesPresent().size() );
+            Assertions.assertEquals( 0, visit.getCptCodes().size() );
+        }
+        return RequestSqlStats.current().getStatements();
+    }
+
+    /**
+     * Builds a visit with a number of prescriptions, diagnoses and advocates
+     * present, and counts the SQL statements it took
+     *
+     * @param references
+     *            How many of each to include
+     * @return Number of statements run
+     */
+    private int statementsToBuild ( final int references ) {
+        final OfficeVisitForm form = visitForm( references );
+
+        final OfficeVisit visit;
+        RequestSqlStats.begin();
+        try {
+            visit = officeVisitService.build( form );
+        }
+        finally {
+            RequestSqlStats.end();
+        }
+
+        Assertions.assertEquals( references, visit.getPrescriptions().size() );
+        Assertions.assertEquals( references, visit.getDiagnoses().size() );
+        Assertions.assertEquals( references, visit.getPatientAdvocatesPresent().size() );
+        for ( int i = 0; i < references; i++ ) {
+            Assertions.assertEquals( "Drug " + i, visit.getPrescriptions().get( i ).getDrug().getName() );
+            Assertions.assertEquals( "T0" + i, visit.getDiagnoses().get( i ).getCode().getCode() );
+        }
+        Assertions.assertEquals( 1, RequestSqlStats.current().getMaxRepeats(),
+                "No statement should be run once per prescription, diagnosis or advocate" );
+        return RequestSqlStats.current().getStatements();
+    }
 }
@@ -6,6 +6,7 @@ import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Vector;
+import java.util.concurrent.CountDownLatch;
 
 import javax.transaction.Transactional;
 
@@ -16,12 +17,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import edu.ncsu.csc.iTrust2.TestConfig;
 import edu.ncsu.csc.iTrust2.forms.SatisfactionSurveyForm;
 import edu.ncsu.csc.iTrust2.forms.UserForm;
+import edu.ncsu.csc.iTrust2.forms.display.SatisfactionSurveyNote;
 import edu.ncsu.csc.iTrust2.forms.display.SatisfactionSurveyStatistics;
 import edu.ncsu.csc.iTrust2.models.BasicHealthMetrics;
 import edu.ncsu.csc.iTrust2.models.Diagnosis;
@@ -202,31 +205,107 @@ public class SatisfactionSurveyTest {
         surveyForm.setComments( "It was very good" );
 
         final SatisfactionSurvey survey = satisfactionSurveyService.build( surveyForm );
-        satisfactionSurveyService.save( survey );
+        satisfactionSurveyService.submit( survey, retrieved.getId() );
         Assertions.assertNotNull( survey.getId() );
         Assertions.assertEquals( 1, satisfactionSurveyService.findAll().size() );
 
-        retrieved.setSatisfactionSurvey( survey );
-        officeVisitService.save( retrieved );
-
         retrieved = officeVisitService.findAll().get( 0 );
         Assertions.assertNotNull( retrieved.getSatisfactionSurvey() );
 
+        assertStatistics( visit.getHcp() );
+
+        final List<SatisfactionSurveyNote> notes = satisfactionSurveyService
+                .findNotes( visit.getHcp().getUsername(), PageRequest.of( 0, 10 ) ).getContent();
+        Assertions.assertEquals( 1, notes.size() );
+        Assertions.assertEquals( "It was very good", notes.get( 0 ).getComments() );
+        Assertions.assertEquals( 3, notes.get( 0 ).getAverageSatisfaction().intValue() );
+
+        /* Rebuilding the totals from the surveys gives the same statistics */
+        satisfactionSurveyStatisticsService.rebuild();
+        assertStatistics( visit.getHcp() );
+
+        /* And deleting the survey takes it back out */
+        retrieved.setSatisfactionSurvey( null );
+        officeVisitService.save( retrieved );
+        satisfactionSurveyService.delete( survey );
         final SatisfactionSurveyStatistics statisticsHcp = satisfactionSurveyStatisticsService
                 .findForHcp( visit.getHcp() );
+        Assertions.assertEquals( 0, statisticsHcp.getNumberOfSurveys().intValue() );
+        Assertions.assertEquals( 0, statisticsHcp.getAverageVisitSatisfaction().intValue() );
+        Assertions.assertNull( statisticsHcp.getAverageWaitingRoomTime() );
+    }
+
+    /**
+     * Several surveys recorded at once for an HCP with no totals yet should
+     * all be counted, rather than all but one failing to create the totals.
+     * Not transactional, so that each survey is recorded in a transaction of
+     * its own.
+     *
+     * @throws InterruptedException
+     */
+    @Test
+    public void testConcurrentFirstSurveys () throws InterruptedException {
+        final User hcp = new Personnel( new UserForm( "firstSurveyHcp", "123456", Role.ROLE_HCP, 1 ) );
+        userService.save( hcp );
+        final int threads = 8;
+        final List<Throwable> failures = new Vector<Throwable>();
+        final CountDownLatch go = new CountDownLatch( 1 );
+        try {
+            final List<Thread> workers = new ArrayList<Thread>();
+            for ( int i = 0; i < threads; i++ ) {
+                final SatisfactionSurvey survey = new SatisfactionSurvey();
+                survey.setHcp( hcp );
+                survey.setPatient( userService.findByName( "AliceThirteen" ) );
+                survey.setVisitSatisfaction( 4 );
+                survey.setTreatmentSatisfaction( 3 );
+                survey.setWaitingRoomTime( WaitTime.FIVE_TO_TEN );
+                survey.setExaminationResponseTime( WaitTime.FIFTEEN_TO_TWENTY );
+                final Thread t = new Thread( () -> {
+                    try {
+                        go.await();
+                        satisfactionSurveyStatisticsService.record( survey );
+                    }
+                    catch ( final Throwable e ) {
+                        failures.add( e );
+                    }
+                } );
+                workers.add( t );
+                t.start();
+            }
+            go.countDown();
+            for ( final Thread t : workers ) {
+                t.join();
+            }
+
+            Assertions.assertEquals( List.of(), failures, "Every first survey should be recorded" );
+            final SatisfactionSurveyStatistics statistics = satisfactionSurveyStatisticsService.findForHcp( hcp );
+            Assertions.assertEquals( threads, statistics.getNumberOfSurveys().intValue() );
+            Assertions.assertEquals( 4, statistics.getAverageVisitSatisfaction().intValue() );
+        }
+        finally {
+            /* None of the surveys were saved, so this clears their totals */
+            satisfactionSurveyStatisticsService.rebuild();
+            userService.delete( hcp );
+        }
+    }
+
+    /**
+     * Checks the statistics for the HCP of the survey left in
+     * `testSurveyFlow()`
+     *
+     * @param hcp
+     *            The HCP
+     */
+    private void assertStatistics ( final User hcp ) {
+        final SatisfactionSurveyStatistics statisticsHcp = satisfactionSurveyStatisticsService.findForHcp( hcp );
         Assertions.assertNotNull( statisticsHcp );
 
-        Assertions.assertEquals( visit.getHcp().getUsername(), statisticsHcp.getHcp().getUsername() );
+        Assertions.assertEquals( hcp.getUsername(), statisticsHcp.getHcp().getUsername() );
+        Assertions.assertEquals( 1, statisticsHcp.getNumberOfSurveys().intValue() );
         Assertions.assertEquals( 4, statisticsHcp.getAverageVisitSatisfaction().intValue() );
         Assertions.assertEquals( 3, statisticsHcp.getAverageTreatmentSatisfaction().intValue() );
         Assertions.assertEquals( WaitTime.FIVE_TO_TEN, statisticsHcp.getAverageWaitingRoomTime() );
         Assertions.assertEquals( WaitTime.FIFTEEN_TO_TWENTY, statisticsHcp.getAverageExaminationResponseTime() );
-
-        Assertions.assertNotNull( statisticsHcp.getNotes() );
-        Assertions.assertEquals( 1, statisticsHcp.getNotes().size() );
-        Assertions.assertEquals( "It was very good", statisticsHcp.getNotes().get( 0 ).getComments() );
-        Assertions.assertEquals( 3, statisticsHcp.getNotes().get( 0 ).getAverageSatisfaction().intValue() );
-
     }
 
 }
@@ -2,6 +2,10 @@ package edu.ncsu.csc.iTrust2.unit;
 
 import java.util.List;
 
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,6 +18,7 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.transaction.annotation.Transactional;
 
 import edu.ncsu.csc.iTrust2.TestConfig;
+import edu.ncsu.csc.iTrust2.config.UserCacheConfiguration;
 import edu.ncsu.csc.iTrust2.forms.UserForm;
 import edu.ncsu.csc.iTrust2.models.Patient;
 import edu.ncsu.csc.iTrust2.models.Personnel;
@@ -32,7 +37,10 @@ import edu.ncsu.csc.iTrust2.services.UserService;
 public class UserTest {
 
     @Autowired
-    private UserService<User>   service;
+    private UserService<User>    service;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
 
     private static final String USER_1 = "testUser1";
 
@@ -137,4 +145,52 @@ public class UserTest {
             // expected
         }
     }
+
+    private long hits ( final String region ) {
+        return regionStatistics( region ).getHitCount();
+    }
+
+    private long misses ( final String region ) {
+        return regionStatistics( region ).getMissCount();
+    }
+
+    private CacheRegionStatistics regionStatistics ( final String region ) {
+        return entityManagerFactory.unwrap( SessionFactory.class ).getStatistics()
+                .getDomainDataRegionStatistics( region );
+    }
+
+    /**
+     * Tests that users and their roles are served from the second-level cache
+     * once loaded, that changes are seen, and that evicting a user makes the
+     * next lookup read the database. Not transactional, so that each lookup
+     * is made in a new session, and entries are cached as each save commits.
+     */
+    @Test
+    public void testSecondLevelCache () {
+        service.save( new Personnel( new UserForm( USER_1, PW, Role.ROLE_HCP, 1 ) ) );
+        service.evict( USER_1 );
+
+        final long userMisses = misses( UserCacheConfiguration.USER_REGION );
+        Assertions.assertEquals( 1, service.findByName( USER_1 ).getRoles().size() );
+        Assertions.assertEquals( userMisses + 1, misses( UserCacheConfiguration.USER_REGION ),
+                "The first lookup after evicting a user should read the database" );
+
+        final long userHits = hits( UserCacheConfiguration.USER_REGION );
+        final long roleHits = hits( UserCacheConfiguration.ROLES_REGION );
+        final User cached = service.findByName( USER_1 );
+        Assertions.assertTrue( cached instanceof Personnel, "A cached user should keep its type" );
+        Assertions.assertEquals( 1, cached.getRoles().size() );
+        Assertions.assertEquals( userHits + 1, hits( UserCacheConfiguration.USER_REGION ),
+                "Looking up a user again should be served from the cache" );
+        Assertions.assertEquals( roleHits + 1, hits( UserCacheConfiguration.ROLES_REGION ),
+                "The user's roles should be served from the cache too" );
+
+        cached.addRole( Role.ROLE_ER );
+        service.save( cached );
+        Assertions.assertEquals( 2, service.findByName( USER_1 ).getRoles().size(),
+                "Saving a user should update the cached copy" );
+
+        service.delete( service.findByName( USER_1 ) );
+        Assertions.assertNull( service.findByName( USER_1 ), "A deleted user should not be found in the cache" );
+    }
 }
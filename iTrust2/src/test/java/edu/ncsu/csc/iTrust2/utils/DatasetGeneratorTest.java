@@ -0,0 +1,164 @@
+package edu.ncsu.csc.iTrust2.utils;
+
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import edu.ncsu.csc.iTrust2.TestConfig;
+import edu.ncsu.csc.iTrust2.common.DBUtils;
+import edu.ncsu.csc.iTrust2.models.OfficeVisit;
+import edu.ncsu.csc.iTrust2.models.Patient;
+import edu.ncsu.csc.iTrust2.models.User;
+import edu.ncsu.csc.iTrust2.models.enums.TransactionType;
+import edu.ncsu.csc.iTrust2.models.security.LogEntry;
+import edu.ncsu.csc.iTrust2.services.BillService;
+import edu.ncsu.csc.iTrust2.services.OfficeVisitService;
+import edu.ncsu.csc.iTrust2.services.PatientService;
+import edu.ncsu.csc.iTrust2.services.VaccineVisitService;
+import edu.ncsu.csc.iTrust2.services.security.LogEntryService;
+import edu.ncsu.csc.iTrust2.utils.datagen.DatasetGenerator;
+import edu.ncsu.csc.iTrust2.utils.datagen.DatasetSpec;
+
+/**
+ * Tests the synthetic data set generator
+ *
+ * @author Kai Presler-Marshall
+ *
+ */
+@ExtendWith ( SpringExtension.class )
+@EnableAutoConfiguration
+@SpringBootTest ( classes = TestConfig.class )
+@ActiveProfiles ( { "test" } )
+public class DatasetGeneratorTest {
+
+    private static final int        PATIENTS = 40;
+
+    @Autowired
+    private DatasetGenerator        generator;
+
+    @Autowired
+    private DataSource              dataSource;
+
+    @Autowired
+    private EntityManagerFactory    entityManagerFactory;
+
+    @Autowired
+    private PatientService<Patient> patientService;
+
+    @Autowired
+    private OfficeVisitService      officeVisitService;
+
+    @Autowired
+    private BillService             billService;
+
+    @Autowired
+    private VaccineVisitService     vaccineVisitService;
+
+    @Autowired
+    private LogEntryService         logEntryService;
+
+    @BeforeEach
+    public void setup () {
+        DBUtils.resetDB( dataSource, entityManagerFactory );
+    }
+
+    private DatasetSpec spec ( final int partitions ) {
+        final DatasetSpec spec = new DatasetSpec();
+        spec.setPatients( PATIENTS );
+        spec.setPersonnel( 12 );
+        spec.setHospitals( 3 );
+        spec.setCptCodes( 10 );
+        spec.setVisitsPerPatient( "uniform:1:3" );
+        spec.setVaccineVisitsPerPatient( "fixed:1" );
+        spec.setLogEntriesPerPatient( "fixed:5" );
+        spec.setPartitions( partitions );
+        /* Small batches, so that batches fill up part way through a patient */
+        spec.setBatchSize( 7 );
+        return spec;
+    }
+
+    @Test
+    public void testGenerate () {
+        generator.generate( spec( 3 ) );
+
+        Assertions.assertEquals( PATIENTS, patientService.count() );
+        final long visits = officeVisitService.count();
+        Assertions.assertTrue( visits >= PATIENTS && visits <= 3 * PATIENTS,
+                "Each patient should have between one and three office visits" );
+        Assertions.assertEquals( PATIENTS, vaccineVisitService.count() );
+        Assertions.assertEquals( visits + PATIENTS, billService.count(), "Every visit should be billed" );
+        Assertions.assertEquals( 5 * PATIENTS, logEntryService.count() );
+
+        for ( final OfficeVisit visit : officeVisitService.findAll() ) {
+            final Patient patient = (Patient) visit.getPatient();
+            final long age = ChronoUnit.YEARS.between( patient.getDateOfBirth(), visit.getDate().toLocalDate() );
+            Assertions.assertNotNull( visit.getBasicHealthMetrics() );
+            Assertions.assertNotNull( visit.getHospital() );
+            /* Each check throws if the metrics required at that age are missing */
+            if ( age < 3 ) {
+                visit.validateUnder3();
+            }
+            else if ( age < 12 ) {
+                visit.validateUnder12();
+            }
+            else {
+                visit.validate12AndOver();
+            }
+        }
+
+        /* IDs reserved for generated records must not be handed out again */
+        logEntryService.save( new LogEntry( TransactionType.LOGIN_SUCCESS, DatasetGenerator.PATIENT_PREFIX + 0, null,
+                "After generating" ) );
+        Assertions.assertEquals( 5 * PATIENTS + 1, logEntryService.count() );
+
+        Assertions.assertThrows( IllegalStateException.class, () -> generator.generate( spec( 1 ) ),
+                "Generating into a database that already has a data set should fail" );
+    }
+
+    @Test
+    public void testDeterministic () {
+        generator.generate( spec( 1 ) );
+        final List<String> once = describe();
+
+        DBUtils.resetDB( dataSource, entityManagerFactory );
+        generator.generate( spec( 4 ) );
+        Assertions.assertEquals( once, describe(),
+                "The same seed should give the same data, however many partitions are used" );
+
+        DBUtils.resetDB( dataSource, entityManagerFactory );
+        final DatasetSpec reseeded = spec( 4 );
+        reseeded.setSeed( 7 );
+        generator.generate( reseeded );
+        Assertions.assertNotEquals( once, describe(), "A different seed should give different data" );
+    }
+
+    private List<String> describe () {
+        final List<String> described = new ArrayList<String>();
+        for ( int i = 0; i < PATIENTS; i++ ) {
+            final User patient = patientService.findByName( DatasetGenerator.PATIENT_PREFIX + i );
+            final List<OfficeVisit> visits = officeVisitService.findByPatient( patient );
+            visits.sort( Comparator.comparing( OfficeVisit::getDate ) );
+            for ( final OfficeVisit visit : visits ) {
+                described.add( patient.getUsername() + " " + visit.getDate().toInstant() + " "
+                        + visit.getHcp().getUsername() + " " + visit.getHospital().getName() + " "
+                        + visit.getBasicHealthMetrics().getWeight() );
+            }
+        }
+        return described;
+    }
+
+}
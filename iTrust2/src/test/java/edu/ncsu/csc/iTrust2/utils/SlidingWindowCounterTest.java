@@ -0,0 +1,124 @@
+package edu.ncsu.csc.iTrust2.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the SlidingWindowCounter used to count failed logins
+ *
+ * @author Kai Presler-Marshall
+ *
+ */
+public class SlidingWindowCounterTest {
+
+    private static final long MINUTE = 60 * 1000L;
+
+    @Test
+    public void testWindowExpiry () {
+        final SlidingWindowCounter counter = new SlidingWindowCounter( 60, MINUTE );
+        final long start = 1000 * MINUTE;
+
+        Assertions.assertEquals( 1, counter.increment( "1.2.3.4", start ) );
+        Assertions.assertEquals( 2, counter.increment( "1.2.3.4", start + 10 * MINUTE ) );
+        Assertions.assertEquals( 1, counter.increment( "5.6.7.8", start ) );
+
+        /* First failure has aged out, second has not */
+        Assertions.assertEquals( 1, counter.count( "1.2.3.4", start + 60 * MINUTE ) );
+        Assertions.assertEquals( 0, counter.count( "1.2.3.4", start + 70 * MINUTE ) );
+
+        counter.evictExpired( start + 70 * MINUTE );
+        Assertions.assertEquals( 0, counter.size(), "Keys with nothing in the window should be dropped" );
+    }
+
+    @Test
+    public void testTripAndReset () {
+        final SlidingWindowCounter counter = new SlidingWindowCounter( 60, MINUTE );
+        final long now = 1000 * MINUTE;
+
+        /* Threshold of 2 allows two failures; the third trips */
+        Assertions.assertFalse( counter.incrementAndTrip( "alice", 2, now ) );
+        Assertions.assertFalse( counter.incrementAndTrip( "alice", 2, now ) );
+        Assertions.assertTrue( counter.incrementAndTrip( "alice", 2, now ) );
+        Assertions.assertEquals( 0, counter.count( "alice", now ), "Tripping should clear the key" );
+
+        counter.increment( "bob", now );
+        counter.reset( "bob" );
+        Assertions.assertEquals( 0, counter.count( "bob", now ) );
+    }
+
+    @Test
+    public void testSnapshotAndRestore () {
+        final SlidingWindowCounter counter = new SlidingWindowCounter( 60, MINUTE );
+        final long now = 1000 * MINUTE;
+        counter.increment( "1.2.3.4", now - 5 * MINUTE );
+        counter.increment( "1.2.3.4", now );
+        counter.increment( "1.2.3.4", now );
+
+        final Map<Long, Long> buckets = new HashMap<Long, Long>();
+        counter.forEachBucket( now, ( key, epoch, count ) -> buckets.put( epoch, count ) );
+        Assertions.assertEquals( 2, buckets.size() );
+
+        final SlidingWindowCounter restored = new SlidingWindowCounter( 60, MINUTE );
+        buckets.forEach( ( epoch, count ) -> restored.restore( "1.2.3.4", epoch, count, now ) );
+        Assertions.assertEquals( 3, restored.count( "1.2.3.4", now ) );
+
+        /* Buckets older than the window are not restored */
+        restored.restore( "9.9.9.9", now / MINUTE - 90, 4, now );
+        Assertions.assertEquals( 0, restored.count( "9.9.9.9", now ) );
+    }
+
+    /**
+     * Many threads failing against the same key at once: the count must not
+     * lose updates, and exactly one thread must be told to lock out each time
+     * the threshold is crossed.
+     */
+    @Test
+    public void testConcurrentTrip () throws InterruptedException {
+        final SlidingWindowCounter counter = new SlidingWindowCounter( 60, MINUTE );
+        final long now = 1000 * MINUTE;
+        final int threads = 16;
+        final int perThread = 600;
+        final AtomicInteger trips = new AtomicInteger();
+        final CountDownLatch go = new CountDownLatch( 1 );
+
+        final List<Thread> workers = new ArrayList<Thread>();
+        for ( int i = 0; i < threads; i++ ) {
+            final Thread t = new Thread( () -> {
+                try {
+                    go.await();
+                }
+                catch ( final InterruptedException e ) {
+                    return;
+                }
+                for ( int j = 0; j < perThread; j++ ) {
+                    if ( counter.incrementAndTrip( "10.0.0.1", 5, now ) ) {
+                        trips.incrementAndGet();
+                    }
+                }
+            } );
+            workers.add( t );
+            t.start();
+        }
+        go.countDown();
+        for ( final Thread t : workers ) {
+            t.join();
+        }
+
+        /*
+         * Each trip consumes at least six failures, and no more than six can be
+         * left over afterwards
+         */
+        final int total = threads * perThread;
+        Assertions.assertTrue( trips.get() > 0 );
+        Assertions.assertTrue( trips.get() * 6 <= total, "A failure should never count towards two lockouts" );
+        Assertions.assertTrue( counter.count( "10.0.0.1", now ) <= 6 );
+    }
+
+}